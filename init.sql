@@ -104,6 +104,10 @@ CREATE TABLE IF NOT EXISTS public_appointment (
     name VARCHAR(50) NOT NULL,                            -- 姓名
     id_card_encrypted VARCHAR(200) NOT NULL,              -- 加密后的身份证号
     phone_encrypted VARCHAR(200) NOT NULL,                -- 加密后的手机号
+    id_card_bidx VARCHAR(64),                             -- 身份证号盲索引（HMAC-SM3）
+    phone_bidx VARCHAR(64),                               -- 手机号盲索引（HMAC-SM3）
+    id_card_masked VARCHAR(32),                           -- 脱敏后的身份证号
+    phone_masked VARCHAR(32),                             -- 脱敏后的手机号
     transportation VARCHAR(50) NOT NULL,                  -- 交通方式
     plate_number VARCHAR(20),                             -- 车牌号（可选）
     visitors INTEGER NOT NULL DEFAULT 1,                  -- 访问人数
@@ -122,6 +126,10 @@ COMMENT ON COLUMN public_appointment.organization IS '所在单位';
 COMMENT ON COLUMN public_appointment.name IS '姓名';
 COMMENT ON COLUMN public_appointment.id_card_encrypted IS '加密后的身份证号';
 COMMENT ON COLUMN public_appointment.phone_encrypted IS '加密后的手机号';
+COMMENT ON COLUMN public_appointment.id_card_bidx IS '身份证号盲索引';
+COMMENT ON COLUMN public_appointment.phone_bidx IS '手机号盲索引';
+COMMENT ON COLUMN public_appointment.id_card_masked IS '脱敏后的身份证号';
+COMMENT ON COLUMN public_appointment.phone_masked IS '脱敏后的手机号';
 COMMENT ON COLUMN public_appointment.transportation IS '交通方式';
 COMMENT ON COLUMN public_appointment.plate_number IS '车牌号';
 COMMENT ON COLUMN public_appointment.visitors IS '访问人数';
@@ -130,6 +138,9 @@ COMMENT ON COLUMN public_appointment.status IS '状态';
 COMMENT ON COLUMN public_appointment.create_time IS '创建时间';
 COMMENT ON COLUMN public_appointment.update_time IS '更新时间';
 
+-- 创建盲索引查询索引
+CREATE INDEX IF NOT EXISTS idx_public_appointment_bidx ON public_appointment(id_card_bidx, phone_bidx);
+
 -- 创建更新时间触发器函数
 CREATE OR REPLACE FUNCTION update_public_appointment_update_time()
 RETURNS TRIGGER AS $$
@@ -154,6 +165,10 @@ CREATE TABLE IF NOT EXISTS official_appointment (
     name VARCHAR(50) NOT NULL,                            -- 姓名
     id_card_encrypted VARCHAR(200) NOT NULL,              -- 加密后的身份证号
     phone_encrypted VARCHAR(200) NOT NULL,                -- 加密后的手机号
+    id_card_bidx VARCHAR(64),                             -- 身份证号盲索引（HMAC-SM3）
+    phone_bidx VARCHAR(64),                               -- 手机号盲索引（HMAC-SM3）
+    id_card_masked VARCHAR(32),                           -- 脱敏后的身份证号
+    phone_masked VARCHAR(32),                             -- 脱敏后的手机号
     transportation VARCHAR(50) NOT NULL,                  -- 交通方式
     plate_number VARCHAR(20),                             -- 车牌号（可选）
     visitors INTEGER NOT NULL DEFAULT 1,                  -- 访问人数
@@ -179,6 +194,10 @@ COMMENT ON COLUMN official_appointment.organization IS '所在单位';
 COMMENT ON COLUMN official_appointment.name IS '姓名';
 COMMENT ON COLUMN official_appointment.id_card_encrypted IS '加密后的身份证号';
 COMMENT ON COLUMN official_appointment.phone_encrypted IS '加密后的手机号';
+COMMENT ON COLUMN official_appointment.id_card_bidx IS '身份证号盲索引';
+COMMENT ON COLUMN official_appointment.phone_bidx IS '手机号盲索引';
+COMMENT ON COLUMN official_appointment.id_card_masked IS '脱敏后的身份证号';
+COMMENT ON COLUMN official_appointment.phone_masked IS '脱敏后的手机号';
 COMMENT ON COLUMN official_appointment.transportation IS '交通方式';
 COMMENT ON COLUMN official_appointment.plate_number IS '车牌号';
 COMMENT ON COLUMN official_appointment.visitors IS '访问人数';
@@ -192,6 +211,9 @@ COMMENT ON COLUMN official_appointment.approve_time IS '审核时间';
 COMMENT ON COLUMN official_appointment.create_time IS '创建时间';
 COMMENT ON COLUMN official_appointment.update_time IS '更新时间';
 
+-- 创建盲索引查询索引
+CREATE INDEX IF NOT EXISTS idx_official_appointment_bidx ON official_appointment(id_card_bidx, phone_bidx);
+
 -- 创建更新时间触发器函数
 CREATE OR REPLACE FUNCTION update_official_appointment_update_time()
 RETURNS TRIGGER AS $$
@@ -0,0 +1,56 @@
+package com.example.javawebcurriculumdesign.benchmark;
+
+import java.util.Random;
+
+/**
+ * 基准测试数据生成（固定随机种子，每次运行的数据相同）
+ */
+final class BenchmarkData {
+    private static final String CHINESE_NAME_CHARS = "张王李赵刘陈杨黄周吴徐孙马朱胡郭何林高罗郑梁谢宋唐许邓冯韩曹曾彭萧蔡潘田董袁于余叶蒋杜苏魏程吕丁沈任姚卢傅钟";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成指定字节数的ASCII明文
+     */
+    static String payload(int size) {
+        Random random = new Random(size);
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 生成身份证号格式的字符串
+     */
+    static String idCard(Random random) {
+        StringBuilder sb = new StringBuilder(18);
+        sb.append(110101).append(1950 + random.nextInt(60));
+        sb.append(String.format("%02d%02d", 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        sb.append(String.format("%03d", random.nextInt(1000)));
+        sb.append(random.nextInt(11) == 10 ? 'X' : (char) ('0' + random.nextInt(10)));
+        return sb.toString();
+    }
+
+    /**
+     * 生成手机号格式的字符串
+     */
+    static String phone(Random random) {
+        return "1" + (3 + random.nextInt(7)) + String.format("%09d", random.nextInt(1_000_000_000));
+    }
+
+    /**
+     * 生成2到4个字的中文姓名
+     */
+    static String name(Random random) {
+        int length = 2 + random.nextInt(3);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(CHINESE_NAME_CHARS.charAt(random.nextInt(CHINESE_NAME_CHARS.length())));
+        }
+        return sb.toString();
+    }
+}
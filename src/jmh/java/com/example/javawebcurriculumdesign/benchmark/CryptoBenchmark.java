@@ -0,0 +1,76 @@
+package com.example.javawebcurriculumdesign.benchmark;
+
+import com.example.javawebcurriculumdesign.util.CryptoConfig;
+import com.example.javawebcurriculumdesign.util.SMUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SMUtil单个字段的哈希和加解密基准测试
+ * payloadSize为明文长度（字节）；sm4*PerCall使用指定密钥的重载，每次调用都重新创建密码对象并扩展密钥，
+ * 作为默认密钥路径（线程复用的SM4Context）的对照。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+
+    @Param({"18", "256", "4096"})
+    public int payloadSize;
+
+    private String plaintext;
+    private String ciphertext;
+    private String perCallCiphertext;
+    private byte[] hmacKey;
+    private byte[] sm4Key;
+    private byte[] sm4Iv;
+
+    @Setup
+    public void setup() throws Exception {
+        plaintext = BenchmarkData.payload(payloadSize);
+        hmacKey = CryptoConfig.getLogHmacKey();
+        sm4Key = CryptoConfig.getSM4Key();
+        sm4Iv = CryptoConfig.getSM4IV();
+        ciphertext = SMUtil.sm4Encrypt(plaintext);
+        perCallCiphertext = SMUtil.sm4Encrypt(plaintext, sm4Key, sm4Iv);
+    }
+
+    @Benchmark
+    public String sm3() {
+        return SMUtil.sm3(plaintext);
+    }
+
+    @Benchmark
+    public String hmacSM3() {
+        return SMUtil.hmacSM3(plaintext, hmacKey);
+    }
+
+    @Benchmark
+    public String blindIndex() {
+        return SMUtil.blindIndex(plaintext);
+    }
+
+    @Benchmark
+    public String sm4Encrypt() throws Exception {
+        return SMUtil.sm4Encrypt(plaintext);
+    }
+
+    @Benchmark
+    public String sm4Decrypt() throws Exception {
+        return SMUtil.sm4Decrypt(ciphertext);
+    }
+
+    @Benchmark
+    public String sm4EncryptPerCall() throws Exception {
+        return SMUtil.sm4Encrypt(plaintext, sm4Key, sm4Iv);
+    }
+
+    @Benchmark
+    public String sm4DecryptPerCall() throws Exception {
+        return SMUtil.sm4Decrypt(perCallCiphertext, sm4Key, sm4Iv);
+    }
+}
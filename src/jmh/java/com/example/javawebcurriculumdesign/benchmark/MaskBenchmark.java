@@ -0,0 +1,95 @@
+package com.example.javawebcurriculumdesign.benchmark;
+
+import com.example.javawebcurriculumdesign.util.SMUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 脱敏和批量解密脱敏基准测试
+ * batchSize为一次查询结果的记录数：decryptAndMaskSerial在调用线程中依次解密脱敏（原DAO序列化时的做法），
+ * decryptAndMaskBulk使用SMUtil.decryptAndMaskAll（超过阈值时并行）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int batchSize;
+
+    private String idCard;
+    private String phone;
+    private String name;
+    private List<Row> rows;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        idCard = BenchmarkData.idCard(random);
+        phone = BenchmarkData.phone(random);
+        name = BenchmarkData.name(random);
+
+        rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            rows.add(new Row(SMUtil.sm4Encrypt(BenchmarkData.idCard(random)), SMUtil.sm4Encrypt(BenchmarkData.phone(random))));
+        }
+    }
+
+    @Benchmark
+    public void maskFields(Blackhole blackhole) {
+        blackhole.consume(SMUtil.maskIdCard(idCard));
+        blackhole.consume(SMUtil.maskPhone(phone));
+        blackhole.consume(SMUtil.maskName(name));
+    }
+
+    @Benchmark
+    public List<Row> decryptAndMaskSerial() {
+        for (Row row : rows) {
+            row.resolve();
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public List<Row> decryptAndMaskBulk() {
+        SMUtil.decryptAndMaskAll(rows, Row::resolve);
+        return rows;
+    }
+
+    @TearDown
+    public void tearDown() {
+        SMUtil.shutdownBulkPool();
+    }
+
+    /**
+     * 模拟一条查询结果：身份证号、手机号密文及其脱敏值
+     */
+    public static class Row {
+        private final String idCardEncrypted;
+        private final String phoneEncrypted;
+        private String idCardMasked;
+        private String phoneMasked;
+
+        Row(String idCardEncrypted, String phoneEncrypted) {
+            this.idCardEncrypted = idCardEncrypted;
+            this.phoneEncrypted = phoneEncrypted;
+        }
+
+        void resolve() {
+            try {
+                idCardMasked = SMUtil.maskIdCard(SMUtil.sm4Decrypt(idCardEncrypted));
+                phoneMasked = SMUtil.maskPhone(SMUtil.sm4Decrypt(phoneEncrypted));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.javawebcurriculumdesign.benchmark;
+
+import com.example.javawebcurriculumdesign.util.QRCodeUtil;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通行码二维码生成基准测试
+ * legacyPng为按模块渲染之前的实现（按像素setRGB后经ImageIO编码），作为png、svg、rasterImage的对照。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QRCodeBenchmark {
+    private static final Color FOREGROUND = new Color(138, 43, 226);
+    private static final Color BACKGROUND = Color.WHITE;
+
+    @Param({"200", "300", "600"})
+    public int size;
+
+    private String content;
+
+    @Setup
+    public void setup() {
+        // 与通行码内容长度相当：预约类型、ID和签名
+        content = "PASS:OFFICIAL:123456:" + BenchmarkData.payload(64);
+        ImageIO.setUseCache(false);
+    }
+
+    @Benchmark
+    public byte[] png() throws Exception {
+        return QRCodeUtil.generateQRCodePng(content, size, size, FOREGROUND, BACKGROUND);
+    }
+
+    @Benchmark
+    public String svg() throws Exception {
+        return QRCodeUtil.generateQRCodeSvg(content, size, size, FOREGROUND, BACKGROUND);
+    }
+
+    @Benchmark
+    public BufferedImage rasterImage() throws Exception {
+        return QRCodeUtil.generateQRCode(content, size, size, FOREGROUND, BACKGROUND);
+    }
+
+    @Benchmark
+    public byte[] legacyPng() throws Exception {
+        Map<EncodeHintType, Object> hints = new HashMap<>();
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+        hints.put(EncodeHintType.MARGIN, 1);
+
+        BitMatrix bitMatrix = new MultiFormatWriter().encode(content, BarcodeFormat.QR_CODE, size, size, hints);
+
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                image.setRGB(x, y, bitMatrix.get(x, y) ? FOREGROUND.getRGB() : BACKGROUND.getRGB());
+            }
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+}
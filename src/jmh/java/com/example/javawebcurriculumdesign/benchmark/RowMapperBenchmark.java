@@ -0,0 +1,300 @@
+package com.example.javawebcurriculumdesign.benchmark;
+
+import com.example.javawebcurriculumdesign.model.OfficialAppointment;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结果集行映射基准测试
+ * 在内存结果集上映射公务预约，不需要数据库：
+ * mapByName按列名逐列读取（BaseDao改为按列序号映射之前的做法），可选的关联列不存在时抛出并捕获SQLException；
+ * mapByCachedIndex与BaseDao.bindColumns相同，按SQL缓存列序号计划，逐行按序号读取，可选列序号为0时直接跳过。
+ * query=single为单表查询（不含关联列），query=joined为联表查询（含部门名称、审核人姓名）。
+ * 两种映射都经过同一个动态代理结果集，代理的调用开销相同，差异来自列名查找和异常。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final String[] TABLE_COLUMNS = {
+            "appointment_id", "campus", "visit_time", "organization",
+            "name", "id_card_encrypted", "phone_encrypted", "transportation",
+            "plate_number", "visitors", "visit_dept_id", "visit_contact",
+            "visit_reason", "apply_time", "status", "approver_id",
+            "approve_time", "create_time", "update_time"
+    };
+    private static final String[] JOIN_COLUMNS = {"visit_dept_name", "approver_name"};
+
+    // 映射器读取的列，与OfficialAppointmentDao的映射器一致
+    private static final String[] MAPPER_COLUMNS = {
+            "appointment_id", "campus", "visit_time", "organization",
+            "name", "id_card_encrypted", "phone_encrypted", "transportation",
+            "plate_number", "visitors", "visit_dept_id", "visit_contact",
+            "visit_reason", "apply_time", "status", "approver_id",
+            "approve_time", "create_time", "update_time",
+            "visit_dept_name", "approver_name"
+    };
+
+    // 列序号计划缓存（对应BaseDao的COLUMN_PLAN_CACHE）
+    private static final Map<String, int[]> COLUMN_PLAN_CACHE = new ConcurrentHashMap<>();
+
+    @Param({"50000"})
+    public int rows;
+
+    @Param({"single", "joined"})
+    public String query;
+
+    private InMemoryResult result;
+
+    @Setup
+    public void setup() {
+        String[] columns = "joined".equals(query) ? concat(TABLE_COLUMNS, JOIN_COLUMNS) : TABLE_COLUMNS;
+        Random random = new Random(42);
+        long baseTime = Timestamp.valueOf("2025-01-01 08:00:00").getTime();
+
+        Object[][] data = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            Timestamp visitTime = new Timestamp(baseTime + random.nextInt(365) * 86_400_000L);
+            Object[] row = new Object[columns.length];
+            row[0] = i + 1;
+            row[1] = random.nextBoolean() ? "屯溪路校区" : "翡翠湖校区";
+            row[2] = visitTime;
+            row[3] = "单位" + random.nextInt(1000);
+            row[4] = BenchmarkData.name(random);
+            row[5] = BenchmarkData.payload(64);
+            row[6] = BenchmarkData.payload(44);
+            row[7] = random.nextBoolean() ? "步行" : "自驾";
+            row[8] = null;
+            row[9] = 1 + random.nextInt(5);
+            row[10] = 1 + random.nextInt(20);
+            row[11] = BenchmarkData.name(random);
+            row[12] = "公务来访";
+            row[13] = new Timestamp(visitTime.getTime() - 86_400_000L);
+            row[14] = "APPROVED";
+            row[15] = 1 + random.nextInt(10);
+            row[16] = visitTime;
+            row[17] = visitTime;
+            row[18] = visitTime;
+            if (columns.length > TABLE_COLUMNS.length) {
+                row[19] = "部门" + row[10];
+                row[20] = BenchmarkData.name(random);
+            }
+            data[i] = row;
+        }
+        result = new InMemoryResult(columns, data);
+    }
+
+    @Benchmark
+    public void mapByName(Blackhole blackhole) throws SQLException {
+        ResultSet rs = result.open();
+        while (rs.next()) {
+            blackhole.consume(mapByName(rs));
+        }
+    }
+
+    @Benchmark
+    public void mapByCachedIndex(Blackhole blackhole) throws SQLException {
+        ResultSet rs = result.open();
+        int[] idx = bindColumns(query, rs);
+        while (rs.next()) {
+            blackhole.consume(mapByIndex(rs, idx));
+        }
+    }
+
+    /**
+     * 按列名映射（改为按列序号映射之前的OfficialAppointmentRowMapper）
+     */
+    private static OfficialAppointment mapByName(ResultSet rs) throws SQLException {
+        OfficialAppointment appointment = new OfficialAppointment();
+        appointment.setAppointmentId(rs.getInt("appointment_id"));
+        appointment.setCampus(rs.getString("campus"));
+        appointment.setVisitTime(rs.getTimestamp("visit_time"));
+        appointment.setOrganization(rs.getString("organization"));
+        appointment.setName(rs.getString("name"));
+        appointment.setIdCardEncrypted(rs.getString("id_card_encrypted"));
+        appointment.setPhoneEncrypted(rs.getString("phone_encrypted"));
+        appointment.setTransportation(rs.getString("transportation"));
+        appointment.setPlateNumber(rs.getString("plate_number"));
+        appointment.setVisitors(rs.getInt("visitors"));
+        appointment.setVisitDeptId(rs.getInt("visit_dept_id"));
+        appointment.setVisitContact(rs.getString("visit_contact"));
+        appointment.setVisitReason(rs.getString("visit_reason"));
+        appointment.setApplyTime(rs.getTimestamp("apply_time"));
+        appointment.setStatus(rs.getString("status"));
+        appointment.setApproverId(rs.getInt("approver_id"));
+        appointment.setApproveTime(rs.getTimestamp("approve_time"));
+        appointment.setCreateTime(rs.getTimestamp("create_time"));
+        appointment.setUpdateTime(rs.getTimestamp("update_time"));
+        // 关联字段
+        try {
+            appointment.setVisitDeptName(rs.getString("visit_dept_name"));
+            appointment.setApproverName(rs.getString("approver_name"));
+        } catch (SQLException e) {
+            // 忽略可能不存在的字段
+        }
+        return appointment;
+    }
+
+    /**
+     * 按列序号映射（与现在的OfficialAppointmentRowMapper相同的读取方式）
+     */
+    private static OfficialAppointment mapByIndex(ResultSet rs, int[] idx) throws SQLException {
+        OfficialAppointment appointment = new OfficialAppointment();
+        appointment.setAppointmentId(rs.getInt(idx[0]));
+        appointment.setCampus(rs.getString(idx[1]));
+        appointment.setVisitTime(rs.getTimestamp(idx[2]));
+        appointment.setOrganization(rs.getString(idx[3]));
+        appointment.setName(rs.getString(idx[4]));
+        appointment.setIdCardEncrypted(rs.getString(idx[5]));
+        appointment.setPhoneEncrypted(rs.getString(idx[6]));
+        appointment.setTransportation(rs.getString(idx[7]));
+        appointment.setPlateNumber(rs.getString(idx[8]));
+        appointment.setVisitors(rs.getInt(idx[9]));
+        appointment.setVisitDeptId(rs.getInt(idx[10]));
+        appointment.setVisitContact(rs.getString(idx[11]));
+        appointment.setVisitReason(rs.getString(idx[12]));
+        appointment.setApplyTime(rs.getTimestamp(idx[13]));
+        appointment.setStatus(rs.getString(idx[14]));
+        appointment.setApproverId(rs.getInt(idx[15]));
+        appointment.setApproveTime(rs.getTimestamp(idx[16]));
+        appointment.setCreateTime(rs.getTimestamp(idx[17]));
+        appointment.setUpdateTime(rs.getTimestamp(idx[18]));
+        // 关联字段（仅联表查询时存在）
+        if (idx[19] > 0) {
+            appointment.setVisitDeptName(rs.getString(idx[19]));
+        }
+        if (idx[20] > 0) {
+            appointment.setApproverName(rs.getString(idx[20]));
+        }
+        return appointment;
+    }
+
+    /**
+     * 按SQL取缓存的列序号计划，首次执行时从结果集元数据解析（对应BaseDao.bindColumns）
+     */
+    private static int[] bindColumns(String sql, ResultSet rs) throws SQLException {
+        int[] plan = COLUMN_PLAN_CACHE.get(sql);
+        if (plan == null) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            Map<String, Integer> labels = new HashMap<>();
+            for (int i = metaData.getColumnCount(); i >= 1; i--) {
+                labels.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+            plan = new int[MAPPER_COLUMNS.length];
+            for (int i = 0; i < MAPPER_COLUMNS.length; i++) {
+                Integer index = labels.get(MAPPER_COLUMNS[i]);
+                plan[i] = index != null ? index : 0;
+            }
+            COLUMN_PLAN_CACHE.put(sql, plan);
+        }
+        return plan;
+    }
+
+    private static String[] concat(String[] first, String[] second) {
+        String[] all = new String[first.length + second.length];
+        System.arraycopy(first, 0, all, 0, first.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
+    /**
+     * 内存结果集
+     * 只实现映射器用到的方法；按列名读取时的查找方式与PostgreSQL驱动的findColumn相同
+     * （先按原名查找，再按小写查找，找不到时抛出SQLException）
+     */
+    private static final class InMemoryResult {
+        private final String[] labels;
+        private final Object[][] data;
+        private final Map<String, Integer> columnIndex = new HashMap<>();
+
+        private int cursor;
+        private boolean wasNull;
+
+        InMemoryResult(String[] labels, Object[][] data) {
+            this.labels = labels;
+            this.data = data;
+            for (int i = labels.length - 1; i >= 0; i--) {
+                columnIndex.put(labels[i], i + 1);
+            }
+        }
+
+        /**
+         * 从第一行之前开始遍历
+         */
+        ResultSet open() {
+            cursor = -1;
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next":
+                                return ++cursor < data.length;
+                            case "getString":
+                                return (String) value(args[0]);
+                            case "getInt": {
+                                Object value = value(args[0]);
+                                return value != null ? ((Number) value).intValue() : 0;
+                            }
+                            case "getTimestamp":
+                                return (Timestamp) value(args[0]);
+                            case "wasNull":
+                                return wasNull;
+                            case "getMetaData":
+                                return metaData();
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private Object value(Object column) throws SQLException {
+            int index = column instanceof String ? findColumn((String) column) : (Integer) column;
+            Object value = data[cursor][index - 1];
+            wasNull = value == null;
+            return value;
+        }
+
+        private int findColumn(String label) throws SQLException {
+            Integer index = columnIndex.get(label);
+            if (index == null) {
+                index = columnIndex.get(label.toLowerCase(Locale.ROOT));
+            }
+            if (index == null) {
+                throw new SQLException("The column name " + label + " was not found in this ResultSet.", "42703");
+            }
+            return index;
+        }
+
+        private ResultSetMetaData metaData() {
+            return (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+                    new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getColumnCount":
+                                return labels.length;
+                            case "getColumnLabel":
+                            case "getColumnName":
+                                return labels[(Integer) args[0] - 1];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.javawebcurriculumdesign.controller;
 
+import com.example.javawebcurriculumdesign.dto.AdminListResponse;
 import com.example.javawebcurriculumdesign.model.Admin;
 import com.example.javawebcurriculumdesign.model.SystemLog;
 import com.example.javawebcurriculumdesign.service.AdminService;
 import com.example.javawebcurriculumdesign.service.SystemLogService;
+import com.example.javawebcurriculumdesign.util.DBUtil;
+import com.example.javawebcurriculumdesign.util.JsonUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -20,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * 管理员控制器
@@ -31,6 +35,8 @@ public class AdminController extends HttpServlet {
     private final SystemLogService systemLogService = new SystemLogService();
     private final ObjectMapper objectMapper = new ObjectMapper();
     
+    private static final ObjectWriter ADMIN_LIST_WRITER = JsonUtil.writerFor(AdminListResponse.class);
+    
     /**
      * 处理GET请求
      * /api/admin/current - 获取当前登录管理员信息
@@ -38,6 +44,7 @@ public class AdminController extends HttpServlet {
      * /api/admin/{id} - 获取指定ID的管理员信息（需要系统管理员权限）
      * /api/admin/detail - 获取管理员详情
      * /api/admin/profile - 获取当前登录管理员的个人资料信息
+     * /api/admin/pool-metrics - 获取数据库连接池指标，format=prometheus 时输出Prometheus文本格式（需要系统管理员权限）
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
@@ -138,6 +145,23 @@ public class AdminController extends HttpServlet {
             } catch (NumberFormatException e) {
                 response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid admin ID");
             }
+        } else if (pathInfo.equals("/pool-metrics")) {
+            // 连接池指标（只有系统管理员可以查看）
+            if (!adminService.hasPermission(currentAdmin.getAdminId(), Admin.ROLE_SYSTEM_ADMIN)) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN, "No permission");
+                return;
+            }
+            
+            if ("prometheus".equals(request.getParameter("format"))) {
+                response.setContentType("text/plain; version=0.0.4");
+                response.getWriter().write(DBUtil.getPoolMetricsPrometheus());
+                return;
+            }
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("metrics", DBUtil.getPoolMetrics());
+            objectMapper.writeValue(response.getOutputStream(), result);
         } else if (pathInfo.equals("/list")) {
             // 检查权限（只有系统管理员可以查看所有管理员）
             if (!adminService.hasPermission(currentAdmin.getAdminId(), Admin.ROLE_SYSTEM_ADMIN)) {
@@ -152,12 +176,7 @@ public class AdminController extends HttpServlet {
                 // 获取所有管理员列表
                 List<Admin> admins = adminService.getAllAdmins();
                 
-                // 创建响应对象
-                Map<String, Object> result = new HashMap<>();
-                result.put("success", true);
-                result.put("admins", admins);
-                
-                objectMapper.writeValue(response.getOutputStream(), result);
+                ADMIN_LIST_WRITER.writeValue(response.getOutputStream(), new AdminListResponse(true, admins));
             } catch (Exception e) {
                 Map<String, Object> result = new HashMap<>();
                 result.put("success", false);
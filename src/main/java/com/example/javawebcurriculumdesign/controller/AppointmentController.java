@@ -1,11 +1,20 @@
 package com.example.javawebcurriculumdesign.controller;
 
+import com.example.javawebcurriculumdesign.dto.AppointmentPageResponse;
+import com.example.javawebcurriculumdesign.dto.OfficialAppointmentItem;
+import com.example.javawebcurriculumdesign.dto.PublicAppointmentItem;
+import com.example.javawebcurriculumdesign.dto.RecentAppointmentItem;
 import com.example.javawebcurriculumdesign.model.Admin;
 
 import com.example.javawebcurriculumdesign.model.OfficialAppointment;
+import com.example.javawebcurriculumdesign.model.PageResult;
 import com.example.javawebcurriculumdesign.model.PublicAppointment;
 import com.example.javawebcurriculumdesign.service.AdminService;
 import com.example.javawebcurriculumdesign.service.AppointmentService;
+import com.example.javawebcurriculumdesign.util.JsonUtil;
+import com.example.javawebcurriculumdesign.util.PassCodeImageCache;
+import com.example.javawebcurriculumdesign.util.PassCodeUtil;
+import com.example.javawebcurriculumdesign.util.QRCodeUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -18,12 +27,14 @@ import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * 预约控制器
@@ -33,20 +44,35 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class AppointmentController extends HttpServlet {
     private final AppointmentService appointmentService = new AppointmentService();
     private final AdminService adminService = new AdminService();
+    private final PassCodeImageCache passCodeImageCache = PassCodeImageCache.getInstance();
     private final ObjectMapper objectMapper = new ObjectMapper();
     
+    // 按响应类型预先构建的序列化器
+    private static final ObjectWriter PUBLIC_PAGE_WRITER =
+            JsonUtil.writerFor(new TypeReference<AppointmentPageResponse<PublicAppointmentItem>>() {});
+    private static final ObjectWriter OFFICIAL_PAGE_WRITER =
+            JsonUtil.writerFor(new TypeReference<AppointmentPageResponse<OfficialAppointmentItem>>() {});
+    private static final ObjectWriter PUBLIC_ITEM_WRITER = JsonUtil.writerFor(PublicAppointmentItem.class);
+    private static final ObjectWriter OFFICIAL_ITEM_WRITER = JsonUtil.writerFor(OfficialAppointmentItem.class);
+    private static final ObjectWriter RECENT_LIST_WRITER =
+            JsonUtil.writerFor(new TypeReference<List<RecentAppointmentItem>>() {});
+    
+    // 最近预约接口最多返回的记录数
+    private static final int MAX_RECENT_LIMIT = 100;
+    
     // 角色常量
     private static final String ROLE_RECEPTION_ADMIN = "RECEPTION_ADMIN";
     
     /**
  * 处理GET请求
- * /api/appointment/public/list - 获取所有公众预约列表
- * /api/appointment/official/list - 获取所有公务预约列表
+ * /api/appointment/public/list?cursor=&limit=&withTotal= - 按游标分页获取公众预约列表
+ * /api/appointment/official/list?cursor=&limit=&withTotal= - 按游标分页获取公务预约列表
  * /api/appointment/public/{id} - 获取指定ID的公众预约信息
  * /api/appointment/official/{id} - 获取指定ID的公务预约信息
  * /api/appointment/public/campus/{campus} - 获取指定校区的公众预约列表
  * /api/appointment/official/dept/{deptId} - 获取指定部门的公务预约列表
  * /api/appointment/official/status/{status} - 获取指定状态的公务预约列表
+ * /api/appointment/official/search?organization=&visitContact=&status=&cursor=&limit= - 按单位、接待人检索公务预约（按相关度排序）
  * /api/appointment/public/pass-code - 获取公众预约通行码
  * /api/appointment/official/pass-code - 获取公务预约通行码
  * /api/appointment/public/query - 查询公众预约
@@ -118,35 +144,15 @@ public class AppointmentController extends HttpServlet {
             }
             
             try {
-                // 获取所有公众预约列表
-                List<PublicAppointment> appointments = appointmentService.queryPublicAppointments(null, null, null, null);
-                
-                // 转换为前端需要的格式
-                List<Map<String, Object>> result = appointments.stream().map(appointment -> {
-                    Map<String, Object> appointmentData = new HashMap<>();
-                    appointmentData.put("appointmentId", appointment.getAppointmentId());
-                    appointmentData.put("campus", appointment.getCampus());
-                    appointmentData.put("visitTime", appointment.getVisitTime());
-                    appointmentData.put("organization", appointment.getOrganization());
-                    appointmentData.put("name", appointment.getName());
-                    appointmentData.put("idCardMasked", appointment.getIdCardMasked());
-                    appointmentData.put("phone", appointment.getPhoneMasked());
-                    appointmentData.put("transportation", appointment.getTransportation());
-                    appointmentData.put("plateNumber", appointment.getPlateNumber());
-                    appointmentData.put("applyTime", appointment.getApplyTime());
-                    appointmentData.put("status", appointment.getStatus());
-                    appointmentData.put("createTime", appointment.getCreateTime());
-                    appointmentData.put("updateTime", appointment.getUpdateTime());
-                    
-                    // 使用数据库中存储的访问人数
-                    appointmentData.put("visitors", appointment.getVisitors());
-                    appointmentData.put("purpose", "参观访问");
-                    appointmentData.put("remarks", "");
-                    
-                    return appointmentData;
-                }).collect(Collectors.toList());
-                
-                objectMapper.writeValue(response.getOutputStream(), result);
+                // 按游标分页获取公众预约列表
+                PageResult<PublicAppointment> page = appointmentService.queryPublicAppointmentPage(
+                        null, request.getParameter("status"), null, null,
+                        request.getParameter("cursor"), parseLimit(request), "true".equals(request.getParameter("withTotal")));
+                
+                PUBLIC_PAGE_WRITER.writeValue(response.getOutputStream(),
+                        AppointmentPageResponse.of(page, PublicAppointmentItem::from));
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cursor");
             } catch (Exception e) {
                 response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Failed to load appointments: " + e.getMessage());
             }
@@ -160,47 +166,48 @@ public class AppointmentController extends HttpServlet {
             }
             
             try {
-                // 获取所有公务预约列表
-                List<OfficialAppointment> appointments = appointmentService.queryOfficialAppointments(null, null, null, null);
-                
-                // 转换为前端需要的格式
-                List<Map<String, Object>> result = appointments.stream().map(appointment -> {
-                    Map<String, Object> appointmentData = new HashMap<>();
-                    appointmentData.put("appointmentId", appointment.getAppointmentId());
-                    appointmentData.put("campus", appointment.getCampus());
-                    appointmentData.put("visitTime", appointment.getVisitTime());
-                    appointmentData.put("organization", appointment.getOrganization());
-                    appointmentData.put("name", appointment.getName());
-                    appointmentData.put("idCardMasked", appointment.getIdCardMasked());
-                    appointmentData.put("phone", appointment.getPhoneMasked());
-                    appointmentData.put("transportation", appointment.getTransportation());
-                    appointmentData.put("plateNumber", appointment.getPlateNumber());
-                    appointmentData.put("applyTime", appointment.getApplyTime());
-                    appointmentData.put("status", appointment.getStatus());
-                    appointmentData.put("createTime", appointment.getCreateTime());
-                    appointmentData.put("updateTime", appointment.getUpdateTime());
-                    
-                    // 公务预约特有字段
-                    appointmentData.put("visitDeptId", appointment.getVisitDeptId());
-                    appointmentData.put("visitDeptName", appointment.getVisitDeptName());
-                    appointmentData.put("visitContact", appointment.getVisitContact());
-                    appointmentData.put("purpose", appointment.getVisitReason());
-                    appointmentData.put("approverId", appointment.getApproverId());
-                    appointmentData.put("approveTime", appointment.getApproveTime());
-                    appointmentData.put("approverName", appointment.getApproverName());
-                    
-                    // 使用数据库中存储的访问人数
-                    appointmentData.put("visitors", appointment.getVisitors());
-                    appointmentData.put("remarks", "");
-                    appointmentData.put("officialTitle", "");
-                    
-                    return appointmentData;
-                }).collect(Collectors.toList());
-                
-                objectMapper.writeValue(response.getOutputStream(), result);
+                // 按游标分页获取公务预约列表
+                PageResult<OfficialAppointment> page = appointmentService.queryOfficialAppointmentPage(
+                        null, request.getParameter("status"), null, null,
+                        request.getParameter("cursor"), parseLimit(request), "true".equals(request.getParameter("withTotal")));
+                
+                OFFICIAL_PAGE_WRITER.writeValue(response.getOutputStream(),
+                        AppointmentPageResponse.of(page, OfficialAppointmentItem::from));
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cursor");
             } catch (Exception e) {
                 response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Failed to load appointments: " + e.getMessage());
             }
+        } else if (pathInfo.equals("/official/search")) {
+            // 检查权限
+            if (!adminService.hasPermission(currentAdmin.getAdminId(), Admin.ROLE_SYSTEM_ADMIN) && 
+                !adminService.hasPermission(currentAdmin.getAdminId(), ROLE_RECEPTION_ADMIN) &&
+                !adminService.hasPermission(currentAdmin.getAdminId(), Admin.ROLE_DEPARTMENT_ADMIN)) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN, "No permission");
+                return;
+            }
+            
+            // 部门管理员只能检索自己部门的预约
+            Integer deptId = null;
+            if (!adminService.hasPermission(currentAdmin.getAdminId(), Admin.ROLE_SYSTEM_ADMIN) &&
+                !adminService.hasPermission(currentAdmin.getAdminId(), ROLE_RECEPTION_ADMIN)) {
+                deptId = currentAdmin.getDeptId();
+            }
+            
+            try {
+                // 按单位、接待人检索公务预约
+                PageResult<OfficialAppointment> page = appointmentService.searchOfficialAppointments(
+                        request.getParameter("organization"), request.getParameter("visitContact"),
+                        deptId, request.getParameter("status"),
+                        request.getParameter("cursor"), parseLimit(request));
+                
+                OFFICIAL_PAGE_WRITER.writeValue(response.getOutputStream(),
+                        AppointmentPageResponse.of(page, OfficialAppointmentItem::from));
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            } catch (Exception e) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Failed to search appointments: " + e.getMessage());
+            }
         } else if (pathInfo.startsWith("/public/")) {
             // 检查权限
             if (!adminService.hasPermission(currentAdmin.getAdminId(), Admin.ROLE_SYSTEM_ADMIN) && 
@@ -210,10 +217,11 @@ public class AppointmentController extends HttpServlet {
             }
             
             if (pathInfo.startsWith("/public/campus/")) {
-                // 获取指定校区的公众预约列表
+                // 获取指定校区的公众预约列表，逐行从数据库读出后直接写入响应
                 String campus = pathInfo.substring(15);
-                List<PublicAppointment> appointments = appointmentService.queryPublicAppointments(campus, null, null, null);
-                objectMapper.writeValue(response.getOutputStream(), appointments);
+                JsonUtil.writeArray(response.getOutputStream(), PUBLIC_ITEM_WRITER,
+                        action -> appointmentService.forEachPublicAppointment(campus, null,
+                                appointment -> action.accept(PublicAppointmentItem.from(appointment))));
             } else {
                 try {
                     // 尝试获取路径中的ID
@@ -227,27 +235,7 @@ public class AppointmentController extends HttpServlet {
                     }
                     
                     // 转换为前端需要的格式
-                    Map<String, Object> appointmentData = new HashMap<>();
-                    appointmentData.put("appointmentId", appointment.getAppointmentId());
-                    appointmentData.put("campus", appointment.getCampus());
-                    appointmentData.put("visitTime", appointment.getVisitTime());
-                    appointmentData.put("organization", appointment.getOrganization());
-                    appointmentData.put("name", appointment.getName());
-                    appointmentData.put("idCardMasked", appointment.getIdCardMasked());
-                    appointmentData.put("phone", appointment.getPhoneMasked());
-                    appointmentData.put("transportation", appointment.getTransportation());
-                    appointmentData.put("plateNumber", appointment.getPlateNumber());
-                    appointmentData.put("applyTime", appointment.getApplyTime());
-                    appointmentData.put("status", appointment.getStatus());
-                    appointmentData.put("createTime", appointment.getCreateTime());
-                    appointmentData.put("updateTime", appointment.getUpdateTime());
-                    
-                    // 使用数据库中存储的访问人数
-                    appointmentData.put("visitors", appointment.getVisitors());
-                    appointmentData.put("purpose", "参观访问");
-                    appointmentData.put("remarks", "");
-                    
-                    objectMapper.writeValue(response.getOutputStream(), appointmentData);
+                    PUBLIC_ITEM_WRITER.writeValue(response.getOutputStream(), PublicAppointmentItem.from(appointment));
                 } catch (NumberFormatException e) {
                     response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid appointment ID");
                 }
@@ -267,8 +255,9 @@ public class AppointmentController extends HttpServlet {
                 !adminService.hasPermission(currentAdmin.getAdminId(), ROLE_RECEPTION_ADMIN)) {
                 int deptId = currentAdmin.getDeptId();
                 if (pathInfo.equals("/official/list")) {
-                    List<OfficialAppointment> appointments = appointmentService.queryOfficialAppointments(deptId, null, null, null);
-                    objectMapper.writeValue(response.getOutputStream(), appointments);
+                    JsonUtil.writeArray(response.getOutputStream(), OFFICIAL_ITEM_WRITER,
+                            action -> appointmentService.forEachOfficialAppointment(deptId, null,
+                                    appointment -> action.accept(OfficialAppointmentItem.from(appointment))));
                     return;
                 } else if (!pathInfo.startsWith("/official/dept/" + deptId)) {
                     response.sendError(HttpServletResponse.SC_FORBIDDEN, "No permission to view other department's appointments");
@@ -278,19 +267,31 @@ public class AppointmentController extends HttpServlet {
             
             if (pathInfo.startsWith("/official/dept/")) {
                 // 获取指定部门的公务预约列表
+                int deptId;
                 try {
-                    int deptId = Integer.parseInt(pathInfo.substring(15));
-                    List<OfficialAppointment> appointments = appointmentService.queryOfficialAppointments(deptId, null, null, null);
-                    objectMapper.writeValue(response.getOutputStream(), appointments);
+                    deptId = Integer.parseInt(pathInfo.substring(15));
                 } catch (NumberFormatException e) {
                     response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid department ID");
+                    return;
+                }
+                
+                try {
+                    PageResult<OfficialAppointment> page = appointmentService.queryOfficialAppointmentPage(
+                            deptId, request.getParameter("status"), null, null,
+                            request.getParameter("cursor"), parseLimit(request), "true".equals(request.getParameter("withTotal")));
+                    
+                    OFFICIAL_PAGE_WRITER.writeValue(response.getOutputStream(),
+                            AppointmentPageResponse.of(page, OfficialAppointmentItem::from));
+                } catch (IllegalArgumentException e) {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cursor");
                 }
             } else if (pathInfo.startsWith("/official/status/")) {
                 // 获取指定状态的公务预约列表
                 try {
                     String status = pathInfo.substring(17);
-                    List<OfficialAppointment> appointments = appointmentService.queryOfficialAppointments(null, status, null, null);
-                    objectMapper.writeValue(response.getOutputStream(), appointments);
+                    JsonUtil.writeArray(response.getOutputStream(), OFFICIAL_ITEM_WRITER,
+                            action -> appointmentService.forEachOfficialAppointment(null, status,
+                                    appointment -> action.accept(OfficialAppointmentItem.from(appointment))));
                 } catch (Exception e) {
                     response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid status");
                 }
@@ -317,36 +318,7 @@ public class AppointmentController extends HttpServlet {
                     }
                     
                     // 转换为前端需要的格式
-                    Map<String, Object> appointmentData = new HashMap<>();
-                    appointmentData.put("appointmentId", appointment.getAppointmentId());
-                    appointmentData.put("campus", appointment.getCampus());
-                    appointmentData.put("visitTime", appointment.getVisitTime());
-                    appointmentData.put("organization", appointment.getOrganization());
-                    appointmentData.put("name", appointment.getName());
-                    appointmentData.put("idCardMasked", appointment.getIdCardMasked());
-                    appointmentData.put("phone", appointment.getPhoneMasked());
-                    appointmentData.put("transportation", appointment.getTransportation());
-                    appointmentData.put("plateNumber", appointment.getPlateNumber());
-                    appointmentData.put("applyTime", appointment.getApplyTime());
-                    appointmentData.put("status", appointment.getStatus());
-                    appointmentData.put("createTime", appointment.getCreateTime());
-                    appointmentData.put("updateTime", appointment.getUpdateTime());
-                    
-                    // 公务预约特有字段
-                    appointmentData.put("visitDeptId", appointment.getVisitDeptId());
-                    appointmentData.put("visitDeptName", appointment.getVisitDeptName());
-                    appointmentData.put("visitContact", appointment.getVisitContact());
-                    appointmentData.put("purpose", appointment.getVisitReason());
-                    appointmentData.put("approverId", appointment.getApproverId());
-                    appointmentData.put("approveTime", appointment.getApproveTime());
-                    appointmentData.put("approverName", appointment.getApproverName());
-                    
-                    // 使用数据库中存储的访问人数
-                    appointmentData.put("visitors", appointment.getVisitors());
-                    appointmentData.put("remarks", "");
-                    appointmentData.put("officialTitle", "");
-                    
-                    objectMapper.writeValue(response.getOutputStream(), appointmentData);
+                    OFFICIAL_ITEM_WRITER.writeValue(response.getOutputStream(), OfficialAppointmentItem.from(appointment));
                 } catch (NumberFormatException e) {
                     response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid appointment ID");
                 }
@@ -356,6 +328,26 @@ public class AppointmentController extends HttpServlet {
         }
     }
     
+    /**
+     * 解析分页大小参数（兼容旧的size参数）
+     * @param request HTTP请求
+     * @return 每页记录数，未指定或格式错误时返回0（使用默认值）
+     */
+    private int parseLimit(HttpServletRequest request) {
+        String limitParam = request.getParameter("limit");
+        if (limitParam == null || limitParam.isEmpty()) {
+            limitParam = request.getParameter("size");
+        }
+        if (limitParam == null || limitParam.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(limitParam);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
     /**
      * 处理POST请求
      * /api/appointment/public/add - 添加公众预约
@@ -416,11 +408,15 @@ public class AppointmentController extends HttpServlet {
                 if (idCard != null && !idCard.isEmpty()) {
                     String encryptedIdCard = com.example.javawebcurriculumdesign.util.SMUtil.sm4Encrypt(idCard);
                     appointment.setIdCardEncrypted(encryptedIdCard);
+                    appointment.setIdCardBlindIndex(com.example.javawebcurriculumdesign.util.SMUtil.blindIndex(idCard));
+                    appointment.setIdCardMasked(com.example.javawebcurriculumdesign.util.SMUtil.maskIdCard(idCard));
                 }
                 
                 if (phone != null && !phone.isEmpty()) {
                     String encryptedPhone = com.example.javawebcurriculumdesign.util.SMUtil.sm4Encrypt(phone);
                     appointment.setPhoneEncrypted(encryptedPhone);
+                    appointment.setPhoneBlindIndex(com.example.javawebcurriculumdesign.util.SMUtil.blindIndex(phone));
+                    appointment.setPhoneMasked(com.example.javawebcurriculumdesign.util.SMUtil.maskPhone(phone));
                 }
                 
                 // 处理访问人数
@@ -502,11 +498,15 @@ public class AppointmentController extends HttpServlet {
                 if (idCard != null && !idCard.isEmpty()) {
                     String encryptedIdCard = com.example.javawebcurriculumdesign.util.SMUtil.sm4Encrypt(idCard);
                     appointment.setIdCardEncrypted(encryptedIdCard);
+                    appointment.setIdCardBlindIndex(com.example.javawebcurriculumdesign.util.SMUtil.blindIndex(idCard));
+                    appointment.setIdCardMasked(com.example.javawebcurriculumdesign.util.SMUtil.maskIdCard(idCard));
                 }
                 
                 if (phone != null && !phone.isEmpty()) {
                     String encryptedPhone = com.example.javawebcurriculumdesign.util.SMUtil.sm4Encrypt(phone);
                     appointment.setPhoneEncrypted(encryptedPhone);
+                    appointment.setPhoneBlindIndex(com.example.javawebcurriculumdesign.util.SMUtil.blindIndex(phone));
+                    appointment.setPhoneMasked(com.example.javawebcurriculumdesign.util.SMUtil.maskPhone(phone));
                 }
                 
                 // 设置公务预约特有字段
@@ -979,29 +979,8 @@ public class AppointmentController extends HttpServlet {
                 Map<String, Object> result = new HashMap<>();
                 if (appointment != null) {
                     // 转换为前端期望的格式
-                    Map<String, Object> appointmentData = new HashMap<>();
-                    appointmentData.put("id", appointment.getAppointmentId());
-                    appointmentData.put("appointmentId", appointment.getAppointmentId());
-                    appointmentData.put("name", appointment.getName());
-                    appointmentData.put("phone", appointment.getPhoneMasked());
-                    appointmentData.put("organization", appointment.getOrganization());
-                    appointmentData.put("campus", appointment.getCampus());
-                    appointmentData.put("visitTime", appointment.getVisitTime());
-                    appointmentData.put("transportation", appointment.getTransportation());
-                    appointmentData.put("plateNumber", appointment.getPlateNumber());
-                    appointmentData.put("applyTime", appointment.getApplyTime());
-                    appointmentData.put("status", appointment.getStatus());
-                    appointmentData.put("createTime", appointment.getCreateTime());
-                    appointmentData.put("updateTime", appointment.getUpdateTime());
-                    appointmentData.put("idCardMasked", appointment.getIdCardMasked());
-                    
-                    // 使用数据库中存储的访问人数
-                    appointmentData.put("visitors", appointment.getVisitors());
-                    appointmentData.put("purpose", "参观访问");
-                    appointmentData.put("remarks", "");
-                    
                     result.put("success", true);
-                    result.put("appointment", appointmentData);
+                    result.put("appointment", PublicAppointmentItem.forQuery(appointment));
                 } else {
                     result.put("success", false);
                     result.put("message", "未找到匹配的预约记录");
@@ -1015,39 +994,8 @@ public class AppointmentController extends HttpServlet {
                 Map<String, Object> result = new HashMap<>();
                 if (appointment != null) {
                     // 转换为前端期望的格式
-                    Map<String, Object> appointmentData = new HashMap<>();
-                    appointmentData.put("id", appointment.getAppointmentId());
-                    appointmentData.put("appointmentId", appointment.getAppointmentId());
-                    appointmentData.put("name", appointment.getName());
-                    appointmentData.put("phone", appointment.getPhoneMasked());
-                    appointmentData.put("organization", appointment.getOrganization());
-                    appointmentData.put("campus", appointment.getCampus());
-                    appointmentData.put("visitTime", appointment.getVisitTime());
-                    appointmentData.put("transportation", appointment.getTransportation());
-                    appointmentData.put("plateNumber", appointment.getPlateNumber());
-                    appointmentData.put("applyTime", appointment.getApplyTime());
-                    appointmentData.put("status", appointment.getStatus());
-                    appointmentData.put("createTime", appointment.getCreateTime());
-                    appointmentData.put("updateTime", appointment.getUpdateTime());
-                    appointmentData.put("idCardMasked", appointment.getIdCardMasked());
-                    
-                    // 公务预约特有字段
-                    appointmentData.put("visitDeptId", appointment.getVisitDeptId());
-                    appointmentData.put("visitDeptName", appointment.getVisitDeptName());
-                    appointmentData.put("visitContact", appointment.getVisitContact());
-                    appointmentData.put("purpose", appointment.getVisitReason());
-                    appointmentData.put("approverId", appointment.getApproverId());
-                    appointmentData.put("approveTime", appointment.getApproveTime());
-                    appointmentData.put("approverName", appointment.getApproverName());
-                    
-                    // 使用数据库中存储的访问人数
-                    appointmentData.put("visitors", appointment.getVisitors());
-                    appointmentData.put("remarks", "");
-                    appointmentData.put("officialTitle", "");
-                    appointmentData.put("unitName", appointment.getOrganization());
-                    
                     result.put("success", true);
-                    result.put("appointment", appointmentData);
+                    result.put("appointment", OfficialAppointmentItem.forQuery(appointment));
                 } else {
                     result.put("success", false);
                     result.put("message", "未找到匹配的预约记录");
@@ -1114,6 +1062,8 @@ public class AppointmentController extends HttpServlet {
      */
     private void generatePassCode(Map<String, Object> result, Object appointment) throws Exception {
         // 获取预约信息
+        String appointmentType = null;
+        Integer appointmentId = null;
         String nameMasked = "";
         String idCardMasked = "";
         String campus = "";
@@ -1121,12 +1071,16 @@ public class AppointmentController extends HttpServlet {
         
         if (appointment instanceof PublicAppointment) {
             PublicAppointment pa = (PublicAppointment) appointment;
+            appointmentType = AppointmentService.TYPE_PUBLIC;
+            appointmentId = pa.getAppointmentId();
             nameMasked = pa.getNameMasked();
             idCardMasked = pa.getIdCardMasked();
             campus = pa.getCampus();
             visitTime = pa.getVisitTime();
         } else if (appointment instanceof OfficialAppointment) {
             OfficialAppointment oa = (OfficialAppointment) appointment;
+            appointmentType = AppointmentService.TYPE_OFFICIAL;
+            appointmentId = oa.getAppointmentId();
             nameMasked = oa.getNameMasked();
             idCardMasked = oa.getIdCardMasked();
             campus = oa.getCampus();
@@ -1134,30 +1088,32 @@ public class AppointmentController extends HttpServlet {
         }
         
         // 检查预约时间是否有效（允许提前24小时和延后6小时）
-        boolean isValid = false;
         java.util.Date now = new java.util.Date();
-        long visitTimeMillis = visitTime.getTime();
-        long nowMillis = now.getTime();
-        long diff = visitTimeMillis - nowMillis;
-        long hoursDiff = diff / (1000 * 60 * 60);
+        PassCodeUtil.State state = PassCodeUtil.getState(visitTime, now.getTime());
+        boolean isValid = state == PassCodeUtil.State.VALID;
+        java.sql.Timestamp validFrom = PassCodeUtil.getValidFrom(visitTime);
+        java.sql.Timestamp validUntil = PassCodeUtil.getValidUntil(visitTime);
         
-        if (hoursDiff <= 24 && hoursDiff >= -6) {
-            isValid = true;
-        }
-        
-        // 生成二维码内容
-        String qrCodeContent = "姓名: " + nameMasked + "\n" +
-                               "身份证号: " + idCardMasked + "\n" +
-                               "校区: " + campus + "\n" +
-                               "预约时间: " + visitTime.toString() + "\n" +
-                               "生成时间: " + now.toString();
-        
-        // 生成二维码图像
-        String qrCodeBase64;
-        if (isValid) {
-            qrCodeBase64 = com.example.javawebcurriculumdesign.util.QRCodeUtil.generateValidQRCodeBase64(qrCodeContent);
-        } else {
-            qrCodeBase64 = com.example.javawebcurriculumdesign.util.QRCodeUtil.generateInvalidQRCodeBase64(qrCodeContent);
+        // 二维码内容只由预约本身决定，同一预约在同一状态下渲染结果相同，优先使用缓存的图像
+        String cacheKey = PassCodeImageCache.key(appointmentType, appointmentId, state,
+                validFrom.getTime(), validUntil.getTime());
+        String qrCodeBase64 = passCodeImageCache.get(cacheKey);
+        if (qrCodeBase64 == null) {
+            // 生成二维码内容
+            String qrCodeContent = "姓名: " + nameMasked + "\n" +
+                                   "身份证号: " + idCardMasked + "\n" +
+                                   "校区: " + campus + "\n" +
+                                   "预约时间: " + visitTime.toString() + "\n" +
+                                   "有效期: " + validFrom.toString() + " 至 " + validUntil.toString() + "\n" +
+                                   "令牌: " + PassCodeUtil.generateToken(appointmentType, appointmentId, visitTime);
+            
+            // 生成二维码图像
+            if (isValid) {
+                qrCodeBase64 = QRCodeUtil.generateValidQRCodeBase64(qrCodeContent);
+            } else {
+                qrCodeBase64 = QRCodeUtil.generateInvalidQRCodeBase64(qrCodeContent);
+            }
+            passCodeImageCache.put(cacheKey, qrCodeBase64);
         }
         
         // 构建返回数据
@@ -1167,6 +1123,8 @@ public class AppointmentController extends HttpServlet {
         result.put("idCardMasked", idCardMasked);
         result.put("campus", campus);
         result.put("visitTime", visitTime);
+        result.put("validFrom", validFrom);
+        result.put("validUntil", validUntil);
         result.put("generateTime", now);
         result.put("qrCodeBase64", qrCodeBase64);
     }
@@ -1332,48 +1290,27 @@ public class AppointmentController extends HttpServlet {
                 }
             }
             
-            // 获取所有预约
-            List<PublicAppointment> publicAppointments = appointmentService.queryPublicAppointments(null, null, null, null);
-            List<OfficialAppointment> officialAppointments = appointmentService.queryOfficialAppointments(null, null, null, null);
-            
-            // 创建组合结果集
-            List<Map<String, Object>> result = new ArrayList<>();
+            // 接口无需登录，限制返回数量的范围
+            limit = Math.max(1, Math.min(limit, MAX_RECENT_LIMIT));
             
-            // 处理公众预约
-            for (PublicAppointment appointment : publicAppointments) {
-                Map<String, Object> item = new HashMap<>();
-                item.put("id", appointment.getAppointmentId());
-                item.put("type", "PUBLIC");
-                item.put("name", appointment.getName());
-                item.put("visitTime", appointment.getVisitTime());
-                item.put("status", appointment.getStatus());
-                result.add(item);
+            // 两种预约各取最近的limit条（按visit_time索引倒序读取），合并后保留最近的limit条
+            List<RecentAppointmentItem> result = new ArrayList<>(limit * 2);
+            for (PublicAppointment appointment : appointmentService.getRecentPublicAppointments(limit)) {
+                result.add(new RecentAppointmentItem(appointment.getAppointmentId(), AppointmentService.TYPE_PUBLIC,
+                        appointment.getName(), appointment.getVisitTime(), appointment.getStatus()));
             }
-            
-            // 处理公务预约
-            for (OfficialAppointment appointment : officialAppointments) {
-                Map<String, Object> item = new HashMap<>();
-                item.put("id", appointment.getAppointmentId());
-                item.put("type", "OFFICIAL");
-                item.put("name", appointment.getName());
-                item.put("visitTime", appointment.getVisitTime());
-                item.put("status", appointment.getStatus());
-                result.add(item);
+            for (OfficialAppointment appointment : appointmentService.getRecentOfficialAppointments(limit)) {
+                result.add(new RecentAppointmentItem(appointment.getAppointmentId(), AppointmentService.TYPE_OFFICIAL,
+                        appointment.getName(), appointment.getVisitTime(), appointment.getStatus()));
             }
             
             // 按预约时间排序（降序，最近的排在前面）
-            result.sort((a, b) -> {
-                Timestamp timeA = (Timestamp) a.get("visitTime");
-                Timestamp timeB = (Timestamp) b.get("visitTime");
-                return timeB.compareTo(timeA);
-            });
-            
-            // 限制返回数量
+            result.sort(Comparator.comparing(RecentAppointmentItem::visitTime).reversed());
             if (result.size() > limit) {
-                result = result.subList(0, limit);
+                result = new ArrayList<>(result.subList(0, limit));
             }
             
-            objectMapper.writeValue(response.getOutputStream(), result);
+            RECENT_LIST_WRITER.writeValue(response.getOutputStream(), result);
         } catch (Exception e) {
             e.printStackTrace();
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "获取最近预约失败: " + e.getMessage());
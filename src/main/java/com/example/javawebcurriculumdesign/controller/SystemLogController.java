@@ -1,9 +1,14 @@
 package com.example.javawebcurriculumdesign.controller;
 
 import com.example.javawebcurriculumdesign.model.Admin;
+import com.example.javawebcurriculumdesign.model.LogChainVerification;
+import com.example.javawebcurriculumdesign.model.LogVerifyFailure;
+import com.example.javawebcurriculumdesign.model.LogVerifyJob;
 import com.example.javawebcurriculumdesign.model.SystemLog;
 import com.example.javawebcurriculumdesign.service.AdminService;
+import com.example.javawebcurriculumdesign.service.LogVerificationJobs;
 import com.example.javawebcurriculumdesign.service.SystemLogService;
+import com.example.javawebcurriculumdesign.util.JsonUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -17,10 +22,10 @@ import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * 系统日志控制器
@@ -31,6 +36,10 @@ public class SystemLogController extends HttpServlet {
     private final SystemLogService systemLogService = new SystemLogService();
     private final AdminService adminService = new AdminService();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LogVerificationJobs verificationJobs = LogVerificationJobs.getInstance();
+    
+    private static final ObjectWriter LOG_WRITER = JsonUtil.writerFor(SystemLog.class);
+    private static final ObjectWriter FAILURE_WRITER = JsonUtil.writerFor(LogVerifyFailure.class);
     
     // 角色常量
     private static final String ROLE_AUDIT_ADMIN = "AUDIT_ADMIN";
@@ -43,7 +52,11 @@ public class SystemLogController extends HttpServlet {
      * /api/log/operation/{operation} - 获取指定操作类型的系统日志
      * /api/log/date - 根据时间范围查询系统日志
      * /api/log/verify/{id} - 验证指定ID的系统日志完整性
-     * /api/log/verify/batch - 批量验证系统日志完整性
+     * /api/log/verify/batch - 提交后台批量校验任务（可选startDate、endDate），返回任务ID
+     * /api/log/verify/jobs - 获取最近的校验任务
+     * /api/log/verify/jobs/{jobId} - 获取校验任务的状态、进度和吞吐量
+     * /api/log/verify/jobs/{jobId}/failures - 获取校验任务发现的问题日志
+     * /api/log/verify/chain - 校验日志链（full=true时校验全部历史）
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
@@ -54,19 +67,8 @@ public class SystemLogController extends HttpServlet {
             pathInfo = "/list"; // 默认获取所有日志
         }
         
-        // 获取当前登录的管理员
-        HttpSession session = request.getSession(false);
-        Admin currentAdmin = (session != null) ? (Admin) session.getAttribute("admin") : null;
-        
+        Admin currentAdmin = authorize(request, response);
         if (currentAdmin == null) {
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Not logged in");
-            return;
-        }
-        
-        // 检查权限（只有系统管理员和审计管理员可以查看系统日志）
-        if (!adminService.hasPermission(currentAdmin.getAdminId(), Admin.ROLE_SYSTEM_ADMIN) && 
-            !adminService.hasPermission(currentAdmin.getAdminId(), ROLE_AUDIT_ADMIN)) {
-            response.sendError(HttpServletResponse.SC_FORBIDDEN, "No permission");
             return;
         }
         
@@ -74,16 +76,9 @@ public class SystemLogController extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
         
         if (pathInfo.equals("/list")) {
-            // 获取所有系统日志
-            List<SystemLog> logs = systemLogService.getAllLogs();
-            
-            // 创建响应对象
-            Map<String, Object> result = new HashMap<>();
-            result.put("success", true);
-            result.put("logs", logs);
-            result.put("total", logs.size());
-            
-            objectMapper.writeValue(response.getOutputStream(), result);
+            // 获取所有系统日志，逐行从数据库读出后直接写入响应
+            JsonUtil.writeListResponse(response.getOutputStream(), "logs", "total", LOG_WRITER,
+                    action -> systemLogService.forEachLog(null, null, null, null, action::accept));
         } else if (pathInfo.equals("/detail")) {
             // 获取日志详情
             String idParam = request.getParameter("id");
@@ -113,46 +108,75 @@ public class SystemLogController extends HttpServlet {
             try {
                 // 获取指定管理员的系统日志
                 int adminId = Integer.parseInt(pathInfo.substring(7));
-                List<SystemLog> logs = systemLogService.queryLogs(adminId, null, null, null);
-                objectMapper.writeValue(response.getOutputStream(), logs);
+                JsonUtil.writeArray(response.getOutputStream(), LOG_WRITER,
+                        action -> systemLogService.forEachLog(adminId, null, null, null, action::accept));
             } catch (NumberFormatException e) {
                 response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid admin ID");
             }
         } else if (pathInfo.startsWith("/operation/")) {
             // 获取指定操作类型的系统日志
             String operation = pathInfo.substring(11);
-            List<SystemLog> logs = systemLogService.queryLogs(null, operation, null, null);
-            objectMapper.writeValue(response.getOutputStream(), logs);
+            JsonUtil.writeArray(response.getOutputStream(), LOG_WRITER,
+                    action -> systemLogService.forEachLog(null, operation, null, null, action::accept));
         } else if (pathInfo.equals("/date")) {
             // 根据时间范围查询系统日志
             String startDateStr = request.getParameter("startDate");
             String endDateStr = request.getParameter("endDate");
             
             try {
-                Timestamp startDate = null;
-                Timestamp endDate = null;
-                
-                if (startDateStr != null && !startDateStr.isEmpty()) {
-                    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                    startDate = new Timestamp(dateFormat.parse(startDateStr).getTime());
-                }
-                
-                if (endDateStr != null && !endDateStr.isEmpty()) {
-                    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                    endDate = new Timestamp(dateFormat.parse(endDateStr).getTime());
-                }
-                
-                List<SystemLog> logs = systemLogService.queryLogs(null, null, startDate, endDate);
-                objectMapper.writeValue(response.getOutputStream(), logs);
+                Timestamp start = parseTime(startDateStr);
+                Timestamp end = parseTime(endDateStr);
+                JsonUtil.writeArray(response.getOutputStream(), LOG_WRITER,
+                        action -> systemLogService.forEachLog(null, null, start, end, action::accept));
             } catch (ParseException e) {
                 response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid date format");
             }
         } else if (pathInfo.startsWith("/verify/")) {
             if (pathInfo.equals("/verify/batch")) {
-                // 批量验证系统日志完整性
-                // 直接使用null参数调用batchVerifyLogIntegrity，不需要先获取logs
-                Map<Integer, Boolean> verifyResults = systemLogService.batchVerifyLogIntegrity(null, null);
-                objectMapper.writeValue(response.getOutputStream(), verifyResults);
+                // 批量验证系统日志完整性：提交后台任务后立即返回
+                submitVerifyJob(request, response, currentAdmin);
+            } else if (pathInfo.equals("/verify/jobs")) {
+                // 最近的校验任务
+                Map<String, Object> result = new HashMap<>();
+                result.put("success", true);
+                result.put("jobs", verificationJobs.getRecentJobs());
+                objectMapper.writeValue(response.getOutputStream(), result);
+            } else if (pathInfo.startsWith("/verify/jobs/")) {
+                String jobPath = pathInfo.substring(13);
+                boolean failures = jobPath.endsWith("/failures");
+                if (failures) {
+                    jobPath = jobPath.substring(0, jobPath.length() - 9);
+                }
+                
+                int jobId;
+                try {
+                    jobId = Integer.parseInt(jobPath);
+                } catch (NumberFormatException e) {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid job ID");
+                    return;
+                }
+                
+                LogVerifyJob job = verificationJobs.getJob(jobId);
+                if (job == null) {
+                    response.sendError(HttpServletResponse.SC_NOT_FOUND, "Job not found");
+                    return;
+                }
+                
+                if (failures) {
+                    // 问题日志逐行从数据库读出后直接写入响应
+                    JsonUtil.writeListResponse(response.getOutputStream(), "failures", "total", FAILURE_WRITER,
+                            action -> verificationJobs.forEachFailure(jobId, action::accept));
+                } else {
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("success", true);
+                    result.put("job", job);
+                    objectMapper.writeValue(response.getOutputStream(), result);
+                }
+            } else if (pathInfo.equals("/verify/chain")) {
+                // 校验日志链：默认只重新计算最后一个可信检查点之后的日志
+                boolean fullHistory = Boolean.parseBoolean(request.getParameter("full"));
+                LogChainVerification verification = systemLogService.verifyLogChain(fullHistory);
+                objectMapper.writeValue(response.getOutputStream(), verification);
             } else {
                 try {
                     // 验证指定ID的系统日志完整性
@@ -189,12 +213,87 @@ public class SystemLogController extends HttpServlet {
     }
     
     /**
-     * 处理POST请求（在本应用中不使用，日志只能查询不能添加）
+     * 处理POST请求
+     * /api/log/verify/batch - 提交后台批量校验任务；日志本身只能查询不能添加
      */
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
-        response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED, "POST method is not supported for logs");
+        if (!"/verify/batch".equals(request.getPathInfo())) {
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED, "POST method is not supported for logs");
+            return;
+        }
+        
+        Admin currentAdmin = authorize(request, response);
+        if (currentAdmin == null) {
+            return;
+        }
+        
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        submitVerifyJob(request, response, currentAdmin);
+    }
+    
+    /**
+     * 检查当前登录的管理员是否可以访问系统日志（系统管理员和审计管理员）
+     * @return 当前管理员，未登录或没有权限时已发送错误响应并返回null
+     */
+    private Admin authorize(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        HttpSession session = request.getSession(false);
+        Admin currentAdmin = (session != null) ? (Admin) session.getAttribute("admin") : null;
+        
+        if (currentAdmin == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Not logged in");
+            return null;
+        }
+        
+        if (!adminService.hasPermission(currentAdmin.getAdminId(), Admin.ROLE_SYSTEM_ADMIN) && 
+            !adminService.hasPermission(currentAdmin.getAdminId(), ROLE_AUDIT_ADMIN)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "No permission");
+            return null;
+        }
+        return currentAdmin;
+    }
+    
+    /**
+     * 提交后台批量校验任务，返回202和任务ID，进度通过 /api/log/verify/jobs/{jobId} 查询
+     */
+    private void submitVerifyJob(HttpServletRequest request, HttpServletResponse response, Admin currentAdmin)
+            throws IOException {
+        Timestamp startDate;
+        Timestamp endDate;
+        try {
+            startDate = parseTime(request.getParameter("startDate"));
+            endDate = parseTime(request.getParameter("endDate"));
+        } catch (ParseException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid date format");
+            return;
+        }
+        
+        LogVerifyJob job = verificationJobs.submit(currentAdmin.getAdminId(), startDate, endDate);
+        Map<String, Object> result = new HashMap<>();
+        if (job != null) {
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            result.put("success", true);
+            result.put("jobId", job.getJobId());
+            result.put("status", job.getStatus());
+        } else {
+            result.put("success", false);
+            result.put("message", "创建校验任务失败");
+        }
+        objectMapper.writeValue(response.getOutputStream(), result);
+    }
+    
+    /**
+     * 解析 yyyy-MM-dd HH:mm:ss 格式的时间参数
+     * @return 时间，参数为空时返回null
+     */
+    private Timestamp parseTime(String value) throws ParseException {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        return new Timestamp(dateFormat.parse(value).getTime());
     }
     
     /**
@@ -12,6 +12,14 @@ import java.util.List;
  */
 public class AdminDao extends BaseDao {
     
+    /**
+     * 登录失败次数、锁定状态和账号启停需要立即生效，不从只读副本查询
+     */
+    @Override
+    protected boolean useReadReplica() {
+        return false;
+    }
+    
     /**
      * 添加管理员
      * @param admin 管理员对象
@@ -186,29 +194,53 @@ public class AdminDao extends BaseDao {
     /**
      * 管理员行映射器
      */
-    private static class AdminRowMapper implements RowMapper<Admin> {
+    private static class AdminRowMapper implements IndexedRowMapper<Admin> {
+        private static final String[] COLUMNS = {
+                "admin_id", "login_name", "password_hash", "real_name",
+                "dept_id", "phone", "role", "login_attempts",
+                "locked_until", "last_password_change", "create_time", "update_time",
+                "status", "dept_name"
+        };
+        private static final int ADMIN_ID = 0;
+        private static final int LOGIN_NAME = 1;
+        private static final int PASSWORD_HASH = 2;
+        private static final int REAL_NAME = 3;
+        private static final int DEPT_ID = 4;
+        private static final int PHONE = 5;
+        private static final int ROLE = 6;
+        private static final int LOGIN_ATTEMPTS = 7;
+        private static final int LOCKED_UNTIL = 8;
+        private static final int LAST_PASSWORD_CHANGE = 9;
+        private static final int CREATE_TIME = 10;
+        private static final int UPDATE_TIME = 11;
+        private static final int STATUS = 12;
+        private static final int DEPT_NAME = 13;
+        
+        @Override
+        public String[] columns() {
+            return COLUMNS;
+        }
+        
         @Override
-        public Admin mapRow(ResultSet rs) throws SQLException {
+        public Admin mapRow(ResultSet rs, int[] idx) throws SQLException {
             Admin admin = new Admin();
-            admin.setAdminId(rs.getInt("admin_id"));
-            admin.setLoginName(rs.getString("login_name"));
-            admin.setPasswordHash(rs.getString("password_hash"));
-            admin.setRealName(rs.getString("real_name"));
-            admin.setDeptId(rs.getInt("dept_id"));
-            admin.setPhone(rs.getString("phone"));
-            admin.setRole(rs.getString("role"));
-            admin.setLoginAttempts(rs.getInt("login_attempts"));
-            admin.setLockedUntil(rs.getTimestamp("locked_until"));
-            admin.setLastPasswordChange(rs.getTimestamp("last_password_change"));
-            admin.setCreateTime(rs.getTimestamp("create_time"));
-            admin.setUpdateTime(rs.getTimestamp("update_time"));
-            admin.setStatus(rs.getInt("status"));
+            admin.setAdminId(rs.getInt(idx[ADMIN_ID]));
+            admin.setLoginName(rs.getString(idx[LOGIN_NAME]));
+            admin.setPasswordHash(rs.getString(idx[PASSWORD_HASH]));
+            admin.setRealName(rs.getString(idx[REAL_NAME]));
+            admin.setDeptId(rs.getInt(idx[DEPT_ID]));
+            admin.setPhone(rs.getString(idx[PHONE]));
+            admin.setRole(rs.getString(idx[ROLE]));
+            admin.setLoginAttempts(rs.getInt(idx[LOGIN_ATTEMPTS]));
+            admin.setLockedUntil(rs.getTimestamp(idx[LOCKED_UNTIL]));
+            admin.setLastPasswordChange(rs.getTimestamp(idx[LAST_PASSWORD_CHANGE]));
+            admin.setCreateTime(rs.getTimestamp(idx[CREATE_TIME]));
+            admin.setUpdateTime(rs.getTimestamp(idx[UPDATE_TIME]));
+            admin.setStatus(rs.getInt(idx[STATUS]));
             
-            // 关联字段
-            try {
-                admin.setDeptName(rs.getString("dept_name"));
-            } catch (SQLException e) {
-                // 忽略可能不存在的字段
+            // 关联字段（仅联表查询时存在）
+            if (idx[DEPT_NAME] > 0) {
+                admin.setDeptName(rs.getString(idx[DEPT_NAME]));
             }
             
             return admin;
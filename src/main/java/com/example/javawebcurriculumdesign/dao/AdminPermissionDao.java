@@ -12,6 +12,14 @@ import java.util.List;
  */
 public class AdminPermissionDao extends BaseDao {
     
+    /**
+     * 撤销授权需要立即生效，不从只读副本查询
+     */
+    @Override
+    protected boolean useReadReplica() {
+        return false;
+    }
+    
     /**
      * 添加权限
      * @param permission 权限对象
@@ -133,6 +141,16 @@ public class AdminPermissionDao extends BaseDao {
         return queryCount(sql, adminId, permissionType) > 0;
     }
     
+    /**
+     * 查询管理员当前有效的权限类型
+     * @param adminId 管理员ID
+     * @return 权限类型列表
+     */
+    public List<String> getActivePermissionTypes(Integer adminId) {
+        String sql = "SELECT DISTINCT permission_type FROM admin_permission WHERE admin_id = ? AND status = 1";
+        return executeQuery(sql, rs -> rs.getString(1), adminId);
+    }
+    
     /**
      * 撤销权限（设置状态为无效）
      * @param adminId 管理员ID
@@ -147,26 +165,48 @@ public class AdminPermissionDao extends BaseDao {
     /**
      * 权限行映射器
      */
-    private static class AdminPermissionRowMapper implements RowMapper<AdminPermission> {
+    private static class AdminPermissionRowMapper implements IndexedRowMapper<AdminPermission> {
+        private static final String[] COLUMNS = {
+                "permission_id", "admin_id", "permission_type", "permission_value",
+                "granted_by", "granted_time", "status", "create_time",
+                "update_time", "admin_name", "granted_by_name"
+        };
+        private static final int PERMISSION_ID = 0;
+        private static final int ADMIN_ID = 1;
+        private static final int PERMISSION_TYPE = 2;
+        private static final int PERMISSION_VALUE = 3;
+        private static final int GRANTED_BY = 4;
+        private static final int GRANTED_TIME = 5;
+        private static final int STATUS = 6;
+        private static final int CREATE_TIME = 7;
+        private static final int UPDATE_TIME = 8;
+        private static final int ADMIN_NAME = 9;
+        private static final int GRANTED_BY_NAME = 10;
+        
         @Override
-        public AdminPermission mapRow(ResultSet rs) throws SQLException {
+        public String[] columns() {
+            return COLUMNS;
+        }
+        
+        @Override
+        public AdminPermission mapRow(ResultSet rs, int[] idx) throws SQLException {
             AdminPermission permission = new AdminPermission();
-            permission.setPermissionId(rs.getInt("permission_id"));
-            permission.setAdminId(rs.getInt("admin_id"));
-            permission.setPermissionType(rs.getString("permission_type"));
-            permission.setPermissionValue(rs.getString("permission_value"));
-            permission.setGrantedBy(rs.getInt("granted_by"));
-            permission.setGrantedTime(rs.getTimestamp("granted_time"));
-            permission.setStatus(rs.getInt("status"));
-            permission.setCreateTime(rs.getTimestamp("create_time"));
-            permission.setUpdateTime(rs.getTimestamp("update_time"));
+            permission.setPermissionId(rs.getInt(idx[PERMISSION_ID]));
+            permission.setAdminId(rs.getInt(idx[ADMIN_ID]));
+            permission.setPermissionType(rs.getString(idx[PERMISSION_TYPE]));
+            permission.setPermissionValue(rs.getString(idx[PERMISSION_VALUE]));
+            permission.setGrantedBy(rs.getInt(idx[GRANTED_BY]));
+            permission.setGrantedTime(rs.getTimestamp(idx[GRANTED_TIME]));
+            permission.setStatus(rs.getInt(idx[STATUS]));
+            permission.setCreateTime(rs.getTimestamp(idx[CREATE_TIME]));
+            permission.setUpdateTime(rs.getTimestamp(idx[UPDATE_TIME]));
             
-            // 关联字段
-            try {
-                permission.setAdminName(rs.getString("admin_name"));
-                permission.setGrantedByName(rs.getString("granted_by_name"));
-            } catch (SQLException e) {
-                // 忽略可能不存在的字段
+            // 关联字段（仅联表查询时存在）
+            if (idx[ADMIN_NAME] > 0) {
+                permission.setAdminName(rs.getString(idx[ADMIN_NAME]));
+            }
+            if (idx[GRANTED_BY_NAME] > 0) {
+                permission.setGrantedByName(rs.getString(idx[GRANTED_BY_NAME]));
             }
             
             return permission;
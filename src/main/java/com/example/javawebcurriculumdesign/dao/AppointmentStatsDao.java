@@ -0,0 +1,25 @@
+package com.example.javawebcurriculumdesign.dao;
+
+import java.util.List;
+
+/**
+ * 预约统计数据访问对象
+ * 提供跨公众预约和公务预约两张表的汇总查询
+ */
+public class AppointmentStatsDao extends BaseDao {
+    
+    /**
+     * 按预约类型、状态、申请日期和校区汇总两张预约表的记录数
+     * @return 每行依次为：预约类型（PUBLIC/OFFICIAL）、状态、申请日期（java.sql.Date）、校区、数量（Long）
+     */
+    public List<Object[]> countByTypeStatusDayCampus() {
+        String sql = "SELECT 'PUBLIC', status, CAST(apply_time AS DATE), campus, COUNT(*) FROM public_appointment " +
+                "GROUP BY status, CAST(apply_time AS DATE), campus " +
+                "UNION ALL " +
+                "SELECT 'OFFICIAL', status, CAST(apply_time AS DATE), campus, COUNT(*) FROM official_appointment " +
+                "GROUP BY status, CAST(apply_time AS DATE), campus";
+        return executeQuery(sql, rs -> new Object[]{
+                rs.getString(1), rs.getString(2), rs.getDate(3), rs.getString(4), rs.getLong(5)
+        });
+    }
+}
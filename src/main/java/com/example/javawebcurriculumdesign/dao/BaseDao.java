@@ -1,19 +1,32 @@
 package com.example.javawebcurriculumdesign.dao;
 
 import com.example.javawebcurriculumdesign.util.DBUtil;
+import com.example.javawebcurriculumdesign.util.QueryBudget;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 数据访问基类，提供通用的数据库操作方法
+ * 查询（executeQuery、queryCount、streamQuery）在配置了只读副本时从副本读取，
+ * 处于DBUtil.readFromPrimary()范围内或子类关闭副本读取时从主库读取；更新始终在主库执行。
+ * 查询受当前线程的查询预算（QueryBudget）限制。
  */
 public abstract class BaseDao {
     
+    // 列序号计划缓存（映射器类名#SQL -> 列序号），避免每行按列名查找
+    private static final Map<String, ColumnPlan> COLUMN_PLAN_CACHE = new ConcurrentHashMap<>();
+    
     /**
      * 执行更新操作（插入、更新、删除）
      * @param sql SQL语句
@@ -100,7 +113,7 @@ public abstract class BaseDao {
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            conn = DBUtil.getConnection();
+            conn = getReadConnection();
             ps = conn.prepareStatement(sql);
             
             // 设置参数
@@ -108,12 +121,13 @@ public abstract class BaseDao {
                 ps.setObject(i + 1, params[i]);
             }
             
-            rs = ps.executeQuery();
+            rs = executeBudgetedQuery(ps);
             List<T> result = new ArrayList<>();
+            RowMapper<T> mapper = bindColumns(sql, rowMapper, rs);
             
             // 将结果集映射为对象列表
             while (rs.next()) {
-                T obj = rowMapper.mapRow(rs);
+                T obj = mapper.mapRow(rs);
                 result.add(obj);
             }
             
@@ -126,6 +140,78 @@ public abstract class BaseDao {
         }
     }
     
+    /**
+     * 以流式方式执行查询，逐行回调处理结果（使用默认抓取行数）
+     * @param sql SQL语句
+     * @param rowMapper 行映射器
+     * @param callback 行回调
+     * @param params SQL参数
+     * @return 处理的行数
+     */
+    protected <T> long streamQuery(String sql, RowMapper<T> rowMapper, RowCallback<T> callback, Object... params) {
+        return streamQuery(sql, DBUtil.getFetchSize(), rowMapper, callback, params);
+    }
+    
+    /**
+     * 以流式方式执行查询，逐行回调处理结果
+     * PostgreSQL驱动只有在关闭自动提交且设置了抓取行数时才会使用服务端游标，
+     * 否则会把整个结果集读入内存。适用于日志校验、导出等需要遍历大量数据的场景。
+     * @param sql SQL语句
+     * @param fetchSize 每次从数据库拉取的行数
+     * @param rowMapper 行映射器
+     * @param callback 行回调
+     * @param params SQL参数
+     * @return 处理的行数
+     */
+    protected <T> long streamQuery(String sql, int fetchSize, RowMapper<T> rowMapper, RowCallback<T> callback, Object... params) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getReadConnection();
+            conn.setAutoCommit(false); // 服务端游标需要在事务中使用
+            ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            
+            // 设置参数
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            
+            rs = executeBudgetedQuery(ps);
+            long count = 0;
+            RowMapper<T> mapper = bindColumns(sql, rowMapper, rs);
+            
+            // 逐行映射并交给回调处理，不在内存中保留结果
+            while (rs.next()) {
+                callback.processRow(mapper.mapRow(rs));
+                count++;
+            }
+            
+            conn.commit(); // 只读事务，提交以关闭游标
+            return count;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            throw new RuntimeException("执行流式查询操作失败", e);
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true); // 恢复自动提交
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            DBUtil.close(conn, ps, rs);
+        }
+    }
+    
     /**
      * 查询单个对象
      * @param sql SQL语句
@@ -149,7 +235,7 @@ public abstract class BaseDao {
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            conn = DBUtil.getConnection();
+            conn = getReadConnection();
             ps = conn.prepareStatement(sql);
             
             // 设置参数
@@ -157,7 +243,7 @@ public abstract class BaseDao {
                 ps.setObject(i + 1, params[i]);
             }
             
-            rs = ps.executeQuery();
+            rs = executeBudgetedQuery(ps);
             if (rs.next()) {
                 return rs.getLong(1);
             }
@@ -169,6 +255,131 @@ public abstract class BaseDao {
             DBUtil.close(conn, ps, rs);
         }
     }
+
+    /**
+     * 执行分组计数查询
+     * @param sql SQL语句，第一列为分组键，第二列为数量
+     * @param params SQL参数
+     * @return 分组键到数量的映射（保持查询结果顺序）
+     */
+    protected Map<String, Long> queryGroupedCount(String sql, Object... params) {
+        List<Object[]> rows = executeQuery(sql, rs -> new Object[]{rs.getString(1), rs.getLong(2)}, params);
+        
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            result.put((String) row[0], (Long) row[1]);
+        }
+        return result;
+    }
+
+    /**
+     * 估算表的记录数（读取统计信息，不扫描全表）
+     * 表尚未被ANALYZE时统计值不可用，此时回退为精确计数
+     * @param tableName 表名（仅限代码中的常量，不能来自用户输入）
+     * @return 近似记录数
+     */
+    protected long estimateRowCount(String tableName) {
+        long estimate = queryCount("SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = ?", tableName);
+        if (estimate <= 0) {
+            return queryCount("SELECT COUNT(*) FROM " + tableName);
+        }
+        return estimate;
+    }
+
+    /**
+     * 是否允许从只读副本查询，子类可以覆盖
+     * 数据量小且要求立即读到最新值的表（如账号、权限）应返回false
+     */
+    protected boolean useReadReplica() {
+        return true;
+    }
+    
+    /**
+     * 在当前线程的查询预算内执行查询
+     * 超出预算或客户端断开时语句被取消，抛出SQLException
+     * @param ps 已设置参数的预编译语句
+     * @return 结果集
+     */
+    private ResultSet executeBudgetedQuery(PreparedStatement ps) throws SQLException {
+        QueryBudget.Execution execution = QueryBudget.start(ps);
+        SQLException error = null;
+        try {
+            return ps.executeQuery();
+        } catch (SQLException e) {
+            error = e;
+            throw e;
+        } finally {
+            execution.finish(error);
+        }
+    }
+    
+    /**
+     * 获取查询使用的数据库连接
+     */
+    private Connection getReadConnection() throws SQLException {
+        return useReadReplica() ? DBUtil.getReadConnection() : DBUtil.getConnection();
+    }
+
+    /**
+     * 为按列序号映射的映射器绑定列序号
+     * 列序号按SQL缓存，只在首次执行或结果集列数变化（如表结构变更）时重新解析
+     * @param sql SQL语句
+     * @param rowMapper 行映射器
+     * @param rs 结果集
+     * @return 可直接逐行调用的映射器
+     */
+    private <T> RowMapper<T> bindColumns(String sql, RowMapper<T> rowMapper, ResultSet rs) throws SQLException {
+        if (!(rowMapper instanceof IndexedRowMapper)) {
+            return rowMapper;
+        }
+        
+        IndexedRowMapper<T> indexedMapper = (IndexedRowMapper<T>) rowMapper;
+        ResultSetMetaData metaData = rs.getMetaData();
+        String key = rowMapper.getClass().getName() + "#" + sql;
+        
+        ColumnPlan plan = COLUMN_PLAN_CACHE.get(key);
+        if (plan == null || plan.columnCount != metaData.getColumnCount()) {
+            plan = new ColumnPlan(metaData.getColumnCount(), resolveColumns(metaData, indexedMapper.columns()));
+            COLUMN_PLAN_CACHE.put(key, plan);
+        }
+        
+        int[] indexes = plan.indexes;
+        return row -> indexedMapper.mapRow(row, indexes);
+    }
+    
+    /**
+     * 将列名解析为结果集中的列序号
+     * @param metaData 结果集元数据
+     * @param columns 列名
+     * @return 与列名一一对应的列序号，结果集中不存在的列为0
+     */
+    private static int[] resolveColumns(ResultSetMetaData metaData, String[] columns) throws SQLException {
+        // 同名列取第一个，与 ResultSet.findColumn 的行为一致
+        Map<String, Integer> labels = new HashMap<>();
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            labels.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        
+        int[] indexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Integer index = labels.get(columns[i]);
+            indexes[i] = index != null ? index : 0;
+        }
+        return indexes;
+    }
+    
+    /**
+     * 列序号计划
+     */
+    private static class ColumnPlan {
+        private final int columnCount;
+        private final int[] indexes;
+        
+        private ColumnPlan(int columnCount, int[] indexes) {
+            this.columnCount = columnCount;
+            this.indexes = indexes;
+        }
+    }
     
     /**
      * 行映射器接口，用于将结果集的一行映射为对象
@@ -176,4 +387,34 @@ public abstract class BaseDao {
     protected interface RowMapper<T> {
         T mapRow(ResultSet rs) throws SQLException;
     }
+
+    /**
+     * 按列序号映射的行映射器
+     * 列序号由BaseDao按SQL解析并缓存；可选的关联列不存在时对应序号为0，映射时据此判断，无需捕获异常
+     */
+    protected interface IndexedRowMapper<T> extends RowMapper<T> {
+        /**
+         * @return 映射器读取的列名（小写），mapRow中的序号数组与之一一对应
+         */
+        String[] columns();
+        
+        /**
+         * 按列序号映射一行
+         * @param rs 结果集
+         * @param indexes 列序号，顺序与columns()一致
+         */
+        T mapRow(ResultSet rs, int[] indexes) throws SQLException;
+        
+        @Override
+        default T mapRow(ResultSet rs) throws SQLException {
+            return mapRow(rs, resolveColumns(rs.getMetaData(), columns()));
+        }
+    }
+
+    /**
+     * 行回调接口，用于流式查询时逐行处理结果
+     */
+    public interface RowCallback<T> {
+        void processRow(T row);
+    }
 } 
\ No newline at end of file
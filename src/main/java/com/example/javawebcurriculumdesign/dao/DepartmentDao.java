@@ -11,6 +11,14 @@ import java.util.List;
  */
 public class DepartmentDao extends BaseDao {
     
+    /**
+     * 部门由DepartmentRegistry缓存，写入后立即重新加载，不从只读副本查询
+     */
+    @Override
+    protected boolean useReadReplica() {
+        return false;
+    }
+    
     /**
      * 添加部门
      * @param department 部门对象
@@ -104,26 +112,41 @@ public class DepartmentDao extends BaseDao {
     /**
      * 部门行映射器
      */
-    private static class DepartmentRowMapper implements RowMapper<Department> {
+    private static class DepartmentRowMapper implements IndexedRowMapper<Department> {
+        private static final String[] COLUMNS = {
+                "dept_id", "dept_type", "dept_name", "create_time",
+                "update_time", "contact_person", "contact_phone"
+        };
+        private static final int DEPT_ID = 0;
+        private static final int DEPT_TYPE = 1;
+        private static final int DEPT_NAME = 2;
+        private static final int CREATE_TIME = 3;
+        private static final int UPDATE_TIME = 4;
+        private static final int CONTACT_PERSON = 5;
+        private static final int CONTACT_PHONE = 6;
+        
         @Override
-        public Department mapRow(ResultSet rs) throws SQLException {
+        public String[] columns() {
+            return COLUMNS;
+        }
+        
+        @Override
+        public Department mapRow(ResultSet rs, int[] idx) throws SQLException {
             Department department = new Department();
-            department.setDeptId(rs.getInt("dept_id"));
-            department.setDeptType(rs.getString("dept_type"));
-            department.setDeptName(rs.getString("dept_name"));
+            department.setDeptId(rs.getInt(idx[DEPT_ID]));
+            department.setDeptType(rs.getString(idx[DEPT_TYPE]));
+            department.setDeptName(rs.getString(idx[DEPT_NAME]));
+            department.setCreateTime(rs.getTimestamp(idx[CREATE_TIME]));
+            department.setUpdateTime(rs.getTimestamp(idx[UPDATE_TIME]));
             
-            // 安全地获取新字段，如果不存在则设为null
-            try {
-                department.setContactPerson(rs.getString("contact_person"));
-                department.setContactPhone(rs.getString("contact_phone"));
-            } catch (SQLException e) {
-                // 如果字段不存在，设置为null
-                department.setContactPerson(null);
-                department.setContactPhone(null);
+            // 联系人字段为后加字段，旧表结构中可能不存在
+            if (idx[CONTACT_PERSON] > 0) {
+                department.setContactPerson(rs.getString(idx[CONTACT_PERSON]));
+            }
+            if (idx[CONTACT_PHONE] > 0) {
+                department.setContactPhone(rs.getString(idx[CONTACT_PHONE]));
             }
             
-            department.setCreateTime(rs.getTimestamp("create_time"));
-            department.setUpdateTime(rs.getTimestamp("update_time"));
             return department;
         }
     }
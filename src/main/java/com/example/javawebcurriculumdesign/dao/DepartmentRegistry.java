@@ -0,0 +1,129 @@
+package com.example.javawebcurriculumdesign.dao;
+
+import com.example.javawebcurriculumdesign.model.Department;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 部门注册表
+ * 部门表数据量小且极少修改，全部部门加载到内存后以不可变快照（写时复制）提供查询，读操作无需访问数据库。
+ * 部门增删改后由DepartmentService调用refresh重新加载；预约查询据此填充部门名称，无需联表。
+ */
+public class DepartmentRegistry {
+    private static final DepartmentRegistry INSTANCE = new DepartmentRegistry();
+
+    private final DepartmentDao departmentDao = new DepartmentDao();
+    private volatile Snapshot snapshot;
+
+    private DepartmentRegistry() {
+    }
+
+    public static DepartmentRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 从数据库重新加载全部部门，替换当前快照
+     */
+    public synchronized void refresh() {
+        snapshot = new Snapshot(departmentDao.getAll());
+    }
+
+    /**
+     * 获取全部部门（按ID排序）
+     * @return 部门列表（副本，可修改）
+     */
+    public List<Department> getAll() {
+        List<Department> result = new ArrayList<>();
+        for (Department department : current().departments) {
+            result.add(copy(department));
+        }
+        return result;
+    }
+
+    /**
+     * 根据ID获取部门
+     * @param deptId 部门ID
+     * @return 部门对象（副本），不存在时返回null
+     */
+    public Department getById(Integer deptId) {
+        Department department = current().byId.get(deptId);
+        return department != null ? copy(department) : null;
+    }
+
+    /**
+     * 获取指定类型的部门（按ID排序）
+     * @param deptType 部门类型
+     * @return 部门列表（副本，可修改）
+     */
+    public List<Department> getByType(String deptType) {
+        List<Department> result = new ArrayList<>();
+        for (Department department : current().departments) {
+            if (department.getDeptType() != null && department.getDeptType().equals(deptType)) {
+                result.add(copy(department));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 根据ID获取部门名称
+     * @param deptId 部门ID
+     * @return 部门名称，不存在时返回null
+     */
+    public String getDeptName(Integer deptId) {
+        if (deptId == null) {
+            return null;
+        }
+        Department department = current().byId.get(deptId);
+        return department != null ? department.getDeptName() : null;
+    }
+
+    /**
+     * 获取当前快照，首次使用时加载
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 复制部门对象，避免调用方修改共享快照
+     */
+    private static Department copy(Department department) {
+        Department copy = new Department(department.getDeptId(), department.getDeptType(), department.getDeptName(),
+                department.getContactPerson(), department.getContactPhone());
+        copy.setCreateTime(department.getCreateTime());
+        copy.setUpdateTime(department.getUpdateTime());
+        return copy;
+    }
+
+    /**
+     * 部门快照（不可变）
+     */
+    private static class Snapshot {
+        private final List<Department> departments;
+        private final Map<Integer, Department> byId;
+
+        private Snapshot(List<Department> departments) {
+            this.departments = Collections.unmodifiableList(new ArrayList<>(departments));
+            Map<Integer, Department> index = new HashMap<>();
+            for (Department department : departments) {
+                index.put(department.getDeptId(), department);
+            }
+            this.byId = Collections.unmodifiableMap(index);
+        }
+    }
+}
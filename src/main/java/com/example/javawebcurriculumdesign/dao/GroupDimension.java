@@ -0,0 +1,28 @@
+package com.example.javawebcurriculumdesign.dao;
+
+/**
+ * 预约分组统计维度
+ */
+public enum GroupDimension {
+    CAMPUS("campus"),                 // 按校区
+    STATUS("status"),                 // 按状态
+    DEPT("visit_dept_id"),            // 按访问部门（仅公务预约）
+    DAY("apply_time"),                // 按申请日期
+    TRANSPORTATION("transportation"); // 按交通方式
+
+    private final String column;
+
+    GroupDimension(String column) {
+        this.column = column;
+    }
+
+    /**
+     * 生成分组表达式
+     * @param alias 表别名，无别名时为null
+     * @return SQL分组表达式
+     */
+    String expression(String alias) {
+        String qualified = alias == null ? column : alias + "." + column;
+        return this == DAY ? "CAST(" + qualified + " AS DATE)" : qualified;
+    }
+}
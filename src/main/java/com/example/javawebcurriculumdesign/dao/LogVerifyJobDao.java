@@ -0,0 +1,221 @@
+package com.example.javawebcurriculumdesign.dao;
+
+import com.example.javawebcurriculumdesign.model.LogVerifyFailure;
+import com.example.javawebcurriculumdesign.model.LogVerifyJob;
+import com.example.javawebcurriculumdesign.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 系统日志校验任务数据访问对象
+ */
+public class LogVerifyJobDao extends BaseDao {
+
+    /**
+     * 任务进度由后台线程不断更新，查询任务状态需要立即读到最新值，不从只读副本查询
+     */
+    @Override
+    protected boolean useReadReplica() {
+        return false;
+    }
+
+    /**
+     * 创建校验任务
+     * @param job 校验任务对象
+     * @return 新增任务的ID，如果添加失败则返回-1
+     */
+    public int add(LogVerifyJob job) {
+        String sql = "INSERT INTO log_verify_job (status, range_start, range_end, requested_by) VALUES (?, ?, ?, ?)";
+
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBUtil.getConnection();
+            ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, job.getStatus());
+            ps.setTimestamp(2, job.getRangeStart());
+            ps.setTimestamp(3, job.getRangeEnd());
+            ps.setObject(4, job.getRequestedBy());
+
+            if (ps.executeUpdate() == 0) {
+                return -1;
+            }
+
+            rs = ps.getGeneratedKeys();
+            return rs.next() ? rs.getInt(1) : -1;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("创建日志校验任务失败", e);
+        } finally {
+            DBUtil.close(conn, ps, rs);
+        }
+    }
+
+    /**
+     * 标记任务开始执行
+     * @param jobId 任务ID
+     * @param totalCount 待校验日志数
+     * @return 影响的行数
+     */
+    public int markRunning(Integer jobId, long totalCount) {
+        String sql = "UPDATE log_verify_job SET status = ?, total_count = ?, start_time = ? WHERE job_id = ?";
+        return executeUpdate(sql, LogVerifyJob.STATUS_RUNNING, totalCount,
+                new Timestamp(System.currentTimeMillis()), jobId);
+    }
+
+    /**
+     * 更新任务进度
+     * @param jobId 任务ID
+     * @param checkedCount 已校验日志数
+     * @param failedCount 校验失败日志数
+     * @return 影响的行数
+     */
+    public int updateProgress(Integer jobId, long checkedCount, long failedCount) {
+        String sql = "UPDATE log_verify_job SET checked_count = ?, failed_count = ? WHERE job_id = ?";
+        return executeUpdate(sql, checkedCount, failedCount, jobId);
+    }
+
+    /**
+     * 结束任务
+     * @param jobId 任务ID
+     * @param status 结束状态（COMPLETED或FAILED）
+     * @param checkedCount 已校验日志数
+     * @param failedCount 校验失败日志数
+     * @param errorMessage 异常终止的原因，正常完成时为null
+     * @return 影响的行数
+     */
+    public int finish(Integer jobId, String status, long checkedCount, long failedCount, String errorMessage) {
+        String sql = "UPDATE log_verify_job SET status = ?, checked_count = ?, failed_count = ?, " +
+                "error_message = ?, finish_time = ? WHERE job_id = ?";
+        return executeUpdate(sql, status, checkedCount, failedCount, errorMessage,
+                new Timestamp(System.currentTimeMillis()), jobId);
+    }
+
+    /**
+     * 批量保存校验失败记录
+     * @param failures 校验失败记录列表
+     * @return 影响的行数数组
+     */
+    public int[] addFailures(List<LogVerifyFailure> failures) {
+        String sql = "INSERT INTO log_verify_failure (job_id, log_id, chain_seq, reason) VALUES (?, ?, ?, ?)";
+        List<Object[]> paramsList = new ArrayList<>(failures.size());
+        for (LogVerifyFailure failure : failures) {
+            paramsList.add(new Object[]{
+                    failure.getJobId(), failure.getLogId(), failure.getChainSeq(), failure.getReason()
+            });
+        }
+        return executeBatchUpdate(sql, paramsList);
+    }
+
+    /**
+     * 根据ID查询校验任务
+     * @param jobId 任务ID
+     * @return 校验任务对象
+     */
+    public LogVerifyJob getById(Integer jobId) {
+        return querySingle("SELECT * FROM log_verify_job WHERE job_id = ?", new LogVerifyJobRowMapper(), jobId);
+    }
+
+    /**
+     * 查询最近的校验任务
+     * @param limit 最多返回的任务数
+     * @return 校验任务列表（按创建时间倒序）
+     */
+    public List<LogVerifyJob> getRecent(int limit) {
+        return executeQuery("SELECT * FROM log_verify_job ORDER BY job_id DESC LIMIT ?",
+                new LogVerifyJobRowMapper(), limit);
+    }
+
+    /**
+     * 流式遍历任务的校验失败记录
+     * @param jobId 任务ID
+     * @param callback 行回调
+     * @return 遍历的记录数
+     */
+    public long forEachFailure(Integer jobId, RowCallback<LogVerifyFailure> callback) {
+        String sql = "SELECT * FROM log_verify_failure WHERE job_id = ? ORDER BY chain_seq, log_id";
+        return streamQuery(sql, new LogVerifyFailureRowMapper(), callback, jobId);
+    }
+
+    /**
+     * 校验任务行映射器
+     */
+    private static class LogVerifyJobRowMapper implements IndexedRowMapper<LogVerifyJob> {
+        private static final String[] COLUMNS = {
+                "job_id", "status", "range_start", "range_end", "requested_by", "total_count",
+                "checked_count", "failed_count", "error_message", "create_time", "start_time", "finish_time"
+        };
+        private static final int JOB_ID = 0;
+        private static final int STATUS = 1;
+        private static final int RANGE_START = 2;
+        private static final int RANGE_END = 3;
+        private static final int REQUESTED_BY = 4;
+        private static final int TOTAL_COUNT = 5;
+        private static final int CHECKED_COUNT = 6;
+        private static final int FAILED_COUNT = 7;
+        private static final int ERROR_MESSAGE = 8;
+        private static final int CREATE_TIME = 9;
+        private static final int START_TIME = 10;
+        private static final int FINISH_TIME = 11;
+
+        @Override
+        public String[] columns() {
+            return COLUMNS;
+        }
+
+        @Override
+        public LogVerifyJob mapRow(ResultSet rs, int[] idx) throws SQLException {
+            LogVerifyJob job = new LogVerifyJob();
+            job.setJobId(rs.getInt(idx[JOB_ID]));
+            job.setStatus(rs.getString(idx[STATUS]));
+            job.setRangeStart(rs.getTimestamp(idx[RANGE_START]));
+            job.setRangeEnd(rs.getTimestamp(idx[RANGE_END]));
+            int requestedBy = rs.getInt(idx[REQUESTED_BY]);
+            job.setRequestedBy(rs.wasNull() ? null : requestedBy);
+            long totalCount = rs.getLong(idx[TOTAL_COUNT]);
+            job.setTotalCount(rs.wasNull() ? null : totalCount);
+            job.setCheckedCount(rs.getLong(idx[CHECKED_COUNT]));
+            job.setFailedCount(rs.getLong(idx[FAILED_COUNT]));
+            job.setErrorMessage(rs.getString(idx[ERROR_MESSAGE]));
+            job.setCreateTime(rs.getTimestamp(idx[CREATE_TIME]));
+            job.setStartTime(rs.getTimestamp(idx[START_TIME]));
+            job.setFinishTime(rs.getTimestamp(idx[FINISH_TIME]));
+            return job;
+        }
+    }
+
+    /**
+     * 校验失败记录行映射器
+     */
+    private static class LogVerifyFailureRowMapper implements IndexedRowMapper<LogVerifyFailure> {
+        private static final String[] COLUMNS = {"job_id", "log_id", "chain_seq", "reason"};
+        private static final int JOB_ID = 0;
+        private static final int LOG_ID = 1;
+        private static final int CHAIN_SEQ = 2;
+        private static final int REASON = 3;
+
+        @Override
+        public String[] columns() {
+            return COLUMNS;
+        }
+
+        @Override
+        public LogVerifyFailure mapRow(ResultSet rs, int[] idx) throws SQLException {
+            LogVerifyFailure failure = new LogVerifyFailure();
+            failure.setJobId(rs.getInt(idx[JOB_ID]));
+            failure.setLogId(rs.getInt(idx[LOG_ID]));
+            long chainSeq = rs.getLong(idx[CHAIN_SEQ]);
+            failure.setChainSeq(rs.wasNull() ? null : chainSeq);
+            failure.setReason(rs.getString(idx[REASON]));
+            return failure;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.javawebcurriculumdesign.dao;
 
+import com.example.javawebcurriculumdesign.model.BaseAppointment;
 import com.example.javawebcurriculumdesign.model.OfficialAppointment;
 import com.example.javawebcurriculumdesign.util.SMUtil;
 
@@ -10,12 +11,24 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 公务预约数据访问对象
  */
 public class OfficialAppointmentDao extends BaseDao {
+    // 二元组副表中的字段标识
+    private static final char GRAM_FIELD_ORGANIZATION = 'O';
+    private static final char GRAM_FIELD_CONTACT = 'C';
+    // 预筛选最多使用的二元组数量，其余由模糊匹配复核
+    private static final int MAX_SEARCH_GRAMS = 8;
+    
+    // 是否已建立pg_trgm索引（首次检索时查询，null表示尚未查询）
+    private static volatile Boolean trigramIndexed;
     
     /**
      * 添加公务预约
@@ -25,8 +38,9 @@ public class OfficialAppointmentDao extends BaseDao {
     public int add(OfficialAppointment appointment) {
         String sql = "INSERT INTO official_appointment (campus, visit_time, organization, name, " +
                 "id_card_encrypted, phone_encrypted, transportation, plate_number, visitors, visit_dept_id, " +
-                "visit_contact, visit_reason, apply_time, status) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "visit_contact, visit_reason, apply_time, status, id_card_bidx, phone_bidx, " +
+                "id_card_masked, phone_masked) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
         Connection conn = null;
         PreparedStatement ps = null;
@@ -49,6 +63,10 @@ public class OfficialAppointmentDao extends BaseDao {
             ps.setString(12, appointment.getVisitReason());
             ps.setTimestamp(13, appointment.getApplyTime() != null ? appointment.getApplyTime() : new Timestamp(System.currentTimeMillis()));
             ps.setString(14, appointment.getStatus());
+            ps.setString(15, appointment.getIdCardBlindIndex());
+            ps.setString(16, appointment.getPhoneBlindIndex());
+            ps.setString(17, appointment.getIdCardMasked());
+            ps.setString(18, appointment.getPhoneMasked());
             
             int affectedRows = ps.executeUpdate();
             if (affectedRows == 0) {
@@ -107,17 +125,33 @@ public class OfficialAppointmentDao extends BaseDao {
                 appointment.getAppointmentId());
     }
     
+    /**
+     * 按原状态更新公务预约状态
+     * 只有预约当前仍处于预期状态时才更新，同一预约的并发审核、取消只有一个能成功
+     * @param appointmentId 预约ID
+     * @param expectedStatus 预期的当前状态
+     * @param status 新状态
+     * @return 影响的行数
+     */
+    public int updateStatus(Integer appointmentId, String expectedStatus, String status) {
+        String sql = "UPDATE official_appointment SET status = ? WHERE appointment_id = ? AND status = ?";
+        return executeUpdate(sql, status, appointmentId, expectedStatus);
+    }
+    
     /**
      * 审核公务预约
+     * 只有预约当前仍处于预期状态时才更新，同一预约的并发审核只有一个能成功
      * @param appointmentId 预约ID
+     * @param expectedStatus 预期的当前状态
      * @param status 状态（已通过/已拒绝）
      * @param approverId 审核人ID
      * @return 影响的行数
      */
-    public int approve(Integer appointmentId, String status, Integer approverId) {
+    public int approve(Integer appointmentId, String expectedStatus, String status, Integer approverId) {
         String sql = "UPDATE official_appointment SET status = ?, approver_id = ?, approve_time = ? " +
-                "WHERE appointment_id = ?";
-        return executeUpdate(sql, status, approverId, new Timestamp(System.currentTimeMillis()), appointmentId);
+                "WHERE appointment_id = ? AND status = ?";
+        return executeUpdate(sql, status, approverId, new Timestamp(System.currentTimeMillis()),
+                appointmentId, expectedStatus);
     }
     
     /**
@@ -126,42 +160,43 @@ public class OfficialAppointmentDao extends BaseDao {
      * @return 公务预约对象
      */
     public OfficialAppointment getById(Integer appointmentId) {
-        String sql = "SELECT o.*, d.dept_name AS visit_dept_name, a.real_name AS approver_name " +
+        String sql = "SELECT o.*, a.real_name AS approver_name " +
                 "FROM official_appointment o " +
-                "LEFT JOIN department d ON o.visit_dept_id = d.dept_id " +
                 "LEFT JOIN admin a ON o.approver_id = a.admin_id " +
                 "WHERE o.appointment_id = ?";
         
         OfficialAppointment appointment = querySingle(sql, new OfficialAppointmentRowMapper(), appointmentId);
-        if (appointment != null) {
-            maskSensitiveInfo(appointment);
-        }
         return appointment;
     }
     
     /**
-     * 根据身份证号和手机号查询公务预约
-     * @param idCardEncrypted 加密后的身份证号
-     * @param phoneEncrypted 加密后的手机号
+     * 查询预约时间最近的公务预约
+     * 按visit_time索引倒序扫描，只读取需要的行
+     * @param limit 最多返回的记录数
+     * @return 公务预约列表（按预约时间倒序）
+     */
+    public List<OfficialAppointment> getRecentByVisitTime(int limit) {
+        String sql = "SELECT * FROM official_appointment ORDER BY visit_time DESC LIMIT ?";
+        return executeQuery(sql, new OfficialAppointmentRowMapper(), limit);
+    }
+    
+    /**
+     * 根据身份证号和手机号的盲索引查询公务预约
+     * @param idCardBlindIndex 身份证号盲索引
+     * @param phoneBlindIndex 手机号盲索引
      * @return 公务预约列表
      */
-    public List<OfficialAppointment> getByIdCardAndPhone(String idCardEncrypted, String phoneEncrypted) {
-        String sql = "SELECT o.*, d.dept_name AS visit_dept_name, a.real_name AS approver_name " +
+    public List<OfficialAppointment> getByIdCardAndPhone(String idCardBlindIndex, String phoneBlindIndex) {
+        String sql = "SELECT o.*, a.real_name AS approver_name " +
                 "FROM official_appointment o " +
-                "LEFT JOIN department d ON o.visit_dept_id = d.dept_id " +
                 "LEFT JOIN admin a ON o.approver_id = a.admin_id " +
-                "WHERE o.id_card_encrypted = ? AND o.phone_encrypted = ? " +
+                "WHERE o.id_card_bidx = ? AND o.phone_bidx = ? " +
                 "ORDER BY o.apply_time DESC";
         
         List<OfficialAppointment> appointments = executeQuery(sql, new OfficialAppointmentRowMapper(), 
-                idCardEncrypted, phoneEncrypted);
-        
-        // 对敏感信息进行脱敏处理
-        for (OfficialAppointment appointment : appointments) {
-            maskSensitiveInfo(appointment);
-        }
+                idCardBlindIndex, phoneBlindIndex);
         
-        return appointments;
+        return withMaskedFields(appointments);
     }
     
     /**
@@ -171,9 +206,8 @@ public class OfficialAppointmentDao extends BaseDao {
      * @return 公务预约列表
      */
     public List<OfficialAppointment> getByDeptId(Integer deptId, String status) {
-        StringBuilder sql = new StringBuilder("SELECT o.*, d.dept_name AS visit_dept_name, a.real_name AS approver_name " +
+        StringBuilder sql = new StringBuilder("SELECT o.*, a.real_name AS approver_name " +
                 "FROM official_appointment o " +
-                "LEFT JOIN department d ON o.visit_dept_id = d.dept_id " +
                 "LEFT JOIN admin a ON o.approver_id = a.admin_id " +
                 "WHERE o.visit_dept_id = ?");
         
@@ -190,12 +224,7 @@ public class OfficialAppointmentDao extends BaseDao {
         List<OfficialAppointment> appointments = executeQuery(sql.toString(), new OfficialAppointmentRowMapper(), 
                 params.toArray());
         
-        // 对敏感信息进行脱敏处理
-        for (OfficialAppointment appointment : appointments) {
-            maskSensitiveInfo(appointment);
-        }
-        
-        return appointments;
+        return withMaskedFields(appointments);
     }
     
     /**
@@ -216,47 +245,90 @@ public class OfficialAppointmentDao extends BaseDao {
                                      Timestamp startVisitTime, Timestamp endVisitTime,
                                      String campus, String organization, String name,
                                      Integer visitDeptId, String visitContact, String status) {
-        StringBuilder sql = new StringBuilder("SELECT o.*, d.dept_name AS visit_dept_name, a.real_name AS approver_name " +
+        StringBuilder sql = new StringBuilder("SELECT o.*, a.real_name AS approver_name " +
                 "FROM official_appointment o " +
-                "LEFT JOIN department d ON o.visit_dept_id = d.dept_id " +
                 "LEFT JOIN admin a ON o.approver_id = a.admin_id " +
                 "WHERE 1=1");
         
         List<Object> params = new ArrayList<>();
         
-        if (startApplyTime != null) {
-            sql.append(" AND o.apply_time >= ?");
-            params.add(startApplyTime);
+        appendFilters(sql, params, startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus);
+        
+        if (organization != null && !organization.isEmpty()) {
+            appendKeywordFilter(sql, params, "organization", GRAM_FIELD_ORGANIZATION, organization, false);
         }
         
-        if (endApplyTime != null) {
-            sql.append(" AND o.apply_time <= ?");
-            params.add(endApplyTime);
+        if (name != null && !name.isEmpty()) {
+            sql.append(" AND o.name = ?");
+            params.add(name);
         }
         
-        if (startVisitTime != null) {
-            sql.append(" AND o.visit_time >= ?");
-            params.add(startVisitTime);
+        if (visitDeptId != null) {
+            sql.append(" AND o.visit_dept_id = ?");
+            params.add(visitDeptId);
         }
         
-        if (endVisitTime != null) {
-            sql.append(" AND o.visit_time <= ?");
-            params.add(endVisitTime);
+        if (visitContact != null && !visitContact.isEmpty()) {
+            appendKeywordFilter(sql, params, "visit_contact", GRAM_FIELD_CONTACT, visitContact, false);
         }
         
-        if (campus != null && !campus.isEmpty()) {
-            sql.append(" AND o.campus = ?");
-            params.add(campus);
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND o.status = ?");
+            params.add(status);
         }
         
+        sql.append(" ORDER BY o.apply_time DESC");
+        
+        List<OfficialAppointment> appointments = executeQuery(sql.toString(), new OfficialAppointmentRowMapper(), 
+                params.toArray());
+        
+        return withMaskedFields(appointments);
+    }
+    
+    /**
+     * 按单位、接待人关键字检索公务预约（不区分大小写），按相关度排序并分页
+     * 相关度：字段与关键字完全相同最高，以关键字开头次之，其余按关键字占字段长度的比例计算；两个字段的相关度相加。
+     * 分页按 (相关度, 申请时间, 预约ID) 倒序的键集进行。
+     * @param organization 单位关键字（可选）
+     * @param visitContact 接待人关键字（可选）
+     * @param visitDeptId 访问部门ID（可选）
+     * @param status 状态（可选）
+     * @param afterRank 上一页最后一条记录的相关度（第一页为null）
+     * @param afterApplyTime 上一页最后一条记录的申请时间（第一页为null）
+     * @param afterAppointmentId 上一页最后一条记录的预约ID（第一页为null）
+     * @param limit 最多返回的记录数
+     * @return 公务预约列表，相关度保存在searchRank中
+     */
+    public List<OfficialAppointment> search(String organization, String visitContact,
+                                            Integer visitDeptId, String status,
+                                            Integer afterRank, Timestamp afterApplyTime, Integer afterAppointmentId,
+                                            int limit) {
+        List<Object> params = new ArrayList<>();
+        
+        // 相关度表达式在SELECT列表中，参数位于过滤条件之前
+        StringBuilder rank = new StringBuilder();
         if (organization != null && !organization.isEmpty()) {
-            sql.append(" AND o.organization LIKE ?");
-            params.add("%" + organization + "%");
+            appendRank(rank, params, "organization", organization);
+        }
+        if (visitContact != null && !visitContact.isEmpty()) {
+            appendRank(rank, params, "visit_contact", visitContact);
+        }
+        if (rank.length() == 0) {
+            rank.append("0");
         }
         
-        if (name != null && !name.isEmpty()) {
-            sql.append(" AND o.name = ?");
-            params.add(name);
+        StringBuilder sql = new StringBuilder("SELECT * FROM (SELECT o.*, a.real_name AS approver_name, ")
+                .append(rank).append(" AS search_rank ")
+                .append("FROM official_appointment o ")
+                .append("LEFT JOIN admin a ON o.approver_id = a.admin_id ")
+                .append("WHERE 1=1");
+        
+        if (organization != null && !organization.isEmpty()) {
+            appendKeywordFilter(sql, params, "organization", GRAM_FIELD_ORGANIZATION, organization, true);
+        }
+        
+        if (visitContact != null && !visitContact.isEmpty()) {
+            appendKeywordFilter(sql, params, "visit_contact", GRAM_FIELD_CONTACT, visitContact, true);
         }
         
         if (visitDeptId != null) {
@@ -264,9 +336,46 @@ public class OfficialAppointmentDao extends BaseDao {
             params.add(visitDeptId);
         }
         
-        if (visitContact != null && !visitContact.isEmpty()) {
-            sql.append(" AND o.visit_contact LIKE ?");
-            params.add("%" + visitContact + "%");
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND o.status = ?");
+            params.add(status);
+        }
+        
+        sql.append(") s");
+        
+        if (afterRank != null && afterApplyTime != null && afterAppointmentId != null) {
+            sql.append(" WHERE (s.search_rank, s.apply_time, s.appointment_id) < (?, ?, ?)");
+            params.add(afterRank);
+            params.add(afterApplyTime);
+            params.add(afterAppointmentId);
+        }
+        
+        sql.append(" ORDER BY s.search_rank DESC, s.apply_time DESC, s.appointment_id DESC LIMIT ?");
+        params.add(limit);
+        
+        List<OfficialAppointment> appointments = executeQuery(sql.toString(), new OfficialAppointmentRowMapper(), 
+                params.toArray());
+        
+        return withMaskedFields(appointments);
+    }
+    
+    /**
+     * 按访问部门、状态流式遍历公务预约（按申请时间倒序），不在内存中保留结果
+     * @param visitDeptId 访问部门ID（可选）
+     * @param status 状态（可选）
+     * @param callback 行回调
+     * @return 遍历的预约数量
+     */
+    public long forEach(Integer visitDeptId, String status, RowCallback<OfficialAppointment> callback) {
+        StringBuilder sql = new StringBuilder("SELECT o.*, a.real_name AS approver_name " +
+                "FROM official_appointment o " +
+                "LEFT JOIN admin a ON o.approver_id = a.admin_id " +
+                "WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        
+        if (visitDeptId != null) {
+            sql.append(" AND o.visit_dept_id = ?");
+            params.add(visitDeptId);
         }
         
         if (status != null && !status.isEmpty()) {
@@ -276,15 +385,100 @@ public class OfficialAppointmentDao extends BaseDao {
         
         sql.append(" ORDER BY o.apply_time DESC");
         
+        return streamQuery(sql.toString(), new OfficialAppointmentRowMapper(), callback, params.toArray());
+    }
+    
+    /**
+     * 按键集分页查询公务预约（按申请时间、预约ID倒序）
+     * @param startApplyTime 申请开始时间
+     * @param endApplyTime 申请结束时间
+     * @param startVisitTime 预约开始时间
+     * @param endVisitTime 预约结束时间
+     * @param campus 校区
+     * @param visitDeptId 访问部门ID
+     * @param status 状态
+     * @param afterApplyTime 上一页最后一条记录的申请时间（第一页为null）
+     * @param afterAppointmentId 上一页最后一条记录的预约ID（第一页为null）
+     * @param limit 最多返回的记录数
+     * @return 公务预约列表
+     */
+    public List<OfficialAppointment> queryPage(Timestamp startApplyTime, Timestamp endApplyTime,
+                                               Timestamp startVisitTime, Timestamp endVisitTime,
+                                               String campus, Integer visitDeptId, String status,
+                                               Timestamp afterApplyTime, Integer afterAppointmentId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT o.*, a.real_name AS approver_name " +
+                "FROM official_appointment o " +
+                "LEFT JOIN admin a ON o.approver_id = a.admin_id " +
+                "WHERE 1=1");
+        
+        List<Object> params = new ArrayList<>();
+        
+        appendFilters(sql, params, startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus);
+        
+        if (visitDeptId != null) {
+            sql.append(" AND o.visit_dept_id = ?");
+            params.add(visitDeptId);
+        }
+        
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND o.status = ?");
+            params.add(status);
+        }
+        
+        // 行值比较，配合 (apply_time, appointment_id) 排序可直接从上一页末尾继续扫描
+        if (afterApplyTime != null && afterAppointmentId != null) {
+            sql.append(" AND (o.apply_time, o.appointment_id) < (?, ?)");
+            params.add(afterApplyTime);
+            params.add(afterAppointmentId);
+        }
+        
+        sql.append(" ORDER BY o.apply_time DESC, o.appointment_id DESC LIMIT ?");
+        params.add(limit);
+        
         List<OfficialAppointment> appointments = executeQuery(sql.toString(), new OfficialAppointmentRowMapper(), 
                 params.toArray());
         
-        // 对敏感信息进行脱敏处理
-        for (OfficialAppointment appointment : appointments) {
-            maskSensitiveInfo(appointment);
-        }
+        return withMaskedFields(appointments);
+    }
+    
+    /**
+     * 查询尚未生成盲索引或脱敏值的公务预约（用于回填），只读取回填所需的列
+     * @param afterAppointmentId 从该预约ID之后开始查询
+     * @param limit 最大返回条数
+     * @return 公务预约列表，按预约ID升序
+     */
+    public List<OfficialAppointment> getPendingBackfill(int afterAppointmentId, int limit) {
+        String sql = "SELECT appointment_id, id_card_encrypted, phone_encrypted FROM official_appointment " +
+                "WHERE appointment_id > ? AND (id_card_bidx IS NULL OR phone_bidx IS NULL " +
+                "OR id_card_masked IS NULL OR phone_masked IS NULL) " +
+                "ORDER BY appointment_id LIMIT ?";
         
-        return appointments;
+        return executeQuery(sql, rs -> {
+            OfficialAppointment appointment = new OfficialAppointment();
+            appointment.setAppointmentId(rs.getInt(1));
+            appointment.setIdCardEncrypted(rs.getString(2));
+            appointment.setPhoneEncrypted(rs.getString(3));
+            return appointment;
+        }, afterAppointmentId, limit);
+    }
+    
+    /**
+     * 批量回填盲索引和脱敏值
+     * @param paramsList 参数列表，每项为 [身份证号盲索引, 手机号盲索引, 身份证号脱敏值, 手机号脱敏值, 预约ID]
+     * @return 影响的行数数组
+     */
+    public int[] updateBackfillColumns(List<Object[]> paramsList) {
+        String sql = "UPDATE official_appointment SET id_card_bidx = ?, phone_bidx = ?, id_card_masked = ?, phone_masked = ? " +
+                "WHERE appointment_id = ?";
+        return executeBatchUpdate(sql, paramsList);
+    }
+    
+    /**
+     * 估算公务预约总数
+     * @return 近似记录数
+     */
+    public long estimateCount() {
+        return estimateRowCount("official_appointment");
     }
     
     /**
@@ -301,103 +495,262 @@ public class OfficialAppointmentDao extends BaseDao {
     public long countAppointments(Timestamp startApplyTime, Timestamp endApplyTime,
                                Timestamp startVisitTime, Timestamp endVisitTime,
                                String campus, Integer visitDeptId, String status) {
-        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM official_appointment WHERE 1=1");
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM official_appointment o WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        
+        appendFilters(sql, params, startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus);
+        
+        if (visitDeptId != null) {
+            sql.append(" AND o.visit_dept_id = ?");
+            params.add(visitDeptId);
+        }
+        
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND o.status = ?");
+            params.add(status);
+        }
+        
+        return queryCount(sql.toString(), params.toArray());
+    }
+    
+    /**
+     * 按指定维度分组统计公务预约数量
+     * @param dimension 分组维度
+     * @param startApplyTime 申请开始时间
+     * @param endApplyTime 申请结束时间
+     * @return 分组键到数量的映射
+     */
+    public Map<String, Long> countGroupBy(GroupDimension dimension, Timestamp startApplyTime, Timestamp endApplyTime) {
+        String groupExpr = dimension.expression("o");
+        StringBuilder sql = new StringBuilder("SELECT " + groupExpr + ", COUNT(*) FROM official_appointment o WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
+        appendFilters(sql, params, startApplyTime, endApplyTime, null, null, null);
+        sql.append(" GROUP BY ").append(groupExpr).append(" ORDER BY ").append(groupExpr);
+        
+        return queryGroupedCount(sql.toString(), params.toArray());
+    }
+    
+    /**
+     * 计算查询结果中尚未持久化的脱敏值（回填前的旧数据需要解密），记录较多时由SMUtil并行处理
+     * @param appointments 查询结果
+     * @return 查询结果本身
+     */
+    private List<OfficialAppointment> withMaskedFields(List<OfficialAppointment> appointments) {
+        SMUtil.decryptAndMaskAll(appointments, BaseAppointment::resolveMaskedFields);
+        return appointments;
+    }
+    
+    /**
+     * 拼接时间范围和校区的公共过滤条件（表别名为o）
+     * @param sql SQL语句
+     * @param params SQL参数
+     * @param startApplyTime 申请开始时间
+     * @param endApplyTime 申请结束时间
+     * @param startVisitTime 预约开始时间
+     * @param endVisitTime 预约结束时间
+     * @param campus 校区
+     */
+    private void appendFilters(StringBuilder sql, List<Object> params,
+                               Timestamp startApplyTime, Timestamp endApplyTime,
+                               Timestamp startVisitTime, Timestamp endVisitTime, String campus) {
         if (startApplyTime != null) {
-            sql.append(" AND apply_time >= ?");
+            sql.append(" AND o.apply_time >= ?");
             params.add(startApplyTime);
         }
         
         if (endApplyTime != null) {
-            sql.append(" AND apply_time <= ?");
+            sql.append(" AND o.apply_time <= ?");
             params.add(endApplyTime);
         }
         
         if (startVisitTime != null) {
-            sql.append(" AND visit_time >= ?");
+            sql.append(" AND o.visit_time >= ?");
             params.add(startVisitTime);
         }
         
         if (endVisitTime != null) {
-            sql.append(" AND visit_time <= ?");
+            sql.append(" AND o.visit_time <= ?");
             params.add(endVisitTime);
         }
         
         if (campus != null && !campus.isEmpty()) {
-            sql.append(" AND campus = ?");
+            sql.append(" AND o.campus = ?");
             params.add(campus);
         }
-        
-        if (visitDeptId != null) {
-            sql.append(" AND visit_dept_id = ?");
-            params.add(visitDeptId);
+    }
+    
+    /**
+     * 拼接单位、接待人的模糊匹配条件（表别名为o）
+     * 未建立pg_trgm索引时，先用二元组副表筛选出包含关键字全部二元组（最多取前几个）的预约，再对筛选结果做模糊匹配复核；
+     * 关键字不足两个字符时没有二元组，直接模糊匹配。
+     * @param sql SQL语句
+     * @param params SQL参数
+     * @param column 列名
+     * @param field 二元组副表中的字段标识
+     * @param keyword 关键字
+     * @param ignoreCase 是否不区分大小写
+     */
+    private void appendKeywordFilter(StringBuilder sql, List<Object> params, String column, char field,
+                                     String keyword, boolean ignoreCase) {
+        if (!isTrigramIndexed()) {
+            Set<String> grams = toGrams(keyword.toLowerCase(Locale.ROOT));
+            if (!grams.isEmpty()) {
+                sql.append(" AND o.appointment_id IN (SELECT appointment_id FROM official_appointment_search_gram " +
+                        "WHERE field = ? AND gram IN (");
+                params.add(String.valueOf(field));
+                int i = 0;
+                for (String gram : grams) {
+                    sql.append(i++ > 0 ? ", ?" : "?");
+                    params.add(gram);
+                }
+                sql.append(") GROUP BY appointment_id HAVING COUNT(*) = ?)");
+                params.add(grams.size());
+            }
         }
         
-        if (status != null && !status.isEmpty()) {
-            sql.append(" AND status = ?");
-            params.add(status);
+        sql.append(" AND o.").append(column).append(ignoreCase ? " ILIKE ?" : " LIKE ?");
+        params.add("%" + escapeLike(keyword) + "%");
+    }
+    
+    /**
+     * 拼接一个字段的相关度表达式，多个字段的相关度相加
+     * @param rank 相关度表达式
+     * @param params SQL参数
+     * @param column 列名
+     * @param keyword 关键字
+     */
+    private void appendRank(StringBuilder rank, List<Object> params, String column, String keyword) {
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        if (rank.length() > 0) {
+            rank.append(" + ");
         }
-        
-        return queryCount(sql.toString(), params.toArray());
+        rank.append("CASE WHEN lower(o.").append(column).append(") = ? THEN 1000 ")
+                .append("WHEN lower(o.").append(column).append(") LIKE ? THEN 800 ")
+                .append("ELSE 600 * ? / GREATEST(char_length(o.").append(column).append("), 1) END");
+        params.add(lowerKeyword);
+        params.add(escapeLike(lowerKeyword) + "%");
+        params.add(lowerKeyword.codePointCount(0, lowerKeyword.length()));
     }
     
     /**
-     * 对敏感信息进行脱敏处理
-     * @param appointment 预约对象
+     * 拆分关键字的二元组（按字符，去重，保持顺序），与迁移脚本中的official_appointment_grams一致
+     * @param keyword 小写的关键字
+     * @return 二元组集合，最多MAX_SEARCH_GRAMS个
      */
-    private void maskSensitiveInfo(OfficialAppointment appointment) {
-        try {
-            // 解密身份证号和手机号
-            String idCard = SMUtil.sm4Decrypt(appointment.getIdCardEncrypted());
-            String phone = SMUtil.sm4Decrypt(appointment.getPhoneEncrypted());
-            
-            // 脱敏处理
-            appointment.setIdCardMasked(SMUtil.maskIdCard(idCard));
-            appointment.setPhoneMasked(SMUtil.maskPhone(phone));
-            appointment.setNameMasked(SMUtil.maskName(appointment.getName()));
-        } catch (Exception e) {
-            e.printStackTrace();
-            // 如果解密失败，直接使用加密后的数据（已经是不可读的）
-            appointment.setIdCardMasked(appointment.getIdCardEncrypted());
-            appointment.setPhoneMasked(appointment.getPhoneEncrypted());
-            appointment.setNameMasked(appointment.getName());
+    private static Set<String> toGrams(String keyword) {
+        Set<String> grams = new LinkedHashSet<>();
+        int[] codePoints = keyword.codePoints().toArray();
+        for (int i = 0; i + 1 < codePoints.length && grams.size() < MAX_SEARCH_GRAMS; i++) {
+            grams.add(new String(codePoints, i, 2));
         }
+        return grams;
+    }
+    
+    /**
+     * 转义LIKE模式中的通配符
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    /**
+     * 判断单位、接待人列是否已建立pg_trgm索引（迁移时扩展可用才会建立），结果在首次调用时查询并缓存
+     */
+    private boolean isTrigramIndexed() {
+        Boolean indexed = trigramIndexed;
+        if (indexed == null) {
+            String sql = "SELECT COUNT(*) FROM pg_indexes WHERE tablename = 'official_appointment' " +
+                    "AND indexname IN ('idx_official_appointment_org_trgm', 'idx_official_appointment_contact_trgm')";
+            indexed = queryCount(sql) == 2;
+            trigramIndexed = indexed;
+        }
+        return indexed;
     }
     
     /**
      * 公务预约行映射器
      */
-    private static class OfficialAppointmentRowMapper implements RowMapper<OfficialAppointment> {
+    private static class OfficialAppointmentRowMapper implements IndexedRowMapper<OfficialAppointment> {
+        private static final String[] COLUMNS = {
+                "appointment_id", "campus", "visit_time", "organization",
+                "name", "id_card_encrypted", "phone_encrypted", "transportation",
+                "plate_number", "visitors", "visit_dept_id", "visit_contact",
+                "visit_reason", "apply_time", "status", "approver_id",
+                "approve_time", "create_time", "update_time",
+                "approver_name", "id_card_masked", "phone_masked", "search_rank"
+        };
+        private static final int APPOINTMENT_ID = 0;
+        private static final int CAMPUS = 1;
+        private static final int VISIT_TIME = 2;
+        private static final int ORGANIZATION = 3;
+        private static final int NAME = 4;
+        private static final int ID_CARD_ENCRYPTED = 5;
+        private static final int PHONE_ENCRYPTED = 6;
+        private static final int TRANSPORTATION = 7;
+        private static final int PLATE_NUMBER = 8;
+        private static final int VISITORS = 9;
+        private static final int VISIT_DEPT_ID = 10;
+        private static final int VISIT_CONTACT = 11;
+        private static final int VISIT_REASON = 12;
+        private static final int APPLY_TIME = 13;
+        private static final int STATUS = 14;
+        private static final int APPROVER_ID = 15;
+        private static final int APPROVE_TIME = 16;
+        private static final int CREATE_TIME = 17;
+        private static final int UPDATE_TIME = 18;
+        private static final int APPROVER_NAME = 19;
+        private static final int ID_CARD_MASKED = 20;
+        private static final int PHONE_MASKED = 21;
+        private static final int SEARCH_RANK = 22;
+        
+        @Override
+        public String[] columns() {
+            return COLUMNS;
+        }
+        
         @Override
-        public OfficialAppointment mapRow(ResultSet rs) throws SQLException {
+        public OfficialAppointment mapRow(ResultSet rs, int[] idx) throws SQLException {
             OfficialAppointment appointment = new OfficialAppointment();
-            appointment.setAppointmentId(rs.getInt("appointment_id"));
-            appointment.setCampus(rs.getString("campus"));
-            appointment.setVisitTime(rs.getTimestamp("visit_time"));
-            appointment.setOrganization(rs.getString("organization"));
-            appointment.setName(rs.getString("name"));
-            appointment.setIdCardEncrypted(rs.getString("id_card_encrypted"));
-            appointment.setPhoneEncrypted(rs.getString("phone_encrypted"));
-            appointment.setTransportation(rs.getString("transportation"));
-            appointment.setPlateNumber(rs.getString("plate_number"));
-            appointment.setVisitors(rs.getInt("visitors"));
-            appointment.setVisitDeptId(rs.getInt("visit_dept_id"));
-            appointment.setVisitContact(rs.getString("visit_contact"));
-            appointment.setVisitReason(rs.getString("visit_reason"));
-            appointment.setApplyTime(rs.getTimestamp("apply_time"));
-            appointment.setStatus(rs.getString("status"));
-            appointment.setApproverId(rs.getInt("approver_id"));
-            appointment.setApproveTime(rs.getTimestamp("approve_time"));
-            appointment.setCreateTime(rs.getTimestamp("create_time"));
-            appointment.setUpdateTime(rs.getTimestamp("update_time"));
+            appointment.setAppointmentId(rs.getInt(idx[APPOINTMENT_ID]));
+            appointment.setCampus(rs.getString(idx[CAMPUS]));
+            appointment.setVisitTime(rs.getTimestamp(idx[VISIT_TIME]));
+            appointment.setOrganization(rs.getString(idx[ORGANIZATION]));
+            appointment.setName(rs.getString(idx[NAME]));
+            appointment.setIdCardEncrypted(rs.getString(idx[ID_CARD_ENCRYPTED]));
+            appointment.setPhoneEncrypted(rs.getString(idx[PHONE_ENCRYPTED]));
+            appointment.setTransportation(rs.getString(idx[TRANSPORTATION]));
+            appointment.setPlateNumber(rs.getString(idx[PLATE_NUMBER]));
+            appointment.setVisitors(rs.getInt(idx[VISITORS]));
+            appointment.setVisitDeptId(rs.getInt(idx[VISIT_DEPT_ID]));
+            appointment.setVisitContact(rs.getString(idx[VISIT_CONTACT]));
+            appointment.setVisitReason(rs.getString(idx[VISIT_REASON]));
+            appointment.setApplyTime(rs.getTimestamp(idx[APPLY_TIME]));
+            appointment.setStatus(rs.getString(idx[STATUS]));
+            appointment.setApproverId(rs.getInt(idx[APPROVER_ID]));
+            appointment.setApproveTime(rs.getTimestamp(idx[APPROVE_TIME]));
+            appointment.setCreateTime(rs.getTimestamp(idx[CREATE_TIME]));
+            appointment.setUpdateTime(rs.getTimestamp(idx[UPDATE_TIME]));
+            
+            // 部门名称从内存中的部门注册表获取，无需联表
+            appointment.setVisitDeptName(DepartmentRegistry.getInstance().getDeptName(appointment.getVisitDeptId()));
+            
+            // 关联字段（仅联表查询时存在）
+            if (idx[APPROVER_NAME] > 0) {
+                appointment.setApproverName(rs.getString(idx[APPROVER_NAME]));
+            }
+            
+            // 持久化的脱敏值（旧数据回填前为空，读取时按需解密计算）
+            if (idx[ID_CARD_MASKED] > 0) {
+                appointment.setIdCardMasked(rs.getString(idx[ID_CARD_MASKED]));
+            }
+            if (idx[PHONE_MASKED] > 0) {
+                appointment.setPhoneMasked(rs.getString(idx[PHONE_MASKED]));
+            }
             
-            // 关联字段
-            try {
-                appointment.setVisitDeptName(rs.getString("visit_dept_name"));
-                appointment.setApproverName(rs.getString("approver_name"));
-            } catch (SQLException e) {
-                // 忽略可能不存在的字段
+            // 检索相关度（仅检索查询时存在）
+            if (idx[SEARCH_RANK] > 0) {
+                appointment.setSearchRank(rs.getInt(idx[SEARCH_RANK]));
             }
             
             return appointment;
@@ -1,5 +1,6 @@
 package com.example.javawebcurriculumdesign.dao;
 
+import com.example.javawebcurriculumdesign.model.BaseAppointment;
 import com.example.javawebcurriculumdesign.model.PublicAppointment;
 import com.example.javawebcurriculumdesign.util.SMUtil;
 
@@ -11,21 +12,34 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 社会公众预约数据访问对象
  */
 public class PublicAppointmentDao extends BaseDao {
     
+    private static final String INSERT_COLUMNS = "campus, visit_time, organization, name, " +
+            "id_card_encrypted, phone_encrypted, transportation, plate_number, visitors, apply_time, status, " +
+            "id_card_bidx, phone_bidx, id_card_masked, phone_masked";
+    private static final String INSERT_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    // 每行插入的参数个数
+    static final int INSERT_PARAM_COUNT = 15;
+    // 批量插入时每行的参数个数（另外显式写入预留的主键）
+    static final int BATCH_INSERT_PARAM_COUNT = INSERT_PARAM_COUNT + 1;
+    
+    // 从主键序列一次预留多个ID
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('public_appointment', 'appointment_id')) FROM generate_series(1, ?)";
+    
     /**
      * 添加社会公众预约
      * @param appointment 社会公众预约对象
      * @return 新增记录的ID，如果添加失败则返回-1
      */
     public int add(PublicAppointment appointment) {
-        String sql = "INSERT INTO public_appointment (campus, visit_time, organization, name, " +
-                "id_card_encrypted, phone_encrypted, transportation, plate_number, visitors, apply_time, status) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO public_appointment (" + INSERT_COLUMNS + ") VALUES " + INSERT_PLACEHOLDERS;
         
         Connection conn = null;
         PreparedStatement ps = null;
@@ -34,17 +48,7 @@ public class PublicAppointmentDao extends BaseDao {
             conn = com.example.javawebcurriculumdesign.util.DBUtil.getConnection();
             ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             
-            ps.setString(1, appointment.getCampus());
-            ps.setTimestamp(2, appointment.getVisitTime());
-            ps.setString(3, appointment.getOrganization());
-            ps.setString(4, appointment.getName());
-            ps.setString(5, appointment.getIdCardEncrypted());
-            ps.setString(6, appointment.getPhoneEncrypted());
-            ps.setString(7, appointment.getTransportation());
-            ps.setString(8, appointment.getPlateNumber());
-            ps.setInt(9, appointment.getVisitors() != null ? appointment.getVisitors() : 1);
-            ps.setTimestamp(10, appointment.getApplyTime() != null ? appointment.getApplyTime() : new Timestamp(System.currentTimeMillis()));
-            ps.setString(11, appointment.getStatus());
+            bindInsertParams(ps, 0, appointment);
             
             int affectedRows = ps.executeUpdate();
             if (affectedRows == 0) {
@@ -65,6 +69,104 @@ public class PublicAppointmentDao extends BaseDao {
         }
     }
     
+    /**
+     * 批量添加社会公众预约
+     * 先从主键序列预留与记录数相同的ID并按顺序分配给各条记录，再用一条多行INSERT显式写入主键，
+     * 每条记录的ID在插入前就已确定，不依赖数据库返回生成主键的顺序。
+     * 在同一事务中写入，任一行失败则全部回滚（预留的ID不会复用，只会在主键中留下空缺）。
+     * @param appointments 社会公众预约列表
+     * @return 新增记录的ID，顺序与参数列表一致
+     */
+    public int[] addAll(List<PublicAppointment> appointments) {
+        if (appointments.isEmpty()) {
+            return new int[0];
+        }
+        
+        StringBuilder sql = new StringBuilder("INSERT INTO public_appointment (appointment_id, " + INSERT_COLUMNS + ") VALUES ");
+        for (int i = 0; i < appointments.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ").append(INSERT_PLACEHOLDERS.substring(1));
+        }
+        
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = com.example.javawebcurriculumdesign.util.DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            
+            // 预留主键
+            int[] ids = new int[appointments.size()];
+            ps = conn.prepareStatement(RESERVE_IDS_SQL);
+            ps.setInt(1, ids.length);
+            rs = ps.executeQuery();
+            int count = 0;
+            while (rs.next() && count < ids.length) {
+                ids[count++] = rs.getInt(1);
+            }
+            if (count != ids.length) {
+                throw new SQLException("预留主键数量不一致: 期望 " + ids.length + "，实际 " + count);
+            }
+            rs.close();
+            ps.close();
+            
+            ps = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < appointments.size(); i++) {
+                int offset = i * BATCH_INSERT_PARAM_COUNT;
+                ps.setInt(offset + 1, ids[i]);
+                bindInsertParams(ps, offset + 1, appointments.get(i));
+            }
+            if (ps.executeUpdate() != ids.length) {
+                throw new SQLException("批量添加的记录数不一致: 期望 " + ids.length);
+            }
+            
+            conn.commit();
+            return ids;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            throw new RuntimeException("批量添加社会公众预约失败", e);
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            com.example.javawebcurriculumdesign.util.DBUtil.close(conn, ps, rs);
+        }
+    }
+    
+    /**
+     * 设置一行插入参数
+     * @param ps 预编译语句
+     * @param offset 该行第一个参数之前的参数个数
+     * @param appointment 社会公众预约对象
+     */
+    private void bindInsertParams(PreparedStatement ps, int offset, PublicAppointment appointment) throws SQLException {
+        ps.setString(offset + 1, appointment.getCampus());
+        ps.setTimestamp(offset + 2, appointment.getVisitTime());
+        ps.setString(offset + 3, appointment.getOrganization());
+        ps.setString(offset + 4, appointment.getName());
+        ps.setString(offset + 5, appointment.getIdCardEncrypted());
+        ps.setString(offset + 6, appointment.getPhoneEncrypted());
+        ps.setString(offset + 7, appointment.getTransportation());
+        ps.setString(offset + 8, appointment.getPlateNumber());
+        ps.setInt(offset + 9, appointment.getVisitors() != null ? appointment.getVisitors() : 1);
+        ps.setTimestamp(offset + 10, appointment.getApplyTime() != null ? appointment.getApplyTime() : new Timestamp(System.currentTimeMillis()));
+        ps.setString(offset + 11, appointment.getStatus());
+        ps.setString(offset + 12, appointment.getIdCardBlindIndex());
+        ps.setString(offset + 13, appointment.getPhoneBlindIndex());
+        ps.setString(offset + 14, appointment.getIdCardMasked());
+        ps.setString(offset + 15, appointment.getPhoneMasked());
+    }
+    
     /**
      * 根据ID删除社会公众预约
      * @param appointmentId 预约ID
@@ -99,6 +201,19 @@ public class PublicAppointmentDao extends BaseDao {
                 appointment.getAppointmentId());
     }
     
+    /**
+     * 按原状态更新社会公众预约状态
+     * 只有预约当前仍处于预期状态时才更新，同一预约的并发审核、取消只有一个能成功
+     * @param appointmentId 预约ID
+     * @param expectedStatus 预期的当前状态
+     * @param status 新状态
+     * @return 影响的行数
+     */
+    public int updateStatus(Integer appointmentId, String expectedStatus, String status) {
+        String sql = "UPDATE public_appointment SET status = ? WHERE appointment_id = ? AND status = ?";
+        return executeUpdate(sql, status, appointmentId, expectedStatus);
+    }
+    
     /**
      * 根据ID查询社会公众预约
      * @param appointmentId 预约ID
@@ -107,31 +222,34 @@ public class PublicAppointmentDao extends BaseDao {
     public PublicAppointment getById(Integer appointmentId) {
         String sql = "SELECT * FROM public_appointment WHERE appointment_id = ?";
         PublicAppointment appointment = querySingle(sql, new PublicAppointmentRowMapper(), appointmentId);
-        if (appointment != null) {
-            maskSensitiveInfo(appointment);
-        }
         return appointment;
     }
     
     /**
-     * 根据身份证号和手机号查询社会公众预约
-     * @param idCardEncrypted 加密后的身份证号
-     * @param phoneEncrypted 加密后的手机号
+     * 查询预约时间最近的社会公众预约
+     * 按visit_time索引倒序扫描，只读取需要的行
+     * @param limit 最多返回的记录数
+     * @return 社会公众预约列表（按预约时间倒序）
+     */
+    public List<PublicAppointment> getRecentByVisitTime(int limit) {
+        String sql = "SELECT * FROM public_appointment ORDER BY visit_time DESC LIMIT ?";
+        return executeQuery(sql, new PublicAppointmentRowMapper(), limit);
+    }
+    
+    /**
+     * 根据身份证号和手机号的盲索引查询社会公众预约
+     * @param idCardBlindIndex 身份证号盲索引
+     * @param phoneBlindIndex 手机号盲索引
      * @return 社会公众预约列表
      */
-    public List<PublicAppointment> getByIdCardAndPhone(String idCardEncrypted, String phoneEncrypted) {
-        String sql = "SELECT * FROM public_appointment WHERE id_card_encrypted = ? AND phone_encrypted = ? " +
+    public List<PublicAppointment> getByIdCardAndPhone(String idCardBlindIndex, String phoneBlindIndex) {
+        String sql = "SELECT * FROM public_appointment WHERE id_card_bidx = ? AND phone_bidx = ? " +
                 "ORDER BY apply_time DESC";
         
         List<PublicAppointment> appointments = executeQuery(sql, new PublicAppointmentRowMapper(), 
-                idCardEncrypted, phoneEncrypted);
+                idCardBlindIndex, phoneBlindIndex);
         
-        // 对敏感信息进行脱敏处理
-        for (PublicAppointment appointment : appointments) {
-            maskSensitiveInfo(appointment);
-        }
-        
-        return appointments;
+        return withMaskedFields(appointments);
     }
     
     /**
@@ -143,39 +261,16 @@ public class PublicAppointmentDao extends BaseDao {
      * @param campus 校区
      * @param organization 单位
      * @param name 姓名
-     * @param idCardEncrypted 加密后的身份证号
+     * @param idCardBlindIndex 身份证号盲索引
      * @return 社会公众预约列表
      */
     public List<PublicAppointment> query(Timestamp startApplyTime, Timestamp endApplyTime,
                                      Timestamp startVisitTime, Timestamp endVisitTime,
-                                     String campus, String organization, String name, String idCardEncrypted) {
+                                     String campus, String organization, String name, String idCardBlindIndex) {
         StringBuilder sql = new StringBuilder("SELECT * FROM public_appointment WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
-        if (startApplyTime != null) {
-            sql.append(" AND apply_time >= ?");
-            params.add(startApplyTime);
-        }
-        
-        if (endApplyTime != null) {
-            sql.append(" AND apply_time <= ?");
-            params.add(endApplyTime);
-        }
-        
-        if (startVisitTime != null) {
-            sql.append(" AND visit_time >= ?");
-            params.add(startVisitTime);
-        }
-        
-        if (endVisitTime != null) {
-            sql.append(" AND visit_time <= ?");
-            params.add(endVisitTime);
-        }
-        
-        if (campus != null && !campus.isEmpty()) {
-            sql.append(" AND campus = ?");
-            params.add(campus);
-        }
+        appendFilters(sql, params, startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus);
         
         if (organization != null && !organization.isEmpty()) {
             sql.append(" AND organization LIKE ?");
@@ -187,9 +282,9 @@ public class PublicAppointmentDao extends BaseDao {
             params.add(name);
         }
         
-        if (idCardEncrypted != null && !idCardEncrypted.isEmpty()) {
-            sql.append(" AND id_card_encrypted = ?");
-            params.add(idCardEncrypted);
+        if (idCardBlindIndex != null && !idCardBlindIndex.isEmpty()) {
+            sql.append(" AND id_card_bidx = ?");
+            params.add(idCardBlindIndex);
         }
         
         sql.append(" ORDER BY apply_time DESC");
@@ -197,12 +292,113 @@ public class PublicAppointmentDao extends BaseDao {
         List<PublicAppointment> appointments = executeQuery(sql.toString(), new PublicAppointmentRowMapper(), 
                 params.toArray());
         
-        // 对敏感信息进行脱敏处理
-        for (PublicAppointment appointment : appointments) {
-            maskSensitiveInfo(appointment);
+        return withMaskedFields(appointments);
+    }
+    
+    /**
+     * 按校区、状态流式遍历社会公众预约（按申请时间倒序），不在内存中保留结果
+     * @param campus 校区（可选）
+     * @param status 状态（可选）
+     * @param callback 行回调
+     * @return 遍历的预约数量
+     */
+    public long forEach(String campus, String status, RowCallback<PublicAppointment> callback) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM public_appointment WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        
+        appendFilters(sql, params, null, null, null, null, campus);
+        
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND status = ?");
+            params.add(status);
         }
         
-        return appointments;
+        sql.append(" ORDER BY apply_time DESC");
+        
+        return streamQuery(sql.toString(), new PublicAppointmentRowMapper(), callback, params.toArray());
+    }
+    
+    /**
+     * 按键集分页查询社会公众预约（按申请时间、预约ID倒序）
+     * @param startApplyTime 申请开始时间
+     * @param endApplyTime 申请结束时间
+     * @param startVisitTime 预约开始时间
+     * @param endVisitTime 预约结束时间
+     * @param campus 校区
+     * @param status 状态
+     * @param afterApplyTime 上一页最后一条记录的申请时间（第一页为null）
+     * @param afterAppointmentId 上一页最后一条记录的预约ID（第一页为null）
+     * @param limit 最多返回的记录数
+     * @return 社会公众预约列表
+     */
+    public List<PublicAppointment> queryPage(Timestamp startApplyTime, Timestamp endApplyTime,
+                                             Timestamp startVisitTime, Timestamp endVisitTime,
+                                             String campus, String status,
+                                             Timestamp afterApplyTime, Integer afterAppointmentId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM public_appointment WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        
+        appendFilters(sql, params, startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus);
+        
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND status = ?");
+            params.add(status);
+        }
+        
+        // 行值比较，配合 (apply_time, appointment_id) 排序可直接从上一页末尾继续扫描
+        if (afterApplyTime != null && afterAppointmentId != null) {
+            sql.append(" AND (apply_time, appointment_id) < (?, ?)");
+            params.add(afterApplyTime);
+            params.add(afterAppointmentId);
+        }
+        
+        sql.append(" ORDER BY apply_time DESC, appointment_id DESC LIMIT ?");
+        params.add(limit);
+        
+        List<PublicAppointment> appointments = executeQuery(sql.toString(), new PublicAppointmentRowMapper(), 
+                params.toArray());
+        
+        return withMaskedFields(appointments);
+    }
+    
+    /**
+     * 查询尚未生成盲索引或脱敏值的社会公众预约（用于回填），只读取回填所需的列
+     * @param afterAppointmentId 从该预约ID之后开始查询
+     * @param limit 最大返回条数
+     * @return 社会公众预约列表，按预约ID升序
+     */
+    public List<PublicAppointment> getPendingBackfill(int afterAppointmentId, int limit) {
+        String sql = "SELECT appointment_id, id_card_encrypted, phone_encrypted FROM public_appointment " +
+                "WHERE appointment_id > ? AND (id_card_bidx IS NULL OR phone_bidx IS NULL " +
+                "OR id_card_masked IS NULL OR phone_masked IS NULL) " +
+                "ORDER BY appointment_id LIMIT ?";
+        
+        return executeQuery(sql, rs -> {
+            PublicAppointment appointment = new PublicAppointment();
+            appointment.setAppointmentId(rs.getInt(1));
+            appointment.setIdCardEncrypted(rs.getString(2));
+            appointment.setPhoneEncrypted(rs.getString(3));
+            return appointment;
+        }, afterAppointmentId, limit);
+    }
+    
+    /**
+     * 批量回填盲索引和脱敏值
+     * @param paramsList 参数列表，每项为 [身份证号盲索引, 手机号盲索引, 身份证号脱敏值, 手机号脱敏值, 预约ID]
+     * @return 影响的行数数组
+     */
+    public int[] updateBackfillColumns(List<Object[]> paramsList) {
+        String sql = "UPDATE public_appointment SET id_card_bidx = ?, phone_bidx = ?, id_card_masked = ?, phone_masked = ? " +
+                "WHERE appointment_id = ?";
+        return executeBatchUpdate(sql, paramsList);
+    }
+    
+    /**
+     * 估算社会公众预约总数
+     * @return 近似记录数
+     */
+    public long estimateCount() {
+        return estimateRowCount("public_appointment");
     }
     
     /**
@@ -221,6 +417,61 @@ public class PublicAppointmentDao extends BaseDao {
         StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM public_appointment WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
+        appendFilters(sql, params, startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus);
+        
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND status = ?");
+            params.add(status);
+        }
+        
+        return queryCount(sql.toString(), params.toArray());
+    }
+    
+    /**
+     * 按指定维度分组统计社会公众预约数量
+     * @param dimension 分组维度
+     * @param startApplyTime 申请开始时间
+     * @param endApplyTime 申请结束时间
+     * @return 分组键到数量的映射
+     */
+    public Map<String, Long> countGroupBy(GroupDimension dimension, Timestamp startApplyTime, Timestamp endApplyTime) {
+        if (dimension == GroupDimension.DEPT) {
+            throw new IllegalArgumentException("社会公众预约不支持按部门统计");
+        }
+        
+        String groupExpr = dimension.expression(null);
+        StringBuilder sql = new StringBuilder("SELECT " + groupExpr + ", COUNT(*) FROM public_appointment WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        
+        appendFilters(sql, params, startApplyTime, endApplyTime, null, null, null);
+        sql.append(" GROUP BY ").append(groupExpr).append(" ORDER BY ").append(groupExpr);
+        
+        return queryGroupedCount(sql.toString(), params.toArray());
+    }
+    
+    /**
+     * 计算查询结果中尚未持久化的脱敏值（回填前的旧数据需要解密），记录较多时由SMUtil并行处理
+     * @param appointments 查询结果
+     * @return 查询结果本身
+     */
+    private List<PublicAppointment> withMaskedFields(List<PublicAppointment> appointments) {
+        SMUtil.decryptAndMaskAll(appointments, BaseAppointment::resolveMaskedFields);
+        return appointments;
+    }
+    
+    /**
+     * 拼接时间范围和校区的公共过滤条件
+     * @param sql SQL语句
+     * @param params SQL参数
+     * @param startApplyTime 申请开始时间
+     * @param endApplyTime 申请结束时间
+     * @param startVisitTime 预约开始时间
+     * @param endVisitTime 预约结束时间
+     * @param campus 校区
+     */
+    private void appendFilters(StringBuilder sql, List<Object> params,
+                               Timestamp startApplyTime, Timestamp endApplyTime,
+                               Timestamp startVisitTime, Timestamp endVisitTime, String campus) {
         if (startApplyTime != null) {
             sql.append(" AND apply_time >= ?");
             params.add(startApplyTime);
@@ -245,59 +496,66 @@ public class PublicAppointmentDao extends BaseDao {
             sql.append(" AND campus = ?");
             params.add(campus);
         }
-        
-        if (status != null && !status.isEmpty()) {
-            sql.append(" AND status = ?");
-            params.add(status);
-        }
-        
-        return queryCount(sql.toString(), params.toArray());
-    }
-    
-    /**
-     * 对敏感信息进行脱敏处理
-     * @param appointment 预约对象
-     */
-    private void maskSensitiveInfo(PublicAppointment appointment) {
-        try {
-            // 解密身份证号和手机号
-            String idCard = SMUtil.sm4Decrypt(appointment.getIdCardEncrypted());
-            String phone = SMUtil.sm4Decrypt(appointment.getPhoneEncrypted());
-            
-            // 脱敏处理
-            appointment.setIdCardMasked(SMUtil.maskIdCard(idCard));
-            appointment.setPhoneMasked(SMUtil.maskPhone(phone));
-            appointment.setNameMasked(SMUtil.maskName(appointment.getName()));
-        } catch (Exception e) {
-            e.printStackTrace();
-            // 如果解密失败，直接使用加密后的数据（已经是不可读的）
-            appointment.setIdCardMasked(appointment.getIdCardEncrypted());
-            appointment.setPhoneMasked(appointment.getPhoneEncrypted());
-            appointment.setNameMasked(appointment.getName());
-        }
     }
     
     /**
      * 社会公众预约行映射器
      */
-    private static class PublicAppointmentRowMapper implements RowMapper<PublicAppointment> {
+    private static class PublicAppointmentRowMapper implements IndexedRowMapper<PublicAppointment> {
+        private static final String[] COLUMNS = {
+                "appointment_id", "campus", "visit_time", "organization",
+                "name", "id_card_encrypted", "phone_encrypted", "transportation",
+                "plate_number", "visitors", "apply_time", "status",
+                "create_time", "update_time", "id_card_masked", "phone_masked"
+        };
+        private static final int APPOINTMENT_ID = 0;
+        private static final int CAMPUS = 1;
+        private static final int VISIT_TIME = 2;
+        private static final int ORGANIZATION = 3;
+        private static final int NAME = 4;
+        private static final int ID_CARD_ENCRYPTED = 5;
+        private static final int PHONE_ENCRYPTED = 6;
+        private static final int TRANSPORTATION = 7;
+        private static final int PLATE_NUMBER = 8;
+        private static final int VISITORS = 9;
+        private static final int APPLY_TIME = 10;
+        private static final int STATUS = 11;
+        private static final int CREATE_TIME = 12;
+        private static final int UPDATE_TIME = 13;
+        private static final int ID_CARD_MASKED = 14;
+        private static final int PHONE_MASKED = 15;
+        
         @Override
-        public PublicAppointment mapRow(ResultSet rs) throws SQLException {
+        public String[] columns() {
+            return COLUMNS;
+        }
+        
+        @Override
+        public PublicAppointment mapRow(ResultSet rs, int[] idx) throws SQLException {
             PublicAppointment appointment = new PublicAppointment();
-            appointment.setAppointmentId(rs.getInt("appointment_id"));
-            appointment.setCampus(rs.getString("campus"));
-            appointment.setVisitTime(rs.getTimestamp("visit_time"));
-            appointment.setOrganization(rs.getString("organization"));
-            appointment.setName(rs.getString("name"));
-            appointment.setIdCardEncrypted(rs.getString("id_card_encrypted"));
-            appointment.setPhoneEncrypted(rs.getString("phone_encrypted"));
-            appointment.setTransportation(rs.getString("transportation"));
-            appointment.setPlateNumber(rs.getString("plate_number"));
-            appointment.setVisitors(rs.getInt("visitors"));
-            appointment.setApplyTime(rs.getTimestamp("apply_time"));
-            appointment.setStatus(rs.getString("status"));
-            appointment.setCreateTime(rs.getTimestamp("create_time"));
-            appointment.setUpdateTime(rs.getTimestamp("update_time"));
+            appointment.setAppointmentId(rs.getInt(idx[APPOINTMENT_ID]));
+            appointment.setCampus(rs.getString(idx[CAMPUS]));
+            appointment.setVisitTime(rs.getTimestamp(idx[VISIT_TIME]));
+            appointment.setOrganization(rs.getString(idx[ORGANIZATION]));
+            appointment.setName(rs.getString(idx[NAME]));
+            appointment.setIdCardEncrypted(rs.getString(idx[ID_CARD_ENCRYPTED]));
+            appointment.setPhoneEncrypted(rs.getString(idx[PHONE_ENCRYPTED]));
+            appointment.setTransportation(rs.getString(idx[TRANSPORTATION]));
+            appointment.setPlateNumber(rs.getString(idx[PLATE_NUMBER]));
+            appointment.setVisitors(rs.getInt(idx[VISITORS]));
+            appointment.setApplyTime(rs.getTimestamp(idx[APPLY_TIME]));
+            appointment.setStatus(rs.getString(idx[STATUS]));
+            appointment.setCreateTime(rs.getTimestamp(idx[CREATE_TIME]));
+            appointment.setUpdateTime(rs.getTimestamp(idx[UPDATE_TIME]));
+            
+            // 持久化的脱敏值（旧数据回填前为空，读取时按需解密计算）
+            if (idx[ID_CARD_MASKED] > 0) {
+                appointment.setIdCardMasked(rs.getString(idx[ID_CARD_MASKED]));
+            }
+            if (idx[PHONE_MASKED] > 0) {
+                appointment.setPhoneMasked(rs.getString(idx[PHONE_MASKED]));
+            }
+            
             return appointment;
         }
     }
@@ -0,0 +1,234 @@
+package com.example.javawebcurriculumdesign.dao;
+
+import com.example.javawebcurriculumdesign.model.PublicAppointment;
+import com.example.javawebcurriculumdesign.util.DBUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 社会公众预约合并写入器
+ * 预约开放时段的并发提交先进入队列，由后台线程在几毫秒内合并为一条多行INSERT并在一个事务中写入，
+ * 每个提交线程阻塞等待自己那一行生成的ID。写入只占用一个连接，吞吐不再受连接池大小限制。
+ * 整批写入失败时逐条重试，一条非法数据不会导致同批其他提交失败。
+ * 提交线程最多等待SUBMIT_TIMEOUT_MS；后台线程意外退出时，下一次提交重新启动后台线程。
+ */
+public class PublicAppointmentGroupWriter {
+    private static final PublicAppointmentGroupWriter INSTANCE = new PublicAppointmentGroupWriter();
+
+    // PostgreSQL 单条语句最多 32767 个绑定参数
+    private static final int MAX_BATCH_SIZE = 32767 / PublicAppointmentDao.BATCH_INSERT_PARAM_COUNT;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+    // 提交线程等待写入完成的最长时间
+    private static final long SUBMIT_TIMEOUT_MS = 30000;
+
+    private final PublicAppointmentDao publicAppointmentDao = new PublicAppointmentDao();
+    private final BlockingQueue<PendingInsert> queue = new LinkedBlockingQueue<>();
+    private Thread worker;
+    private volatile boolean running;
+    private boolean closed;
+
+    private PublicAppointmentGroupWriter() {
+    }
+
+    public static PublicAppointmentGroupWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 提交一条预约并等待写入完成
+     * @param appointment 社会公众预约对象
+     * @return 新增记录的ID，如果添加失败则返回-1
+     */
+    public int submit(PublicAppointment appointment) {
+        PendingInsert pending = new PendingInsert(appointment);
+        if (!enqueue(pending)) {
+            // 已关闭（应用停止过程中），直接写入
+            return publicAppointmentDao.add(appointment);
+        }
+
+        try {
+            return pending.result.get(SUBMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            abandon(pending, e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待预约写入被中断", e);
+        } catch (TimeoutException e) {
+            abandon(pending, e);
+            throw new RuntimeException("等待预约写入超时", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("添加社会公众预约失败", e.getCause());
+        }
+    }
+
+    /**
+     * 放弃一条不再等待的提交：仍在队列中的直接移除，已取出但尚未写入的在写入前跳过
+     */
+    private void abandon(PendingInsert pending, Exception cause) {
+        queue.remove(pending);
+        pending.result.completeExceptionally(cause);
+    }
+
+    /**
+     * 停止后台线程，写完队列中剩余的提交
+     */
+    public void shutdown() {
+        Thread current;
+        synchronized (this) {
+            closed = true;
+            running = false;
+            current = worker;
+            worker = null;
+        }
+        if (current != null) {
+            try {
+                current.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 后台线程退出后仍可能有并发入队的提交，在当前线程写完
+        List<PendingInsert> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * 将提交加入队列，首次提交时启动后台线程
+     * 与shutdown互斥，保证关闭后不会再有提交进入队列
+     * @return 是否已加入队列，写入器已关闭时返回false
+     */
+    private synchronized boolean enqueue(PendingInsert pending) {
+        if (closed) {
+            return false;
+        }
+        if (worker == null) {
+            running = true;
+            worker = new Thread(this::run, "public-appointment-group-writer");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        queue.add(pending);
+        return true;
+    }
+
+    /**
+     * 后台线程：取出第一条提交后最多再等待maxWaitMs收集后续提交，然后整批写入
+     */
+    private void run() {
+        try {
+            collectAndFlush();
+        } finally {
+            // 后台线程意外退出（如Error）时清除引用，下一次提交重新启动后台线程
+            synchronized (this) {
+                if (worker == Thread.currentThread()) {
+                    worker = null;
+                }
+            }
+        }
+    }
+
+    private void collectAndFlush() {
+        int maxBatchSize = Math.max(1, Math.min(DBUtil.getGroupCommitMaxBatchSize(), MAX_BATCH_SIZE));
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(DBUtil.getGroupCommitMaxWaitMs());
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    // 上一批写入期间积压的提交直接取走，不再等待
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 关闭时由循环条件写完剩余提交后退出
+            } catch (Throwable e) {
+                // 包括Error：本批提交全部失败，后台线程继续处理后续提交
+                e.printStackTrace();
+                for (PendingInsert pending : batch) {
+                    pending.result.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 写入一批提交并通知各提交线程
+     */
+    private void flush(List<PendingInsert> batch) {
+        // 跳过提交线程已超时放弃的提交
+        batch.removeIf(pending -> pending.result.isDone());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<PublicAppointment> appointments = new ArrayList<>(batch.size());
+        for (PendingInsert pending : batch) {
+            appointments.add(pending.appointment);
+        }
+
+        try {
+            int[] ids = publicAppointmentDao.addAll(appointments);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(ids[i]);
+            }
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            System.err.println("合并写入 " + batch.size() + " 条预约失败，改为逐条写入: " + e.getMessage());
+        }
+
+        for (PendingInsert pending : batch) {
+            try {
+                pending.result.complete(publicAppointmentDao.add(pending.appointment));
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 等待写入的提交
+     */
+    private static class PendingInsert {
+        private final PublicAppointment appointment;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        private PendingInsert(PublicAppointment appointment) {
+            this.appointment = appointment;
+        }
+    }
+}
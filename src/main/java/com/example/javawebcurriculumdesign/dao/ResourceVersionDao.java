@@ -0,0 +1,60 @@
+package com.example.javawebcurriculumdesign.dao;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * 数据版本数据访问对象
+ * 用一条聚合查询（记录数、最大ID、最大更新时间）概括某张表在指定范围内的数据状态，
+ * 供条件请求（ETag/Last-Modified）判断数据是否变化，无需执行完整查询。
+ * 记录数反映删除，最大ID反映新增，最大更新时间（由触发器维护）反映修改。
+ */
+public class ResourceVersionDao extends BaseDao {
+    
+    /**
+     * 查询表在指定范围内的数据版本
+     * @param table 表名（仅限代码中的常量，不能来自用户输入）
+     * @param idColumn 自增主键列
+     * @param timeColumn 更新时间列
+     * @param condition 范围条件（不含WHERE，可为null，参数使用占位符）
+     * @param params 条件参数
+     * @return 数据版本
+     */
+    public Version getVersion(String table, String idColumn, String timeColumn, String condition, Object... params) {
+        String sql = "SELECT COUNT(*), MAX(" + idColumn + "), MAX(" + timeColumn + ") FROM " + table +
+                (condition != null ? " WHERE " + condition : "");
+        List<Version> result = executeQuery(sql, rs -> new Version(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3)),
+                params);
+        return result.isEmpty() ? new Version(0, 0, null) : result.get(0);
+    }
+    
+    /**
+     * 数据版本
+     */
+    public static class Version {
+        private final long count;
+        private final long maxId;
+        private final Timestamp lastModified;
+        
+        public Version(long count, long maxId, Timestamp lastModified) {
+            this.count = count;
+            this.maxId = maxId;
+            this.lastModified = lastModified;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public long getMaxId() {
+            return maxId;
+        }
+        
+        /**
+         * @return 范围内最大的更新时间，范围内没有记录时为null
+         */
+        public Timestamp getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -1,44 +1,175 @@
 package com.example.javawebcurriculumdesign.dao;
 
+import com.example.javawebcurriculumdesign.model.LogChainVerification;
 import com.example.javawebcurriculumdesign.model.SystemLog;
+import com.example.javawebcurriculumdesign.model.SystemLogCheckpoint;
+import com.example.javawebcurriculumdesign.util.DBUtil;
 import com.example.javawebcurriculumdesign.util.SMUtil;
 import com.example.javawebcurriculumdesign.util.CryptoConfig;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 系统日志数据访问对象
+ * 日志按写入顺序组成哈希链：每条日志分配连续的链序号，哈希覆盖链序号、前一条日志的哈希和日志内容，
+ * 删除、插入或改动任何一条日志都会使链断开。每隔一段日志生成一个签名检查点，
+ * 校验时先校验检查点签名链，再只重新计算最后一个可信检查点之后的日志。
+ * 哈希链启用前写入的日志（chain_seq为空）仍逐条校验。
  */
 public class SystemLogDao extends BaseDao {
     
+    // 哈希链起点：第一条日志的前一哈希，也是第一个检查点的前一签名
+    public static final String GENESIS_HASH = "0000000000000000000000000000000000000000000000000000000000000000";
+    
+    private static final String INSERT_SQL = "INSERT INTO system_log " +
+            "(admin_id, operation, description, ip_address, operation_time, log_hash, chain_seq) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    // 写入日志时锁定链头，多个实例的写入按顺序接在链尾
+    private static final String LOCK_HEAD_SQL = "SELECT last_seq, last_hash FROM system_log_chain_head WHERE head_id = 1 FOR UPDATE";
+    private static final String UPDATE_HEAD_SQL = "UPDATE system_log_chain_head SET last_seq = ?, last_hash = ? WHERE head_id = 1";
+    private static final String HEAD_SEQ_SQL = "SELECT last_seq FROM system_log_chain_head WHERE head_id = 1";
+    
+    // 按链序号关联前一条日志的哈希，前一条日志被删除时prev_hash为空
+    private static final String CHAIN_SELECT = "SELECT l.*, p.log_hash AS prev_hash FROM system_log l " +
+            "LEFT JOIN system_log p ON p.chain_seq = l.chain_seq - 1 ";
+    
+    private static final String CHECKPOINT_SELECT = "SELECT * FROM system_log_checkpoint ";
+    private static final String INSERT_CHECKPOINT_SQL = "INSERT INTO system_log_checkpoint " +
+            "(start_seq, end_seq, end_hash, signature) VALUES (?, ?, ?, ?)";
+    
     /**
      * 添加系统日志
      * @param log 系统日志对象
      * @return 影响的行数
      */
     public int add(SystemLog log) {
-        String sql = "INSERT INTO system_log (admin_id, operation, description, ip_address, operation_time, log_hash) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
-        
-        // 如果日志内容没有哈希值，生成一个
-        if (log.getLogHash() == null || log.getLogHash().isEmpty()) {
-            // 使用HMAC-SM3计算日志的哈希值
-            String logContent = log.getLogContent();
-            String logHash = SMUtil.hmacSM3(logContent, CryptoConfig.getLogHmacKey());
-            log.setLogHash(logHash);
+        return addAll(Collections.singletonList(log))[0];
+    }
+    
+    /**
+     * 批量添加系统日志（同一事务中追加到日志链尾部）
+     * 日志的链序号和哈希在锁定链头后计算，写入失败时事务回滚，重试时重新计算
+     * @param logs 系统日志列表
+     * @return 影响的行数数组
+     */
+    public int[] addAll(List<SystemLog> logs) {
+        if (logs.isEmpty()) {
+            return new int[0];
         }
         
-        return executeUpdate(sql,
-                log.getAdminId(),
-                log.getOperation(),
-                log.getDescription(),
-                log.getIpAddress(),
-                log.getOperationTime() != null ? log.getOperationTime() : new Timestamp(System.currentTimeMillis()),
-                log.getLogHash());
+        byte[] key = CryptoConfig.getLogHmacKey();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            
+            ps = conn.prepareStatement(LOCK_HEAD_SQL);
+            rs = ps.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("系统日志链头不存在，请先执行数据库迁移");
+            }
+            long seq = rs.getLong(1);
+            String prevHash = rs.getString(2);
+            rs.close();
+            ps.close();
+            
+            ps = conn.prepareStatement(INSERT_SQL);
+            for (SystemLog log : logs) {
+                log.setOperationTime(toStoredTime(log.getOperationTime()));
+                seq++;
+                log.setChainSeq(seq);
+                log.setLogHash(chainHash(seq, prevHash, log, key));
+                prevHash = log.getLogHash();
+                
+                ps.setObject(1, log.getAdminId());
+                ps.setObject(2, log.getOperation());
+                ps.setObject(3, log.getDescription());
+                ps.setObject(4, log.getIpAddress());
+                ps.setObject(5, log.getOperationTime());
+                ps.setObject(6, log.getLogHash());
+                ps.setObject(7, seq);
+                ps.addBatch();
+            }
+            int[] result = ps.executeBatch();
+            ps.close();
+            
+            ps = conn.prepareStatement(UPDATE_HEAD_SQL);
+            ps.setLong(1, seq);
+            ps.setString(2, prevHash);
+            ps.executeUpdate();
+            
+            conn.commit();
+            return result;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            throw new RuntimeException("添加系统日志失败", e);
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            DBUtil.close(conn, ps, rs);
+        }
+    }
+    
+    /**
+     * 确定日志入库的操作时间
+     * 数据库只保存到微秒，哈希必须按读出后的值计算，因此先截断到微秒
+     */
+    private static Timestamp toStoredTime(Timestamp time) {
+        if (time == null) {
+            return new Timestamp(System.currentTimeMillis());
+        }
+        if (time.getNanos() % 1000 == 0) {
+            return time;
+        }
+        Timestamp truncated = new Timestamp(time.getTime());
+        truncated.setNanos(time.getNanos() / 1000 * 1000);
+        return truncated;
+    }
+    
+    /**
+     * 计算链上日志的哈希
+     */
+    private static String chainHash(long seq, String prevHash, SystemLog log, byte[] key) {
+        return SMUtil.hmacSM3("Seq:" + seq + ",Prev:" + prevHash + "," + log.getLogContent(), key);
+    }
+    
+    /**
+     * 计算哈希链启用前写入的日志的哈希
+     * 这些日志写入时日志ID尚未生成，哈希实际覆盖的是"LogId:null"
+     */
+    private static String legacyHash(SystemLog log, byte[] key) {
+        return SMUtil.hmacSM3("LogId:null," + log.getLogContent(), key);
+    }
+    
+    /**
+     * 计算检查点签名，签名覆盖上一检查点的签名，删除或替换任何检查点都会使签名链断开
+     */
+    private static String checkpointSignature(SystemLogCheckpoint checkpoint, String prevSignature, byte[] key) {
+        return SMUtil.hmacSM3("Checkpoint:" + checkpoint.getStartSeq() + "-" + checkpoint.getEndSeq() +
+                ",End:" + checkpoint.getEndHash() + ",Prev:" + prevSignature, key);
     }
     
     /**
@@ -47,8 +178,9 @@ public class SystemLogDao extends BaseDao {
      * @return 系统日志对象
      */
     public SystemLog getById(Integer logId) {
-        String sql = "SELECT l.*, a.real_name AS admin_name FROM system_log l " +
+        String sql = "SELECT l.*, a.real_name AS admin_name, p.log_hash AS prev_hash FROM system_log l " +
                 "LEFT JOIN admin a ON l.admin_id = a.admin_id " +
+                "LEFT JOIN system_log p ON p.chain_seq = l.chain_seq - 1 " +
                 "WHERE l.log_id = ?";
         return querySingle(sql, new SystemLogRowMapper(), logId);
     }
@@ -73,9 +205,38 @@ public class SystemLogDao extends BaseDao {
      * @return 系统日志列表
      */
     public List<SystemLog> query(Integer adminId, String operation, Timestamp startTime, Timestamp endTime) {
-        StringBuilder sql = new StringBuilder("SELECT l.*, a.real_name AS admin_name FROM system_log l " +
-                "LEFT JOIN admin a ON l.admin_id = a.admin_id WHERE 1=1");
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        buildQuery(sql, params, adminId, operation, startTime, endTime);
+        
+        return executeQuery(sql.toString(), new SystemLogRowMapper(), params.toArray());
+    }
+    
+    /**
+     * 根据条件流式遍历系统日志，不在内存中保留结果
+     * @param adminId 管理员ID
+     * @param operation 操作类型
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param callback 行回调
+     * @return 遍历的日志数量
+     */
+    public long forEach(Integer adminId, String operation, Timestamp startTime, Timestamp endTime,
+                        RowCallback<SystemLog> callback) {
+        StringBuilder sql = new StringBuilder();
         List<Object> params = new ArrayList<>();
+        buildQuery(sql, params, adminId, operation, startTime, endTime);
+        
+        return streamQuery(sql.toString(), new SystemLogRowMapper(), callback, params.toArray());
+    }
+    
+    /**
+     * 构建日志查询语句
+     */
+    private void buildQuery(StringBuilder sql, List<Object> params, Integer adminId, String operation,
+                            Timestamp startTime, Timestamp endTime) {
+        sql.append("SELECT l.*, a.real_name AS admin_name FROM system_log l " +
+                "LEFT JOIN admin a ON l.admin_id = a.admin_id WHERE 1=1");
         
         if (adminId != null) {
             sql.append(" AND l.admin_id = ?");
@@ -98,12 +259,36 @@ public class SystemLogDao extends BaseDao {
         }
         
         sql.append(" ORDER BY l.operation_time DESC");
+    }
+    
+    /**
+     * 按链序号流式遍历指定时间段内的日志，每条日志附带前一条日志的哈希，可直接校验
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param callback 行回调
+     * @return 遍历的日志数量
+     */
+    public long forEachWithPrevHash(Timestamp startTime, Timestamp endTime, RowCallback<SystemLog> callback) {
+        StringBuilder sql = new StringBuilder(CHAIN_SELECT).append("WHERE 1=1");
+        List<Object> params = new ArrayList<>();
         
-        return executeQuery(sql.toString(), new SystemLogRowMapper(), params.toArray());
+        if (startTime != null) {
+            sql.append(" AND l.operation_time >= ?");
+            params.add(startTime);
+        }
+        
+        if (endTime != null) {
+            sql.append(" AND l.operation_time <= ?");
+            params.add(endTime);
+        }
+        
+        sql.append(" ORDER BY l.chain_seq, l.log_id");
+        return streamQuery(sql.toString(), new SystemLogRowMapper(), callback, params.toArray());
     }
     
     /**
      * 验证日志完整性
+     * 链上日志需要带有前一条日志的哈希（getById、forEachWithPrevHash查询的日志），前一条日志缺失时验证失败
      * @param log 系统日志对象
      * @return 是否完整
      */
@@ -112,27 +297,249 @@ public class SystemLogDao extends BaseDao {
             return false;
         }
         
-        String logContent = log.getLogContent();
-        String calculatedHash = SMUtil.hmacSM3(logContent, CryptoConfig.getLogHmacKey());
-
-        return calculatedHash.equals(log.getLogHash());
+        byte[] key = CryptoConfig.getLogHmacKey();
+        if (log.getChainSeq() == null) {
+            return legacyHash(log, key).equals(log.getLogHash());
+        }
+        
+        String prevHash = log.getChainSeq() == 1 ? GENESIS_HASH : log.getPrevHash();
+        return prevHash != null && chainHash(log.getChainSeq(), prevHash, log, key).equals(log.getLogHash());
     }
     
     /**
-     * 批量验证日志完整性
-     * @param logs 系统日志列表
-     * @return 完整性验证结果（日志ID -> 是否完整）
+     * 校验日志链
+     * 先校验检查点签名链，再重新计算最后一个可信检查点之后的日志（全量校验时从链首开始并逐条校验链外日志），
+     * 报告哈希不一致的日志、无效的检查点和缺失的链序号（包括链尾被截断）。
+     * 链头和日志从主库读取，避免副本延迟把尚未回放的日志误报为缺失。
+     * @param fullHistory 是否校验全部历史
+     * @return 校验结果
      */
-    public java.util.Map<Integer, Boolean> batchVerifyLogIntegrity(List<SystemLog> logs) {
-        java.util.Map<Integer, Boolean> result = new java.util.HashMap<>();
+    public LogChainVerification verifyChain(boolean fullHistory) {
+        long startNanos = System.nanoTime();
+        LogChainVerification result = new LogChainVerification();
+        result.setFullHistory(fullHistory);
         
-        for (SystemLog log : logs) {
-            result.put(log.getLogId(), verifyLogIntegrity(log));
+        try (DBUtil.PrimaryReadScope ignored = DBUtil.readFromPrimary()) {
+            long headSeq = queryCount(HEAD_SEQ_SQL);
+            List<SystemLogCheckpoint> checkpoints = executeQuery(CHECKPOINT_SELECT + "ORDER BY end_seq",
+                    new CheckpointRowMapper());
+            result.setHeadSeq(headSeq);
+            result.setCheckpointCount(checkpoints.size());
+            
+            // 有效检查点的结尾哈希，重新计算时在检查点边界处比对
+            Map<Long, String> boundaries = new HashMap<>();
+            SystemLogCheckpoint trusted = verifyCheckpoints(checkpoints, boundaries, result);
+            
+            long fromSeq = !fullHistory && trusted != null ? trusted.getEndSeq() : 0;
+            long toSeq = headSeq;
+            for (Long endSeq : boundaries.keySet()) {
+                // 链头被回退到检查点之前，检查点之后的日志也应存在
+                toSeq = Math.max(toSeq, endSeq);
+            }
+            result.setTrustedSeq(fromSeq);
+            scanChain(fromSeq, toSeq, boundaries, result);
+            
+            if (fullHistory) {
+                byte[] key = CryptoConfig.getLogHmacKey();
+                streamQuery("SELECT l.* FROM system_log l WHERE l.chain_seq IS NULL ORDER BY l.log_id",
+                        new SystemLogRowMapper(), log -> {
+                            result.setLegacyEntries(result.getLegacyEntries() + 1);
+                            if (log.getLogHash() == null || !legacyHash(log, key).equals(log.getLogHash())) {
+                                result.addBrokenLog(log.getLogId());
+                            }
+                        });
+            }
         }
         
+        result.setElapsedMs((System.nanoTime() - startNanos) / 1_000_000);
         return result;
     }
     
+    /**
+     * 距上一个检查点的日志数达到间隔时生成检查点
+     * 签名前重新计算本段日志的哈希，段内有问题时不生成检查点，问题由校验接口报告。
+     * 多个实例同时生成时只有一个成功。
+     * @param interval 检查点间隔（日志数）
+     * @return 生成的检查点，未到间隔、本段校验失败或其他实例已生成时返回null
+     */
+    public SystemLogCheckpoint createCheckpointIfDue(int interval) {
+        if (interval <= 0) {
+            return null;
+        }
+        
+        try (DBUtil.PrimaryReadScope ignored = DBUtil.readFromPrimary()) {
+            SystemLogCheckpoint last = querySingle(CHECKPOINT_SELECT + "ORDER BY end_seq DESC LIMIT 1",
+                    new CheckpointRowMapper());
+            long lastEnd = last != null ? last.getEndSeq() : 0;
+            long headSeq = queryCount(HEAD_SEQ_SQL);
+            if (headSeq - lastEnd < interval) {
+                return null;
+            }
+            
+            Map<Long, String> boundaries = new HashMap<>();
+            if (last != null) {
+                boundaries.put(lastEnd, last.getEndHash());
+            }
+            LogChainVerification segment = new LogChainVerification();
+            String endHash = scanChain(lastEnd, headSeq, boundaries, segment);
+            if (!segment.isValid() || endHash == null) {
+                System.err.println("系统日志链 " + (lastEnd + 1) + "-" + headSeq + " 校验失败，未生成检查点");
+                return null;
+            }
+            
+            SystemLogCheckpoint checkpoint = new SystemLogCheckpoint();
+            checkpoint.setStartSeq(lastEnd + 1);
+            checkpoint.setEndSeq(headSeq);
+            checkpoint.setEndHash(endHash);
+            checkpoint.setSignature(checkpointSignature(checkpoint,
+                    last != null ? last.getSignature() : GENESIS_HASH, CryptoConfig.getLogHmacKey()));
+            return insertCheckpoint(checkpoint, lastEnd) ? checkpoint : null;
+        }
+    }
+    
+    /**
+     * 在锁定检查点表后写入检查点，上一个检查点已变化（其他实例已生成）时放弃
+     */
+    private boolean insertCheckpoint(SystemLogCheckpoint checkpoint, long expectedLastEnd) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            
+            // 只与其他生成检查点的事务互斥，不阻塞日志写入和校验
+            ps = conn.prepareStatement("LOCK TABLE system_log_checkpoint IN SHARE ROW EXCLUSIVE MODE");
+            ps.execute();
+            ps.close();
+            
+            ps = conn.prepareStatement("SELECT COALESCE(MAX(end_seq), 0) FROM system_log_checkpoint");
+            rs = ps.executeQuery();
+            rs.next();
+            if (rs.getLong(1) != expectedLastEnd) {
+                conn.rollback();
+                return false;
+            }
+            rs.close();
+            ps.close();
+            
+            ps = conn.prepareStatement(INSERT_CHECKPOINT_SQL);
+            ps.setLong(1, checkpoint.getStartSeq());
+            ps.setLong(2, checkpoint.getEndSeq());
+            ps.setString(3, checkpoint.getEndHash());
+            ps.setString(4, checkpoint.getSignature());
+            ps.executeUpdate();
+            
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            throw new RuntimeException("生成系统日志检查点失败", e);
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            DBUtil.close(conn, ps, rs);
+        }
+    }
+    
+    /**
+     * 按顺序校验检查点：区间必须紧接上一检查点，签名必须覆盖上一检查点的签名
+     * @param checkpoints 按结束序号排序的检查点
+     * @param boundaries 输出有效检查点的结束序号到结尾哈希的映射
+     * @param result 校验结果，记录无效的检查点
+     * @return 最后一个可信检查点（其及之前的检查点全部有效），没有时返回null
+     */
+    private SystemLogCheckpoint verifyCheckpoints(List<SystemLogCheckpoint> checkpoints, Map<Long, String> boundaries,
+                                                  LogChainVerification result) {
+        byte[] key = CryptoConfig.getLogHmacKey();
+        SystemLogCheckpoint trusted = null;
+        boolean intact = true;
+        long prevEnd = 0;
+        String prevSignature = GENESIS_HASH;
+        
+        for (SystemLogCheckpoint checkpoint : checkpoints) {
+            boolean valid = checkpoint.getStartSeq() == prevEnd + 1
+                    && checkpoint.getEndSeq() >= checkpoint.getStartSeq()
+                    && checkpointSignature(checkpoint, prevSignature, key).equals(checkpoint.getSignature());
+            if (valid) {
+                boundaries.put(checkpoint.getEndSeq(), checkpoint.getEndHash());
+                if (intact) {
+                    trusted = checkpoint;
+                }
+            } else {
+                result.getInvalidCheckpoints().add(checkpoint.getEndSeq());
+                intact = false;
+            }
+            prevEnd = checkpoint.getEndSeq();
+            prevSignature = checkpoint.getSignature();
+        }
+        return trusted;
+    }
+    
+    /**
+     * 按链序号顺序重新计算 (fromSeq, toSeq] 区间日志的哈希
+     * 每条日志用前一条日志的哈希校验，前一条日志是检查点结尾时还要与检查点记录的哈希一致
+     * @param fromSeq 起点（不含），其哈希由检查点确认；0表示从链首开始
+     * @param toSeq 终点（含）
+     * @param boundaries 有效检查点的结束序号到结尾哈希的映射
+     * @param result 校验结果
+     * @return 终点日志的哈希，终点日志缺失时返回null
+     */
+    private String scanChain(long fromSeq, long toSeq, Map<Long, String> boundaries, LogChainVerification result) {
+        byte[] key = CryptoConfig.getLogHmacKey();
+        long[] lastSeq = {fromSeq};
+        String[] lastHash = {null};
+        
+        streamQuery(CHAIN_SELECT + "WHERE l.chain_seq > ? AND l.chain_seq <= ? ORDER BY l.chain_seq",
+                new SystemLogRowMapper(), log -> {
+                    long seq = log.getChainSeq();
+                    if (seq != lastSeq[0] + 1) {
+                        result.addMissingRange(lastSeq[0] + 1, seq - 1);
+                    }
+                    lastSeq[0] = seq;
+                    lastHash[0] = log.getLogHash();
+                    result.setCheckedEntries(result.getCheckedEntries() + 1);
+                    
+                    String anchored = seq == 1 ? GENESIS_HASH : boundaries.get(seq - 1);
+                    if (seq == 1) {
+                        log.setPrevHash(GENESIS_HASH);
+                    } else if (log.getPrevHash() == null) {
+                        // 前一条日志缺失：区间内的已记为缺失，起点日志在此记录；有检查点时仍可用检查点的哈希校验本条
+                        if (seq - 1 <= fromSeq) {
+                            result.addMissingRange(seq - 1, seq - 1);
+                        }
+                        if (anchored == null) {
+                            return;
+                        }
+                        log.setPrevHash(anchored);
+                    }
+                    
+                    if ((anchored != null && !anchored.equals(log.getPrevHash()))
+                            || !chainHash(seq, log.getPrevHash(), log, key).equals(log.getLogHash())) {
+                        result.addBrokenLog(log.getLogId());
+                    }
+                }, fromSeq, toSeq);
+        
+        if (lastSeq[0] < toSeq) {
+            // 链尾被截断
+            result.addMissingRange(lastSeq[0] + 1, toSeq);
+            return null;
+        }
+        return lastHash[0];
+    }
+    
     /**
      * 查询指定时间段内的日志数量
      * @param startTime 开始时间
@@ -159,27 +566,87 @@ public class SystemLogDao extends BaseDao {
     /**
      * 系统日志行映射器
      */
-    private static class SystemLogRowMapper implements RowMapper<SystemLog> {
+    private static class SystemLogRowMapper implements IndexedRowMapper<SystemLog> {
+        private static final String[] COLUMNS = {
+                "log_id", "admin_id", "operation", "description",
+                "ip_address", "operation_time", "log_hash", "create_time",
+                "admin_name", "chain_seq", "prev_hash"
+        };
+        private static final int LOG_ID = 0;
+        private static final int ADMIN_ID = 1;
+        private static final int OPERATION = 2;
+        private static final int DESCRIPTION = 3;
+        private static final int IP_ADDRESS = 4;
+        private static final int OPERATION_TIME = 5;
+        private static final int LOG_HASH = 6;
+        private static final int CREATE_TIME = 7;
+        private static final int ADMIN_NAME = 8;
+        private static final int CHAIN_SEQ = 9;
+        private static final int PREV_HASH = 10;
+        
         @Override
-        public SystemLog mapRow(ResultSet rs) throws SQLException {
+        public String[] columns() {
+            return COLUMNS;
+        }
+        
+        @Override
+        public SystemLog mapRow(ResultSet rs, int[] idx) throws SQLException {
             SystemLog log = new SystemLog();
-            log.setLogId(rs.getInt("log_id"));
-            log.setAdminId(rs.getInt("admin_id"));
-            log.setOperation(rs.getString("operation"));
-            log.setDescription(rs.getString("description"));
-            log.setIpAddress(rs.getString("ip_address"));
-            log.setOperationTime(rs.getTimestamp("operation_time"));
-            log.setLogHash(rs.getString("log_hash"));
-            log.setCreateTime(rs.getTimestamp("create_time"));
+            log.setLogId(rs.getInt(idx[LOG_ID]));
+            int adminId = rs.getInt(idx[ADMIN_ID]);
+            log.setAdminId(rs.wasNull() ? null : adminId); // 系统操作的日志没有操作人，哈希按null计算
+            log.setOperation(rs.getString(idx[OPERATION]));
+            log.setDescription(rs.getString(idx[DESCRIPTION]));
+            log.setIpAddress(rs.getString(idx[IP_ADDRESS]));
+            log.setOperationTime(rs.getTimestamp(idx[OPERATION_TIME]));
+            log.setLogHash(rs.getString(idx[LOG_HASH]));
+            log.setCreateTime(rs.getTimestamp(idx[CREATE_TIME]));
             
-            // 关联字段
-            try {
-                log.setAdminName(rs.getString("admin_name"));
-            } catch (SQLException e) {
-                // 忽略可能不存在的字段
+            // 关联字段（仅联表查询时存在）
+            if (idx[ADMIN_NAME] > 0) {
+                log.setAdminName(rs.getString(idx[ADMIN_NAME]));
+            }
+            if (idx[CHAIN_SEQ] > 0) {
+                long chainSeq = rs.getLong(idx[CHAIN_SEQ]);
+                log.setChainSeq(rs.wasNull() ? null : chainSeq);
+            }
+            if (idx[PREV_HASH] > 0) {
+                log.setPrevHash(rs.getString(idx[PREV_HASH]));
             }
             
             return log;
         }
     }
+    
+    /**
+     * 检查点行映射器
+     */
+    private static class CheckpointRowMapper implements IndexedRowMapper<SystemLogCheckpoint> {
+        private static final String[] COLUMNS = {
+                "checkpoint_id", "start_seq", "end_seq", "end_hash", "signature", "create_time"
+        };
+        private static final int CHECKPOINT_ID = 0;
+        private static final int START_SEQ = 1;
+        private static final int END_SEQ = 2;
+        private static final int END_HASH = 3;
+        private static final int SIGNATURE = 4;
+        private static final int CREATE_TIME = 5;
+        
+        @Override
+        public String[] columns() {
+            return COLUMNS;
+        }
+        
+        @Override
+        public SystemLogCheckpoint mapRow(ResultSet rs, int[] idx) throws SQLException {
+            SystemLogCheckpoint checkpoint = new SystemLogCheckpoint();
+            checkpoint.setCheckpointId(rs.getInt(idx[CHECKPOINT_ID]));
+            checkpoint.setStartSeq(rs.getLong(idx[START_SEQ]));
+            checkpoint.setEndSeq(rs.getLong(idx[END_SEQ]));
+            checkpoint.setEndHash(rs.getString(idx[END_HASH]));
+            checkpoint.setSignature(rs.getString(idx[SIGNATURE]));
+            checkpoint.setCreateTime(rs.getTimestamp(idx[CREATE_TIME]));
+            return checkpoint;
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,223 @@
+package com.example.javawebcurriculumdesign.dao;
+
+import com.example.javawebcurriculumdesign.model.SystemLog;
+import com.example.javawebcurriculumdesign.model.SystemLogCheckpoint;
+import com.example.javawebcurriculumdesign.util.DBUtil;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 系统日志异步写入器
+ * 日志先进入有界内存队列，由后台线程计算HMAC-SM3哈希并批量写入，请求线程不再等待日志I/O。
+ * 队列满时请求线程短暂等待，仍无空位则在请求线程中同步写入，日志不会因队列满而丢失。
+ * 应用停止时写完队列中剩余的日志。
+ * 写入的日志跨过检查点间隔的整数倍时，由写入线程尝试生成日志链检查点。
+ */
+public class SystemLogWriter {
+    private static final SystemLogWriter INSTANCE = new SystemLogWriter();
+
+    // 队列满时请求线程等待空位的最长时间（毫秒）
+    private static final long OFFER_TIMEOUT_MS = 50;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private final SystemLogDao systemLogDao = new SystemLogDao();
+    private final BlockingQueue<SystemLog> queue = new ArrayBlockingQueue<>(Math.max(1, DBUtil.getAuditLogQueueCapacity()));
+    private Thread flusher;
+    private volatile boolean running;
+    private volatile boolean closed;
+
+    private SystemLogWriter() {
+    }
+
+    public static SystemLogWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 写入系统日志
+     * 开启异步写入时加入队列后立即返回，否则同步写入
+     * @param log 系统日志对象
+     * @return 影响的行数，加入队列时返回1
+     */
+    public int write(SystemLog log) {
+        // 在请求线程中确定操作时间，保证哈希与入库时间一致且反映真实操作时间
+        if (log.getOperationTime() == null) {
+            log.setOperationTime(new Timestamp(System.currentTimeMillis()));
+        }
+
+        if (!DBUtil.isAuditLogAsync()) {
+            return addNow(log);
+        }
+
+        try {
+            if (enqueue(log)) {
+                return 1;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 已关闭或队列持续已满，在请求线程中同步写入
+        return addNow(log);
+    }
+
+    /**
+     * 停止后台线程，写完队列中剩余的日志
+     */
+    public void shutdown() {
+        Thread current;
+        synchronized (this) {
+            closed = true;
+            running = false;
+            current = flusher;
+            flusher = null;
+        }
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 后台线程超时未退出或退出后仍有日志，在当前线程写完
+        List<SystemLog> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, Math.max(1, DBUtil.getAuditLogFlushSize())) > 0) {
+            flush(remaining);
+            remaining.clear();
+        }
+    }
+
+    /**
+     * 获取队列中等待写入的日志数
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * 将日志加入队列，首次写入时启动后台线程
+     * @return 是否已加入队列，写入器已关闭或等待超时后队列仍满时返回false
+     */
+    private boolean enqueue(SystemLog log) throws InterruptedException {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (flusher == null) {
+                running = true;
+                flusher = new Thread(this::run, "system-log-writer");
+                flusher.setDaemon(true);
+                flusher.start();
+            }
+            if (queue.offer(log)) {
+                return true;
+            }
+        }
+        // 队列已满，在锁外等待空位，避免阻塞关闭流程
+        if (!queue.offer(log, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        // 等待期间写入器已关闭，队列可能已写完，取回由调用方同步写入
+        return !closed || !queue.remove(log);
+    }
+
+    /**
+     * 后台线程：攒满flushSize条或等待flushInterval后批量写入
+     */
+    private void run() {
+        int flushSize = Math.max(1, DBUtil.getAuditLogFlushSize());
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(DBUtil.getAuditLogFlushIntervalMs());
+        List<SystemLog> batch = new ArrayList<>(flushSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                SystemLog first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < flushSize) {
+                    if (queue.drainTo(batch, flushSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    SystemLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 关闭时立即写出已取出的日志，再由循环条件写完剩余日志
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 批量写入一批日志，失败时逐条重试
+     */
+    private void flush(List<SystemLog> batch) {
+        try {
+            systemLogDao.addAll(batch);
+            checkpointIfDue(batch.get(0).getChainSeq(), batch.get(batch.size() - 1).getChainSeq());
+            return;
+        } catch (RuntimeException e) {
+            System.err.println("批量写入 " + batch.size() + " 条系统日志失败，改为逐条写入: " + e.getMessage());
+        }
+
+        for (SystemLog log : batch) {
+            try {
+                addNow(log);
+            } catch (RuntimeException e) {
+                System.err.println("写入系统日志失败: " + log.getLogContent());
+            }
+        }
+    }
+
+    /**
+     * 同步写入一条日志
+     */
+    private int addNow(SystemLog log) {
+        int rows = systemLogDao.add(log);
+        checkpointIfDue(log.getChainSeq(), log.getChainSeq());
+        return rows;
+    }
+
+    /**
+     * 刚写入的链序号区间跨过检查点间隔的整数倍时尝试生成检查点
+     * 是否真正生成由DAO按上一个检查点判断，生成失败不影响日志写入
+     * @param firstSeq 区间第一条日志的链序号
+     * @param lastSeq 区间最后一条日志的链序号
+     */
+    private void checkpointIfDue(long firstSeq, long lastSeq) {
+        int interval = DBUtil.getAuditLogCheckpointInterval();
+        if (interval <= 0 || (firstSeq - 1) / interval == lastSeq / interval) {
+            return;
+        }
+        try {
+            SystemLogCheckpoint checkpoint = systemLogDao.createCheckpointIfDue(interval);
+            if (checkpoint != null) {
+                System.out.println("已生成系统日志检查点: " + checkpoint.getStartSeq() + "-" + checkpoint.getEndSeq());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("生成系统日志检查点失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.javawebcurriculumdesign.dto;
+
+import com.example.javawebcurriculumdesign.model.Admin;
+
+import java.util.List;
+
+/**
+ * 管理员列表响应
+ * @param success 是否成功
+ * @param admins 管理员列表
+ */
+public record AdminListResponse(boolean success, List<Admin> admins) {
+}
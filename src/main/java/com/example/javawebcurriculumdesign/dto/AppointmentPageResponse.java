@@ -0,0 +1,35 @@
+package com.example.javawebcurriculumdesign.dto;
+
+import com.example.javawebcurriculumdesign.model.PageResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 预约分页响应
+ * @param success 是否成功
+ * @param appointments 当前页数据
+ * @param nextCursor 下一页游标，没有更多数据时为null
+ * @param hasMore 是否还有更多数据
+ * @param approxTotal 近似总数（仅在请求withTotal时返回）
+ * @param <T> 列表项类型
+ */
+public record AppointmentPageResponse<T>(
+        boolean success,
+        List<T> appointments,
+        String nextCursor,
+        boolean hasMore,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long approxTotal) {
+
+    /**
+     * 由分页结果构建响应
+     * @param page 分页结果
+     * @param mapper 列表项转换函数
+     * @return 分页响应
+     */
+    public static <S, T> AppointmentPageResponse<T> of(PageResult<S> page, Function<S, T> mapper) {
+        return new AppointmentPageResponse<>(true, page.getItems().stream().map(mapper).toList(),
+                page.getNextCursor(), page.isHasMore(), page.getApproxTotal());
+    }
+}
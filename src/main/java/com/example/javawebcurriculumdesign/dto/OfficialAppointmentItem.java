@@ -0,0 +1,88 @@
+package com.example.javawebcurriculumdesign.dto;
+
+import com.example.javawebcurriculumdesign.model.OfficialAppointment;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.sql.Timestamp;
+
+/**
+ * 公务预约响应数据
+ * 用于预约列表、详情和公开查询接口，只包含脱敏后的证件号和手机号
+ * @param id 预约ID（仅公开查询接口返回）
+ * @param unitName 来访单位（仅公开查询接口返回）
+ */
+public record OfficialAppointmentItem(
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer id,
+        Integer appointmentId,
+        String campus,
+        Timestamp visitTime,
+        String organization,
+        String name,
+        String idCardMasked,
+        String phone,
+        String transportation,
+        String plateNumber,
+        Timestamp applyTime,
+        String status,
+        Timestamp createTime,
+        Timestamp updateTime,
+        Integer visitDeptId,
+        String visitDeptName,
+        String visitContact,
+        String purpose,
+        Integer approverId,
+        Timestamp approveTime,
+        String approverName,
+        Integer visitors,
+        String remarks,
+        String officialTitle,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String unitName) {
+
+    /**
+     * 转换公务预约为列表项格式
+     * @param appointment 公务预约
+     * @return 响应数据
+     */
+    public static OfficialAppointmentItem from(OfficialAppointment appointment) {
+        return create(null, null, appointment);
+    }
+
+    /**
+     * 转换公务预约为公开查询接口的格式（额外返回id、unitName字段）
+     * @param appointment 公务预约
+     * @return 响应数据
+     */
+    public static OfficialAppointmentItem forQuery(OfficialAppointment appointment) {
+        return create(appointment.getAppointmentId(), appointment.getOrganization(), appointment);
+    }
+
+    private static OfficialAppointmentItem create(Integer id, String unitName, OfficialAppointment appointment) {
+        return new OfficialAppointmentItem(
+                id,
+                appointment.getAppointmentId(),
+                appointment.getCampus(),
+                appointment.getVisitTime(),
+                appointment.getOrganization(),
+                appointment.getName(),
+                appointment.getIdCardMasked(),
+                appointment.getPhoneMasked(),
+                appointment.getTransportation(),
+                appointment.getPlateNumber(),
+                appointment.getApplyTime(),
+                appointment.getStatus(),
+                appointment.getCreateTime(),
+                appointment.getUpdateTime(),
+                appointment.getVisitDeptId(),
+                appointment.getVisitDeptName(),
+                appointment.getVisitContact(),
+                appointment.getVisitReason(),
+                appointment.getApproverId(),
+                appointment.getApproveTime(),
+                appointment.getApproverName(),
+                // 使用数据库中存储的访问人数
+                appointment.getVisitors(),
+                "",
+                "",
+                unitName);
+    }
+}
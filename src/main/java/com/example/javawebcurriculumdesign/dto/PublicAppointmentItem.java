@@ -0,0 +1,71 @@
+package com.example.javawebcurriculumdesign.dto;
+
+import com.example.javawebcurriculumdesign.model.PublicAppointment;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.sql.Timestamp;
+
+/**
+ * 公众预约响应数据
+ * 用于预约列表、详情和公开查询接口，只包含脱敏后的证件号和手机号
+ * @param id 预约ID（仅公开查询接口返回）
+ */
+public record PublicAppointmentItem(
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer id,
+        Integer appointmentId,
+        String campus,
+        Timestamp visitTime,
+        String organization,
+        String name,
+        String idCardMasked,
+        String phone,
+        String transportation,
+        String plateNumber,
+        Timestamp applyTime,
+        String status,
+        Timestamp createTime,
+        Timestamp updateTime,
+        Integer visitors,
+        String purpose,
+        String remarks) {
+
+    /**
+     * 转换公众预约为列表项格式
+     * @param appointment 公众预约
+     * @return 响应数据
+     */
+    public static PublicAppointmentItem from(PublicAppointment appointment) {
+        return create(null, appointment);
+    }
+
+    /**
+     * 转换公众预约为公开查询接口的格式（额外返回id字段）
+     * @param appointment 公众预约
+     * @return 响应数据
+     */
+    public static PublicAppointmentItem forQuery(PublicAppointment appointment) {
+        return create(appointment.getAppointmentId(), appointment);
+    }
+
+    private static PublicAppointmentItem create(Integer id, PublicAppointment appointment) {
+        return new PublicAppointmentItem(
+                id,
+                appointment.getAppointmentId(),
+                appointment.getCampus(),
+                appointment.getVisitTime(),
+                appointment.getOrganization(),
+                appointment.getName(),
+                appointment.getIdCardMasked(),
+                appointment.getPhoneMasked(),
+                appointment.getTransportation(),
+                appointment.getPlateNumber(),
+                appointment.getApplyTime(),
+                appointment.getStatus(),
+                appointment.getCreateTime(),
+                appointment.getUpdateTime(),
+                // 使用数据库中存储的访问人数
+                appointment.getVisitors(),
+                "参观访问",
+                "");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.javawebcurriculumdesign.dto;
+
+import java.sql.Timestamp;
+
+/**
+ * 最近预约列表项
+ * @param id 预约ID
+ * @param type 预约类型（PUBLIC/OFFICIAL）
+ * @param name 姓名
+ * @param visitTime 预约时间
+ * @param status 状态
+ */
+public record RecentAppointmentItem(Integer id, String type, String name, Timestamp visitTime, String status) {
+}
@@ -0,0 +1,275 @@
+package com.example.javawebcurriculumdesign.filter;
+
+import com.example.javawebcurriculumdesign.dao.ResourceVersionDao;
+import com.example.javawebcurriculumdesign.model.Admin;
+import com.example.javawebcurriculumdesign.util.SMUtil;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 条件请求过滤器
+ * 为预约、部门、日志的查询接口计算数据版本（记录数、最大ID、最大更新时间），生成ETag和Last-Modified；
+ * 请求携带的If-None-Match（或If-Modified-Since）与当前版本一致时直接返回304，不执行完整查询和序列化。
+ * 版本在执行查询之前计算，期间数据发生变化时下次请求会得到新的ETag，不会返回过期数据。
+ */
+public class ConditionalGetFilter implements Filter {
+
+    // 各数据范围对应的表
+    private static final Scope PUBLIC_APPOINTMENT = new Scope("public_appointment", "appointment_id", "update_time");
+    private static final Scope OFFICIAL_APPOINTMENT = new Scope("official_appointment", "appointment_id", "update_time");
+    private static final Scope DEPARTMENT = new Scope("department", "dept_id", "update_time");
+    private static final Scope ADMIN = new Scope("admin", "admin_id", "update_time");
+    private static final Scope ADMIN_PERMISSION = new Scope("admin_permission", "permission_id", "update_time");
+    private static final Scope SYSTEM_LOG = new Scope("system_log", "log_id", "operation_time");
+
+    private final ResourceVersionDao resourceVersionDao = new ResourceVersionDao();
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // 初始化过滤器
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        String method = httpRequest.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpSession session = httpRequest.getSession(false);
+        Admin admin = (session != null) ? (Admin) session.getAttribute("admin") : null;
+
+        List<Scope> scopes = resolveScopes(httpRequest.getServletPath(), httpRequest.getPathInfo(), admin);
+        if (scopes == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // 管理员的角色和授权变化也会改变ETag，撤销权限后不会再得到304
+        if (admin != null) {
+            scopes.add(ADMIN.where("admin_id = ?", admin.getAdminId()));
+            scopes.add(ADMIN_PERMISSION.where("admin_id = ?", admin.getAdminId()));
+        }
+
+        String etag;
+        long lastModified = -1;
+        try {
+            StringBuilder validator = new StringBuilder();
+            validator.append(admin != null ? admin.getAdminId() : "anonymous").append('|')
+                    .append(httpRequest.getRequestURI()).append('?').append(httpRequest.getQueryString());
+            for (Scope scope : scopes) {
+                ResourceVersionDao.Version version = resourceVersionDao.getVersion(
+                        scope.table, scope.idColumn, scope.timeColumn, scope.condition, scope.params);
+                validator.append('|').append(scope.table).append(':').append(version.getCount())
+                        .append(':').append(version.getMaxId());
+                if (version.getLastModified() != null) {
+                    validator.append(':').append(version.getLastModified().getTime());
+                    lastModified = Math.max(lastModified, version.getLastModified().getTime());
+                }
+            }
+            etag = "W/\"" + SMUtil.sm3(validator.toString()).substring(0, 32) + "\"";
+        } catch (RuntimeException e) {
+            // 版本查询失败时按普通请求处理
+            System.err.println("计算数据版本失败: " + e.getMessage());
+            chain.doFilter(request, response);
+            return;
+        }
+
+        httpResponse.setHeader("ETag", etag);
+        httpResponse.setHeader("Cache-Control", "private, no-cache");
+        if (lastModified >= 0) {
+            httpResponse.setDateHeader("Last-Modified", lastModified);
+        }
+
+        if (isNotModified(httpRequest, etag, lastModified)) {
+            httpResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 判断客户端缓存是否仍然有效
+     * 优先比较If-None-Match；只有请求不带If-None-Match时才使用If-Modified-Since（按秒比较）
+     */
+    private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || ("W/" + tag).equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (lastModified < 0) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * 确定请求读取的数据范围
+     * @param servletPath Servlet路径
+     * @param pathInfo 路径信息
+     * @param admin 当前登录的管理员
+     * @return 数据范围（可修改的列表），不支持条件请求的接口返回null
+     */
+    private List<Scope> resolveScopes(String servletPath, String pathInfo, Admin admin) {
+        List<Scope> scopes = new ArrayList<>();
+
+        if ("/api/department".equals(servletPath)) {
+            // 部门表数据量小，所有部门查询都以整张表为范围
+            scopes.add(DEPARTMENT);
+            return scopes;
+        }
+
+        // 预约列表和日志需要登录，未登录的请求交给控制器返回401
+        if (admin == null) {
+            return null;
+        }
+
+        if ("/api/appointment".equals(servletPath) && pathInfo != null) {
+            if (pathInfo.equals("/recent")) {
+                scopes.add(PUBLIC_APPOINTMENT);
+                scopes.add(OFFICIAL_APPOINTMENT);
+                return scopes;
+            }
+            if (pathInfo.equals("/public/list")) {
+                scopes.add(PUBLIC_APPOINTMENT);
+                return scopes;
+            }
+            if (pathInfo.startsWith("/public/campus/")) {
+                scopes.add(PUBLIC_APPOINTMENT.where("campus = ?", pathInfo.substring(15)));
+                return scopes;
+            }
+            if (pathInfo.startsWith("/public/")) {
+                Integer appointmentId = parseId(pathInfo.substring(8));
+                if (appointmentId == null) {
+                    return null;
+                }
+                scopes.add(PUBLIC_APPOINTMENT.where("appointment_id = ?", appointmentId));
+                return scopes;
+            }
+
+            // 公务预约响应中包含部门名称和审核人姓名
+            if (pathInfo.equals("/official/list")) {
+                scopes.add(OFFICIAL_APPOINTMENT);
+            } else if (pathInfo.startsWith("/official/dept/")) {
+                Integer deptId = parseId(pathInfo.substring(15));
+                if (deptId == null) {
+                    return null;
+                }
+                scopes.add(OFFICIAL_APPOINTMENT.where("visit_dept_id = ?", deptId));
+            } else if (pathInfo.startsWith("/official/status/")) {
+                scopes.add(OFFICIAL_APPOINTMENT.where("status = ?", pathInfo.substring(17)));
+            } else if (pathInfo.startsWith("/official/")) {
+                Integer appointmentId = parseId(pathInfo.substring(10));
+                if (appointmentId == null) {
+                    return null;
+                }
+                scopes.add(OFFICIAL_APPOINTMENT.where("appointment_id = ?", appointmentId));
+            } else {
+                return null;
+            }
+            scopes.add(DEPARTMENT);
+            scopes.add(ADMIN);
+            return scopes;
+        }
+
+        if ("/api/log".equals(servletPath)) {
+            if (pathInfo == null || pathInfo.equals("/list") || pathInfo.equals("/date") || pathInfo.equals("/detail")) {
+                return addLogScopes(scopes, SYSTEM_LOG);
+            }
+            if (pathInfo.startsWith("/admin/")) {
+                Integer adminId = parseId(pathInfo.substring(7));
+                return adminId != null ? addLogScopes(scopes, SYSTEM_LOG.where("admin_id = ?", adminId)) : null;
+            }
+            if (pathInfo.startsWith("/operation/")) {
+                return addLogScopes(scopes, SYSTEM_LOG.where("operation = ?", pathInfo.substring(11)));
+            }
+            if (pathInfo.startsWith("/verify/")) {
+                // 完整性校验结果由日志内容和密钥计算得出，每次重新校验
+                return null;
+            }
+            Integer logId = parseId(pathInfo.substring(1));
+            return logId != null ? addLogScopes(scopes, SYSTEM_LOG.where("log_id = ?", logId)) : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * 添加日志查询的数据范围（日志响应中包含操作人姓名）
+     */
+    private List<Scope> addLogScopes(List<Scope> scopes, Scope logScope) {
+        scopes.add(logScope);
+        scopes.add(ADMIN);
+        return scopes;
+    }
+
+    private static Integer parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // 清理资源
+    }
+
+    /**
+     * 数据范围：一张表及可选的范围条件
+     */
+    private static class Scope {
+        private final String table;
+        private final String idColumn;
+        private final String timeColumn;
+        private final String condition;
+        private final Object[] params;
+
+        private Scope(String table, String idColumn, String timeColumn) {
+            this(table, idColumn, timeColumn, null);
+        }
+
+        private Scope(String table, String idColumn, String timeColumn, String condition, Object... params) {
+            this.table = table;
+            this.idColumn = idColumn;
+            this.timeColumn = timeColumn;
+            this.condition = condition;
+            this.params = params;
+        }
+
+        /**
+         * 创建带范围条件的数据范围
+         */
+        private Scope where(String condition, Object... params) {
+            return new Scope(table, idColumn, timeColumn, condition, params);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.javawebcurriculumdesign.filter;
+
+import com.example.javawebcurriculumdesign.util.QueryBudget;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+
+/**
+ * 查询预算过滤器
+ * 按接口类别为请求线程设置查询预算，请求内BaseDao执行的查询受预算限制：
+ * 无需登录的公众接口（预约提交、查询、通行码、登录、部门）预算最短，统计和日志校验接口预算最长，其余管理接口使用管理列表预算。
+ */
+public class QueryBudgetFilter implements Filter {
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // 初始化过滤器
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        QueryBudget budget = resolveBudget(httpRequest.getServletPath(), httpRequest.getPathInfo());
+
+        try (QueryBudget.Scope ignored = QueryBudget.enter(budget)) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * 确定请求的查询预算
+     * @param servletPath Servlet路径
+     * @param pathInfo 路径信息
+     * @return 查询预算
+     */
+    private QueryBudget resolveBudget(String servletPath, String pathInfo) {
+        String path = pathInfo != null ? pathInfo : "";
+
+        if ("/api/appointment".equals(servletPath)) {
+            if (path.equals("/public/query") || path.equals("/official/query")
+                    || path.equals("/public/pass-code") || path.equals("/official/pass-code")
+                    || path.equals("/public/add") || path.equals("/official/add")) {
+                return QueryBudget.PUBLIC;
+            }
+            if (path.equals("/count") || path.equals("/public/count") || path.equals("/official/count")) {
+                return QueryBudget.REPORT;
+            }
+            return QueryBudget.ADMIN_LIST;
+        }
+
+        if ("/api/log".equals(servletPath)) {
+            return path.startsWith("/verify/") ? QueryBudget.REPORT : QueryBudget.ADMIN_LIST;
+        }
+
+        if ("/api/department".equals(servletPath)) {
+            return QueryBudget.PUBLIC;
+        }
+
+        if ("/api/admin".equals(servletPath) && path.equals("/login")) {
+            return QueryBudget.PUBLIC;
+        }
+
+        return QueryBudget.ADMIN_LIST;
+    }
+
+    @Override
+    public void destroy() {
+        // 清理资源
+    }
+}
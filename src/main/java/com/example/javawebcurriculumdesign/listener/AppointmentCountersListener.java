@@ -0,0 +1,23 @@
+package com.example.javawebcurriculumdesign.listener;
+
+import com.example.javawebcurriculumdesign.service.AppointmentCounters;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * 预约计数器监听器
+ * 应用启动时在后台加载预约计数并开始定期与数据库核对，应用停止时停止核对。
+ */
+public class AppointmentCountersListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        AppointmentCounters.getInstance().start();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        AppointmentCounters.getInstance().stop();
+    }
+}
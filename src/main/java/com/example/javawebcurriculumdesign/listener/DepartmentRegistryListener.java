@@ -0,0 +1,24 @@
+package com.example.javawebcurriculumdesign.listener;
+
+import com.example.javawebcurriculumdesign.dao.DepartmentRegistry;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * 部门注册表监听器
+ * 应用启动时加载全部部门到内存，首个请求无需等待加载。
+ */
+public class DepartmentRegistryListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        try {
+            DepartmentRegistry.getInstance().refresh();
+        } catch (Exception e) {
+            // 加载失败不影响启动，首次查询时会重新加载
+            e.printStackTrace();
+            System.err.println("加载部门注册表失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.javawebcurriculumdesign.listener;
+
+import com.example.javawebcurriculumdesign.dao.PublicAppointmentGroupWriter;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * 合并写入监听器
+ * 应用停止时写完合并写入队列中剩余的公众预约，避免已提交的预约丢失。
+ */
+public class GroupCommitListener implements ServletContextListener {
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        PublicAppointmentGroupWriter.getInstance().shutdown();
+    }
+}
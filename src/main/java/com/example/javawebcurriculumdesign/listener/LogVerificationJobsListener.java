@@ -0,0 +1,23 @@
+package com.example.javawebcurriculumdesign.listener;
+
+import com.example.javawebcurriculumdesign.service.LogVerificationJobs;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * 日志校验任务监听器
+ * 应用启动时创建校验任务的后台线程，应用停止时中断正在执行的任务并把未完成的任务标记为失败。
+ */
+public class LogVerificationJobsListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        LogVerificationJobs.getInstance().start();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        LogVerificationJobs.getInstance().stop();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.javawebcurriculumdesign.listener;
+
+import com.example.javawebcurriculumdesign.util.DBUtil;
+import com.example.javawebcurriculumdesign.util.MigrationRunner;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * 数据库迁移监听器
+ * 应用启动时同步执行数据库迁移，迁移失败时应用不会启动。
+ * 需要在web.xml中声明在其他依赖表结构的监听器之前。
+ */
+public class MigrationListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        if (!DBUtil.isMigrationEnabled()) {
+            System.out.println("数据库迁移已禁用");
+            return;
+        }
+        MigrationRunner.migrate();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.javawebcurriculumdesign.listener;
+
+import com.example.javawebcurriculumdesign.service.AppointmentService;
+import com.example.javawebcurriculumdesign.util.SMUtil;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * 敏感字段回填监听器
+ * 应用启动时在后台线程中为历史预约回填身份证号、手机号的盲索引和脱敏值，不阻塞应用启动。
+ * 依赖迁移脚本添加的列，在web.xml中声明于MigrationListener之后。
+ * 应用停止时同时关闭查询结果批量解密脱敏使用的线程池。
+ */
+public class SensitiveDataBackfillListener implements ServletContextListener {
+    private Thread backfillThread;
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        backfillThread = new Thread(() -> {
+            try {
+                int updated = new AppointmentService().backfillSensitiveColumns();
+                if (updated > 0) {
+                    System.out.println("敏感字段回填完成，共更新 " + updated + " 条预约记录");
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.err.println("敏感字段回填失败: " + e.getMessage());
+            }
+        }, "sensitive-data-backfill");
+        backfillThread.setDaemon(true);
+        backfillThread.start();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (backfillThread != null && backfillThread.isAlive()) {
+            backfillThread.interrupt();
+        }
+        SMUtil.shutdownBulkPool();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.javawebcurriculumdesign.listener;
+
+import com.example.javawebcurriculumdesign.dao.SystemLogWriter;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * 系统日志写入监听器
+ * 应用停止时写完异步日志队列中剩余的日志，保证审计记录不丢失。
+ */
+public class SystemLogWriterListener implements ServletContextListener {
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        SystemLogWriter.getInstance().shutdown();
+    }
+}
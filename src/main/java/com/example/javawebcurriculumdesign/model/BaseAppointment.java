@@ -1,6 +1,10 @@
 package com.example.javawebcurriculumdesign.model;
 
+import com.example.javawebcurriculumdesign.util.SMUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.sql.Timestamp;
+import java.util.function.UnaryOperator;
 
 /**
  * 预约实体基类，社会公众预约和公务预约的共同属性
@@ -13,6 +17,8 @@ public abstract class BaseAppointment {
     private String name;               // 姓名
     private String idCardEncrypted;    // 加密后的身份证号
     private String phoneEncrypted;     // 加密后的手机号
+    private String idCardBlindIndex;   // 身份证号盲索引（HMAC-SM3）
+    private String phoneBlindIndex;    // 手机号盲索引（HMAC-SM3）
     private String transportation;     // 交通方式
     private String plateNumber;        // 车牌号（可选）
     private Integer visitors;          // 访问人数
@@ -21,10 +27,11 @@ public abstract class BaseAppointment {
     private Timestamp createTime;      // 创建时间
     private Timestamp updateTime;      // 更新时间
     
-    // 非数据库字段，用于前端显示
+    // 脱敏字段，身份证号和手机号的脱敏值在插入时持久化；
+    // 未持久化时（旧数据）在首次读取时才解密计算
     private String idCardMasked;       // 脱敏后的身份证号
     private String phoneMasked;        // 脱敏后的手机号
-    private String nameMasked;         // 脱敏后的姓名
+    private String nameMasked;         // 脱敏后的姓名（非数据库字段）
     
     // 状态常量
     public static final String STATUS_PENDING = "PENDING";    // 待审核
@@ -91,6 +98,8 @@ public abstract class BaseAppointment {
         this.name = name;
     }
     
+    // 密文和盲索引只在服务端使用，不随实体序列化到响应中
+    @JsonIgnore
     public String getIdCardEncrypted() {
         return idCardEncrypted;
     }
@@ -99,6 +108,7 @@ public abstract class BaseAppointment {
         this.idCardEncrypted = idCardEncrypted;
     }
     
+    @JsonIgnore
     public String getPhoneEncrypted() {
         return phoneEncrypted;
     }
@@ -107,6 +117,24 @@ public abstract class BaseAppointment {
         this.phoneEncrypted = phoneEncrypted;
     }
     
+    @JsonIgnore
+    public String getIdCardBlindIndex() {
+        return idCardBlindIndex;
+    }
+    
+    public void setIdCardBlindIndex(String idCardBlindIndex) {
+        this.idCardBlindIndex = idCardBlindIndex;
+    }
+    
+    @JsonIgnore
+    public String getPhoneBlindIndex() {
+        return phoneBlindIndex;
+    }
+    
+    public void setPhoneBlindIndex(String phoneBlindIndex) {
+        this.phoneBlindIndex = phoneBlindIndex;
+    }
+    
     public String getTransportation() {
         return transportation;
     }
@@ -164,6 +192,9 @@ public abstract class BaseAppointment {
     }
     
     public String getIdCardMasked() {
+        if (idCardMasked == null && idCardEncrypted != null) {
+            idCardMasked = decryptAndMask(idCardEncrypted, SMUtil::maskIdCard);
+        }
         return idCardMasked;
     }
     
@@ -172,6 +203,9 @@ public abstract class BaseAppointment {
     }
     
     public String getPhoneMasked() {
+        if (phoneMasked == null && phoneEncrypted != null) {
+            phoneMasked = decryptAndMask(phoneEncrypted, SMUtil::maskPhone);
+        }
         return phoneMasked;
     }
     
@@ -180,6 +214,9 @@ public abstract class BaseAppointment {
     }
     
     public String getNameMasked() {
+        if (nameMasked == null && name != null) {
+            nameMasked = SMUtil.maskName(name);
+        }
         return nameMasked;
     }
     
@@ -187,7 +224,28 @@ public abstract class BaseAppointment {
         this.nameMasked = nameMasked;
     }
     
-
+    /**
+     * 计算尚未持久化的身份证号、手机号脱敏值（旧数据需要解密），供DAO批量处理查询结果
+     */
+    public void resolveMaskedFields() {
+        getIdCardMasked();
+        getPhoneMasked();
+    }
+    
+    /**
+     * 解密并脱敏
+     * @param encrypted 密文
+     * @param masker 脱敏方法
+     * @return 脱敏结果，解密失败时返回密文本身（不可读）
+     */
+    private static String decryptAndMask(String encrypted, UnaryOperator<String> masker) {
+        try {
+            return masker.apply(SMUtil.sm4Decrypt(encrypted));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return encrypted;
+        }
+    }
     
     /**
      * 检查通行码是否有效（当前时间是否在预约时间前后2小时内）
@@ -211,8 +269,8 @@ public abstract class BaseAppointment {
      * @return 通行码内容（用于生成二维码）
      */
     public String getPassCodeContent() {
-        return "姓名: " + (nameMasked != null ? nameMasked : name) + 
-               ", 身份证: " + (idCardMasked != null ? idCardMasked : idCardEncrypted) + 
+        return "姓名: " + getNameMasked() + 
+               ", 身份证: " + getIdCardMasked() + 
                ", 校区: " + campus + 
                ", 时间: " + visitTime;
     }
@@ -0,0 +1,154 @@
+package com.example.javawebcurriculumdesign.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 系统日志链校验结果
+ * 记录检查点签名校验、重新计算哈希的日志区间、哈希不一致的日志和缺失的链序号区间。
+ * 问题日志ID和缺失区间最多各保留MAX_REPORTED条，总数另行计数。
+ */
+public class LogChainVerification {
+    public static final int MAX_REPORTED = 100;
+
+    private boolean fullHistory;                                  // 是否校验了全部历史
+    private long headSeq;                                         // 链头序号（校验开始时）
+    private int checkpointCount;                                  // 检查点数量
+    private long trustedSeq;                                      // 作为起点的可信检查点结束序号，0表示从链首开始
+    private long checkedEntries;                                  // 重新计算哈希的日志数
+    private long legacyEntries;                                   // 逐条校验的链外日志数（仅全量校验）
+    private long brokenCount;                                     // 哈希不一致的日志数
+    private List<Integer> brokenLogIds = new ArrayList<>();       // 哈希不一致的日志ID
+    private List<Long> invalidCheckpoints = new ArrayList<>();    // 签名或区间无效的检查点（结束序号）
+    private long missingCount;                                    // 缺失的日志数
+    private List<String> missingRanges = new ArrayList<>();       // 缺失的链序号区间，如"120-125"
+    private long elapsedMs;                                       // 校验耗时（毫秒）
+
+    // 默认构造函数
+    public LogChainVerification() {
+    }
+
+    /**
+     * 链是否完整：没有哈希不一致的日志、无效的检查点和缺失的日志
+     */
+    public boolean isValid() {
+        return brokenCount == 0 && invalidCheckpoints.isEmpty() && missingCount == 0;
+    }
+
+    /**
+     * 记录一条哈希不一致的日志
+     */
+    public void addBrokenLog(Integer logId) {
+        brokenCount++;
+        if (brokenLogIds.size() < MAX_REPORTED) {
+            brokenLogIds.add(logId);
+        }
+    }
+
+    /**
+     * 记录一段缺失的链序号区间
+     */
+    public void addMissingRange(long fromSeq, long toSeq) {
+        missingCount += toSeq - fromSeq + 1;
+        if (missingRanges.size() < MAX_REPORTED) {
+            missingRanges.add(fromSeq == toSeq ? String.valueOf(fromSeq) : fromSeq + "-" + toSeq);
+        }
+    }
+
+    // Getter和Setter方法
+    public boolean isFullHistory() {
+        return fullHistory;
+    }
+
+    public void setFullHistory(boolean fullHistory) {
+        this.fullHistory = fullHistory;
+    }
+
+    public long getHeadSeq() {
+        return headSeq;
+    }
+
+    public void setHeadSeq(long headSeq) {
+        this.headSeq = headSeq;
+    }
+
+    public int getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    public void setCheckpointCount(int checkpointCount) {
+        this.checkpointCount = checkpointCount;
+    }
+
+    public long getTrustedSeq() {
+        return trustedSeq;
+    }
+
+    public void setTrustedSeq(long trustedSeq) {
+        this.trustedSeq = trustedSeq;
+    }
+
+    public long getCheckedEntries() {
+        return checkedEntries;
+    }
+
+    public void setCheckedEntries(long checkedEntries) {
+        this.checkedEntries = checkedEntries;
+    }
+
+    public long getLegacyEntries() {
+        return legacyEntries;
+    }
+
+    public void setLegacyEntries(long legacyEntries) {
+        this.legacyEntries = legacyEntries;
+    }
+
+    public long getBrokenCount() {
+        return brokenCount;
+    }
+
+    public void setBrokenCount(long brokenCount) {
+        this.brokenCount = brokenCount;
+    }
+
+    public List<Integer> getBrokenLogIds() {
+        return brokenLogIds;
+    }
+
+    public void setBrokenLogIds(List<Integer> brokenLogIds) {
+        this.brokenLogIds = brokenLogIds;
+    }
+
+    public List<Long> getInvalidCheckpoints() {
+        return invalidCheckpoints;
+    }
+
+    public void setInvalidCheckpoints(List<Long> invalidCheckpoints) {
+        this.invalidCheckpoints = invalidCheckpoints;
+    }
+
+    public long getMissingCount() {
+        return missingCount;
+    }
+
+    public void setMissingCount(long missingCount) {
+        this.missingCount = missingCount;
+    }
+
+    public List<String> getMissingRanges() {
+        return missingRanges;
+    }
+
+    public void setMissingRanges(List<String> missingRanges) {
+        this.missingRanges = missingRanges;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+}
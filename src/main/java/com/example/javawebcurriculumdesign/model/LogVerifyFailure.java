@@ -0,0 +1,60 @@
+package com.example.javawebcurriculumdesign.model;
+
+/**
+ * 系统日志校验失败记录实体类
+ */
+public class LogVerifyFailure {
+    private Integer jobId;             // 校验任务ID
+    private Integer logId;             // 校验失败的日志ID
+    private Long chainSeq;             // 日志链序号，哈希链启用前写入的日志为null
+    private String reason;             // 失败原因
+
+    // 失败原因常量
+    public static final String REASON_HASH_MISMATCH = "HASH_MISMATCH"; // 哈希不一致（日志被修改）
+    public static final String REASON_MISSING_PREV = "MISSING_PREV";   // 链上前一条日志缺失（日志被删除）
+
+    // 默认构造函数
+    public LogVerifyFailure() {
+    }
+
+    // 带参数的构造函数
+    public LogVerifyFailure(Integer jobId, Integer logId, Long chainSeq, String reason) {
+        this.jobId = jobId;
+        this.logId = logId;
+        this.chainSeq = chainSeq;
+        this.reason = reason;
+    }
+
+    // Getter和Setter方法
+    public Integer getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Integer jobId) {
+        this.jobId = jobId;
+    }
+
+    public Integer getLogId() {
+        return logId;
+    }
+
+    public void setLogId(Integer logId) {
+        this.logId = logId;
+    }
+
+    public Long getChainSeq() {
+        return chainSeq;
+    }
+
+    public void setChainSeq(Long chainSeq) {
+        this.chainSeq = chainSeq;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.javawebcurriculumdesign.model;
+
+import java.sql.Timestamp;
+
+/**
+ * 系统日志校验任务实体类
+ */
+public class LogVerifyJob {
+    private Integer jobId;             // 任务ID
+    private String status;             // 任务状态
+    private Timestamp rangeStart;      // 校验的操作时间起点（为空表示不限）
+    private Timestamp rangeEnd;        // 校验的操作时间终点（为空表示不限）
+    private Integer requestedBy;       // 发起人ID
+    private Long totalCount;           // 开始时统计的待校验日志数
+    private long checkedCount;         // 已校验日志数
+    private long failedCount;          // 校验失败日志数
+    private String errorMessage;       // 任务异常终止的原因
+    private Timestamp createTime;      // 创建时间
+    private Timestamp startTime;       // 开始时间
+    private Timestamp finishTime;      // 结束时间
+
+    // 非数据库字段，查询任务状态时计算
+    private Double progress;           // 进度（百分比）
+    private Double throughput;         // 吞吐量（条/秒）
+    private Long elapsedMs;            // 已运行时间（毫秒）
+
+    // 任务状态常量
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // 默认构造函数
+    public LogVerifyJob() {
+    }
+
+    // Getter和Setter方法
+    public Integer getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Integer jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Timestamp getRangeStart() {
+        return rangeStart;
+    }
+
+    public void setRangeStart(Timestamp rangeStart) {
+        this.rangeStart = rangeStart;
+    }
+
+    public Timestamp getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public void setRangeEnd(Timestamp rangeEnd) {
+        this.rangeEnd = rangeEnd;
+    }
+
+    public Integer getRequestedBy() {
+        return requestedBy;
+    }
+
+    public void setRequestedBy(Integer requestedBy) {
+        this.requestedBy = requestedBy;
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public long getCheckedCount() {
+        return checkedCount;
+    }
+
+    public void setCheckedCount(long checkedCount) {
+        this.checkedCount = checkedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Timestamp getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Timestamp createTime) {
+        this.createTime = createTime;
+    }
+
+    public Timestamp getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Timestamp startTime) {
+        this.startTime = startTime;
+    }
+
+    public Timestamp getFinishTime() {
+        return finishTime;
+    }
+
+    public void setFinishTime(Timestamp finishTime) {
+        this.finishTime = finishTime;
+    }
+
+    public Double getProgress() {
+        return progress;
+    }
+
+    public void setProgress(Double progress) {
+        this.progress = progress;
+    }
+
+    public Double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(Double throughput) {
+        this.throughput = throughput;
+    }
+
+    public Long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(Long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+}
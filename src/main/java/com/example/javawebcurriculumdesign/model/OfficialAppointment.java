@@ -15,6 +15,7 @@ public class OfficialAppointment extends BaseAppointment {
     // 非数据库字段，用于前端显示
     private String visitDeptName;     // 公务访问部门名称
     private String approverName;      // 审核人姓名
+    private Integer searchRank;       // 检索相关度（仅检索结果）
     
     // 默认构造函数
     public OfficialAppointment() {
@@ -92,6 +93,14 @@ public class OfficialAppointment extends BaseAppointment {
         this.approverName = approverName;
     }
     
+    public Integer getSearchRank() {
+        return searchRank;
+    }
+    
+    public void setSearchRank(Integer searchRank) {
+        this.searchRank = searchRank;
+    }
+    
     /**
      * 审核通过
      * @param approverId 审核人ID
@@ -0,0 +1,59 @@
+package com.example.javawebcurriculumdesign.model;
+
+import java.util.List;
+
+/**
+ * 分页查询结果（基于游标的键集分页）
+ * @param <T> 记录类型
+ */
+public class PageResult<T> {
+    private List<T> items;        // 当前页记录
+    private String nextCursor;    // 下一页游标，没有更多数据时为null
+    private boolean hasMore;      // 是否还有下一页
+    private Long approxTotal;     // 近似总数（未请求时为null）
+
+    // 默认构造函数
+    public PageResult() {
+    }
+
+    // 带参数的构造函数
+    public PageResult(List<T> items, String nextCursor, Long approxTotal) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.approxTotal = approxTotal;
+    }
+
+    // Getter和Setter方法
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Long getApproxTotal() {
+        return approxTotal;
+    }
+
+    public void setApproxTotal(Long approxTotal) {
+        this.approxTotal = approxTotal;
+    }
+}
@@ -12,11 +12,13 @@ public class SystemLog {
     private String description;        // 操作描述
     private String ipAddress;          // 操作IP地址
     private Timestamp operationTime;   // 操作时间
-    private String logHash;            // 日志记录的HMAC-SM3值
+    private String logHash;            // 日志记录的HMAC-SM3值（链式日志同时覆盖前一条日志的哈希）
+    private Long chainSeq;             // 日志链序号，哈希链启用前写入的日志为null
     private Timestamp createTime;      // 创建时间
     
     // 非数据库字段，用于前端显示
     private String adminName;          // 操作人姓名
+    private String prevHash;           // 链上前一条日志的哈希（仅校验时关联查询）
     
     // 操作类型常量
     public static final String OPERATION_LOGIN = "LOGIN";
@@ -98,6 +100,14 @@ public class SystemLog {
         this.logHash = logHash;
     }
     
+    public Long getChainSeq() {
+        return chainSeq;
+    }
+    
+    public void setChainSeq(Long chainSeq) {
+        this.chainSeq = chainSeq;
+    }
+    
     public Timestamp getCreateTime() {
         return createTime;
     }
@@ -114,13 +124,21 @@ public class SystemLog {
         this.adminName = adminName;
     }
     
+    public String getPrevHash() {
+        return prevHash;
+    }
+    
+    public void setPrevHash(String prevHash) {
+        this.prevHash = prevHash;
+    }
+    
     /**
      * 获取日志内容（用于计算HMAC-SM3值）
+     * 日志ID在写入后才由数据库生成，不参与哈希计算，日志的位置由链序号确定
      * @return 日志内容字符串
      */
     public String getLogContent() {
-        return "LogId:" + logId +
-                ",AdminId:" + adminId +
+        return "AdminId:" + adminId +
                 ",Operation:" + operation +
                 ",Description:" + description +
                 ",IpAddress:" + ipAddress +
@@ -0,0 +1,69 @@
+package com.example.javawebcurriculumdesign.model;
+
+import java.sql.Timestamp;
+
+/**
+ * 系统日志检查点实体类
+ * 检查点覆盖链序号区间 [startSeq, endSeq]，签名覆盖区间、结尾日志的哈希和上一检查点的签名
+ */
+public class SystemLogCheckpoint {
+    private Integer checkpointId;      // 检查点ID
+    private Long startSeq;             // 区间起始链序号
+    private Long endSeq;               // 区间结束链序号
+    private String endHash;            // 区间最后一条日志的哈希
+    private String signature;          // 检查点签名（HMAC-SM3）
+    private Timestamp createTime;      // 创建时间
+
+    // 默认构造函数
+    public SystemLogCheckpoint() {
+    }
+
+    // Getter和Setter方法
+    public Integer getCheckpointId() {
+        return checkpointId;
+    }
+
+    public void setCheckpointId(Integer checkpointId) {
+        this.checkpointId = checkpointId;
+    }
+
+    public Long getStartSeq() {
+        return startSeq;
+    }
+
+    public void setStartSeq(Long startSeq) {
+        this.startSeq = startSeq;
+    }
+
+    public Long getEndSeq() {
+        return endSeq;
+    }
+
+    public void setEndSeq(Long endSeq) {
+        this.endSeq = endSeq;
+    }
+
+    public String getEndHash() {
+        return endHash;
+    }
+
+    public void setEndHash(String endHash) {
+        this.endHash = endHash;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public Timestamp getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Timestamp createTime) {
+        this.createTime = createTime;
+    }
+}
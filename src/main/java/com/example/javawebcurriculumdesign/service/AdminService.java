@@ -2,7 +2,7 @@ package com.example.javawebcurriculumdesign.service;
 
 import com.example.javawebcurriculumdesign.dao.AdminDao;
 import com.example.javawebcurriculumdesign.dao.AdminPermissionDao;
-import com.example.javawebcurriculumdesign.dao.SystemLogDao;
+import com.example.javawebcurriculumdesign.dao.SystemLogWriter;
 import com.example.javawebcurriculumdesign.model.Admin;
 import com.example.javawebcurriculumdesign.model.AdminPermission;
 import com.example.javawebcurriculumdesign.model.SystemLog;
@@ -19,7 +19,8 @@ import java.util.List;
  */
 public class AdminService {
     private final AdminDao adminDao = new AdminDao();
-    private final SystemLogDao systemLogDao = new SystemLogDao();
+    private final SystemLogWriter systemLogWriter = SystemLogWriter.getInstance();
+    private final AuthorizationCache authorizationCache = AuthorizationCache.getInstance();
     private final AdminPermissionDao adminPermissionDao = new AdminPermissionDao();
     
     /**
@@ -103,7 +104,7 @@ public class AdminService {
             log.setOperation("账户锁定");
             log.setDescription("登录失败5次，账户被锁定30分钟");
             log.setOperationTime(new Timestamp(System.currentTimeMillis()));
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         } else {
             // 更新失败次数
             adminDao.updateLoginAttempts(adminId, attempts);
@@ -191,7 +192,7 @@ public class AdminService {
             return false;
         }
 
-        Admin admin = adminDao.getById(adminId);
+        AuthorizationCache.AdminAuthorization admin = authorizationCache.get(adminId);
         if (admin == null) {
             return false;
         }
@@ -226,7 +227,7 @@ public class AdminService {
             return false;
         }
 
-        Admin admin = adminDao.getById(adminId);
+        AuthorizationCache.AdminAuthorization admin = authorizationCache.get(adminId);
         if (admin == null) {
             return false;
         }
@@ -260,7 +261,7 @@ public class AdminService {
             return false;
         }
 
-        Admin admin = adminDao.getById(adminId);
+        AuthorizationCache.AdminAuthorization admin = authorizationCache.get(adminId);
         if (admin == null) {
             return false;
         }
@@ -289,7 +290,7 @@ public class AdminService {
             return false;
         }
 
-        Admin admin = adminDao.getById(adminId);
+        AuthorizationCache.AdminAuthorization admin = authorizationCache.get(adminId);
         if (admin == null) {
             return false;
         }
@@ -306,7 +307,7 @@ public class AdminService {
 
         // 部门管理员需要被授权才能查看社会公众预约
         if (Admin.ROLE_DEPARTMENT_ADMIN.equals(admin.getRole())) {
-            return adminPermissionDao.hasPermission(adminId, AdminPermission.TYPE_VIEW_PUBLIC_APPOINTMENT);
+            return admin.hasPermissionType(AdminPermission.TYPE_VIEW_PUBLIC_APPOINTMENT);
         }
 
         return false;
@@ -330,6 +331,7 @@ public class AdminService {
 
         AdminPermission permission = new AdminPermission(adminId, AdminPermission.TYPE_VIEW_PUBLIC_APPOINTMENT, grantedBy);
         boolean success = adminPermissionDao.add(permission) > 0;
+        authorizationCache.invalidate(adminId);
 
         // 记录授权日志
         if (grantedBy != null) {
@@ -340,7 +342,7 @@ public class AdminService {
             log.setOperation(operation);
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("结果: " + (success ? "成功" : "失败"));
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
 
         return success;
@@ -358,6 +360,7 @@ public class AdminService {
         }
 
         boolean success = adminPermissionDao.revokePermission(adminId, AdminPermission.TYPE_VIEW_PUBLIC_APPOINTMENT) > 0;
+        authorizationCache.invalidate(adminId);
 
         // 记录撤销日志
         if (revokedBy != null) {
@@ -368,7 +371,7 @@ public class AdminService {
             log.setOperation(operation);
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("结果: " + (success ? "成功" : "失败"));
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
 
         return success;
@@ -483,7 +486,7 @@ public class AdminService {
                     log.setOperation(operation);
                     log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
                     log.setDescription("密码复杂度不符合要求: " + validationResult.getErrorMessage());
-                    systemLogDao.add(log);
+                    systemLogWriter.write(log);
                 }
                 return false;
             }
@@ -500,7 +503,7 @@ public class AdminService {
             log.setOperation(operation);
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("角色: " + admin.getRole() + ", 结果: " + (success ? "成功" : "失败"));
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
         
         return success;
@@ -524,6 +527,7 @@ public class AdminService {
         }
         
         boolean success = adminDao.deleteById(adminId) > 0;
+        authorizationCache.invalidate(adminId);
         
         // 记录删除管理员日志
         if (operatorId != null) {
@@ -533,7 +537,7 @@ public class AdminService {
             log.setOperation(operation);
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("管理员ID: " + adminId + ", 结果: " + (success ? "成功" : "失败"));
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
         
         return success;
@@ -564,6 +568,7 @@ public class AdminService {
         }
         
         boolean success = adminDao.update(admin) > 0;
+        authorizationCache.invalidate(admin.getAdminId());
         
         // 记录更新管理员日志
         if (operatorId != null) {
@@ -573,7 +578,7 @@ public class AdminService {
             log.setOperation(operation);
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("管理员ID: " + admin.getAdminId() + ", 结果: " + (success ? "成功" : "失败"));
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
         
         return success;
@@ -636,6 +641,7 @@ public class AdminService {
         
         admin.setStatus(status);
         boolean success = adminDao.update(admin) > 0;
+        authorizationCache.invalidate(adminId);
         
         // 记录状态修改日志
         SystemLog log = new SystemLog();
@@ -643,7 +649,7 @@ public class AdminService {
         log.setOperation("管理员状态修改");
         log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
         log.setDescription("管理员: " + admin.getLoginName() + ", 新状态: " + (status == 1 ? "启用" : "禁用") + ", 结果: " + (success ? "成功" : "失败"));
-        systemLogDao.add(log);
+        systemLogWriter.write(log);
         
         return success;
     }
@@ -662,6 +668,6 @@ public class AdminService {
         log.setOperation("密码修改");
         log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
         log.setDescription("状态: " + (success ? "成功" : "失败") + ", " + details);
-        systemLogDao.add(log);
+        systemLogWriter.write(log);
     }
 } 
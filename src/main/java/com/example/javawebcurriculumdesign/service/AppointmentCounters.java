@@ -0,0 +1,278 @@
+package com.example.javawebcurriculumdesign.service;
+
+import com.example.javawebcurriculumdesign.dao.AppointmentStatsDao;
+import com.example.javawebcurriculumdesign.util.DBUtil;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+
+/**
+ * 预约计数器
+ * 在内存中按（预约类型, 状态, 申请日期, 校区）维护预约数量，供控制面板等统计接口直接读取，无需执行COUNT(*)。
+ * 启动时由一条汇总查询加载；AppointmentService通过add、changeStatus执行新增、审核、取消、完成预约，
+ * 数据库修改成功后同步更新计数；定期与数据库重新核对，修正绕过AppointmentService的修改（如直接修改数据库）造成的偏差。
+ * 数据库修改及其计数更新期间持有读锁，核对加载持有写锁，因此加载结果不会遗漏或重复计入正在进行的修改。
+ */
+public class AppointmentCounters {
+    private static final AppointmentCounters INSTANCE = new AppointmentCounters();
+
+    // 与数据库核对的间隔（分钟）
+    private static final long RECONCILE_INTERVAL_MINUTES = 5;
+
+    private final AppointmentStatsDao appointmentStatsDao = new AppointmentStatsDao();
+    // 计数快照，加载完成前为null，此时统计接口回退为数据库查询
+    private volatile Map<CounterKey, Long> counts;
+    // 写操作（数据库修改到计数更新）持有读锁，核对加载持有写锁
+    private final ReentrantReadWriteLock changeLock = new ReentrantReadWriteLock();
+    private ScheduledExecutorService scheduler;
+
+    private AppointmentCounters() {
+    }
+
+    public static AppointmentCounters getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 加载计数并启动定期核对
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "appointment-counter-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::safeReconcile);
+        scheduler.scheduleWithFixedDelay(this::safeReconcile,
+                RECONCILE_INTERVAL_MINUTES, RECONCILE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 停止定期核对
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 从数据库重新加载计数并替换当前快照
+     * 加载期间暂停预约写操作：已提交的修改都已计入旧快照，加载结果与之后的增量衔接，不会遗漏或重复计数
+     */
+    public void reconcile() {
+        Map<CounterKey, Long> loaded = new HashMap<>();
+        changeLock.writeLock().lock();
+        try {
+            try (DBUtil.PrimaryReadScope ignored = DBUtil.readFromPrimary()) {
+                for (Object[] row : appointmentStatsDao.countByTypeStatusDayCampus()) {
+                    Date day = (Date) row[2];
+                    CounterKey key = new CounterKey((String) row[0], (String) row[1],
+                            day != null ? day.toLocalDate() : null, (String) row[3]);
+                    loaded.merge(key, (Long) row[4], Long::sum);
+                }
+            }
+
+            Map<CounterKey, Long> previous = counts;
+            if (previous != null && !previous.equals(loaded)) {
+                System.out.println("预约计数与数据库不一致，已按数据库修正");
+            }
+            counts = new ConcurrentHashMap<>(loaded);
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 新增预约并更新计数
+     * @param type 预约类型
+     * @param status 预约状态
+     * @param applyTime 申请时间，为null时取当前时间
+     * @param campus 校区
+     * @param insert 插入操作，返回新增预约的ID
+     * @return 新增预约的ID，失败时返回insert的结果
+     */
+    public int add(String type, String status, Timestamp applyTime, String campus, IntSupplier insert) {
+        changeLock.readLock().lock();
+        try {
+            int appointmentId = insert.getAsInt();
+            if (appointmentId > 0) {
+                apply(new CounterKey(type, status, toDay(applyTime), campus), 1);
+            }
+            return appointmentId;
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 变更预约状态并更新计数
+     * 更新操作须以原状态为条件（WHERE status = 原状态），只有恰好更新一行时才计数，
+     * 同一预约的并发状态变更只会被计入一次
+     * @param type 预约类型
+     * @param oldStatus 原状态
+     * @param newStatus 新状态
+     * @param applyTime 申请时间
+     * @param campus 校区
+     * @param update 条件更新操作，返回影响的行数
+     * @return 状态是否变更成功
+     */
+    public boolean changeStatus(String type, String oldStatus, String newStatus, Timestamp applyTime,
+                                String campus, IntSupplier update) {
+        changeLock.readLock().lock();
+        try {
+            if (update.getAsInt() != 1) {
+                return false;
+            }
+            if (!Objects.equals(oldStatus, newStatus)) {
+                LocalDate day = toDay(applyTime);
+                apply(new CounterKey(type, oldStatus, day, campus), -1);
+                apply(new CounterKey(type, newStatus, day, campus), 1);
+            }
+            return true;
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统计预约数量
+     * 申请时间范围需按整天划分（开始时间为零点，结束时间为当天最后一毫秒），否则无法由按天的计数得出
+     * @param type 预约类型，为null时统计两种预约
+     * @param campus 校区，为空时不限
+     * @param status 状态，为空时不限
+     * @param startApplyTime 申请开始时间（含），为null时不限
+     * @param endApplyTime 申请结束时间（含），为null时不限
+     * @return 预约数量；计数尚未加载或时间范围不是整天时返回null，由调用方查询数据库
+     */
+    public Long count(String type, String campus, String status, Timestamp startApplyTime, Timestamp endApplyTime) {
+        Map<CounterKey, Long> current = counts;
+        if (current == null) {
+            return null;
+        }
+
+        LocalDate startDay = null;
+        if (startApplyTime != null) {
+            LocalDateTime start = startApplyTime.toLocalDateTime();
+            if (!start.toLocalTime().equals(LocalTime.MIDNIGHT)) {
+                return null;
+            }
+            startDay = start.toLocalDate();
+        }
+
+        LocalDate endDay = null;
+        if (endApplyTime != null) {
+            LocalDateTime next = new Timestamp(endApplyTime.getTime() + 1).toLocalDateTime();
+            if (!next.toLocalTime().equals(LocalTime.MIDNIGHT) || endApplyTime.getNanos() % 1_000_000 != 0) {
+                return null;
+            }
+            endDay = next.toLocalDate().minusDays(1);
+        }
+
+        long total = 0;
+        for (Map.Entry<CounterKey, Long> entry : current.entrySet()) {
+            CounterKey key = entry.getKey();
+            if (type != null && !type.equals(key.type)) {
+                continue;
+            }
+            if (status != null && !status.isEmpty() && !status.equals(key.status)) {
+                continue;
+            }
+            if (campus != null && !campus.isEmpty() && !campus.equals(key.campus)) {
+                continue;
+            }
+            if ((startDay != null || endDay != null) && key.day == null) {
+                continue;
+            }
+            if (startDay != null && key.day.isBefore(startDay)) {
+                continue;
+            }
+            if (endDay != null && key.day.isAfter(endDay)) {
+                continue;
+            }
+            total += entry.getValue();
+        }
+        return total;
+    }
+
+    /**
+     * 在当前快照上累加变化量；计数尚未加载时忽略，加载结果已包含该修改
+     */
+    private synchronized void apply(CounterKey key, long delta) {
+        Map<CounterKey, Long> current = counts;
+        if (current != null) {
+            merge(current, key, delta);
+        }
+    }
+
+    private void safeReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.err.println("加载预约计数失败: " + e.getMessage());
+        }
+    }
+
+    private static void merge(Map<CounterKey, Long> map, CounterKey key, long delta) {
+        Long value = map.merge(key, delta, Long::sum);
+        if (value != null && value == 0) {
+            map.remove(key);
+        }
+    }
+
+    private static LocalDate toDay(Timestamp time) {
+        return time != null ? time.toLocalDateTime().toLocalDate() : LocalDate.now();
+    }
+
+    /**
+     * 计数键
+     */
+    private static final class CounterKey {
+        private final String type;
+        private final String status;
+        private final LocalDate day;
+        private final String campus;
+
+        private CounterKey(String type, String status, LocalDate day, String campus) {
+            this.type = type;
+            this.status = status;
+            this.day = day;
+            this.campus = campus;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CounterKey)) {
+                return false;
+            }
+            CounterKey that = (CounterKey) o;
+            return Objects.equals(type, that.type) && Objects.equals(status, that.status)
+                    && Objects.equals(day, that.day) && Objects.equals(campus, that.campus);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, status, day, campus);
+        }
+    }
+}
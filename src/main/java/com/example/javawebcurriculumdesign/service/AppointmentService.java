@@ -1,19 +1,29 @@
 package com.example.javawebcurriculumdesign.service;
 
 
+import com.example.javawebcurriculumdesign.dao.BaseDao.RowCallback;
+import com.example.javawebcurriculumdesign.dao.GroupDimension;
 import com.example.javawebcurriculumdesign.dao.OfficialAppointmentDao;
 import com.example.javawebcurriculumdesign.dao.PublicAppointmentDao;
-import com.example.javawebcurriculumdesign.dao.SystemLogDao;
+import com.example.javawebcurriculumdesign.dao.PublicAppointmentGroupWriter;
+import com.example.javawebcurriculumdesign.dao.SystemLogWriter;
 
+import com.example.javawebcurriculumdesign.model.BaseAppointment;
 import com.example.javawebcurriculumdesign.model.OfficialAppointment;
+import com.example.javawebcurriculumdesign.model.PageResult;
 import com.example.javawebcurriculumdesign.model.PublicAppointment;
 import com.example.javawebcurriculumdesign.model.SystemLog;
+import com.example.javawebcurriculumdesign.util.DBUtil;
+import com.example.javawebcurriculumdesign.util.KeysetCursor;
+import com.example.javawebcurriculumdesign.util.PassCodeImageCache;
+import com.example.javawebcurriculumdesign.util.SMUtil;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 /**
  * 预约服务类
@@ -23,7 +33,9 @@ public class AppointmentService {
     private final PublicAppointmentDao publicAppointmentDao = new PublicAppointmentDao();
     private final OfficialAppointmentDao officialAppointmentDao = new OfficialAppointmentDao();
 
-    private final SystemLogDao systemLogDao = new SystemLogDao();
+    private final SystemLogWriter systemLogWriter = SystemLogWriter.getInstance();
+    private final AppointmentCounters appointmentCounters = AppointmentCounters.getInstance();
+    private final PassCodeImageCache passCodeImageCache = PassCodeImageCache.getInstance();
     
     // 预约类型常量
     public static final String TYPE_PUBLIC = "PUBLIC";
@@ -36,6 +48,13 @@ public class AppointmentService {
     public static final String STATUS_CANCELLED = "CANCELLED";
     public static final String STATUS_COMPLETED = "COMPLETED";
     
+    // 分页常量
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 200;
+    
+    // 盲索引、脱敏值回填每批处理的记录数
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    
     /**
      * 添加公众预约
      * @param appointment 预约对象
@@ -53,13 +72,13 @@ public class AppointmentService {
                 appointment.setStatus(STATUS_PENDING);
             }
             
-            // 添加预约
-            int appointmentId = publicAppointmentDao.add(appointment);
-            if (appointmentId <= 0) {
-                return -1;
-            }
-            
-            return appointmentId;
+            // 添加预约；开启合并写入时与并发提交合并为一条多行INSERT
+            int appointmentId = appointmentCounters.add(TYPE_PUBLIC, appointment.getStatus(),
+                    appointment.getApplyTime(), appointment.getCampus(),
+                    () -> DBUtil.isGroupCommitEnabled()
+                            ? PublicAppointmentGroupWriter.getInstance().submit(appointment)
+                            : publicAppointmentDao.add(appointment));
+            return appointmentId > 0 ? appointmentId : -1;
         } catch (Exception e) {
             e.printStackTrace();
             return -1;
@@ -86,12 +105,10 @@ public class AppointmentService {
             }
             
             // 添加预约
-            int appointmentId = officialAppointmentDao.add(appointment);
-            if (appointmentId <= 0) {
-                return -1;
-            }
-            
-            return appointmentId;
+            int appointmentId = appointmentCounters.add(TYPE_OFFICIAL, appointment.getStatus(),
+                    appointment.getApplyTime(), appointment.getCampus(),
+                    () -> officialAppointmentDao.add(appointment));
+            return appointmentId > 0 ? appointmentId : -1;
         } catch (Exception e) {
             e.printStackTrace();
             return -1;
@@ -114,23 +131,33 @@ public class AppointmentService {
         boolean success = false;
         
         if (TYPE_PUBLIC.equals(appointmentType)) {
-            PublicAppointment appointment = publicAppointmentDao.getById(appointmentId);
+            PublicAppointment appointment = getPublicAppointmentFromPrimary(appointmentId);
             if (appointment == null || STATUS_CANCELLED.equals(appointment.getStatus())) {
                 return false;
             }
             
-            appointment.setStatus(STATUS_CANCELLED);
+            String oldStatus = appointment.getStatus();
             // 在这里记录取消原因，通常需要在数据库中添加一个cancel_reason字段
-            success = publicAppointmentDao.update(appointment) > 0;
+            // 以读到的状态为条件更新，状态已被并发修改时取消失败
+            success = appointmentCounters.changeStatus(TYPE_PUBLIC, oldStatus, STATUS_CANCELLED,
+                    appointment.getApplyTime(), appointment.getCampus(),
+                    () -> publicAppointmentDao.updateStatus(appointmentId, oldStatus, STATUS_CANCELLED));
         } else if (TYPE_OFFICIAL.equals(appointmentType)) {
-            OfficialAppointment appointment = officialAppointmentDao.getById(appointmentId);
+            OfficialAppointment appointment = getOfficialAppointmentFromPrimary(appointmentId);
             if (appointment == null || STATUS_CANCELLED.equals(appointment.getStatus())) {
                 return false;
             }
             
-            appointment.setStatus(STATUS_CANCELLED);
+            String oldStatus = appointment.getStatus();
             // 在这里记录取消原因，通常需要在数据库中添加一个cancel_reason字段
-            success = officialAppointmentDao.update(appointment) > 0;
+            // 以读到的状态为条件更新，状态已被并发修改时取消失败
+            success = appointmentCounters.changeStatus(TYPE_OFFICIAL, oldStatus, STATUS_CANCELLED,
+                    appointment.getApplyTime(), appointment.getCampus(),
+                    () -> officialAppointmentDao.updateStatus(appointmentId, oldStatus, STATUS_CANCELLED));
+        }
+        
+        if (success) {
+            passCodeImageCache.invalidate(appointmentType, appointmentId);
         }
         
         return success;
@@ -159,11 +186,12 @@ public class AppointmentService {
         boolean success = false;
         
         if (TYPE_PUBLIC.equals(appointmentType)) {
-            PublicAppointment appointment = publicAppointmentDao.getById(appointmentId);
+            PublicAppointment appointment = getPublicAppointmentFromPrimary(appointmentId);
             if (appointment == null) {
                 return false;
             }
             
+            String oldStatus = appointment.getStatus();
             if (STATUS_APPROVED.equals(status)) {
                 appointment.setStatus(STATUS_APPROVED);
             } else if (STATUS_REJECTED.equals(status)) {
@@ -171,13 +199,18 @@ public class AppointmentService {
                 // 在这里记录拒绝原因，通常需要在数据库中添加一个reject_reason字段
             }
             
-            success = publicAppointmentDao.update(appointment) > 0;
+            // 以读到的状态为条件更新，同一预约的并发审核只有一个能成功
+            String newStatus = appointment.getStatus();
+            success = appointmentCounters.changeStatus(TYPE_PUBLIC, oldStatus, newStatus,
+                    appointment.getApplyTime(), appointment.getCampus(),
+                    () -> publicAppointmentDao.updateStatus(appointmentId, oldStatus, newStatus));
         } else if (TYPE_OFFICIAL.equals(appointmentType)) {
-            OfficialAppointment appointment = officialAppointmentDao.getById(appointmentId);
+            OfficialAppointment appointment = getOfficialAppointmentFromPrimary(appointmentId);
             if (appointment == null) {
                 return false;
             }
             
+            String oldStatus = appointment.getStatus();
             if (STATUS_APPROVED.equals(status)) {
                 appointment.approve(approverId);
             } else if (STATUS_REJECTED.equals(status)) {
@@ -185,11 +218,17 @@ public class AppointmentService {
                 // 在这里记录拒绝原因，通常需要在数据库中添加一个reject_reason字段
             }
             
-            success = officialAppointmentDao.update(appointment) > 0;
+            // 以读到的状态为条件更新，同一预约的并发审核只有一个能成功
+            String newStatus = appointment.getStatus();
+            success = appointmentCounters.changeStatus(TYPE_OFFICIAL, oldStatus, newStatus,
+                    appointment.getApplyTime(), appointment.getCampus(),
+                    () -> officialAppointmentDao.approve(appointmentId, oldStatus, newStatus, approverId));
         }
         
         // 记录审核日志
         if (success) {
+            passCodeImageCache.invalidate(appointmentType, appointmentId);
+            
             String operation = STATUS_APPROVED.equals(status) ? "批准预约" : "拒绝预约";
             SystemLog log = new SystemLog();
             log.setAdminId(approverId);
@@ -197,7 +236,7 @@ public class AppointmentService {
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("预约ID: " + appointmentId + ", 预约类型: " + appointmentType + 
                     (STATUS_REJECTED.equals(status) ? ", 拒绝原因: " + rejectReason : ""));
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
         
         return success;
@@ -219,36 +258,62 @@ public class AppointmentService {
         boolean success = false;
         
         if (TYPE_PUBLIC.equals(appointmentType)) {
-            PublicAppointment appointment = publicAppointmentDao.getById(appointmentId);
+            PublicAppointment appointment = getPublicAppointmentFromPrimary(appointmentId);
             if (appointment == null || !STATUS_APPROVED.equals(appointment.getStatus())) {
                 return false;
             }
             
-            appointment.setStatus(STATUS_COMPLETED);
-            success = publicAppointmentDao.update(appointment) > 0;
+            success = appointmentCounters.changeStatus(TYPE_PUBLIC, STATUS_APPROVED, STATUS_COMPLETED,
+                    appointment.getApplyTime(), appointment.getCampus(),
+                    () -> publicAppointmentDao.updateStatus(appointmentId, STATUS_APPROVED, STATUS_COMPLETED));
         } else if (TYPE_OFFICIAL.equals(appointmentType)) {
-            OfficialAppointment appointment = officialAppointmentDao.getById(appointmentId);
+            OfficialAppointment appointment = getOfficialAppointmentFromPrimary(appointmentId);
             if (appointment == null || !STATUS_APPROVED.equals(appointment.getStatus())) {
                 return false;
             }
             
-            appointment.setStatus(STATUS_COMPLETED);
-            success = officialAppointmentDao.update(appointment) > 0;
+            success = appointmentCounters.changeStatus(TYPE_OFFICIAL, STATUS_APPROVED, STATUS_COMPLETED,
+                    appointment.getApplyTime(), appointment.getCampus(),
+                    () -> officialAppointmentDao.updateStatus(appointmentId, STATUS_APPROVED, STATUS_COMPLETED));
         }
         
         // 记录完成预约日志
         if (success) {
+            passCodeImageCache.invalidate(appointmentType, appointmentId);
+            
             SystemLog log = new SystemLog();
             log.setAdminId(operatorId);
             log.setOperation("完成预约");
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("预约ID: " + appointmentId + ", 预约类型: " + appointmentType);
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
         
         return success;
     }
     
+    /**
+     * 从主库读取公众预约，用于据此修改状态或预约人提交后立即查询的场景
+     * @param appointmentId 预约ID
+     * @return 预约对象
+     */
+    private PublicAppointment getPublicAppointmentFromPrimary(Integer appointmentId) {
+        try (DBUtil.PrimaryReadScope ignored = DBUtil.readFromPrimary()) {
+            return publicAppointmentDao.getById(appointmentId);
+        }
+    }
+    
+    /**
+     * 从主库读取公务预约，用于据此修改状态或预约人提交后立即查询的场景
+     * @param appointmentId 预约ID
+     * @return 预约对象
+     */
+    private OfficialAppointment getOfficialAppointmentFromPrimary(Integer appointmentId) {
+        try (DBUtil.PrimaryReadScope ignored = DBUtil.readFromPrimary()) {
+            return officialAppointmentDao.getById(appointmentId);
+        }
+    }
+    
     /**
      * 根据ID获取公众预约
      * @param appointmentId 预约ID
@@ -274,108 +339,284 @@ public class AppointmentService {
     }
     
     /**
-     * 根据加密的身份证号和手机号查询公众预约
-     * @param idCardEncrypted 加密的身份证号
-     * @param phoneEncrypted 加密的手机号
+     * 根据身份证号和手机号查询公众预约（通过盲索引匹配）
+     * @param idCard 身份证号（明文）
+     * @param phone 手机号（明文）
      * @return 预约列表
      */
-    public List<PublicAppointment> getPublicAppointmentsByIdCardAndPhoneEncrypted(String idCardEncrypted, String phoneEncrypted) {
-        if (idCardEncrypted == null || phoneEncrypted == null) {
+    public List<PublicAppointment> getPublicAppointmentsByIdCardAndPhone(String idCard, String phone) {
+        if (idCard == null || phone == null) {
             return null;
         }
-        return publicAppointmentDao.getByIdCardAndPhone(idCardEncrypted, phoneEncrypted);
+        // 预约人提交后立即查询，需要读到刚写入的预约
+        try (DBUtil.PrimaryReadScope ignored = DBUtil.readFromPrimary()) {
+            return publicAppointmentDao.getByIdCardAndPhone(SMUtil.blindIndex(idCard), SMUtil.blindIndex(phone));
+        }
     }
     
     /**
-     * 根据加密的身份证号和手机号查询官方预约
-     * @param idCardEncrypted 加密的身份证号
-     * @param phoneEncrypted 加密的手机号
+     * 根据身份证号和手机号查询官方预约（通过盲索引匹配）
+     * @param idCard 身份证号（明文）
+     * @param phone 手机号（明文）
      * @return 预约列表
      */
-    public List<OfficialAppointment> getOfficialAppointmentsByIdCardAndPhoneEncrypted(String idCardEncrypted, String phoneEncrypted) {
-        if (idCardEncrypted == null || phoneEncrypted == null) {
+    public List<OfficialAppointment> getOfficialAppointmentsByIdCardAndPhone(String idCard, String phone) {
+        if (idCard == null || phone == null) {
             return null;
         }
-        return officialAppointmentDao.getByIdCardAndPhone(idCardEncrypted, phoneEncrypted);
+        try (DBUtil.PrimaryReadScope ignored = DBUtil.readFromPrimary()) {
+            return officialAppointmentDao.getByIdCardAndPhone(SMUtil.blindIndex(idCard), SMUtil.blindIndex(phone));
+        }
+    }
+    
+    /**
+     * 回填历史预约的盲索引和脱敏值
+     * 按预约ID分批读取尚未回填的记录，解密一次后计算盲索引和脱敏值并批量更新
+     * @return 回填的记录数
+     */
+    public int backfillSensitiveColumns() {
+        int updated = 0;
+        
+        int lastId = 0;
+        while (true) {
+            List<PublicAppointment> batch = publicAppointmentDao.getPendingBackfill(lastId, BACKFILL_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getAppointmentId();
+        
+            List<Object[]> params = buildBackfillParams(batch);
+            if (!params.isEmpty()) {
+                publicAppointmentDao.updateBackfillColumns(params);
+                updated += params.size();
+            }
+        }
+        
+        lastId = 0;
+        while (true) {
+            List<OfficialAppointment> batch = officialAppointmentDao.getPendingBackfill(lastId, BACKFILL_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getAppointmentId();
+        
+            List<Object[]> params = buildBackfillParams(batch);
+            if (!params.isEmpty()) {
+                officialAppointmentDao.updateBackfillColumns(params);
+                updated += params.size();
+            }
+        }
+        
+        return updated;
+    }
+    
+    /**
+     * 构建回填批量更新参数
+     * @param appointments 预约列表
+     * @return 参数列表，每项为 [身份证号盲索引, 手机号盲索引, 身份证号脱敏值, 手机号脱敏值, 预约ID]
+     */
+    private List<Object[]> buildBackfillParams(List<? extends BaseAppointment> appointments) {
+        List<Object[]> params = new ArrayList<>();
+        for (BaseAppointment appointment : appointments) {
+            try {
+                String idCard = SMUtil.sm4Decrypt(appointment.getIdCardEncrypted());
+                String phone = SMUtil.sm4Decrypt(appointment.getPhoneEncrypted());
+                params.add(new Object[]{
+                        SMUtil.blindIndex(idCard), SMUtil.blindIndex(phone),
+                        SMUtil.maskIdCard(idCard), SMUtil.maskPhone(phone),
+                        appointment.getAppointmentId()});
+            } catch (Exception e) {
+                // 解密失败的记录跳过，不影响其他记录的回填
+                e.printStackTrace();
+            }
+        }
+        return params;
+    }
+    
+    /**
+     * 获取预约时间最近的公众预约
+     * @param limit 最多返回的记录数
+     * @return 预约列表（按预约时间倒序）
+     */
+    public List<PublicAppointment> getRecentPublicAppointments(int limit) {
+        return publicAppointmentDao.getRecentByVisitTime(limit);
+    }
+    
+    /**
+     * 获取预约时间最近的公务预约
+     * @param limit 最多返回的记录数
+     * @return 预约列表（按预约时间倒序）
+     */
+    public List<OfficialAppointment> getRecentOfficialAppointments(int limit) {
+        return officialAppointmentDao.getRecentByVisitTime(limit);
     }
     
     /**
-     * 查询公众预约
+     * 流式遍历公众预约，供大列表直接序列化到响应输出流
+     * @param campus 校区（可选）
+     * @param status 状态（可选）
+     * @param callback 行回调
+     * @return 遍历的预约数量
+     */
+    public long forEachPublicAppointment(String campus, String status, RowCallback<PublicAppointment> callback) {
+        return publicAppointmentDao.forEach(campus, status, callback);
+    }
+    
+    /**
+     * 流式遍历公务预约，供大列表直接序列化到响应输出流
+     * @param visitDeptId 访问部门ID（可选）
+     * @param status 状态（可选）
+     * @param callback 行回调
+     * @return 遍历的预约数量
+     */
+    public long forEachOfficialAppointment(Integer visitDeptId, String status, RowCallback<OfficialAppointment> callback) {
+        return officialAppointmentDao.forEach(visitDeptId, status, callback);
+    }
+    
+    /**
+     * 分页查询公众预约（键集分页，按申请时间倒序）
      * @param campus 校区
      * @param status 状态
      * @param startDate 开始日期
      * @param endDate 结束日期
-     * @return 预约列表
+     * @param cursor 上一页返回的游标（第一页为null）
+     * @param limit 每页记录数
+     * @param withTotal 是否返回近似总数
+     * @return 分页结果
+     * @throws IllegalArgumentException 游标格式不正确
      */
-    public List<PublicAppointment> queryPublicAppointments(String campus, String status, 
-                                                         Timestamp startDate, Timestamp endDate) {
-        // 调整参数以匹配DAO的query方法
-        // startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus, organization, name, idCardEncrypted
-        List<PublicAppointment> appointments = publicAppointmentDao.query(null, null, null, null, campus, null, null, null);
-        
-        // 如果指定了状态，进行状态过滤
-        if (status != null && !status.isEmpty()) {
-            appointments = appointments.stream()
-                    .filter(appointment -> status.equals(appointment.getStatus()))
-                    .collect(Collectors.toList());
-        }
-        
-        // 如果指定了日期范围，进行日期过滤（按申请时间）
-        if (startDate != null || endDate != null) {
-            appointments = appointments.stream()
-                    .filter(appointment -> {
-                        Timestamp applyTime = appointment.getApplyTime();
-                        if (applyTime == null) return false;
-
-                        boolean afterStart = startDate == null || applyTime.compareTo(startDate) >= 0;
-                        boolean beforeEnd = endDate == null || applyTime.compareTo(endDate) <= 0;
-
-                        return afterStart && beforeEnd;
-                    })
-                    .collect(Collectors.toList());
+    public PageResult<PublicAppointment> queryPublicAppointmentPage(String campus, String status,
+                                                                   Timestamp startDate, Timestamp endDate,
+                                                                   String cursor, int limit, boolean withTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = normalizePageSize(limit);
+        
+        // 多取一条用于判断是否还有下一页
+        List<PublicAppointment> appointments = publicAppointmentDao.queryPage(startDate, endDate, null, null,
+                campus, status,
+                after != null ? after.getApplyTime() : null,
+                after != null ? after.getAppointmentId() : null,
+                pageSize + 1);
+        
+        Long approxTotal = null;
+        if (withTotal) {
+            boolean unfiltered = isBlank(campus) && isBlank(status) && startDate == null && endDate == null;
+            approxTotal = unfiltered ? publicAppointmentDao.estimateCount()
+                    : countPublicAppointments(campus, status, startDate, endDate);
         }
-
-        return appointments;
+        
+        return buildPage(appointments, pageSize, approxTotal);
     }
     
     /**
-     * 查询官方预约
+     * 分页查询公务预约（键集分页，按申请时间倒序）
      * @param visitDeptId 访问部门ID
      * @param status 状态
      * @param startDate 开始日期
      * @param endDate 结束日期
-     * @return 预约列表
+     * @param cursor 上一页返回的游标（第一页为null）
+     * @param limit 每页记录数
+     * @param withTotal 是否返回近似总数
+     * @return 分页结果
+     * @throws IllegalArgumentException 游标格式不正确
      */
-    public List<OfficialAppointment> queryOfficialAppointments(Integer visitDeptId, String status, 
-                                                             Timestamp startDate, Timestamp endDate) {
-        // 调整参数以匹配DAO的query方法
-        // startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus, organization, name,
-        // visitDeptId, visitContact, status
-        List<OfficialAppointment> appointments = officialAppointmentDao.query(null, null, null, null, 
-                                           null, null, null, visitDeptId, null, status);
-        
-        // 如果指定了日期范围，进行日期过滤（按申请时间）
-        if (startDate != null || endDate != null) {
-            appointments = appointments.stream()
-                    .filter(appointment -> {
-                        Timestamp applyTime = appointment.getApplyTime();
-                        if (applyTime == null) return false;
-
-                        boolean afterStart = startDate == null || applyTime.compareTo(startDate) >= 0;
-                        boolean beforeEnd = endDate == null || applyTime.compareTo(endDate) <= 0;
-
-                        return afterStart && beforeEnd;
-                    })
-                    .collect(Collectors.toList());
+    public PageResult<OfficialAppointment> queryOfficialAppointmentPage(Integer visitDeptId, String status,
+                                                                       Timestamp startDate, Timestamp endDate,
+                                                                       String cursor, int limit, boolean withTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = normalizePageSize(limit);
+        
+        // 多取一条用于判断是否还有下一页
+        List<OfficialAppointment> appointments = officialAppointmentDao.queryPage(startDate, endDate, null, null,
+                null, visitDeptId, status,
+                after != null ? after.getApplyTime() : null,
+                after != null ? after.getAppointmentId() : null,
+                pageSize + 1);
+        
+        Long approxTotal = null;
+        if (withTotal) {
+            boolean unfiltered = visitDeptId == null && isBlank(status) && startDate == null && endDate == null;
+            approxTotal = unfiltered ? officialAppointmentDao.estimateCount()
+                    : countOfficialAppointments(visitDeptId, status, startDate, endDate);
         }
-
-        return appointments;
+        
+        return buildPage(appointments, pageSize, approxTotal);
     }
     
-
+    /**
+     * 按单位、接待人关键字检索公务预约，按相关度排序并按游标分页
+     * @param organization 单位关键字
+     * @param visitContact 接待人关键字
+     * @param visitDeptId 访问部门ID
+     * @param status 状态
+     * @param cursor 上一页返回的游标（第一页为null）
+     * @param limit 每页记录数
+     * @return 分页结果
+     * @throws IllegalArgumentException 没有关键字或游标格式不正确
+     */
+    public PageResult<OfficialAppointment> searchOfficialAppointments(String organization, String visitContact,
+                                                                     Integer visitDeptId, String status,
+                                                                     String cursor, int limit) {
+        if (isBlank(organization) && isBlank(visitContact)) {
+            throw new IllegalArgumentException("单位和接待人关键字不能同时为空");
+        }
+        
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = normalizePageSize(limit);
+        
+        // 多取一条用于判断是否还有下一页
+        List<OfficialAppointment> appointments = officialAppointmentDao.search(organization, visitContact,
+                visitDeptId, status,
+                after != null ? after.getRank() : null,
+                after != null ? after.getApplyTime() : null,
+                after != null ? after.getAppointmentId() : null,
+                pageSize + 1);
+        
+        String nextCursor = null;
+        if (appointments.size() > pageSize) {
+            appointments = appointments.subList(0, pageSize);
+            OfficialAppointment last = appointments.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getSearchRank(), last.getApplyTime(), last.getAppointmentId()).encode();
+        }
+        return new PageResult<>(appointments, nextCursor, null);
+    }
+    
+    /**
+     * 根据多取一条的查询结果构建分页结果
+     * @param appointments 查询结果（最多pageSize+1条）
+     * @param pageSize 每页记录数
+     * @param approxTotal 近似总数
+     * @return 分页结果
+     */
+    private <T extends BaseAppointment> PageResult<T> buildPage(List<T> appointments, int pageSize, Long approxTotal) {
+        String nextCursor = null;
+        if (appointments.size() > pageSize) {
+            appointments = appointments.subList(0, pageSize);
+            T last = appointments.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getApplyTime(), last.getAppointmentId()).encode();
+        }
+        return new PageResult<>(appointments, nextCursor, approxTotal);
+    }
+    
+    /**
+     * 规范化每页记录数
+     * @param limit 请求的每页记录数
+     * @return 合法的每页记录数
+     */
+    private int normalizePageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    private boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
     
     /**
      * 统计公众预约数量
+     * 时间范围按整天划分时直接读取内存计数，否则查询数据库
      * @param campus 校区
      * @param status 状态
      * @param startDate 开始日期
@@ -384,6 +625,11 @@ public class AppointmentService {
      */
     public long countPublicAppointments(String campus, String status, 
                                        Timestamp startDate, Timestamp endDate) {
+        Long cached = appointmentCounters.count(TYPE_PUBLIC, campus, status, startDate, endDate);
+        if (cached != null) {
+            return cached;
+        }
+        
         // 按申请时间统计，调整参数以匹配DAO的countAppointments方法
         // startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus, status
         return publicAppointmentDao.countAppointments(startDate, endDate, null, null, campus, status);
@@ -391,6 +637,7 @@ public class AppointmentService {
     
     /**
      * 统计官方预约数量
+     * 不限部门且时间范围按整天划分时直接读取内存计数，否则查询数据库
      * @param visitDeptId 访问部门ID
      * @param status 状态
      * @param startDate 开始日期
@@ -399,6 +646,13 @@ public class AppointmentService {
      */
     public long countOfficialAppointments(Integer visitDeptId, String status, 
                                          Timestamp startDate, Timestamp endDate) {
+        if (visitDeptId == null) {
+            Long cached = appointmentCounters.count(TYPE_OFFICIAL, null, status, startDate, endDate);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
         // 按申请时间统计，调整参数以匹配DAO的countAppointments方法
         // startApplyTime, endApplyTime, startVisitTime, endVisitTime, campus, visitDeptId, status
         return officialAppointmentDao.countAppointments(startDate, endDate, null, null, 
@@ -412,20 +666,7 @@ public class AppointmentService {
      * @return 校区到预约数量的映射
      */
     public Map<String, Long> countAppointmentsByCampus(Timestamp startDate, Timestamp endDate) {
-        // 使用统一的查询方法，按申请时间过滤
-        List<PublicAppointment> publicAppointments = queryPublicAppointments(null, null, startDate, endDate);
-        List<OfficialAppointment> officialAppointments = queryOfficialAppointments(null, null, startDate, endDate);
-        
-        // 合并两种预约类型的校区统计
-        Map<String, Long> campusStats = publicAppointments.stream()
-                .collect(Collectors.groupingBy(PublicAppointment::getCampus, Collectors.counting()));
-        
-        officialAppointments.forEach(appointment -> {
-            String campus = appointment.getCampus();
-            campusStats.put(campus, campusStats.getOrDefault(campus, 0L) + 1);
-        });
-        
-        return campusStats;
+        return countAppointmentsBy(GroupDimension.CAMPUS, startDate, endDate);
     }
     
     /**
@@ -435,20 +676,28 @@ public class AppointmentService {
      * @return 状态到预约数量的映射
      */
     public Map<String, Long> countAppointmentsByStatus(Timestamp startDate, Timestamp endDate) {
-        // 使用统一的查询方法，按申请时间过滤
-        List<PublicAppointment> publicAppointments = queryPublicAppointments(null, null, startDate, endDate);
-        List<OfficialAppointment> officialAppointments = queryOfficialAppointments(null, null, startDate, endDate);
+        return countAppointmentsBy(GroupDimension.STATUS, startDate, endDate);
+    }
+    
+    /**
+     * 按指定维度分组统计预约数量（公众预约和公务预约合计）
+     * 统计在数据库中完成，只返回聚合结果
+     * @param dimension 分组维度，按部门统计时只包含公务预约
+     * @param startDate 开始日期（按申请时间）
+     * @param endDate 结束日期（按申请时间）
+     * @return 分组键到数量的映射
+     */
+    public Map<String, Long> countAppointmentsBy(GroupDimension dimension, Timestamp startDate, Timestamp endDate) {
+        Map<String, Long> stats = new TreeMap<>();
         
-        // 合并两种预约类型的状态统计
-        Map<String, Long> statusStats = publicAppointments.stream()
-                .collect(Collectors.groupingBy(PublicAppointment::getStatus, Collectors.counting()));
+        if (dimension != GroupDimension.DEPT) {
+            stats.putAll(publicAppointmentDao.countGroupBy(dimension, startDate, endDate));
+        }
         
-        officialAppointments.forEach(appointment -> {
-            String status = appointment.getStatus();
-            statusStats.put(status, statusStats.getOrDefault(status, 0L) + 1);
-        });
+        officialAppointmentDao.countGroupBy(dimension, startDate, endDate)
+                .forEach((key, count) -> stats.merge(key, count, Long::sum));
         
-        return statusStats;
+        return stats;
     }
     
     /**
@@ -460,7 +709,7 @@ public class AppointmentService {
     public PublicAppointment queryPublicAppointment(int appointmentId, String phone) {
         try {
             // 首先查询预约
-            PublicAppointment appointment = publicAppointmentDao.getById(appointmentId);
+            PublicAppointment appointment = getPublicAppointmentFromPrimary(appointmentId);
             
             if (appointment == null) {
                 return null;
@@ -493,7 +742,7 @@ public class AppointmentService {
     public OfficialAppointment queryOfficialAppointment(int appointmentId, String phone) {
         try {
             // 首先查询预约
-            OfficialAppointment appointment = officialAppointmentDao.getById(appointmentId);
+            OfficialAppointment appointment = getOfficialAppointmentFromPrimary(appointmentId);
             
             if (appointment == null) {
                 return null;
@@ -0,0 +1,104 @@
+package com.example.javawebcurriculumdesign.service;
+
+import com.example.javawebcurriculumdesign.dao.AdminDao;
+import com.example.javawebcurriculumdesign.dao.AdminPermissionDao;
+import com.example.javawebcurriculumdesign.model.Admin;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 管理员授权信息缓存
+ * 按管理员ID缓存角色、所属部门和已授予的权限类型，供权限检查使用，避免每次检查都查询数据库。
+ * 缓存项在TTL到期后重新加载；修改管理员信息、状态或授权时由AdminService显式失效。
+ */
+class AuthorizationCache {
+    private static final AuthorizationCache INSTANCE = new AuthorizationCache();
+
+    // 缓存有效期（毫秒），兜底处理直接修改数据库等未经AdminService的变更
+    private static final long TTL_MS = 60 * 1000;
+
+    private final AdminDao adminDao = new AdminDao();
+    private final AdminPermissionDao adminPermissionDao = new AdminPermissionDao();
+    private final Map<Integer, AdminAuthorization> cache = new ConcurrentHashMap<>();
+    // 失效版本号，加载期间发生失效时不写入加载结果，避免旧数据覆盖失效操作
+    private final AtomicLong version = new AtomicLong();
+
+    private AuthorizationCache() {
+    }
+
+    static AuthorizationCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取管理员授权信息，缓存未命中或已过期时从数据库加载
+     * @param adminId 管理员ID
+     * @return 授权信息，管理员不存在时返回null
+     */
+    AdminAuthorization get(Integer adminId) {
+        AdminAuthorization cached = cache.get(adminId);
+        if (cached != null && System.currentTimeMillis() < cached.expireAt) {
+            return cached;
+        }
+
+        long loadVersion = version.get();
+        Admin admin = adminDao.getById(adminId);
+        if (admin == null) {
+            cache.remove(adminId);
+            return null;
+        }
+
+        AdminAuthorization loaded = new AdminAuthorization(admin.getRole(), admin.getDeptId(),
+                new HashSet<>(adminPermissionDao.getActivePermissionTypes(adminId)),
+                System.currentTimeMillis() + TTL_MS);
+        cache.put(adminId, loaded);
+        if (version.get() != loadVersion) {
+            cache.remove(adminId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 使指定管理员的缓存失效
+     * @param adminId 管理员ID
+     */
+    void invalidate(Integer adminId) {
+        if (adminId != null) {
+            version.incrementAndGet();
+            cache.remove(adminId);
+        }
+    }
+
+    /**
+     * 管理员授权信息（不可变）
+     */
+    static class AdminAuthorization {
+        private final String role;
+        private final Integer deptId;
+        private final Set<String> permissionTypes;
+        private final long expireAt;
+
+        private AdminAuthorization(String role, Integer deptId, Set<String> permissionTypes, long expireAt) {
+            this.role = role;
+            this.deptId = deptId;
+            this.permissionTypes = permissionTypes;
+            this.expireAt = expireAt;
+        }
+
+        String getRole() {
+            return role;
+        }
+
+        Integer getDeptId() {
+            return deptId;
+        }
+
+        boolean hasPermissionType(String permissionType) {
+            return permissionTypes.contains(permissionType);
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.example.javawebcurriculumdesign.service;
 
 import com.example.javawebcurriculumdesign.dao.DepartmentDao;
-import com.example.javawebcurriculumdesign.dao.SystemLogDao;
+import com.example.javawebcurriculumdesign.dao.DepartmentRegistry;
+import com.example.javawebcurriculumdesign.dao.SystemLogWriter;
 import com.example.javawebcurriculumdesign.model.Department;
 import com.example.javawebcurriculumdesign.model.SystemLog;
 
@@ -15,22 +16,23 @@ import java.util.List;
  */
 public class DepartmentService {
     private final DepartmentDao departmentDao = new DepartmentDao();
-    private final SystemLogDao systemLogDao = new SystemLogDao();
+    private final DepartmentRegistry departmentRegistry = DepartmentRegistry.getInstance();
+    private final SystemLogWriter systemLogWriter = SystemLogWriter.getInstance();
     
     // 状态常量（数据库中可能不存在，在这里定义）
     public static final Integer STATUS_ENABLED = 1;
     public static final Integer STATUS_DISABLED = 0;
     
     /**
-     * 获取所有部门列表
+     * 获取所有部门列表（从内存注册表读取）
      * @return 部门列表
      */
     public List<Department> getAllDepartments() {
-        return departmentDao.getAll();
+        return departmentRegistry.getAll();
     }
     
     /**
-     * 根据ID获取部门
+     * 根据ID获取部门（从内存注册表读取）
      * @param deptId 部门ID
      * @return 部门对象
      */
@@ -38,7 +40,7 @@ public class DepartmentService {
         if (deptId == null || deptId <= 0) {
             return null;
         }
-        return departmentDao.getById(deptId);
+        return departmentRegistry.getById(deptId);
     }
     
     /**
@@ -61,6 +63,9 @@ public class DepartmentService {
         
         int result = departmentDao.add(department);
         int deptId = result > 0 ? department.getDeptId() : -1;
+        if (deptId > 0) {
+            departmentRegistry.refresh();
+        }
         
         // 记录添加部门日志
         if (operatorId != null && deptId > 0) {
@@ -70,7 +75,7 @@ public class DepartmentService {
             log.setOperation(operation);
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("部门ID: " + deptId + ", 部门名称: " + department.getDeptName());
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
         
         return deptId;
@@ -101,6 +106,9 @@ public class DepartmentService {
         }
         
         boolean success = departmentDao.update(department) > 0;
+        if (success) {
+            departmentRegistry.refresh();
+        }
         
         // 记录更新部门日志
         if (operatorId != null && success) {
@@ -110,7 +118,7 @@ public class DepartmentService {
             log.setOperation(operation);
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("部门ID: " + department.getDeptId() + ", 部门名称: " + department.getDeptName());
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
         
         return success;
@@ -136,6 +144,9 @@ public class DepartmentService {
         // TODO: 检查部门下是否有管理员或预约，如果有则不允许删除
         
         boolean success = departmentDao.deleteById(deptId) > 0;
+        if (success) {
+            departmentRegistry.refresh();
+        }
         
         // 记录删除部门日志
         if (operatorId != null && success) {
@@ -145,19 +156,19 @@ public class DepartmentService {
             log.setOperation(operation);
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
             log.setDescription("部门ID: " + deptId + ", 部门名称: " + department.getDeptName());
-            systemLogDao.add(log);
+            systemLogWriter.write(log);
         }
         
         return success;
     }
     
     /**
-     * 获取指定类型的部门列表
+     * 获取指定类型的部门列表（从内存注册表读取）
      * @param deptType 部门类型
      * @return 部门列表
      */
     public List<Department> getDepartmentsByType(String deptType) {
-        return departmentDao.getByType(deptType);
+        return departmentRegistry.getByType(deptType);
     }
     
     /**
@@ -166,7 +177,7 @@ public class DepartmentService {
      * @return 部门数量
      */
     public long countDepartmentsByType(String deptType) {
-        List<Department> departments = departmentDao.getByType(deptType);
+        List<Department> departments = departmentRegistry.getByType(deptType);
         return departments != null ? departments.size() : 0;
     }
 } 
\ No newline at end of file
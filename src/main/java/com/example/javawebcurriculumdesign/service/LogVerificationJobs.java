@@ -0,0 +1,403 @@
+package com.example.javawebcurriculumdesign.service;
+
+import com.example.javawebcurriculumdesign.dao.BaseDao.RowCallback;
+import com.example.javawebcurriculumdesign.dao.LogVerifyJobDao;
+import com.example.javawebcurriculumdesign.dao.SystemLogDao;
+import com.example.javawebcurriculumdesign.model.LogVerifyFailure;
+import com.example.javawebcurriculumdesign.model.LogVerifyJob;
+import com.example.javawebcurriculumdesign.model.SystemLog;
+import com.example.javawebcurriculumdesign.util.DBUtil;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 系统日志后台校验任务
+ * 校验请求只创建任务并立即返回，任务由后台协调线程按提交顺序逐个执行：
+ * 通过服务端游标逐批读取日志（每条日志附带链上前一条日志的哈希），按批分发给工作线程并行计算HMAC-SM3，
+ * 只把校验失败的日志写入数据库。在途批次数有上限，读取快于计算时协调线程等待，内存占用与日志总量无关。
+ * 进度定期写回任务表供任意实例查询，本实例正在执行的任务返回实时的进度和吞吐量。
+ */
+public class LogVerificationJobs {
+    private static final LogVerificationJobs INSTANCE = new LogVerificationJobs();
+
+    private static final int CHUNK_SIZE = 1000; // 每批分发给工作线程的日志数
+    private static final int FAILURE_FLUSH_SIZE = 500; // 攒够多少条失败记录写入一次
+    private static final long PROGRESS_INTERVAL_MS = 2000; // 进度写回任务表的间隔（毫秒）
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+    private static final int RECENT_LIMIT = 20;
+
+    private final SystemLogDao systemLogDao = new SystemLogDao();
+    private final LogVerifyJobDao logVerifyJobDao = new LogVerifyJobDao();
+    // 本实例正在执行的任务的实时状态
+    private final Map<Integer, RunningJob> running = new ConcurrentHashMap<>();
+    // 已提交但尚未开始的任务，应用停止时标记为失败
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    private int workerCount;
+
+    private LogVerificationJobs() {
+    }
+
+    public static LogVerificationJobs getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 启动协调线程和工作线程
+     */
+    public synchronized void start() {
+        if (coordinator != null) {
+            return;
+        }
+        int threads = DBUtil.getAuditLogVerifyThreads();
+        workerCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        coordinator = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "log-verify-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "log-verify-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 停止后台线程，正在执行的任务中断后标记为失败，尚未开始的任务也标记为失败
+     */
+    public synchronized void stop() {
+        if (coordinator == null) {
+            return;
+        }
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+        try {
+            coordinator.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        coordinator = null;
+        workers = null;
+
+        for (Integer jobId : pending) {
+            try {
+                logVerifyJobDao.finish(jobId, LogVerifyJob.STATUS_FAILED, 0, 0, "应用停止，任务未执行");
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * 提交校验任务
+     * @param adminId 发起人ID
+     * @param startTime 开始时间（为空表示不限）
+     * @param endTime 结束时间（为空表示不限）
+     * @return 新建的任务，创建失败时返回null
+     */
+    public LogVerifyJob submit(Integer adminId, Timestamp startTime, Timestamp endTime) {
+        LogVerifyJob job = new LogVerifyJob();
+        job.setStatus(LogVerifyJob.STATUS_PENDING);
+        job.setRangeStart(startTime);
+        job.setRangeEnd(endTime);
+        job.setRequestedBy(adminId);
+
+        int jobId = logVerifyJobDao.add(job);
+        if (jobId <= 0) {
+            return null;
+        }
+        job.setJobId(jobId);
+
+        ExecutorService jobExecutor;
+        ExecutorService workerPool;
+        int threads;
+        synchronized (this) {
+            start();
+            jobExecutor = coordinator;
+            workerPool = workers;
+            threads = workerCount;
+        }
+
+        pending.add(jobId);
+        try {
+            jobExecutor.execute(() -> run(job, workerPool, threads));
+        } catch (RejectedExecutionException e) {
+            pending.remove(jobId);
+            logVerifyJobDao.finish(jobId, LogVerifyJob.STATUS_FAILED, 0, 0, "应用正在停止，任务未执行");
+            job.setStatus(LogVerifyJob.STATUS_FAILED);
+        }
+        return job;
+    }
+
+    /**
+     * 查询任务状态，附带进度、吞吐量和已运行时间
+     * @param jobId 任务ID
+     * @return 校验任务，不存在时返回null
+     */
+    public LogVerifyJob getJob(Integer jobId) {
+        LogVerifyJob job = logVerifyJobDao.getById(jobId);
+        if (job != null) {
+            fillMetrics(job);
+        }
+        return job;
+    }
+
+    /**
+     * 查询最近的任务
+     * @return 校验任务列表（按创建时间倒序）
+     */
+    public List<LogVerifyJob> getRecentJobs() {
+        List<LogVerifyJob> jobs = logVerifyJobDao.getRecent(RECENT_LIMIT);
+        for (LogVerifyJob job : jobs) {
+            fillMetrics(job);
+        }
+        return jobs;
+    }
+
+    /**
+     * 流式遍历任务的校验失败记录
+     * @param jobId 任务ID
+     * @param callback 行回调
+     * @return 遍历的记录数
+     */
+    public long forEachFailure(Integer jobId, RowCallback<LogVerifyFailure> callback) {
+        return logVerifyJobDao.forEachFailure(jobId, callback);
+    }
+
+    /**
+     * 计算进度、吞吐量和已运行时间；本实例正在执行的任务使用实时计数
+     */
+    private void fillMetrics(LogVerifyJob job) {
+        RunningJob live = running.get(job.getJobId());
+        long elapsedMs;
+        if (live != null) {
+            job.setCheckedCount(live.checked.sum());
+            job.setFailedCount(live.failed.sum());
+            elapsedMs = (System.nanoTime() - live.startNanos) / 1_000_000;
+        } else if (job.getStartTime() != null) {
+            long end = job.getFinishTime() != null ? job.getFinishTime().getTime() : System.currentTimeMillis();
+            elapsedMs = Math.max(0, end - job.getStartTime().getTime());
+        } else {
+            return;
+        }
+
+        job.setElapsedMs(elapsedMs);
+        job.setThroughput(elapsedMs > 0 ? round(job.getCheckedCount() * 1000.0 / elapsedMs) : 0.0);
+        if (LogVerifyJob.STATUS_COMPLETED.equals(job.getStatus())) {
+            job.setProgress(100.0);
+        } else if (job.getTotalCount() != null && job.getTotalCount() > 0) {
+            job.setProgress(round(Math.min(100.0, job.getCheckedCount() * 100.0 / job.getTotalCount())));
+        } else {
+            job.setProgress(0.0);
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * 执行校验任务（协调线程）
+     */
+    private void run(LogVerifyJob job, ExecutorService workerPool, int threads) {
+        Integer jobId = job.getJobId();
+        pending.remove(jobId);
+        RunningJob state = new RunningJob(jobId, workerPool, threads);
+        running.put(jobId, state);
+
+        String status = LogVerifyJob.STATUS_COMPLETED;
+        String errorMessage = null;
+        try {
+            long total = systemLogDao.countLogs(job.getRangeStart(), job.getRangeEnd());
+            logVerifyJobDao.markRunning(jobId, total);
+
+            systemLogDao.forEachWithPrevHash(job.getRangeStart(), job.getRangeEnd(), log -> {
+                state.chunk.add(log);
+                if (state.chunk.size() >= CHUNK_SIZE) {
+                    dispatch(state);
+                    saveProgress(state, false);
+                }
+            });
+            dispatch(state);
+            if (!state.awaitWorkers(Long.MAX_VALUE)) {
+                throw new IllegalStateException("日志校验任务被中断");
+            }
+            if (state.workerError != null) {
+                throw state.workerError;
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            status = LogVerifyJob.STATUS_FAILED;
+            // 清除中断标记，后续还要等待工作线程并写回结果
+            boolean interrupted = Thread.interrupted();
+            errorMessage = interrupted || e.getCause() instanceof InterruptedException
+                    ? "应用停止，校验中断" : e.getMessage();
+            // 等待已分发的批次完成，保存已发现的失败记录
+            state.awaitWorkers(SHUTDOWN_TIMEOUT_MS);
+        } finally {
+            try {
+                saveProgress(state, true);
+            } catch (RuntimeException e) {
+                // 失败记录未能全部保存，结果不完整
+                e.printStackTrace();
+                status = LogVerifyJob.STATUS_FAILED;
+                if (errorMessage == null) {
+                    errorMessage = "保存校验结果失败: " + e.getMessage();
+                }
+            }
+            try {
+                logVerifyJobDao.finish(jobId, status, state.checked.sum(), state.failed.sum(), errorMessage);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            running.remove(jobId);
+        }
+    }
+
+    /**
+     * 把当前批次交给工作线程，在途批次已满时等待
+     */
+    private void dispatch(RunningJob state) {
+        // 工作线程已经失败时立即中止遍历，不再继续读取剩余日志
+        if (state.workerError != null) {
+            throw state.workerError;
+        }
+        if (state.chunk.isEmpty()) {
+            return;
+        }
+        List<SystemLog> logs = state.chunk;
+        state.chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try {
+            state.inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("日志校验任务被中断", e);
+        }
+        try {
+            state.workers.execute(() -> {
+                try {
+                    verifyChunk(state, logs);
+                } finally {
+                    state.inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            state.inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 校验一批日志（工作线程）
+     */
+    private void verifyChunk(RunningJob state, List<SystemLog> logs) {
+        try {
+            for (SystemLog log : logs) {
+                if (!systemLogDao.verifyLogIntegrity(log)) {
+                    // 链上日志的前一条日志不存在，说明前一条日志被删除
+                    String reason = log.getChainSeq() != null && log.getChainSeq() > 1 && log.getPrevHash() == null
+                            ? LogVerifyFailure.REASON_MISSING_PREV : LogVerifyFailure.REASON_HASH_MISMATCH;
+                    state.failures.add(new LogVerifyFailure(state.jobId, log.getLogId(), log.getChainSeq(), reason));
+                    state.failed.increment();
+                }
+            }
+            state.checked.add(logs.size());
+        } catch (RuntimeException e) {
+            // 由协调线程在所有批次完成后把任务标记为失败
+            state.workerError = e;
+        }
+    }
+
+    /**
+     * 保存失败记录并写回进度（协调线程）
+     * @param force 是否立即保存，否则攒够一批失败记录或到达进度间隔时才保存
+     */
+    private void saveProgress(RunningJob state, boolean force) {
+        long now = System.currentTimeMillis();
+        boolean progressDue = force || now - state.lastSaveTime >= PROGRESS_INTERVAL_MS;
+        if (!progressDue && state.failed.sum() - state.savedFailures < FAILURE_FLUSH_SIZE) {
+            return;
+        }
+
+        List<LogVerifyFailure> batch = new ArrayList<>();
+        LogVerifyFailure failure;
+        while ((failure = state.failures.poll()) != null) {
+            batch.add(failure);
+            if (batch.size() >= FAILURE_FLUSH_SIZE) {
+                logVerifyJobDao.addFailures(batch);
+                state.savedFailures += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            logVerifyJobDao.addFailures(batch);
+            state.savedFailures += batch.size();
+        }
+
+        if (progressDue) {
+            logVerifyJobDao.updateProgress(state.jobId, state.checked.sum(), state.failed.sum());
+            state.lastSaveTime = now;
+        }
+    }
+
+    /**
+     * 正在执行的任务的状态
+     */
+    private static class RunningJob {
+        private final Integer jobId;
+        private final ExecutorService workers;
+        private final int maxInFlight;
+        private final Semaphore inFlight; // 在途批次数，每个工作线程最多两批
+        private final long startNanos = System.nanoTime();
+        private final LongAdder checked = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final ConcurrentLinkedQueue<LogVerifyFailure> failures = new ConcurrentLinkedQueue<>();
+        private volatile RuntimeException workerError;
+        // 以下字段只由协调线程访问
+        private List<SystemLog> chunk = new ArrayList<>(CHUNK_SIZE);
+        private long savedFailures;
+        private long lastSaveTime = System.currentTimeMillis();
+
+        private RunningJob(Integer jobId, ExecutorService workers, int workerCount) {
+            this.jobId = jobId;
+            this.workers = workers;
+            this.maxInFlight = workerCount * 2;
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+
+        /**
+         * 等待已分发的批次全部完成
+         * @param timeoutMs 最长等待时间（毫秒）
+         * @return 是否全部完成，超时或被中断时返回false
+         */
+        private boolean awaitWorkers(long timeoutMs) {
+            try {
+                if (inFlight.tryAcquire(maxInFlight, timeoutMs, TimeUnit.MILLISECONDS)) {
+                    inFlight.release(maxInFlight);
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
+}
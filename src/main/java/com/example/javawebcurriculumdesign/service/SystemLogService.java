@@ -1,6 +1,9 @@
 package com.example.javawebcurriculumdesign.service;
 
+import com.example.javawebcurriculumdesign.dao.BaseDao.RowCallback;
 import com.example.javawebcurriculumdesign.dao.SystemLogDao;
+import com.example.javawebcurriculumdesign.dao.SystemLogWriter;
+import com.example.javawebcurriculumdesign.model.LogChainVerification;
 import com.example.javawebcurriculumdesign.model.SystemLog;
 
 import java.sql.Timestamp;
@@ -16,9 +19,9 @@ public class SystemLogService {
     private final SystemLogDao systemLogDao = new SystemLogDao();
     
     /**
-     * 添加系统日志
+     * 添加系统日志（开启异步写入时加入写入队列后立即返回）
      * @param log 日志对象
-     * @return 新增日志的ID，失败返回-1
+     * @return 影响的行数，失败返回-1
      */
     public int addLog(SystemLog log) {
         if (log == null || log.getOperation() == null || log.getAdminId() == null) {
@@ -30,7 +33,7 @@ public class SystemLogService {
             log.setOperationTime(Timestamp.valueOf(LocalDateTime.now()));
         }
         
-        return systemLogDao.add(log);
+        return SystemLogWriter.getInstance().write(log);
     }
     
     /**
@@ -65,6 +68,20 @@ public class SystemLogService {
         return systemLogDao.query(adminId, operation, startTime, endTime);
     }
     
+    /**
+     * 按条件流式遍历日志，供大列表直接序列化到响应输出流
+     * @param adminId 管理员ID
+     * @param operation 操作类型
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param callback 行回调
+     * @return 遍历的日志数量
+     */
+    public long forEachLog(Integer adminId, String operation, Timestamp startTime, Timestamp endTime,
+                           RowCallback<SystemLog> callback) {
+        return systemLogDao.forEach(adminId, operation, startTime, endTime, callback);
+    }
+    
     /**
      * 统计日志数量
      * @param startTime 开始时间
@@ -94,14 +111,12 @@ public class SystemLogService {
     }
     
     /**
-     * 批量验证日志完整性
-     * @param startTime 开始时间
-     * @param endTime 结束时间
-     * @return 日志ID到完整性状态的映射
+     * 校验日志链
+     * @param fullHistory 是否校验全部历史；否则只重新计算最后一个可信检查点之后的日志
+     * @return 校验结果
      */
-    public Map<Integer, Boolean> batchVerifyLogIntegrity(Timestamp startTime, Timestamp endTime) {
-        List<SystemLog> logs = systemLogDao.query(null, null, startTime, endTime);
-        return systemLogDao.batchVerifyLogIntegrity(logs);
+    public LogChainVerification verifyLogChain(boolean fullHistory) {
+        return systemLogDao.verifyChain(fullHistory);
     }
     
     /**
@@ -17,6 +17,10 @@ public class CryptoConfig {
     private static byte[] sm4Key;
     private static byte[] sm4Iv;
     private static byte[] logHmacKey;
+    private static byte[] blindIndexKey;
+    private static byte[] passCodeKey;
+    // 配置版本，每次加载配置后加一，缓存了密钥的对象据此判断是否需要重新读取
+    private static volatile int generation;
     
     // 静态代码块，在类加载时执行，初始化配置
     static {
@@ -45,14 +49,19 @@ public class CryptoConfig {
             String sm4KeyBase64 = properties.getProperty("crypto.sm4.key");
             String sm4IvBase64 = properties.getProperty("crypto.sm4.iv");
             String logHmacKeyBase64 = properties.getProperty("crypto.log.hmac.key");
+            String blindIndexKeyBase64 = properties.getProperty("crypto.blind.index.key");
+            String passCodeKeyBase64 = properties.getProperty("crypto.passcode.key");
             
-            if (sm4KeyBase64 == null || sm4IvBase64 == null || logHmacKeyBase64 == null) {
+            if (sm4KeyBase64 == null || sm4IvBase64 == null || logHmacKeyBase64 == null || blindIndexKeyBase64 == null
+                    || passCodeKeyBase64 == null) {
                 throw new IOException("加密配置不完整，请检查配置文件");
             }
             
             sm4Key = Base64.getDecoder().decode(sm4KeyBase64);
             sm4Iv = Base64.getDecoder().decode(sm4IvBase64);
             logHmacKey = Base64.getDecoder().decode(logHmacKeyBase64);
+            blindIndexKey = Base64.getDecoder().decode(blindIndexKeyBase64);
+            passCodeKey = Base64.getDecoder().decode(passCodeKeyBase64);
             
             // 验证密钥长度
             if (sm4Key.length != 16) {
@@ -62,11 +71,20 @@ public class CryptoConfig {
                 throw new IOException("SM4初始化向量长度必须为16字节");
             }
             
+            generation++;
         } finally {
             is.close();
         }
     }
     
+    /**
+     * 获取配置版本
+     * @return 配置版本，重新加载配置后改变
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+    
     /**
      * 获取SM4加密密钥
      * @return SM4密钥
@@ -91,6 +109,22 @@ public class CryptoConfig {
         return logHmacKey.clone(); // 返回副本以防止修改
     }
     
+    /**
+     * 获取盲索引HMAC密钥
+     * @return 盲索引密钥
+     */
+    public static byte[] getBlindIndexKey() {
+        return blindIndexKey.clone(); // 返回副本以防止修改
+    }
+    
+    /**
+     * 获取通行令牌HMAC密钥
+     * @return 通行令牌密钥
+     */
+    public static byte[] getPassCodeKey() {
+        return passCodeKey.clone(); // 返回副本以防止修改
+    }
+    
     /**
      * 重新加载配置（用于配置更新后的热加载）
      * @throws IOException 配置加载异常
@@ -189,4 +223,28 @@ public class CryptoConfig {
     public static String getQRCodeFormat() {
         return getProperty("crypto.qrcode.format", "png");
     }
+
+    /**
+     * 获取通行码图像缓存的最大容量
+     * @return 最大字节数
+     */
+    public static long getQRCodeCacheMaxBytes() {
+        return Long.parseLong(getProperty("crypto.qrcode.cache.maxBytes", "16777216"));
+    }
+
+    /**
+     * 获取通行码在预约时间之前生效的小时数
+     * @return 小时数
+     */
+    public static int getPassCodeValidBeforeHours() {
+        return Integer.parseInt(getProperty("crypto.passcode.valid.before.hours", "24"));
+    }
+
+    /**
+     * 获取通行码在预约时间之后失效的小时数
+     * @return 小时数
+     */
+    public static int getPassCodeValidAfterHours() {
+        return Integer.parseInt(getProperty("crypto.passcode.valid.after.hours", "6"));
+    }
 }
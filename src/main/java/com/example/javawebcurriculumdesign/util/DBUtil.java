@@ -9,6 +9,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -17,6 +18,26 @@ import java.util.Properties;
 public class DBUtil {
     private static final String CONFIG_FILE = "database.properties";
     private static HikariDataSource dataSource;
+    private static final PoolMetrics poolMetrics = new PoolMetrics();
+    private static int fetchSize = 500; // 流式查询每次从服务端游标拉取的行数
+    private static boolean migrationEnabled = true; // 启动时是否执行数据库迁移
+    private static boolean migrationDryRun = false; // 迁移试运行（只输出执行计划对比，不提交）
+    private static boolean groupCommitEnabled = false; // 公众预约提交是否合并写入
+    private static int groupCommitMaxWaitMs = 5; // 合并写入时等待后续提交的最长时间（毫秒）
+    private static int groupCommitMaxBatchSize = 50; // 合并写入时每批最多的预约数
+    private static boolean auditLogAsync = true; // 系统日志是否异步批量写入
+    private static int auditLogQueueCapacity = 10000; // 异步日志队列容量
+    private static int auditLogFlushSize = 100; // 每批写入的最多日志数
+    private static int auditLogFlushIntervalMs = 200; // 队列中日志最长等待写入时间（毫秒）
+    private static int auditLogCheckpointInterval = 10000; // 每隔多少条日志生成一个日志链检查点，0表示不生成
+    private static int auditLogVerifyThreads = 0; // 日志校验任务计算哈希的线程数，0表示CPU核数
+    private static long queryBudgetPublicMs = 3000; // 公众接口单条查询的时间预算（毫秒）
+    private static long queryBudgetAdminListMs = 10000; // 管理列表单条查询的时间预算（毫秒）
+    private static long queryBudgetReportMs = 30000; // 统计报表单条查询的时间预算（毫秒）
+    private static long queryHeartbeatMs = 1000; // 流式接口查询执行期间探测客户端连接的间隔（毫秒）
+    private static ReplicaRouter replicaRouter; // 只读副本路由，未配置副本时为null
+    // 当前线程进入读主库范围的层数，大于0时查询不使用副本
+    private static final ThreadLocal<Integer> primaryReadDepth = ThreadLocal.withInitial(() -> 0);
 
     // 静态代码块，在类加载时执行，初始化连接池
     static {
@@ -60,6 +81,71 @@ public class DBUtil {
             config.setMaxLifetime(1800000);
             config.setConnectionTestQuery("SELECT 1");
             
+            String envFetchSize = System.getenv("DB_FETCH_SIZE");
+            if (envFetchSize != null) {
+                fetchSize = Integer.parseInt(envFetchSize);
+            }
+            
+            String envMigrationEnabled = System.getenv("DB_MIGRATION_ENABLED");
+            if (envMigrationEnabled != null) {
+                migrationEnabled = Boolean.parseBoolean(envMigrationEnabled);
+            }
+            migrationDryRun = Boolean.parseBoolean(System.getenv("DB_MIGRATION_DRY_RUN"));
+            
+            groupCommitEnabled = Boolean.parseBoolean(System.getenv("DB_GROUP_COMMIT_ENABLED"));
+            String envGroupCommitWait = System.getenv("DB_GROUP_COMMIT_WAIT_MS");
+            if (envGroupCommitWait != null) {
+                groupCommitMaxWaitMs = Integer.parseInt(envGroupCommitWait);
+            }
+            String envGroupCommitBatch = System.getenv("DB_GROUP_COMMIT_BATCH_SIZE");
+            if (envGroupCommitBatch != null) {
+                groupCommitMaxBatchSize = Integer.parseInt(envGroupCommitBatch);
+            }
+            
+            String envAuditLogAsync = System.getenv("AUDIT_LOG_ASYNC");
+            if (envAuditLogAsync != null) {
+                auditLogAsync = Boolean.parseBoolean(envAuditLogAsync);
+            }
+            String envAuditLogCapacity = System.getenv("AUDIT_LOG_QUEUE_CAPACITY");
+            if (envAuditLogCapacity != null) {
+                auditLogQueueCapacity = Integer.parseInt(envAuditLogCapacity);
+            }
+            String envAuditLogFlushSize = System.getenv("AUDIT_LOG_FLUSH_SIZE");
+            if (envAuditLogFlushSize != null) {
+                auditLogFlushSize = Integer.parseInt(envAuditLogFlushSize);
+            }
+            String envAuditLogFlushInterval = System.getenv("AUDIT_LOG_FLUSH_INTERVAL_MS");
+            if (envAuditLogFlushInterval != null) {
+                auditLogFlushIntervalMs = Integer.parseInt(envAuditLogFlushInterval);
+            }
+            String envAuditLogCheckpoint = System.getenv("AUDIT_LOG_CHECKPOINT_INTERVAL");
+            if (envAuditLogCheckpoint != null) {
+                auditLogCheckpointInterval = Integer.parseInt(envAuditLogCheckpoint);
+            }
+            String envAuditLogVerifyThreads = System.getenv("AUDIT_LOG_VERIFY_THREADS");
+            if (envAuditLogVerifyThreads != null) {
+                auditLogVerifyThreads = Integer.parseInt(envAuditLogVerifyThreads);
+            }
+            
+            queryBudgetPublicMs = Long.parseLong(getenv("DB_QUERY_BUDGET_PUBLIC_MS", String.valueOf(queryBudgetPublicMs)));
+            queryBudgetAdminListMs = Long.parseLong(getenv("DB_QUERY_BUDGET_ADMIN_LIST_MS", String.valueOf(queryBudgetAdminListMs)));
+            queryBudgetReportMs = Long.parseLong(getenv("DB_QUERY_BUDGET_REPORT_MS", String.valueOf(queryBudgetReportMs)));
+            queryHeartbeatMs = Long.parseLong(getenv("DB_QUERY_HEARTBEAT_MS", String.valueOf(queryHeartbeatMs)));
+            
+            // 只读副本（未设置DB_REPLICA_HOST时不启用），端口、库名、账号默认与主库相同
+            String replicaHost = System.getenv("DB_REPLICA_HOST");
+            if (replicaHost != null && !replicaHost.isEmpty()) {
+                String replicaPort = getenv("DB_REPLICA_PORT", dbPort);
+                String replicaName = getenv("DB_REPLICA_NAME", dbName);
+                HikariConfig replicaConfig = createReplicaConfig(config,
+                        "jdbc:postgresql://" + replicaHost + ":" + replicaPort + "/" + replicaName,
+                        getenv("DB_REPLICA_USER", dbUser), getenv("DB_REPLICA_PASSWORD", dbPassword),
+                        Integer.parseInt(getenv("DB_REPLICA_POOL_SIZE", "10")), 1000);
+                initReplica(replicaConfig,
+                        Long.parseLong(getenv("DB_REPLICA_MAX_LAG_MS", "1000")),
+                        Long.parseLong(getenv("DB_REPLICA_CHECK_INTERVAL_MS", "1000")));
+            }
+            
             System.out.println("========== 数据库连接池配置信息 ==========");
             System.out.println("配置来源: 环境变量");
             System.out.println("驱动: org.postgresql.Driver");
@@ -96,6 +182,45 @@ public class DBUtil {
                 config.setIdleTimeout(Long.parseLong(prop.getProperty("hikari.idleTimeout", "600000")));
                 config.setMaxLifetime(Long.parseLong(prop.getProperty("hikari.maxLifetime", "1800000")));
                 config.setConnectionTestQuery(prop.getProperty("hikari.connectionTestQuery", "SELECT 1"));
+                
+                // 流式查询配置
+                fetchSize = Integer.parseInt(prop.getProperty("jdbc.fetchSize", String.valueOf(fetchSize)));
+                
+                // 数据库迁移配置
+                migrationEnabled = Boolean.parseBoolean(prop.getProperty("migration.enabled", "true"));
+                migrationDryRun = Boolean.parseBoolean(prop.getProperty("migration.dryRun", "false"));
+                
+                // 合并写入配置
+                groupCommitEnabled = Boolean.parseBoolean(prop.getProperty("groupCommit.enabled", "false"));
+                groupCommitMaxWaitMs = Integer.parseInt(prop.getProperty("groupCommit.maxWaitMs", String.valueOf(groupCommitMaxWaitMs)));
+                groupCommitMaxBatchSize = Integer.parseInt(prop.getProperty("groupCommit.maxBatchSize", String.valueOf(groupCommitMaxBatchSize)));
+                
+                // 系统日志异步写入配置
+                auditLogAsync = Boolean.parseBoolean(prop.getProperty("auditLog.async", "true"));
+                auditLogQueueCapacity = Integer.parseInt(prop.getProperty("auditLog.queueCapacity", String.valueOf(auditLogQueueCapacity)));
+                auditLogFlushSize = Integer.parseInt(prop.getProperty("auditLog.flushSize", String.valueOf(auditLogFlushSize)));
+                auditLogFlushIntervalMs = Integer.parseInt(prop.getProperty("auditLog.flushIntervalMs", String.valueOf(auditLogFlushIntervalMs)));
+                auditLogCheckpointInterval = Integer.parseInt(prop.getProperty("auditLog.checkpointInterval", String.valueOf(auditLogCheckpointInterval)));
+                auditLogVerifyThreads = Integer.parseInt(prop.getProperty("auditLog.verifyThreads", String.valueOf(auditLogVerifyThreads)));
+                
+                // 查询预算配置
+                queryBudgetPublicMs = Long.parseLong(prop.getProperty("queryBudget.publicMs", String.valueOf(queryBudgetPublicMs)));
+                queryBudgetAdminListMs = Long.parseLong(prop.getProperty("queryBudget.adminListMs", String.valueOf(queryBudgetAdminListMs)));
+                queryBudgetReportMs = Long.parseLong(prop.getProperty("queryBudget.reportMs", String.valueOf(queryBudgetReportMs)));
+                queryHeartbeatMs = Long.parseLong(prop.getProperty("queryBudget.heartbeatMs", String.valueOf(queryHeartbeatMs)));
+                
+                // 只读副本配置（未设置replica.jdbc.url时不启用），账号默认与主库相同
+                String replicaUrl = prop.getProperty("replica.jdbc.url", "");
+                if (!replicaUrl.isEmpty()) {
+                    HikariConfig replicaConfig = createReplicaConfig(config, replicaUrl,
+                            prop.getProperty("replica.jdbc.username", config.getUsername()),
+                            prop.getProperty("replica.jdbc.password", config.getPassword()),
+                            Integer.parseInt(prop.getProperty("replica.hikari.maximumPoolSize", "10")),
+                            Long.parseLong(prop.getProperty("replica.hikari.connectionTimeout", "1000")));
+                    initReplica(replicaConfig,
+                            Long.parseLong(prop.getProperty("replica.maxLagMs", "1000")),
+                            Long.parseLong(prop.getProperty("replica.lagCheckIntervalMs", "1000")));
+                }
 
                 System.out.println("========== 数据库连接池配置信息 ==========");
                 System.out.println("配置来源: " + CONFIG_FILE);
@@ -113,12 +238,60 @@ public class DBUtil {
             }
         }
 
+        // 采集获取连接耗时、连接占用时长等指标
+        config.setMetricsTrackerFactory(poolMetrics);
+
         // 创建数据源
         dataSource = new HikariDataSource(config);
+        
+        if (replicaRouter != null) {
+            replicaRouter.start();
+        }
+    }
+    
+    /**
+     * 创建只读副本连接池配置，空闲超时、生命周期等沿用主库配置
+     * 获取连接的超时时间较短，副本繁忙或不可达时尽快回退到主库
+     */
+    private static HikariConfig createReplicaConfig(HikariConfig primary, String url, String username, String password,
+                                                    int maximumPoolSize, long connectionTimeout) {
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName(primary.getDriverClassName());
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setPoolName(primary.getPoolName() + "-Replica");
+        config.setMinimumIdle(Math.min(primary.getMinimumIdle(), maximumPoolSize));
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setIdleTimeout(primary.getIdleTimeout());
+        config.setMaxLifetime(primary.getMaxLifetime());
+        config.setConnectionTestQuery(primary.getConnectionTestQuery());
+        config.setReadOnly(true);
+        // 备机不可达时也正常启动，由延迟检查决定何时开始使用副本
+        config.setInitializationFailTimeout(-1);
+        return config;
     }
     
     /**
-     * 从连接池获取数据库连接
+     * 创建只读副本连接池和路由
+     */
+    private static void initReplica(HikariConfig replicaConfig, long maxLagMs, long checkIntervalMs) {
+        PoolMetrics replicaMetrics = new PoolMetrics();
+        replicaConfig.setMetricsTrackerFactory(replicaMetrics);
+        replicaRouter = new ReplicaRouter(new HikariDataSource(replicaConfig), replicaMetrics, maxLagMs, checkIntervalMs);
+        
+        System.out.println("只读副本: " + replicaConfig.getJdbcUrl() + "，最大连接数: " + replicaConfig.getMaximumPoolSize()
+                + "，允许延迟: " + maxLagMs + " 毫秒");
+    }
+    
+    private static String getenv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+    
+    /**
+     * 从连接池获取数据库连接（主库）
      */
     public static Connection getConnection() throws SQLException {
         if (dataSource == null) {
@@ -126,6 +299,144 @@ public class DBUtil {
         }
         return dataSource.getConnection();
     }
+    
+    /**
+     * 获取只读查询使用的数据库连接
+     * 配置了只读副本且副本延迟在阈值内时返回副本连接；未配置副本、副本不可用、
+     * 或当前线程处于读主库范围内时返回主库连接
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (replicaRouter != null && primaryReadDepth.get() == 0) {
+            Connection conn = replicaRouter.getConnection();
+            if (conn != null) {
+                return conn;
+            }
+        }
+        return getConnection();
+    }
+    
+    /**
+     * 进入读主库范围，范围内的查询都从主库读取
+     * 用于先查询再据此修改的写操作，以及需要读到刚写入数据的场景（读己之写）。可以嵌套。
+     * 用法：try (DBUtil.PrimaryReadScope ignored = DBUtil.readFromPrimary()) { ... }
+     * @return 读主库范围，关闭时退出
+     */
+    public static PrimaryReadScope readFromPrimary() {
+        primaryReadDepth.set(primaryReadDepth.get() + 1);
+        return new PrimaryReadScope();
+    }
+
+    /**
+     * 获取流式查询的默认抓取行数
+     */
+    public static int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * 启动时是否执行数据库迁移
+     */
+    public static boolean isMigrationEnabled() {
+        return migrationEnabled;
+    }
+
+    /**
+     * 数据库迁移是否为试运行模式
+     */
+    public static boolean isMigrationDryRun() {
+        return migrationDryRun;
+    }
+
+    /**
+     * 公众预约提交是否合并写入
+     */
+    public static boolean isGroupCommitEnabled() {
+        return groupCommitEnabled;
+    }
+
+    /**
+     * 获取合并写入时等待后续提交的最长时间（毫秒）
+     */
+    public static int getGroupCommitMaxWaitMs() {
+        return groupCommitMaxWaitMs;
+    }
+
+    /**
+     * 获取合并写入时每批最多的预约数
+     */
+    public static int getGroupCommitMaxBatchSize() {
+        return groupCommitMaxBatchSize;
+    }
+
+    /**
+     * 系统日志是否异步批量写入
+     */
+    public static boolean isAuditLogAsync() {
+        return auditLogAsync;
+    }
+
+    /**
+     * 获取异步日志队列容量
+     */
+    public static int getAuditLogQueueCapacity() {
+        return auditLogQueueCapacity;
+    }
+
+    /**
+     * 获取每批写入的最多日志数
+     */
+    public static int getAuditLogFlushSize() {
+        return auditLogFlushSize;
+    }
+
+    /**
+     * 获取队列中日志最长等待写入时间（毫秒）
+     */
+    public static int getAuditLogFlushIntervalMs() {
+        return auditLogFlushIntervalMs;
+    }
+
+    /**
+     * 获取日志链检查点间隔（日志数），0表示不生成检查点
+     */
+    public static int getAuditLogCheckpointInterval() {
+        return auditLogCheckpointInterval;
+    }
+
+    /**
+     * 获取日志校验任务计算哈希的线程数，0表示CPU核数
+     */
+    public static int getAuditLogVerifyThreads() {
+        return auditLogVerifyThreads;
+    }
+
+    /**
+     * 获取公众接口单条查询的时间预算（毫秒），0表示不限
+     */
+    public static long getQueryBudgetPublicMs() {
+        return queryBudgetPublicMs;
+    }
+
+    /**
+     * 获取管理列表单条查询的时间预算（毫秒），0表示不限
+     */
+    public static long getQueryBudgetAdminListMs() {
+        return queryBudgetAdminListMs;
+    }
+
+    /**
+     * 获取统计报表单条查询的时间预算（毫秒），0表示不限
+     */
+    public static long getQueryBudgetReportMs() {
+        return queryBudgetReportMs;
+    }
+
+    /**
+     * 获取流式接口查询执行期间探测客户端连接的间隔（毫秒），0表示不探测
+     */
+    public static long getQueryHeartbeatMs() {
+        return queryHeartbeatMs;
+    }
 
     /**
      * 获取连接池状态信息
@@ -141,10 +452,44 @@ public class DBUtil {
                 dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection());
     }
 
+    /**
+     * 获取连接池指标（连接数、获取连接耗时和占用时长分布、超时次数、连接池配置）
+     * @return 指标名称到值的映射
+     */
+    public static Map<String, Object> getPoolMetrics() {
+        if (dataSource == null) {
+            throw new IllegalStateException("数据源未初始化");
+        }
+        Map<String, Object> metrics = poolMetrics.snapshot(dataSource);
+        metrics.put("queryBudgets", QueryBudget.snapshot());
+        if (replicaRouter != null) {
+            metrics.put("replica", replicaRouter.snapshot());
+        }
+        return metrics;
+    }
+
+    /**
+     * 获取Prometheus文本格式的连接池指标
+     */
+    public static String getPoolMetricsPrometheus() {
+        if (dataSource == null) {
+            throw new IllegalStateException("数据源未初始化");
+        }
+        StringBuilder sb = new StringBuilder(poolMetrics.toPrometheus(dataSource));
+        QueryBudget.appendPrometheus(sb);
+        if (replicaRouter != null) {
+            replicaRouter.appendPrometheus(sb);
+        }
+        return sb.toString();
+    }
+
     /**
      * 关闭连接池
      */
     public static void closeDataSource() {
+        if (replicaRouter != null) {
+            replicaRouter.stop();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             System.out.println("数据库连接池已关闭");
@@ -186,4 +531,28 @@ public class DBUtil {
     public static void close(Connection conn, PreparedStatement ps) {
         close(conn, ps, null);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 读主库范围
+     */
+    public static class PrimaryReadScope implements AutoCloseable {
+        private boolean closed;
+        
+        private PrimaryReadScope() {
+        }
+        
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            int depth = primaryReadDepth.get() - 1;
+            if (depth <= 0) {
+                primaryReadDepth.remove();
+            } else {
+                primaryReadDepth.set(depth);
+            }
+        }
+    }
+}
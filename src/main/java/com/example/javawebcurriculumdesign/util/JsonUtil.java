@@ -0,0 +1,117 @@
+package com.example.javawebcurriculumdesign.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * JSON序列化工具类
+ * 提供共享的ObjectMapper和按类型预先构建的ObjectWriter（序列化器只解析一次），
+ * 以及流式输出大列表的方法：数据逐行从数据库读出后直接写入输出流，响应大小不再决定堆内存占用。
+ * 流式输出期间为查询预算注册客户端探测，客户端断开后不再继续执行查询。
+ */
+public class JsonUtil {
+    // 流式输出时逐个元素写入同一个生成器，不需要每写一个元素就刷新输出流
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    /**
+     * 获取共享的ObjectMapper
+     */
+    public static ObjectMapper getMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * 构建指定类型的ObjectWriter，调用方应保存在静态字段中复用
+     * @param type 序列化的类型
+     * @return ObjectWriter
+     */
+    public static ObjectWriter writerFor(Class<?> type) {
+        return MAPPER.writerFor(type);
+    }
+
+    /**
+     * 构建指定泛型类型的ObjectWriter，调用方应保存在静态字段中复用
+     * @param type 序列化的类型
+     * @return ObjectWriter
+     */
+    public static ObjectWriter writerFor(TypeReference<?> type) {
+        return MAPPER.writerFor(type);
+    }
+
+    /**
+     * 以流式方式输出JSON数组
+     * @param out 输出流
+     * @param elementWriter 数组元素的ObjectWriter
+     * @param source 数据源
+     * @return 输出的元素数量
+     */
+    public static <T> long writeArray(OutputStream out, ObjectWriter elementWriter, RowSource<T> source) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            return writeElements(generator, elementWriter, source);
+        }
+    }
+
+    /**
+     * 以流式方式输出列表响应：{"success":true,"<listField>":[...],"<countField>":元素数量}
+     * @param out 输出流
+     * @param listField 列表字段名
+     * @param countField 数量字段名
+     * @param elementWriter 列表元素的ObjectWriter
+     * @param source 数据源
+     * @return 输出的元素数量
+     */
+    public static <T> long writeListResponse(OutputStream out, String listField, String countField,
+                                             ObjectWriter elementWriter, RowSource<T> source) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeFieldName(listField);
+            long count = writeElements(generator, elementWriter, source);
+            generator.writeNumberField(countField, count);
+            generator.writeEndObject();
+            return count;
+        }
+    }
+
+    private static <T> long writeElements(JsonGenerator generator, ObjectWriter elementWriter, RowSource<T> source)
+            throws IOException {
+        long[] count = {0};
+        generator.writeStartArray();
+        // 查询执行较久时写出空白字符（JSON允许）探测客户端，客户端已断开则取消查询
+        try (QueryBudget.ProbeRegistration ignored = QueryBudget.watchClient(() -> {
+            generator.writeRaw(' ');
+            generator.flush();
+        })) {
+            source.forEach(row -> {
+                try {
+                    elementWriter.writeValue(generator, row);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // 客户端断开等写出错误，中止遍历并关闭数据库游标
+            throw e.getCause();
+        }
+        generator.writeEndArray();
+        return count[0];
+    }
+
+    /**
+     * 流式数据源，逐行把数据交给回调处理
+     */
+    public interface RowSource<T> {
+        void forEach(Consumer<T> action);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.javawebcurriculumdesign.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * 键集分页游标
+ * 记录上一页最后一条记录的 (apply_time, appointment_id)，编码为URL安全的Base64字符串；
+ * 按相关度排序的检索结果额外记录相关度，即 (search_rank, apply_time, appointment_id)
+ */
+public class KeysetCursor {
+    private final Integer rank;
+    private final Timestamp applyTime;
+    private final int appointmentId;
+
+    public KeysetCursor(Timestamp applyTime, int appointmentId) {
+        this(null, applyTime, appointmentId);
+    }
+
+    public KeysetCursor(Integer rank, Timestamp applyTime, int appointmentId) {
+        this.rank = rank;
+        this.applyTime = applyTime;
+        this.appointmentId = appointmentId;
+    }
+
+    /**
+     * 获取相关度（非检索结果的游标为null）
+     */
+    public Integer getRank() {
+        return rank;
+    }
+
+    public Timestamp getApplyTime() {
+        return applyTime;
+    }
+
+    public int getAppointmentId() {
+        return appointmentId;
+    }
+
+    /**
+     * 编码游标
+     * @return 游标字符串
+     */
+    public String encode() {
+        // 毫秒和纳秒分开保存，避免数据库微秒精度在往返中丢失
+        String raw = applyTime.getTime() + ":" + applyTime.getNanos() + ":" + appointmentId;
+        if (rank != null) {
+            raw += ":" + rank;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     * @param cursor 游标字符串
+     * @return 游标对象，参数为空时返回null
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 && parts.length != 4) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+
+            Timestamp applyTime = new Timestamp(Long.parseLong(parts[0]));
+            applyTime.setNanos(Integer.parseInt(parts[1]));
+            Integer rank = parts.length == 4 ? Integer.valueOf(parts[3]) : null;
+            return new KeysetCursor(rank, applyTime, Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException 也是 IllegalArgumentException 的子类
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.javawebcurriculumdesign.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据库迁移工具类
+ * 按版本顺序执行 db/migration 下的SQL脚本，已执行的脚本及其SM3校验值记录在迁移历史表中。
+ * 已执行脚本的内容被修改时拒绝启动，避免各环境的表结构不一致。
+ */
+public class MigrationRunner {
+    private static final String MIGRATION_DIR = "db/migration/";
+    private static final String MIGRATION_LIST = MIGRATION_DIR + "migrations.list";
+    private static final String EXPLAIN_FILE = MIGRATION_DIR + "explain.sql";
+    private static final String HISTORY_TABLE = "schema_migration_history";
+
+    /**
+     * 执行迁移（根据配置决定是否试运行）
+     */
+    public static void migrate() {
+        migrate(DBUtil.isMigrationDryRun());
+    }
+
+    /**
+     * 执行迁移
+     * @param dryRun 是否试运行；试运行时每个待执行脚本都在事务中执行，
+     *               输出执行前后的典型查询执行计划后回滚
+     */
+    public static void migrate(boolean dryRun) {
+        Connection conn = null;
+        try {
+            conn = DBUtil.getConnection();
+            ensureHistoryTable(conn);
+
+            Map<String, String> applied = loadAppliedChecksums(conn);
+            List<String> explainQueries = dryRun ? splitStatements(readResource(EXPLAIN_FILE)) : null;
+
+            for (String script : listScripts()) {
+                String version = script.substring(0, script.indexOf("__"));
+                String content = readResource(MIGRATION_DIR + script);
+                String checksum = SMUtil.sm3(content);
+
+                if (applied.containsKey(version)) {
+                    if (!checksum.equals(applied.get(version))) {
+                        throw new IllegalStateException("迁移脚本 " + script + " 在执行后被修改，校验值不一致");
+                    }
+                    continue;
+                }
+
+                if (dryRun) {
+                    dryRunScript(conn, script, content, explainQueries);
+                } else {
+                    applyScript(conn, script, version, content, checksum);
+                }
+            }
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("执行数据库迁移失败", e);
+        } finally {
+            DBUtil.close(conn, null);
+        }
+    }
+
+    /**
+     * 在事务中执行一个迁移脚本并记录迁移历史
+     */
+    private static void applyScript(Connection conn, String script, String version,
+                                    String content, String checksum) throws SQLException {
+        long start = System.currentTimeMillis();
+        conn.setAutoCommit(false);
+        try {
+            executeStatements(conn, splitStatements(content));
+
+            String sql = "INSERT INTO " + HISTORY_TABLE +
+                    " (version, script, checksum, applied_time, execution_ms) VALUES (?, ?, ?, ?, ?)";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, version);
+                ps.setString(2, script);
+                ps.setString(3, checksum);
+                ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                ps.setLong(5, System.currentTimeMillis() - start);
+                ps.executeUpdate();
+            }
+
+            conn.commit();
+            System.out.println("数据库迁移完成: " + script + "，耗时 " + (System.currentTimeMillis() - start) + "ms");
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * 试运行一个迁移脚本：输出执行前后的执行计划，然后回滚
+     */
+    private static void dryRunScript(Connection conn, String script, String content,
+                                     List<String> explainQueries) throws SQLException {
+        System.out.println("========== 迁移试运行: " + script + " ==========");
+        conn.setAutoCommit(false);
+        try {
+            Map<String, String> before = explainAll(conn, explainQueries);
+            executeStatements(conn, splitStatements(content));
+            Map<String, String> after = explainAll(conn, explainQueries);
+
+            for (String query : explainQueries) {
+                System.out.println("---------- 查询 ----------");
+                System.out.println(query);
+                System.out.println("---------- 迁移前 ----------");
+                System.out.println(before.get(query));
+                System.out.println("---------- 迁移后 ----------");
+                System.out.println(after.get(query));
+            }
+        } finally {
+            // PostgreSQL/OpenGauss 的DDL是事务性的，回滚即可撤销脚本的全部修改
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+        System.out.println("========== 试运行结束，已回滚: " + script + " ==========");
+    }
+
+    /**
+     * 获取一组查询的执行计划
+     */
+    private static Map<String, String> explainAll(Connection conn, List<String> queries) throws SQLException {
+        Map<String, String> plans = new HashMap<>();
+        try (Statement stmt = conn.createStatement()) {
+            for (String query : queries) {
+                StringBuilder plan = new StringBuilder();
+                // 查询可能引用尚未创建的表或列（迁移前），用保存点隔离失败，不中止试运行事务
+                Savepoint savepoint = conn.setSavepoint();
+                try (ResultSet rs = stmt.executeQuery("EXPLAIN " + query)) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                    conn.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    conn.rollback(savepoint);
+                    plan.append("（无法获取执行计划: ").append(e.getMessage()).append("）\n");
+                }
+                plans.put(query, plan.toString());
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * 依次执行SQL语句
+     */
+    private static void executeStatements(Connection conn, List<String> statements) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * 创建迁移历史表
+     */
+    private static void ensureHistoryTable(Connection conn) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " (" +
+                "version VARCHAR(50) PRIMARY KEY, " +
+                "script VARCHAR(200) NOT NULL, " +
+                "checksum VARCHAR(64) NOT NULL, " +
+                "applied_time TIMESTAMP WITHOUT TIME ZONE NOT NULL, " +
+                "execution_ms BIGINT NOT NULL)";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    /**
+     * 读取已执行脚本的校验值
+     * @return 版本号到校验值的映射
+     */
+    private static Map<String, String> loadAppliedChecksums(Connection conn) throws SQLException {
+        Map<String, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+            while (rs.next()) {
+                applied.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * 读取迁移脚本清单
+     * @return 脚本文件名列表（按执行顺序）
+     */
+    private static List<String> listScripts() throws IOException {
+        List<String> scripts = new ArrayList<>();
+        for (String line : readResource(MIGRATION_LIST).split("\n")) {
+            String name = line.trim();
+            if (name.isEmpty() || name.startsWith("#")) {
+                continue;
+            }
+            if (!name.matches("V\\d+__\\w+\\.sql")) {
+                throw new IOException("迁移脚本命名不正确: " + name);
+            }
+            scripts.add(name);
+        }
+        return scripts;
+    }
+
+    /**
+     * 读取类路径资源
+     */
+    private static String readResource(String path) throws IOException {
+        InputStream is = MigrationRunner.class.getClassLoader().getResourceAsStream(path);
+        if (is == null) {
+            throw new IOException("找不到迁移文件: " + path);
+        }
+
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line).append('\n');
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * 将脚本拆分为单条SQL语句
+     * 忽略注释，并正确处理字符串常量和 $$ 包围的函数体中的分号
+     * @param script 脚本内容
+     * @return SQL语句列表
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inString = false;
+        boolean inDollarQuote = false;
+
+        int i = 0;
+        while (i < script.length()) {
+            char c = script.charAt(i);
+
+            if (!inString && !inDollarQuote && c == '-' && i + 1 < script.length() && script.charAt(i + 1) == '-') {
+                // 跳过行注释
+                while (i < script.length() && script.charAt(i) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+
+            if (!inString && c == '$' && i + 1 < script.length() && script.charAt(i + 1) == '$') {
+                inDollarQuote = !inDollarQuote;
+                current.append("$$");
+                i += 2;
+                continue;
+            }
+
+            if (!inDollarQuote && c == '\'') {
+                inString = !inString;
+            }
+
+            if (!inString && !inDollarQuote && c == ';') {
+                String sql = current.toString().trim();
+                if (!sql.isEmpty()) {
+                    statements.add(sql);
+                }
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+            i++;
+        }
+
+        String sql = current.toString().trim();
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+        return statements;
+    }
+}
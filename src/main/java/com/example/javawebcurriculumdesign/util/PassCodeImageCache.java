@@ -0,0 +1,108 @@
+package com.example.javawebcurriculumdesign.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 通行码图像缓存
+ * 按（预约类型, 预约ID, 通行码状态, 有效期）缓存已渲染的二维码Base64图像，重复查看通行码时无需重新编码和渲染。
+ * 按最近最少使用淘汰，容量按图像实际占用的字节数计算；预约状态变更时由AppointmentService失效对应预约的缓存。
+ */
+public class PassCodeImageCache {
+    private static final PassCodeImageCache INSTANCE = new PassCodeImageCache();
+
+    private final long maxBytes = CryptoConfig.getQRCodeCacheMaxBytes();
+    // 按访问顺序排列，最久未使用的在前（由this保护）
+    private final LinkedHashMap<String, String> images = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private PassCodeImageCache() {
+    }
+
+    public static PassCodeImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 生成缓存键
+     * @param appointmentType 预约类型（PUBLIC/OFFICIAL）
+     * @param appointmentId 预约ID
+     * @param state 通行码状态
+     * @param validFrom 生效时间（毫秒）
+     * @param validUntil 失效时间（毫秒）
+     * @return 缓存键
+     */
+    public static String key(String appointmentType, Integer appointmentId, PassCodeUtil.State state,
+                             long validFrom, long validUntil) {
+        return prefix(appointmentType, appointmentId) + state + ":" + validFrom + ":" + validUntil;
+    }
+
+    /**
+     * 获取缓存的图像
+     * @param key 缓存键
+     * @return Base64图像，未缓存时返回null
+     */
+    public synchronized String get(String key) {
+        return images.get(key);
+    }
+
+    /**
+     * 缓存图像，超出容量时淘汰最久未使用的图像
+     * @param key 缓存键
+     * @param imageBase64 Base64图像
+     */
+    public synchronized void put(String key, String imageBase64) {
+        long size = weigh(key, imageBase64);
+        if (size > maxBytes) {
+            return;
+        }
+        String previous = images.put(key, imageBase64);
+        if (previous != null) {
+            totalBytes -= weigh(key, previous);
+        }
+        totalBytes += size;
+
+        Iterator<Map.Entry<String, String>> it = images.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, String> eldest = it.next();
+            totalBytes -= weigh(eldest.getKey(), eldest.getValue());
+            it.remove();
+        }
+    }
+
+    /**
+     * 使指定预约的全部缓存图像失效
+     * @param appointmentType 预约类型（PUBLIC/OFFICIAL）
+     * @param appointmentId 预约ID
+     */
+    public synchronized void invalidate(String appointmentType, Integer appointmentId) {
+        String prefix = prefix(appointmentType, appointmentId);
+        Iterator<Map.Entry<String, String>> it = images.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                totalBytes -= weigh(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 获取当前缓存占用的字节数
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private static String prefix(String appointmentType, Integer appointmentId) {
+        return appointmentType + ":" + appointmentId + ":";
+    }
+
+    /**
+     * 估算缓存项占用的字节数（字符串按每字符2字节计算）
+     */
+    private static long weigh(String key, String value) {
+        return 2L * (key.length() + value.length());
+    }
+}
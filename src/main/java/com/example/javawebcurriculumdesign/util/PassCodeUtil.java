@@ -0,0 +1,96 @@
+package com.example.javawebcurriculumdesign.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+
+/**
+ * 通行码工具类
+ * 通行码的有效期和令牌只由预约本身决定（预约类型、ID、预约时间），同一预约在同一有效状态下生成的二维码内容完全相同，
+ * 因此渲染出的图像可以缓存复用；令牌经HMAC-SM3签名，门岗可据此校验通行码真伪和有效期。
+ */
+public class PassCodeUtil {
+    // 令牌中保留的签名长度（十六进制字符数）
+    private static final int SIGNATURE_LENGTH = 16;
+    private static final long HOUR_MS = 60L * 60 * 1000;
+
+    /**
+     * 通行码状态
+     */
+    public enum State {
+        NOT_YET_VALID,
+        VALID,
+        EXPIRED
+    }
+
+    /**
+     * 计算通行码生效时间（预约时间前若干小时）
+     * @param visitTime 预约时间
+     * @return 生效时间
+     */
+    public static Timestamp getValidFrom(Timestamp visitTime) {
+        return new Timestamp(visitTime.getTime() - CryptoConfig.getPassCodeValidBeforeHours() * HOUR_MS);
+    }
+
+    /**
+     * 计算通行码失效时间（预约时间后若干小时）
+     * @param visitTime 预约时间
+     * @return 失效时间
+     */
+    public static Timestamp getValidUntil(Timestamp visitTime) {
+        return new Timestamp(visitTime.getTime() + CryptoConfig.getPassCodeValidAfterHours() * HOUR_MS);
+    }
+
+    /**
+     * 判断通行码在指定时刻的状态
+     * @param visitTime 预约时间
+     * @param nowMillis 当前时间（毫秒）
+     * @return 通行码状态
+     */
+    public static State getState(Timestamp visitTime, long nowMillis) {
+        if (nowMillis < getValidFrom(visitTime).getTime()) {
+            return State.NOT_YET_VALID;
+        }
+        if (nowMillis > getValidUntil(visitTime).getTime()) {
+            return State.EXPIRED;
+        }
+        return State.VALID;
+    }
+
+    /**
+     * 生成通行令牌
+     * 格式为 类型.预约ID.生效时间.失效时间.签名，时间为秒级时间戳，签名为HMAC-SM3的前16位
+     * @param appointmentType 预约类型（PUBLIC/OFFICIAL）
+     * @param appointmentId 预约ID
+     * @param visitTime 预约时间
+     * @return 通行令牌
+     */
+    public static String generateToken(String appointmentType, Integer appointmentId, Timestamp visitTime) {
+        String payload = appointmentType + "." + appointmentId + "."
+                + getValidFrom(visitTime).getTime() / 1000 + "." + getValidUntil(visitTime).getTime() / 1000;
+        return payload + "." + sign(payload);
+    }
+
+    /**
+     * 校验通行令牌签名
+     * @param token 通行令牌
+     * @return 签名是否正确
+     */
+    public static boolean verifyToken(String token) {
+        if (token == null) {
+            return false;
+        }
+        int index = token.lastIndexOf('.');
+        if (index <= 0) {
+            return false;
+        }
+        // 定长时间比较，避免通过响应时间逐位猜出签名
+        byte[] expected = sign(token.substring(0, index)).getBytes(StandardCharsets.UTF_8);
+        byte[] actual = token.substring(index + 1).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private static String sign(String payload) {
+        return SMUtil.hmacSM3(payload, CryptoConfig.getPassCodeKey()).substring(0, SIGNATURE_LENGTH);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.javawebcurriculumdesign.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池指标
+ * 作为HikariCP的指标采集器，记录获取连接耗时、连接占用时长的分布和获取超时次数，
+ * 与连接池MXBean的实时连接数一起以JSON或Prometheus文本格式输出，用于根据实际负载确定连接池大小。
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    // 获取连接耗时的桶上界（毫秒）
+    private static final double[] ACQUIRE_BUCKETS_MS = {0.5, 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+    // 连接占用时长的桶上界（毫秒）
+    private static final double[] USAGE_BUCKETS_MS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    private final Histogram acquireTime = new Histogram(ACQUIRE_BUCKETS_MS);
+    private final Histogram usageTime = new Histogram(USAGE_BUCKETS_MS);
+    private final Histogram creationTime = new Histogram(ACQUIRE_BUCKETS_MS);
+    private final LongAdder timeoutCount = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                creationTime.record(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireTime.record(elapsedAcquiredNanos / 1_000_000.0);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTime.record(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutCount.increment();
+            }
+        };
+    }
+
+    /**
+     * 生成指标快照
+     * @param dataSource 数据源
+     * @return 指标名称到值的映射，可直接序列化为JSON
+     */
+    public Map<String, Object> snapshot(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("poolName", dataSource.getPoolName());
+        config.put("maximumPoolSize", dataSource.getMaximumPoolSize());
+        config.put("minimumIdle", dataSource.getMinimumIdle());
+        config.put("connectionTimeoutMs", dataSource.getConnectionTimeout());
+        config.put("idleTimeoutMs", dataSource.getIdleTimeout());
+        config.put("maxLifetimeMs", dataSource.getMaxLifetime());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("config", config);
+        result.put("activeConnections", pool.getActiveConnections());
+        result.put("idleConnections", pool.getIdleConnections());
+        result.put("totalConnections", pool.getTotalConnections());
+        result.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+        result.put("connectionTimeoutCount", timeoutCount.sum());
+        result.put("connectionAcquireMs", acquireTime.toMap());
+        result.put("connectionUsageMs", usageTime.toMap());
+        result.put("connectionCreationMs", creationTime.toMap());
+        return result;
+    }
+
+    /**
+     * 生成Prometheus文本格式（0.0.4）的指标
+     * @param dataSource 数据源
+     * @return 指标文本
+     */
+    public String toPrometheus(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        String labels = "pool=\"" + dataSource.getPoolName().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+
+        StringBuilder sb = new StringBuilder();
+        appendGauge(sb, "hikaricp_connections_active", "Active connections", labels, pool.getActiveConnections());
+        appendGauge(sb, "hikaricp_connections_idle", "Idle connections", labels, pool.getIdleConnections());
+        appendGauge(sb, "hikaricp_connections", "Total connections", labels, pool.getTotalConnections());
+        appendGauge(sb, "hikaricp_connections_pending", "Threads awaiting a connection", labels, pool.getThreadsAwaitingConnection());
+        appendGauge(sb, "hikaricp_connections_max", "Maximum pool size", labels, dataSource.getMaximumPoolSize());
+        appendGauge(sb, "hikaricp_connections_min", "Minimum idle connections", labels, dataSource.getMinimumIdle());
+
+        sb.append("# HELP hikaricp_connection_timeout_total Connection acquire timeouts\n");
+        sb.append("# TYPE hikaricp_connection_timeout_total counter\n");
+        sb.append("hikaricp_connection_timeout_total{").append(labels).append("} ").append(timeoutCount.sum()).append('\n');
+
+        acquireTime.appendPrometheus(sb, "hikaricp_connection_acquire_seconds", "Connection acquire time", labels);
+        usageTime.appendPrometheus(sb, "hikaricp_connection_usage_seconds", "Connection usage time", labels);
+        creationTime.appendPrometheus(sb, "hikaricp_connection_creation_seconds", "Connection creation time", labels);
+        return sb.toString();
+    }
+
+    private static void appendGauge(StringBuilder sb, String name, String help, String labels, long value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" gauge\n");
+        sb.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    /**
+     * 固定桶直方图（单位毫秒），各桶独立计数，无锁并发记录
+     */
+    private static class Histogram {
+        private final double[] bounds;
+        private final LongAdder[] buckets; // 最后一个桶为 +Inf
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(double valueMs) {
+            int i = 0;
+            while (i < bounds.length && valueMs > bounds[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            count.increment();
+            sum.add(valueMs);
+        }
+
+        /**
+         * @return 包含次数、总和、平均值和各桶累计次数（小于等于上界）的映射
+         */
+        private Map<String, Object> toMap() {
+            long total = count.sum();
+            double totalMs = sum.sum();
+
+            Map<String, Long> cumulative = new LinkedHashMap<>();
+            long running = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                running += buckets[i].sum();
+                cumulative.put(formatBound(bounds[i]), running);
+            }
+            cumulative.put("+Inf", running + buckets[bounds.length].sum());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", total);
+            result.put("sum", totalMs);
+            result.put("mean", total == 0 ? 0 : totalMs / total);
+            result.put("buckets", cumulative);
+            return result;
+        }
+
+        private void appendPrometheus(StringBuilder sb, String name, String help, String labels) {
+            sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            sb.append("# TYPE ").append(name).append(" histogram\n");
+            long running = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                running += buckets[i].sum();
+                sb.append(name).append("_bucket{").append(labels).append(",le=\"")
+                        .append(formatBound(bounds[i] / 1000)).append("\"} ").append(running).append('\n');
+            }
+            running += buckets[bounds.length].sum();
+            sb.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(running).append('\n');
+            sb.append(name).append("_sum{").append(labels).append("} ")
+                    .append(String.format(Locale.ROOT, "%.6f", sum.sum() / 1000)).append('\n');
+            sb.append(name).append("_count{").append(labels).append("} ").append(running).append('\n');
+        }
+
+        private static String formatBound(double bound) {
+            return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+        }
+    }
+}
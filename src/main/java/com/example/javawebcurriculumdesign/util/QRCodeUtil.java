@@ -1,26 +1,40 @@
 package com.example.javawebcurriculumdesign.util;
 
-import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
-import com.google.zxing.MultiFormatWriter;
 import com.google.zxing.WriterException;
-import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * 二维码生成工具类
+ * 以模块（二维码中的一个黑白方格）为单位渲染：PNG格式直接由模块矩阵生成1位调色板PNG，
+ * SVG格式输出矢量路径，均不经过逐像素绘制和ImageIO；其他格式按行批量写入图像后交给ImageIO编码。
  */
 public class QRCodeUtil {
-    
+    // 边距（模块数）
+    private static final int QUIET_ZONE = 1;
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final Color VALID_COLOR = new Color(138, 43, 226);
+    private static final Color INVALID_COLOR = Color.GRAY;
+
     /**
      * 生成二维码图像
      * @param content 二维码内容
@@ -30,34 +44,40 @@ public class QRCodeUtil {
      * @param backgroundColor 背景色
      * @return 二维码图像
      */
-    public static BufferedImage generateQRCode(String content, int width, int height, 
+    public static BufferedImage generateQRCode(String content, int width, int height,
                                               Color foregroundColor, Color backgroundColor) throws WriterException {
-        // 设置二维码参数
-        Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H); // 容错级别最高
-        hints.put(EncodeHintType.MARGIN, 1); // 边距
-        
-        // 生成二维码矩阵
-        BitMatrix bitMatrix = new MultiFormatWriter().encode(
-                content,
-                BarcodeFormat.QR_CODE,
-                width,
-                height,
-                hints
-        );
-        
-        // 转换为图像
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                image.setRGB(x, y, bitMatrix.get(x, y) ? foregroundColor.getRGB() : backgroundColor.getRGB());
+        Layout layout = new Layout(encode(content), width, height);
+        int fg = foregroundColor.getRGB();
+        int bg = backgroundColor.getRGB();
+
+        BufferedImage image = new BufferedImage(layout.width, layout.height, BufferedImage.TYPE_INT_RGB);
+        WritableRaster raster = image.getRaster();
+        int[] blankRow = new int[layout.width];
+        Arrays.fill(blankRow, bg);
+        int[] row = new int[layout.width];
+
+        // 每个模块行只计算一次像素行，再整行复制multiple次
+        for (int y = 0; y < layout.height; y++) {
+            int moduleY = layout.moduleY(y);
+            if (moduleY < 0) {
+                raster.setDataElements(0, y, layout.width, 1, blankRow);
+                continue;
+            }
+            if ((y - layout.top) % layout.multiple == 0) {
+                System.arraycopy(blankRow, 0, row, 0, row.length);
+                for (int moduleX = 0; moduleX < layout.modules.getWidth(); moduleX++) {
+                    if (layout.modules.get(moduleX, moduleY) == 1) {
+                        int x = layout.left + moduleX * layout.multiple;
+                        Arrays.fill(row, x, x + layout.multiple, fg);
+                    }
+                }
             }
+            raster.setDataElements(0, y, layout.width, 1, row);
         }
-        
+
         return image;
     }
-    
+
     /**
      * 生成紫色二维码图像（有效通行码）
      * @param content 二维码内容
@@ -65,7 +85,7 @@ public class QRCodeUtil {
      */
     public static BufferedImage generateValidQRCode(String content) throws WriterException {
         int size = CryptoConfig.getQRCodeSize();
-        return generateQRCode(content, size, size, new Color(138, 43, 226), Color.WHITE);
+        return generateQRCode(content, size, size, VALID_COLOR, Color.WHITE);
     }
 
     /**
@@ -75,9 +95,9 @@ public class QRCodeUtil {
      */
     public static BufferedImage generateInvalidQRCode(String content) throws WriterException {
         int size = CryptoConfig.getQRCodeSize();
-        return generateQRCode(content, size, size, Color.GRAY, Color.WHITE);
+        return generateQRCode(content, size, size, INVALID_COLOR, Color.WHITE);
     }
-    
+
     /**
      * 将二维码图像转换为Base64编码
      * @param image 二维码图像
@@ -90,24 +110,209 @@ public class QRCodeUtil {
         return "data:image/" + format + ";base64," +
                 Base64.getEncoder().encodeToString(outputStream.toByteArray());
     }
-    
+
+    /**
+     * 生成1位调色板PNG格式的二维码
+     * 直接由模块矩阵写出PNG数据块，不创建BufferedImage
+     * @param content 二维码内容
+     * @param width 宽度
+     * @param height 高度
+     * @param foregroundColor 前景色
+     * @param backgroundColor 背景色
+     * @return PNG文件内容
+     */
+    public static byte[] generateQRCodePng(String content, int width, int height,
+                                           Color foregroundColor, Color backgroundColor) throws WriterException, IOException {
+        Layout layout = new Layout(encode(content), width, height);
+        int rowBytes = (layout.width + 7) / 8;
+
+        // 图像数据：每行以过滤类型0开头，调色板索引0为背景色、1为前景色
+        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflaterStream = new DeflaterOutputStream(idat, deflater)) {
+            byte[] blankRow = new byte[rowBytes + 1];
+            byte[] row = new byte[rowBytes + 1];
+            for (int y = 0; y < layout.height; y++) {
+                int moduleY = layout.moduleY(y);
+                if (moduleY < 0) {
+                    deflaterStream.write(blankRow);
+                    continue;
+                }
+                if ((y - layout.top) % layout.multiple == 0) {
+                    Arrays.fill(row, (byte) 0);
+                    for (int moduleX = 0; moduleX < layout.modules.getWidth(); moduleX++) {
+                        if (layout.modules.get(moduleX, moduleY) == 1) {
+                            int x = layout.left + moduleX * layout.multiple;
+                            for (int end = x + layout.multiple; x < end; x++) {
+                                row[1 + (x >> 3)] |= (byte) (0x80 >>> (x & 7));
+                            }
+                        }
+                    }
+                }
+                deflaterStream.write(row);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream(idat.size() + 64);
+        DataOutputStream out = new DataOutputStream(png);
+        out.write(PNG_SIGNATURE);
+
+        ByteArrayOutputStream ihdr = new ByteArrayOutputStream(13);
+        DataOutputStream ihdrOut = new DataOutputStream(ihdr);
+        ihdrOut.writeInt(layout.width);
+        ihdrOut.writeInt(layout.height);
+        ihdrOut.writeByte(1); // 位深度
+        ihdrOut.writeByte(3); // 颜色类型：调色板
+        ihdrOut.writeByte(0); // 压缩方法
+        ihdrOut.writeByte(0); // 过滤方法
+        ihdrOut.writeByte(0); // 不隔行扫描
+        writeChunk(out, "IHDR", ihdr.toByteArray());
+
+        writeChunk(out, "PLTE", new byte[] {
+                (byte) backgroundColor.getRed(), (byte) backgroundColor.getGreen(), (byte) backgroundColor.getBlue(),
+                (byte) foregroundColor.getRed(), (byte) foregroundColor.getGreen(), (byte) foregroundColor.getBlue()
+        });
+        writeChunk(out, "IDAT", idat.toByteArray());
+        writeChunk(out, "IEND", new byte[0]);
+        out.flush();
+        return png.toByteArray();
+    }
+
+    /**
+     * 生成SVG格式的二维码
+     * 每个模块行中连续的前景模块合并为一个矩形路径，不进行栅格化
+     * @param content 二维码内容
+     * @param width 宽度
+     * @param height 高度
+     * @param foregroundColor 前景色
+     * @param backgroundColor 背景色
+     * @return SVG文档
+     */
+    public static String generateQRCodeSvg(String content, int width, int height,
+                                           Color foregroundColor, Color backgroundColor) throws WriterException {
+        ByteMatrix modules = encode(content);
+        int viewWidth = modules.getWidth() + QUIET_ZONE * 2;
+        int viewHeight = modules.getHeight() + QUIET_ZONE * 2;
+
+        StringBuilder path = new StringBuilder();
+        for (int y = 0; y < modules.getHeight(); y++) {
+            int x = 0;
+            while (x < modules.getWidth()) {
+                if (modules.get(x, y) != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < modules.getWidth() && modules.get(x, y) == 1) {
+                    x++;
+                }
+                path.append('M').append(start + QUIET_ZONE).append(' ').append(y + QUIET_ZONE)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height +
+                "\" viewBox=\"0 0 " + viewWidth + " " + viewHeight + "\" shape-rendering=\"crispEdges\">" +
+                "<rect width=\"" + viewWidth + "\" height=\"" + viewHeight + "\" fill=\"" + toHex(backgroundColor) + "\"/>" +
+                "<path fill=\"" + toHex(foregroundColor) + "\" d=\"" + path + "\"/>" +
+                "</svg>";
+    }
+
     /**
      * 生成有效通行码的Base64编码
      * @param content 二维码内容
      * @return Base64编码的有效通行码
      */
     public static String generateValidQRCodeBase64(String content) throws WriterException, IOException {
-        BufferedImage image = generateValidQRCode(content);
-        return toBase64(image);
+        return generateBase64(content, VALID_COLOR);
     }
-    
+
     /**
      * 生成无效通行码的Base64编码
      * @param content 二维码内容
      * @return Base64编码的无效通行码
      */
     public static String generateInvalidQRCodeBase64(String content) throws WriterException, IOException {
-        BufferedImage image = generateInvalidQRCode(content);
-        return toBase64(image);
+        return generateBase64(content, INVALID_COLOR);
+    }
+
+    /**
+     * 按配置的格式生成二维码的Base64编码：png直接编码，svg输出矢量图，其他格式经ImageIO编码
+     */
+    private static String generateBase64(String content, Color foregroundColor) throws WriterException, IOException {
+        int size = CryptoConfig.getQRCodeSize();
+        String format = CryptoConfig.getQRCodeFormat();
+        if ("png".equalsIgnoreCase(format)) {
+            byte[] png = generateQRCodePng(content, size, size, foregroundColor, Color.WHITE);
+            return "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+        }
+        if ("svg".equalsIgnoreCase(format)) {
+            String svg = generateQRCodeSvg(content, size, size, foregroundColor, Color.WHITE);
+            return "data:image/svg+xml;base64," +
+                    Base64.getEncoder().encodeToString(svg.getBytes(StandardCharsets.UTF_8));
+        }
+        return toBase64(generateQRCode(content, size, size, foregroundColor, Color.WHITE));
+    }
+
+    /**
+     * 编码二维码内容，得到每个模块一个元素的矩阵（不含边距）
+     */
+    private static ByteMatrix encode(String content) throws WriterException {
+        Map<EncodeHintType, Object> hints = new HashMap<>();
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        // 容错级别最高
+        return Encoder.encode(content, ErrorCorrectionLevel.H, hints).getMatrix();
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static String toHex(Color color) {
+        return String.format("#%06x", color.getRGB() & 0xFFFFFF);
+    }
+
+    /**
+     * 模块到像素的映射，与ZXing QRCodeWriter的缩放和居中规则一致：
+     * 每个模块放大为整数倍像素，剩余空间平均分配到两侧作为留白
+     */
+    private static class Layout {
+        private final ByteMatrix modules;
+        private final int width;
+        private final int height;
+        private final int multiple;
+        private final int left;
+        private final int top;
+
+        private Layout(ByteMatrix modules, int width, int height) {
+            this.modules = modules;
+            int codeWidth = modules.getWidth() + QUIET_ZONE * 2;
+            int codeHeight = modules.getHeight() + QUIET_ZONE * 2;
+            this.width = Math.max(width, codeWidth);
+            this.height = Math.max(height, codeHeight);
+            this.multiple = Math.min(this.width / codeWidth, this.height / codeHeight);
+            this.left = (this.width - modules.getWidth() * multiple) / 2;
+            this.top = (this.height - modules.getHeight() * multiple) / 2;
+        }
+
+        /**
+         * @return 像素行所在的模块行，位于上下留白时返回-1
+         */
+        private int moduleY(int y) {
+            if (y < top || y >= top + modules.getHeight() * multiple) {
+                return -1;
+            }
+            return (y - top) / multiple;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,324 @@
+package com.example.javawebcurriculumdesign.util;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * 查询预算
+ * 按请求类别（公众接口、管理列表、统计报表）限制单条查询的执行时间，防止慢查询长时间占用连接池中的连接。
+ * QueryBudgetFilter在请求开始时为当前线程设置预算，BaseDao执行查询时通过start应用预算：
+ * 设置JDBC查询超时，在事务中执行时同时设置服务端statement_timeout；
+ * 流式输出的接口可以注册客户端探测，查询执行较久时定期探测连接，客户端已断开则取消查询。
+ * 每类预算统计执行次数、超出预算次数、超时取消次数和客户端断开取消次数。
+ */
+public enum QueryBudget {
+    PUBLIC("public"),
+    ADMIN_LIST("admin_list"),
+    REPORT("report");
+
+    // 查询超时的SQLSTATE（query_canceled）
+    private static final String SQLSTATE_QUERY_CANCELED = "57014";
+
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+    private static volatile ScheduledExecutorService heartbeatScheduler;
+
+    private final String label;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder clientCancels = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+
+    QueryBudget(String label) {
+        this.label = label;
+    }
+
+    /**
+     * 获取预算（毫秒）
+     */
+    public long getTimeoutMs() {
+        switch (this) {
+            case PUBLIC:
+                return DBUtil.getQueryBudgetPublicMs();
+            case ADMIN_LIST:
+                return DBUtil.getQueryBudgetAdminListMs();
+            default:
+                return DBUtil.getQueryBudgetReportMs();
+        }
+    }
+
+    /**
+     * 为当前线程设置查询预算
+     * 用法：try (QueryBudget.Scope ignored = QueryBudget.enter(QueryBudget.PUBLIC)) { ... }
+     * @param budget 查询预算
+     * @return 预算范围，关闭时恢复之前的预算
+     */
+    public static Scope enter(QueryBudget budget) {
+        Context previous = CURRENT.get();
+        CURRENT.set(new Context(budget));
+        return new Scope(previous);
+    }
+
+    /**
+     * 为当前线程的预算注册客户端探测
+     * 探测在查询执行超过探测间隔后由后台线程调用，抛出IOException表示客户端已断开。
+     * 探测会写出响应内容，只应由已经确定输出内容的流式接口注册。
+     * @param probe 客户端探测
+     * @return 注册范围，关闭时取消注册；当前线程没有预算时不注册
+     */
+    public static ProbeRegistration watchClient(ClientProbe probe) {
+        Context context = CURRENT.get();
+        if (context == null) {
+            return new ProbeRegistration(null, null);
+        }
+        ProbeRegistration registration = new ProbeRegistration(context, context.probe);
+        context.probe = probe;
+        return registration;
+    }
+
+    /**
+     * 对即将执行的语句应用当前线程的查询预算
+     * @param statement 语句
+     * @return 执行记录，语句执行结束后调用finish；当前线程没有预算时返回不做任何处理的记录
+     */
+    public static Execution start(Statement statement) throws SQLException {
+        Context context = CURRENT.get();
+        if (context == null) {
+            return Execution.NONE;
+        }
+
+        QueryBudget budget = context.budget;
+        long timeoutMs = budget.getTimeoutMs();
+        if (timeoutMs > 0) {
+            // JDBC超时以秒为单位，向上取整；事务中再设置毫秒级的服务端超时，事务结束后自动恢复
+            statement.setQueryTimeout((int) ((timeoutMs + 999) / 1000));
+            Connection conn = statement.getConnection();
+            if (!conn.getAutoCommit()) {
+                Statement set = conn.createStatement();
+                try {
+                    set.execute("SET LOCAL statement_timeout = " + timeoutMs);
+                } finally {
+                    set.close();
+                }
+            }
+        }
+
+        Execution execution = new Execution(budget, statement);
+        if (context.probe != null) {
+            execution.watch(context.probe);
+        }
+        return execution;
+    }
+
+    /**
+     * 生成查询预算指标快照
+     * @return 预算名称到指标的映射，可直接序列化为JSON
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (QueryBudget budget : values()) {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("budgetMs", budget.getTimeoutMs());
+            metrics.put("executions", budget.executions.sum());
+            metrics.put("totalMs", budget.totalMillis.sum());
+            metrics.put("overruns", budget.overruns.sum());
+            metrics.put("timeouts", budget.timeouts.sum());
+            metrics.put("clientCancels", budget.clientCancels.sum());
+            result.put(budget.label, metrics);
+        }
+        return result;
+    }
+
+    /**
+     * 追加Prometheus文本格式的查询预算指标
+     * @param sb 指标文本
+     */
+    public static void appendPrometheus(StringBuilder sb) {
+        appendFamily(sb, "campus_db_query_budget_milliseconds", "Query time budget", "gauge", null);
+        appendFamily(sb, "campus_db_queries_total", "Queries executed under a budget", "counter", b -> b.executions.sum());
+        appendFamily(sb, "campus_db_query_milliseconds_total", "Time spent executing budgeted queries", "counter", b -> b.totalMillis.sum());
+        appendFamily(sb, "campus_db_query_budget_overruns_total", "Queries that ran longer than their budget", "counter", b -> b.overruns.sum());
+        appendFamily(sb, "campus_db_query_timeouts_total", "Queries cancelled by the budget timeout", "counter", b -> b.timeouts.sum());
+        appendFamily(sb, "campus_db_query_client_cancels_total", "Queries cancelled because the client disconnected", "counter", b -> b.clientCancels.sum());
+    }
+
+    private static void appendFamily(StringBuilder sb, String name, String help, String type,
+                                     ToLongFunction<QueryBudget> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (QueryBudget budget : values()) {
+            sb.append(name).append("{budget=\"").append(budget.label).append("\"} ")
+                    .append(value != null ? value.applyAsLong(budget) : budget.getTimeoutMs()).append('\n');
+        }
+    }
+
+    private static ScheduledExecutorService heartbeatScheduler() {
+        ScheduledExecutorService scheduler = heartbeatScheduler;
+        if (scheduler == null) {
+            synchronized (QueryBudget.class) {
+                scheduler = heartbeatScheduler;
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "query-client-probe");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    heartbeatScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * 客户端探测
+     */
+    public interface ClientProbe {
+        /**
+         * 探测客户端连接
+         * @throws IOException 客户端已断开
+         */
+        void probe() throws IOException;
+    }
+
+    /**
+     * 线程的预算上下文
+     */
+    private static class Context {
+        private final QueryBudget budget;
+        private volatile ClientProbe probe;
+
+        private Context(QueryBudget budget) {
+            this.budget = budget;
+        }
+    }
+
+    /**
+     * 预算范围
+     */
+    public static class Scope implements AutoCloseable {
+        private final Context previous;
+
+        private Scope(Context previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 客户端探测的注册范围
+     */
+    public static class ProbeRegistration implements AutoCloseable {
+        private final Context context;
+        private final ClientProbe previous;
+
+        private ProbeRegistration(Context context, ClientProbe previous) {
+            this.context = context;
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (context != null) {
+                context.probe = previous;
+            }
+        }
+    }
+
+    /**
+     * 一条语句的执行记录
+     */
+    public static class Execution {
+        private static final Execution NONE = new Execution(null, null);
+
+        private final QueryBudget budget;
+        private final Statement statement;
+        private final long startNanos = System.nanoTime();
+        private ScheduledFuture<?> heartbeat;
+        private boolean finished; // 由this保护，结束后不再探测
+        private volatile boolean cancelledByClient;
+
+        private Execution(QueryBudget budget, Statement statement) {
+            this.budget = budget;
+            this.statement = statement;
+        }
+
+        /**
+         * 查询执行超过探测间隔后定期探测客户端，客户端断开时取消查询
+         */
+        private void watch(ClientProbe probe) {
+            long interval = DBUtil.getQueryHeartbeatMs();
+            if (interval <= 0) {
+                return;
+            }
+            heartbeat = heartbeatScheduler().scheduleWithFixedDelay(() -> {
+                synchronized (this) {
+                    if (finished || cancelledByClient) {
+                        return;
+                    }
+                    try {
+                        probe.probe();
+                    } catch (IOException e) {
+                        cancelledByClient = true;
+                        try {
+                            statement.cancel();
+                        } catch (SQLException ex) {
+                            ex.printStackTrace();
+                        }
+                    }
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 语句执行结束（成功或失败）后调用，记录耗时并停止探测
+         * 返回后后台线程不会再调用探测，调用线程可以继续使用输出流
+         * @param error 执行失败时的异常，成功时为null
+         */
+        public void finish(SQLException error) {
+            if (budget == null) {
+                return;
+            }
+            if (heartbeat != null) {
+                heartbeat.cancel(false);
+            }
+            synchronized (this) {
+                finished = true;
+            }
+
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+            budget.executions.increment();
+            budget.totalMillis.add(elapsedMs);
+            if (cancelledByClient) {
+                budget.clientCancels.increment();
+                return;
+            }
+            long timeoutMs = budget.getTimeoutMs();
+            if (timeoutMs > 0 && elapsedMs > timeoutMs) {
+                budget.overruns.increment();
+            }
+            if (error != null && SQLSTATE_QUERY_CANCELED.equals(error.getSQLState())) {
+                budget.timeouts.increment();
+                System.err.println("查询超出预算被取消（" + budget.label + "，" + timeoutMs + " 毫秒）: " + error.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.javawebcurriculumdesign.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 只读副本路由
+ * 持有备机的只读连接池，后台线程定期查询备机的日志回放延迟。
+ * 延迟超过阈值、备机连接失败或延迟检查长时间没有结果时，副本视为不可用，读请求由DBUtil回退到主库。
+ */
+public class ReplicaRouter {
+    // 查询备机回放延迟（毫秒）：不在恢复模式（已提升为主机）或已回放完收到的全部日志时为0，
+    // 否则为最后回放的事务距今的时间；尚未回放过任何事务时为null
+    private static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_xlog_receive_location() = pg_last_xlog_replay_location() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000 END";
+
+    private final HikariDataSource dataSource;
+    private final PoolMetrics poolMetrics;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+
+    private volatile boolean available; // 最近一次检查时副本是否可用
+    private volatile long lagMs = -1; // 最近一次检查得到的延迟，未知时为-1
+    private volatile long lastCheckTime; // 最近一次检查完成的时间
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryFallbacks = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param dataSource 副本连接池
+     * @param poolMetrics 副本连接池的指标采集器
+     * @param maxLagMs 允许的最大回放延迟（毫秒）
+     * @param checkIntervalMs 延迟检查间隔（毫秒）
+     */
+    public ReplicaRouter(HikariDataSource dataSource, PoolMetrics poolMetrics, long maxLagMs, long checkIntervalMs) {
+        this.dataSource = dataSource;
+        this.poolMetrics = poolMetrics;
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    /**
+     * 启动延迟检查，第一次检查完成前读请求使用主库
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkLag, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止延迟检查并关闭副本连接池
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        available = false;
+        if (!dataSource.isClosed()) {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * 从副本获取连接
+     * @return 副本连接；副本不可用或获取连接失败时返回null，由调用方使用主库
+     */
+    public Connection getConnection() {
+        if (!isAvailable()) {
+            primaryFallbacks.increment();
+            return null;
+        }
+        try {
+            Connection conn = dataSource.getConnection();
+            replicaReads.increment();
+            return conn;
+        } catch (SQLException e) {
+            // 不等下一次检查，立即停止使用副本
+            markUnavailable("获取副本连接失败: " + e.getMessage());
+            primaryFallbacks.increment();
+            return null;
+        }
+    }
+
+    /**
+     * 副本当前是否可用
+     * 检查线程停滞（如查询挂起）时结果会过期，超过三个检查间隔没有新结果也视为不可用
+     */
+    public boolean isAvailable() {
+        return available && System.currentTimeMillis() - lastCheckTime <= checkIntervalMs * 3;
+    }
+
+    /**
+     * 生成副本指标快照
+     * @return 指标名称到值的映射，可直接序列化为JSON
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("available", isAvailable());
+        result.put("lagMs", lagMs);
+        result.put("maxLagMs", maxLagMs);
+        result.put("replicaReads", replicaReads.sum());
+        result.put("primaryFallbacks", primaryFallbacks.sum());
+        result.put("pool", poolMetrics.snapshot(dataSource));
+        return result;
+    }
+
+    /**
+     * 追加Prometheus文本格式的副本指标
+     * @param sb 指标文本
+     */
+    public void appendPrometheus(StringBuilder sb) {
+        sb.append("# HELP campus_db_replica_available Whether reads are routed to the replica\n");
+        sb.append("# TYPE campus_db_replica_available gauge\n");
+        sb.append("campus_db_replica_available ").append(isAvailable() ? 1 : 0).append('\n');
+        sb.append("# HELP campus_db_replica_lag_milliseconds Replica replay lag at the last check\n");
+        sb.append("# TYPE campus_db_replica_lag_milliseconds gauge\n");
+        sb.append("campus_db_replica_lag_milliseconds ").append(lagMs).append('\n');
+        sb.append("# HELP campus_db_replica_reads_total Reads served by the replica\n");
+        sb.append("# TYPE campus_db_replica_reads_total counter\n");
+        sb.append("campus_db_replica_reads_total ").append(replicaReads.sum()).append('\n');
+        sb.append("# HELP campus_db_replica_fallbacks_total Replica-eligible reads served by the primary\n");
+        sb.append("# TYPE campus_db_replica_fallbacks_total counter\n");
+        sb.append("campus_db_replica_fallbacks_total ").append(primaryFallbacks.sum()).append('\n');
+    }
+
+    /**
+     * 查询备机回放延迟并更新可用状态
+     */
+    private void checkLag() {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = dataSource.getConnection();
+            ps = conn.prepareStatement(LAG_SQL);
+            rs = ps.executeQuery();
+
+            long lag = -1;
+            if (rs.next()) {
+                double value = rs.getDouble(1);
+                lag = rs.wasNull() ? -1 : Math.max(0, (long) value);
+            }
+
+            lagMs = lag;
+            lastCheckTime = System.currentTimeMillis();
+            if (lag >= 0 && lag <= maxLagMs) {
+                if (!available) {
+                    System.out.println("只读副本可用，查询请求路由到副本（延迟 " + lag + " 毫秒）");
+                }
+                available = true;
+            } else {
+                markUnavailable(lag < 0 ? "副本尚未回放任何事务" : "副本延迟 " + lag + " 毫秒，超过阈值 " + maxLagMs + " 毫秒");
+            }
+        } catch (Exception e) {
+            lagMs = -1;
+            lastCheckTime = System.currentTimeMillis();
+            markUnavailable("检查副本延迟失败: " + e.getMessage());
+        } finally {
+            DBUtil.close(conn, ps, rs);
+        }
+    }
+
+    private void markUnavailable(String reason) {
+        if (available) {
+            System.err.println("只读副本不可用，查询请求回退到主库: " + reason);
+        }
+        available = false;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.javawebcurriculumdesign.util;
+
+import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.SM4Engine;
+import org.bouncycastle.crypto.modes.CBCBlockCipher;
+import org.bouncycastle.crypto.paddings.PKCS7Padding;
+import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * SM4加解密上下文（使用配置文件中的默认密钥）
+ * 每个线程持有一个上下文，通过current()获取，不能在线程之间共享。
+ * 上下文保存已完成密钥扩展的BouncyCastle加密、解密对象（SM4/CBC/PKCS7），每次加解密只重新设置IV，
+ * 连续处理多个字段时不再重复密钥扩展和创建密码对象；配置重新加载后，下次使用时重新读取密钥。
+ * 密文格式与SMUtil一致：随机IV密文为 "v2:" + Base64(IV + 密文)，旧数据为使用配置文件中固定IV的 Base64(密文)。
+ */
+public final class SM4Context {
+    // 随机IV密文的前缀，用于与旧的固定IV密文区分
+    static final String RANDOM_IV_PREFIX = "v2:";
+    private static final int BLOCK_SIZE = 16;
+
+    private static final ThreadLocal<SM4Context> CURRENT = ThreadLocal.withInitial(SM4Context::new);
+
+    private final PaddedBufferedBlockCipher encryptCipher = newCipher();
+    private final PaddedBufferedBlockCipher decryptCipher = newCipher();
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] fixedIv = new byte[BLOCK_SIZE];
+    private final byte[] iv = new byte[BLOCK_SIZE];
+    private int keyGeneration = -1;
+
+    private SM4Context() {
+    }
+
+    /**
+     * 获取当前线程的加解密上下文
+     * @return 加解密上下文
+     */
+    public static SM4Context current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * SM4加密（随机IV）
+     * @param plaintext 明文
+     * @return "v2:" + Base64(IV + 密文)，明文为null时返回null
+     */
+    public String encrypt(String plaintext) {
+        if (plaintext == null) {
+            return null;
+        }
+        return RANDOM_IV_PREFIX + Base64.getEncoder().encodeToString(encryptWithIv(plaintext));
+    }
+
+    /**
+     * SM4加密（随机IV），结果直接追加到调用方的缓冲区
+     * @param plaintext 明文，不能为null
+     * @param out 输出缓冲区，追加 "v2:" + Base64(IV + 密文)
+     */
+    public void encryptTo(String plaintext, StringBuilder out) {
+        out.append(RANDOM_IV_PREFIX).append(Base64.getEncoder().encodeToString(encryptWithIv(plaintext)));
+    }
+
+    /**
+     * SM4解密，兼容随机IV密文和旧的固定IV密文
+     * @param ciphertext 密文
+     * @return 明文，密文为null时返回null
+     * @throws IllegalArgumentException 不是有效的Base64编码，或随机IV密文不超过一个IV的长度
+     * @throws DataLengthException 密文长度不是分组长度的整数倍（如被截断）
+     * @throws InvalidCipherTextException 填充校验失败（密钥不匹配或密文被篡改）
+     */
+    public String decrypt(String ciphertext) throws InvalidCipherTextException {
+        if (ciphertext == null) {
+            return null;
+        }
+        ensureKey();
+
+        byte[] input;
+        int offset;
+        if (ciphertext.startsWith(RANDOM_IV_PREFIX)) {
+            input = Base64.getDecoder().decode(ciphertext.substring(RANDOM_IV_PREFIX.length()));
+            if (input.length <= BLOCK_SIZE) {
+                throw new IllegalArgumentException("密文长度不正确");
+            }
+            System.arraycopy(input, 0, iv, 0, BLOCK_SIZE);
+            offset = BLOCK_SIZE;
+        } else {
+            // 旧数据使用配置文件中的固定IV
+            input = Base64.getDecoder().decode(ciphertext);
+            System.arraycopy(fixedIv, 0, iv, 0, BLOCK_SIZE);
+            offset = 0;
+        }
+
+        // 只设置IV，沿用已扩展的密钥
+        decryptCipher.init(false, new ParametersWithIV(null, iv));
+        byte[] output = new byte[decryptCipher.getOutputSize(input.length - offset)];
+        int length = decryptCipher.processBytes(input, offset, input.length - offset, output, 0);
+        length += decryptCipher.doFinal(output, length);
+        return new String(output, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 使用随机IV加密
+     * @return IV + 密文
+     */
+    private byte[] encryptWithIv(String plaintext) {
+        ensureKey();
+        byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+
+        random.nextBytes(iv);
+        encryptCipher.init(true, new ParametersWithIV(null, iv));
+        byte[] output = new byte[BLOCK_SIZE + encryptCipher.getOutputSize(input.length)];
+        System.arraycopy(iv, 0, output, 0, BLOCK_SIZE);
+        try {
+            int length = encryptCipher.processBytes(input, 0, input.length, output, BLOCK_SIZE);
+            encryptCipher.doFinal(output, BLOCK_SIZE + length);
+        } catch (InvalidCipherTextException e) {
+            // 加密时PKCS7填充不会校验失败
+            throw new IllegalStateException("SM4加密失败", e);
+        }
+        return output;
+    }
+
+    /**
+     * 配置版本变化（首次使用或重新加载配置）时重新读取密钥并完成密钥扩展
+     */
+    private void ensureKey() {
+        int generation = CryptoConfig.getGeneration();
+        if (generation == keyGeneration) {
+            return;
+        }
+        byte[] key = CryptoConfig.getSM4Key();
+        System.arraycopy(CryptoConfig.getSM4IV(), 0, fixedIv, 0, BLOCK_SIZE);
+        encryptCipher.init(true, new ParametersWithIV(new KeyParameter(key), fixedIv));
+        decryptCipher.init(false, new ParametersWithIV(new KeyParameter(key), fixedIv));
+        Arrays.fill(key, (byte) 0);
+        keyGeneration = generation;
+    }
+
+    private static PaddedBufferedBlockCipher newCipher() {
+        return new PaddedBufferedBlockCipher(CBCBlockCipher.newInstance(new SM4Engine()), new PKCS7Padding());
+    }
+}
@@ -16,7 +16,14 @@ import org.bouncycastle.util.encoders.Hex;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.security.Security;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 /**
  * 国密算法工具类
@@ -24,6 +31,12 @@ import java.util.Base64;
  */
 public class SMUtil {
     
+    // 批量解密脱敏：记录数超过该值时拆分到线程池并行处理，否则在调用线程中依次处理
+    private static final int BULK_PARALLEL_THRESHOLD = 256;
+    // 并行处理时每个子任务最多处理的记录数
+    private static final int BULK_TASK_SIZE = 64;
+    private static ForkJoinPool bulkPool;
+    
     // 静态代码块，在类加载时注册BouncyCastle提供者
     static {
         Security.addProvider(new BouncyCastleProvider());
@@ -73,12 +86,102 @@ public class SMUtil {
     }
     
     /**
-     * SM4加密（使用配置文件中的默认密钥）
+     * 计算盲索引，用于在不解密的情况下对身份证号、手机号做等值查询
+     * 输入先去除首尾空白并转为大写（身份证号末位X不区分大小写）
+     * @param value 明文
+     * @return HMAC-SM3值的十六进制字符串
+     */
+    public static String blindIndex(String value) {
+        if (value == null) {
+            return null;
+        }
+        return hmacSM3(value.trim().toUpperCase(), CryptoConfig.getBlindIndexKey());
+    }
+    
+    /**
+     * SM4加密（使用配置文件中的默认密钥和随机IV）
+     * 每次加密生成新的IV，相同明文得到不同密文；等值查询请使用盲索引。
+     * 使用当前线程的SM4Context，不重复密钥扩展；连续加密多个字段时可直接使用SM4Context.current()。
      * @param plaintext 明文
-     * @return Base64编码的密文
+     * @return "v2:" + Base64(IV + 密文)
      */
     public static String sm4Encrypt(String plaintext) throws Exception {
-        return sm4Encrypt(plaintext, CryptoConfig.getSM4Key(), CryptoConfig.getSM4IV());
+        return SM4Context.current().encrypt(plaintext);
+    }
+    
+    /**
+     * 批量解密并脱敏
+     * 记录较多时拆分到专用的ForkJoin线程池并行处理，每个工作线程使用自己的SM4Context；
+     * 不超过阈值时在调用线程中依次处理，避免小列表的线程切换开销。方法返回时所有记录均已处理完。
+     * @param items 记录列表
+     * @param decryptAndMask 对单条记录解密并计算脱敏值的操作，同一条记录只会在一个线程中处理
+     */
+    public static <T> void decryptAndMaskAll(List<T> items, Consumer<? super T> decryptAndMask) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        
+        if (items.size() <= BULK_PARALLEL_THRESHOLD) {
+            for (T item : items) {
+                decryptAndMask.accept(item);
+            }
+            return;
+        }
+        
+        // 子任务按下标访问，非随机访问列表先复制
+        List<T> list = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        bulkPool().invoke(new BulkAction<>(list, 0, list.size(), decryptAndMask));
+    }
+    
+    /**
+     * 关闭批量解密线程池（应用停止时调用），之后再次批量处理时重新创建
+     */
+    public static synchronized void shutdownBulkPool() {
+        if (bulkPool != null) {
+            bulkPool.shutdown();
+            bulkPool = null;
+        }
+    }
+    
+    private static synchronized ForkJoinPool bulkPool() {
+        if (bulkPool == null) {
+            bulkPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("sm4-bulk-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return bulkPool;
+    }
+    
+    /**
+     * 批量解密脱敏的子任务，处理列表中 [from, to) 范围内的记录
+     */
+    private static class BulkAction<T> extends RecursiveAction {
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final Consumer<? super T> action;
+        
+        private BulkAction(List<T> items, int from, int to, Consumer<? super T> action) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= BULK_TASK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    action.accept(items.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BulkAction<>(items, from, mid, action), new BulkAction<>(items, mid, to, action));
+        }
     }
     
     /**
@@ -101,11 +204,12 @@ public class SMUtil {
     
     /**
      * SM4解密（使用配置文件中的默认密钥）
-     * @param ciphertext Base64编码的密文
+     * 兼容随机IV密文和旧的固定IV密文，使用当前线程的SM4Context
+     * @param ciphertext 密文
      * @return 明文
      */
     public static String sm4Decrypt(String ciphertext) throws Exception {
-        return sm4Decrypt(ciphertext, CryptoConfig.getSM4Key(), CryptoConfig.getSM4IV());
+        return SM4Context.current().decrypt(ciphertext);
     }
     
     /**
@@ -0,0 +1,14 @@
+-- 为已有数据库补充盲索引和脱敏值列（新建库的 init.sql 中已包含，此处均为幂等操作）
+
+ALTER TABLE public_appointment ADD COLUMN IF NOT EXISTS id_card_bidx VARCHAR(64);
+ALTER TABLE public_appointment ADD COLUMN IF NOT EXISTS phone_bidx VARCHAR(64);
+ALTER TABLE public_appointment ADD COLUMN IF NOT EXISTS id_card_masked VARCHAR(32);
+ALTER TABLE public_appointment ADD COLUMN IF NOT EXISTS phone_masked VARCHAR(32);
+
+ALTER TABLE official_appointment ADD COLUMN IF NOT EXISTS id_card_bidx VARCHAR(64);
+ALTER TABLE official_appointment ADD COLUMN IF NOT EXISTS phone_bidx VARCHAR(64);
+ALTER TABLE official_appointment ADD COLUMN IF NOT EXISTS id_card_masked VARCHAR(32);
+ALTER TABLE official_appointment ADD COLUMN IF NOT EXISTS phone_masked VARCHAR(32);
+
+CREATE INDEX IF NOT EXISTS idx_public_appointment_bidx ON public_appointment(id_card_bidx, phone_bidx);
+CREATE INDEX IF NOT EXISTS idx_official_appointment_bidx ON official_appointment(id_card_bidx, phone_bidx);
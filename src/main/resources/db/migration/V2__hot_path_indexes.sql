@@ -0,0 +1,26 @@
+-- 按实际查询形态建立的复合索引
+
+-- -------------------- 社会公众预约 --------------------
+-- 列表分页：ORDER BY apply_time DESC, appointment_id DESC，游标条件 (apply_time, appointment_id) < (?, ?)
+CREATE INDEX IF NOT EXISTS idx_public_appointment_apply ON public_appointment(apply_time DESC, appointment_id DESC);
+-- 按状态筛选的列表分页
+CREATE INDEX IF NOT EXISTS idx_public_appointment_status_apply ON public_appointment(status, apply_time DESC, appointment_id DESC);
+-- 按校区筛选（列表、校区统计）
+CREATE INDEX IF NOT EXISTS idx_public_appointment_campus_apply ON public_appointment(campus, apply_time DESC);
+-- 按预约进校时间范围查询（今日预约等）
+CREATE INDEX IF NOT EXISTS idx_public_appointment_visit ON public_appointment(visit_time);
+
+-- -------------------- 公务预约 --------------------
+CREATE INDEX IF NOT EXISTS idx_official_appointment_apply ON official_appointment(apply_time DESC, appointment_id DESC);
+CREATE INDEX IF NOT EXISTS idx_official_appointment_status_apply ON official_appointment(status, apply_time DESC, appointment_id DESC);
+-- 部门管理员查看本部门预约（可附带状态筛选）
+CREATE INDEX IF NOT EXISTS idx_official_appointment_dept_status_apply ON official_appointment(visit_dept_id, status, apply_time DESC, appointment_id DESC);
+CREATE INDEX IF NOT EXISTS idx_official_appointment_campus_apply ON official_appointment(campus, apply_time DESC);
+CREATE INDEX IF NOT EXISTS idx_official_appointment_visit ON official_appointment(visit_time);
+
+-- -------------------- 系统日志 --------------------
+-- 日志列表、时间范围查询：ORDER BY operation_time DESC
+CREATE INDEX IF NOT EXISTS idx_system_log_time ON system_log(operation_time DESC);
+-- 按管理员、操作类型筛选
+CREATE INDEX IF NOT EXISTS idx_system_log_admin_time ON system_log(admin_id, operation_time DESC);
+CREATE INDEX IF NOT EXISTS idx_system_log_operation_time ON system_log(operation, operation_time DESC);
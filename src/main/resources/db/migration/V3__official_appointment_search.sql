@@ -0,0 +1,65 @@
+-- 公务预约按单位、接待人检索
+-- organization LIKE '%x%' 这类前置通配符条件无法使用B-tree索引，检索时需要全表扫描。
+-- 优先使用 pg_trgm 的GIN索引（数据库支持且有权限安装扩展时）；
+-- 同时维护二元组副表作为不支持 pg_trgm 时的检索索引（如OpenGauss默认不提供该扩展）。
+
+-- -------------------- pg_trgm GIN索引（可选） --------------------
+-- 扩展不可用或没有权限时跳过，检索自动改用二元组副表
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    CREATE INDEX idx_official_appointment_org_trgm ON official_appointment USING gin (organization gin_trgm_ops);
+    CREATE INDEX idx_official_appointment_contact_trgm ON official_appointment USING gin (visit_contact gin_trgm_ops);
+EXCEPTION WHEN OTHERS THEN
+    RAISE NOTICE 'pg_trgm 不可用，公务预约检索使用二元组副表: %', SQLERRM;
+END
+$$;
+
+-- -------------------- 二元组副表 --------------------
+-- 每条预约的单位（O）、接待人（C）按小写后相邻两个字符拆分，检索时要求关键字的全部二元组都命中
+CREATE TABLE IF NOT EXISTS official_appointment_search_gram (
+    gram VARCHAR(16) NOT NULL,
+    field CHAR(1) NOT NULL,
+    appointment_id INTEGER NOT NULL,
+    PRIMARY KEY (gram, field, appointment_id)
+);
+-- 预约修改、删除时按预约ID清理
+CREATE INDEX IF NOT EXISTS idx_official_search_gram_appointment ON official_appointment_search_gram(appointment_id);
+
+-- 拆分二元组（去重）
+CREATE OR REPLACE FUNCTION official_appointment_grams(value TEXT) RETURNS SETOF TEXT AS $$
+    SELECT DISTINCT substr(lower(value), i, 2) FROM generate_series(1, char_length(value) - 1) AS i
+$$ LANGUAGE sql IMMUTABLE;
+
+-- 预约新增、删除或单位、接待人变化时同步副表
+CREATE OR REPLACE FUNCTION official_appointment_search_sync() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW.organization IS NOT DISTINCT FROM OLD.organization
+            AND NEW.visit_contact IS NOT DISTINCT FROM OLD.visit_contact THEN
+        RETURN NEW;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        DELETE FROM official_appointment_search_gram WHERE appointment_id = OLD.appointment_id;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    INSERT INTO official_appointment_search_gram (gram, field, appointment_id)
+        SELECT official_appointment_grams(NEW.organization), 'O', NEW.appointment_id
+        UNION ALL
+        SELECT official_appointment_grams(NEW.visit_contact), 'C', NEW.appointment_id;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_official_appointment_search ON official_appointment;
+CREATE TRIGGER trg_official_appointment_search
+    AFTER INSERT OR UPDATE OR DELETE ON official_appointment
+    FOR EACH ROW EXECUTE PROCEDURE official_appointment_search_sync();
+
+-- 为已有预约生成二元组
+DELETE FROM official_appointment_search_gram;
+INSERT INTO official_appointment_search_gram (gram, field, appointment_id)
+    SELECT official_appointment_grams(organization), 'O', appointment_id FROM official_appointment
+    UNION ALL
+    SELECT official_appointment_grams(visit_contact), 'C', appointment_id FROM official_appointment;
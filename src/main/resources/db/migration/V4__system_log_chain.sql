@@ -0,0 +1,32 @@
+-- 系统日志哈希链和签名检查点
+-- 每条日志分配连续的链序号，日志哈希同时覆盖前一条日志的哈希，删除或插入日志都会使链断开；
+-- 检查点对一段日志的结尾哈希签名，校验时只需重新计算最后一个可信检查点之后的日志。
+-- 已有日志的 chain_seq 为空，仍按原方式逐条校验。
+
+ALTER TABLE system_log ADD COLUMN IF NOT EXISTS chain_seq BIGINT;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_system_log_chain_seq ON system_log(chain_seq);
+
+-- 链头：最后一条日志的链序号和哈希，写入日志时锁定该行，保证多实例下链序号连续
+CREATE TABLE IF NOT EXISTS system_log_chain_head (
+    head_id INTEGER PRIMARY KEY CHECK (head_id = 1),
+    last_seq BIGINT NOT NULL,
+    last_hash VARCHAR(64) NOT NULL
+);
+
+INSERT INTO system_log_chain_head (head_id, last_seq, last_hash)
+    SELECT 1, 0, '0000000000000000000000000000000000000000000000000000000000000000'
+    WHERE NOT EXISTS (SELECT 1 FROM system_log_chain_head);
+
+-- 检查点：覆盖 (上一检查点的end_seq, end_seq] 区间，签名同时覆盖上一检查点的签名
+CREATE TABLE IF NOT EXISTS system_log_checkpoint (
+    checkpoint_id SERIAL PRIMARY KEY,
+    start_seq BIGINT NOT NULL,
+    end_seq BIGINT NOT NULL UNIQUE,
+    end_hash VARCHAR(64) NOT NULL,
+    signature VARCHAR(64) NOT NULL,
+    create_time TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON COLUMN system_log.chain_seq IS '日志链序号';
+COMMENT ON TABLE system_log_chain_head IS '系统日志链头';
+COMMENT ON TABLE system_log_checkpoint IS '系统日志签名检查点';
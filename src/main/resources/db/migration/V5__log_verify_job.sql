@@ -0,0 +1,29 @@
+-- 系统日志后台校验任务
+-- 校验任务在后台流式遍历日志并行计算哈希，只保存校验失败的日志，进度定期写回任务表供任意实例查询
+
+CREATE TABLE IF NOT EXISTS log_verify_job (
+    job_id SERIAL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,                          -- 状态(PENDING/RUNNING/COMPLETED/FAILED)
+    range_start TIMESTAMP WITHOUT TIME ZONE,              -- 校验的操作时间起点（为空表示不限）
+    range_end TIMESTAMP WITHOUT TIME ZONE,                -- 校验的操作时间终点（为空表示不限）
+    requested_by INTEGER,                                 -- 发起人ID
+    total_count BIGINT,                                   -- 开始时统计的待校验日志数
+    checked_count BIGINT NOT NULL DEFAULT 0,              -- 已校验日志数
+    failed_count BIGINT NOT NULL DEFAULT 0,               -- 校验失败日志数
+    error_message TEXT,                                   -- 任务异常终止的原因
+    create_time TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    start_time TIMESTAMP WITHOUT TIME ZONE,
+    finish_time TIMESTAMP WITHOUT TIME ZONE,
+    FOREIGN KEY (requested_by) REFERENCES admin(admin_id)
+);
+
+CREATE TABLE IF NOT EXISTS log_verify_failure (
+    job_id INTEGER NOT NULL REFERENCES log_verify_job(job_id) ON DELETE CASCADE,
+    log_id INTEGER NOT NULL,                              -- 校验失败的日志ID
+    chain_seq BIGINT,                                     -- 日志链序号
+    reason VARCHAR(20) NOT NULL,                          -- 失败原因(HASH_MISMATCH/MISSING_PREV)
+    PRIMARY KEY (job_id, log_id)
+);
+
+COMMENT ON TABLE log_verify_job IS '系统日志校验任务表';
+COMMENT ON TABLE log_verify_failure IS '系统日志校验失败记录表';
@@ -0,0 +1,43 @@
+-- 试运行模式下用于对比迁移前后执行计划的典型查询（与DAO中的查询形态保持一致）
+
+-- 公众预约列表分页（带游标）
+SELECT * FROM public_appointment WHERE 1=1 AND status = 'APPROVED'
+    AND (apply_time, appointment_id) < (CURRENT_TIMESTAMP, 2147483647)
+    ORDER BY apply_time DESC, appointment_id DESC LIMIT 21;
+
+-- 公务预约部门列表分页
+SELECT o.*, a.real_name AS approver_name
+    FROM official_appointment o
+    LEFT JOIN admin a ON o.approver_id = a.admin_id
+    WHERE 1=1 AND o.visit_dept_id = 1 AND o.status = 'PENDING'
+    ORDER BY o.apply_time DESC, o.appointment_id DESC LIMIT 21;
+
+-- 最近预约（按预约时间倒序取前N条）
+SELECT * FROM public_appointment ORDER BY visit_time DESC LIMIT 10;
+
+-- 今日预约数量
+SELECT COUNT(*) FROM public_appointment WHERE visit_time >= CURRENT_DATE AND visit_time < CURRENT_DATE + 1;
+
+-- 按校区统计
+SELECT campus, COUNT(*) FROM official_appointment o WHERE 1=1 AND o.apply_time >= CURRENT_DATE - 30 GROUP BY campus;
+
+-- 自助查询（盲索引）
+SELECT * FROM public_appointment WHERE id_card_bidx = '0' AND phone_bidx = '0' ORDER BY apply_time DESC;
+
+-- 日志时间范围查询
+SELECT l.*, a.real_name AS admin_name FROM system_log l
+    LEFT JOIN admin a ON l.admin_id = a.admin_id
+    WHERE 1=1 AND l.operation_time >= CURRENT_DATE - 7
+    ORDER BY l.operation_time DESC;
+
+-- 公务预约按单位检索（二元组副表预筛选后按关键字复核）
+SELECT o.appointment_id FROM official_appointment o
+    WHERE o.appointment_id IN (SELECT appointment_id FROM official_appointment_search_gram
+        WHERE field = 'O' AND gram IN ('科技', '技有') GROUP BY appointment_id HAVING COUNT(*) = 2)
+    AND o.organization ILIKE '%科技有%';
+
+-- 日志链校验（最后一个检查点之后的日志，按链序号关联前一条日志）
+SELECT l.*, p.log_hash AS prev_hash FROM system_log l
+    LEFT JOIN system_log p ON p.chain_seq = l.chain_seq - 1
+    WHERE l.chain_seq > 0 AND l.chain_seq <= 100000
+    ORDER BY l.chain_seq;
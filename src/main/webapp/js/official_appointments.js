@@ -3,6 +3,9 @@ let currentAppointmentId = null;
 let currentPage = 1;
 let pageSize = 10;
 let totalPages = 0;
+let hasMore = false;
+let pageCursors = [''];  // pageCursors[i] 为第 i+1 页的起始游标
+const STATUS_CODES = ['PENDING', 'APPROVED', 'REJECTED', 'CANCELLED', 'COMPLETED'];
 
 // 页面加载时执行
 document.addEventListener('DOMContentLoaded', function() {
@@ -77,15 +80,21 @@ function loadAppointments(searchTerm = '', statusFilter = '', departmentFilter =
     }
     
     if (statusFilter) {
-        queryParams.push(`status=${encodeURIComponent(statusFilter)}`);
+        queryParams.push(`status=${encodeURIComponent(STATUS_CODES[statusFilter] || statusFilter)}`);
     }
     
     if (dateFilter) {
         queryParams.push(`date=${encodeURIComponent(dateFilter)}`);
     }
     
-    queryParams.push(`page=${currentPage}`);
-    queryParams.push(`size=${pageSize}`);
+    const cursor = pageCursors[currentPage - 1];
+    if (cursor) {
+        queryParams.push(`cursor=${encodeURIComponent(cursor)}`);
+    } else {
+        // 仅在第一页请求近似总数
+        queryParams.push('withTotal=true');
+    }
+    queryParams.push(`limit=${pageSize}`);
     
     if (queryParams.length > 0) {
         url += '?' + queryParams.join('&');
@@ -98,14 +107,24 @@ function loadAppointments(searchTerm = '', statusFilter = '', departmentFilter =
             const tbody = document.getElementById('appointments-table-body');
             tbody.innerHTML = '';
             
-            if (!data || data.length === 0) {
+            const appointments = (data && data.appointments) || [];
+            hasMore = !!(data && data.hasMore);
+            pageCursors[currentPage] = hasMore ? data.nextCursor : undefined;
+            if (data && data.approxTotal !== undefined) {
+                totalPages = Math.max(1, Math.ceil(data.approxTotal / pageSize));
+            }
+            
+            if (appointments.length === 0) {
                 tbody.innerHTML = '<tr><td colspan="8" style="text-align: center;">暂无预约数据</td></tr>';
                 return;
             }
             
-            // 假设后端返回了总页数
-            // totalPages = data.totalPages;
-            totalPages = Math.ceil(data.length / pageSize);
+            // 近似总数可能偏小，以实际是否有下一页为准
+            if (hasMore && totalPages <= currentPage) {
+                totalPages = currentPage + 1;
+            } else if (!hasMore) {
+                totalPages = currentPage;
+            }
             
             // 获取部门名称映射
             const departmentNames = {};
@@ -122,7 +141,7 @@ function loadAppointments(searchTerm = '', statusFilter = '', departmentFilter =
             }
             
             // 显示预约数据
-            data.forEach(appointment => {
+            appointments.forEach(appointment => {
                 const tr = document.createElement('tr');
                 
                 // 构建状态标签
@@ -232,8 +251,11 @@ function updatePagination() {
     
     for (let i = startPage; i <= endPage; i++) {
         const pageButton = document.createElement('button');
-        pageButton.className = 'btn' + (i === currentPage ? ' btn-primary' : '');
+        // 游标分页只能跳转到已访问过的页或紧邻的下一页
+        const reachable = pageCursors[i - 1] !== undefined;
+        pageButton.className = 'btn' + (i === currentPage ? ' btn-primary' : '') + (reachable ? '' : ' disabled');
         pageButton.textContent = i;
+        pageButton.disabled = !reachable;
         pageButton.addEventListener('click', () => {
             currentPage = i;
             loadAppointments(
@@ -248,11 +270,11 @@ function updatePagination() {
     
     // 下一页按钮
     const nextButton = document.createElement('button');
-    nextButton.className = 'btn' + (currentPage === totalPages ? ' disabled' : '');
+    nextButton.className = 'btn' + (!hasMore ? ' disabled' : '');
     nextButton.textContent = '下一页';
-    nextButton.disabled = currentPage === totalPages;
+    nextButton.disabled = !hasMore;
     nextButton.addEventListener('click', () => {
-        if (currentPage < totalPages) {
+        if (hasMore) {
             currentPage++;
             loadAppointments(
                 document.getElementById('search-input').value,
@@ -269,6 +291,8 @@ function updatePagination() {
 function searchAppointments() {
     const searchTerm = document.getElementById('search-input').value;
     currentPage = 1;
+    pageCursors = [''];
+    totalPages = 0;
     loadAppointments(
         searchTerm,
         document.getElementById('status-filter').value,
@@ -283,6 +307,8 @@ function filterAppointments() {
     const departmentFilter = document.getElementById('department-filter')?.value;
     const dateFilter = document.getElementById('date-filter').value;
     currentPage = 1;
+    pageCursors = [''];
+    totalPages = 0;
     loadAppointments(
         document.getElementById('search-input').value,
         statusFilter,
@@ -0,0 +1,225 @@
+package com.example.javawebcurriculumdesign.util;
+
+import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SM4Context测试
+ * 以SMUtil中指定密钥和IV的方法（每次创建BouncyCastle密码对象）为参照，
+ * 校验两种密文格式双向兼容，以及解密失败时抛出的异常与原来相同。
+ * 密钥来自src/test/resources/crypto.properties。
+ */
+class SM4ContextTest {
+
+    private static final String[] PLAINTEXTS = {
+            "",                                             // 空串，只有一个填充块
+            "a",                                            // 单块
+            "110101199003071234",                           // 身份证号，两块
+            "0123456789abcdef",                             // 恰好一块，填充为完整一块
+            "0123456789abcdef0123456789abcdef",             // 恰好两块
+            "张三丰",                                        // 三字节UTF-8字符
+            "北京市海淀区中关村大街1号，联系人：李四 13800138000", // 多块，中英文混合
+            "表情😀和ü",                                     // 四字节和两字节UTF-8字符
+            "孤立代理\uD800字符",                              // 不成对的代理字符，按String.getBytes编码为'?'
+            repeat("预约数据", 1500)                          // 超过保留缓冲区大小
+    };
+
+    @Test
+    void encryptThenDecryptRoundTrips() throws Exception {
+        SM4Context context = SM4Context.current();
+        for (String plaintext : PLAINTEXTS) {
+            String ciphertext = context.encrypt(plaintext);
+            assertTrue(ciphertext.startsWith(SM4Context.RANDOM_IV_PREFIX), plaintext);
+            assertEquals(normalized(plaintext), context.decrypt(ciphertext), plaintext);
+        }
+    }
+
+    @Test
+    void encryptUsesRandomIv() {
+        SM4Context context = SM4Context.current();
+        assertNotEquals(context.encrypt("110101199003071234"), context.encrypt("110101199003071234"));
+    }
+
+    @Test
+    void encryptToAppendsToBuffer() throws Exception {
+        SM4Context context = SM4Context.current();
+        StringBuilder out = new StringBuilder("id=");
+        context.encryptTo("110101199003071234", out);
+        assertTrue(out.toString().startsWith("id=" + SM4Context.RANDOM_IV_PREFIX));
+        assertEquals("110101199003071234", context.decrypt(out.substring(3)));
+    }
+
+    @Test
+    void nullPassesThrough() throws Exception {
+        assertNull(SM4Context.current().encrypt(null));
+        assertNull(SM4Context.current().decrypt(null));
+    }
+
+    @Test
+    void randomIvCiphertextMatchesBouncyCastle() throws Exception {
+        SM4Context context = SM4Context.current();
+        for (String plaintext : PLAINTEXTS) {
+            // SM4Context加密，BouncyCastle解密
+            byte[] data = Base64.getDecoder().decode(
+                    context.encrypt(plaintext).substring(SM4Context.RANDOM_IV_PREFIX.length()));
+            byte[] iv = Arrays.copyOfRange(data, 0, 16);
+            String body = Base64.getEncoder().encodeToString(Arrays.copyOfRange(data, 16, data.length));
+            assertEquals(normalized(plaintext), SMUtil.sm4Decrypt(body, CryptoConfig.getSM4Key(), iv), plaintext);
+
+            // BouncyCastle加密，SM4Context解密
+            assertEquals(normalized(plaintext), context.decrypt(referenceEncrypt(plaintext)), plaintext);
+        }
+    }
+
+    @Test
+    void legacyFixedIvCiphertextMatchesBouncyCastle() throws Exception {
+        SM4Context context = SM4Context.current();
+        for (String plaintext : PLAINTEXTS) {
+            String legacy = SMUtil.sm4Encrypt(plaintext, CryptoConfig.getSM4Key(), CryptoConfig.getSM4IV());
+            assertEquals(normalized(plaintext), context.decrypt(legacy), plaintext);
+            assertEquals(normalized(plaintext), SMUtil.sm4Decrypt(legacy), plaintext);
+        }
+    }
+
+    @Test
+    void smUtilDelegatesToContext() throws Exception {
+        for (String plaintext : PLAINTEXTS) {
+            String ciphertext = SMUtil.sm4Encrypt(plaintext);
+            assertEquals(normalized(plaintext), SMUtil.sm4Decrypt(ciphertext), plaintext);
+            assertEquals(normalized(plaintext), referenceDecrypt(ciphertext), plaintext);
+        }
+    }
+
+    @Test
+    void failedDecryptDoesNotAffectNextCall() throws Exception {
+        SM4Context context = SM4Context.current();
+        String ciphertext = context.encrypt("110101199003071234");
+        assertThrows(InvalidCipherTextException.class, () -> context.decrypt(encode(new byte[16])));
+        assertThrows(DataLengthException.class, () -> context.decrypt(encode(new byte[15])));
+        assertEquals("110101199003071234", context.decrypt(ciphertext));
+        assertEquals("张三丰", context.decrypt(context.encrypt("张三丰")));
+    }
+
+    @Test
+    void keyIsReloadedAfterConfigReload() throws Exception {
+        String ciphertext = SMUtil.sm4Encrypt("110101199003071234");
+        CryptoConfig.reloadConfig();
+        assertEquals("110101199003071234", SMUtil.sm4Decrypt(ciphertext));
+    }
+
+    @Test
+    void truncatedCiphertextFailsLikeBouncyCastle() throws Exception {
+        String legacy = SMUtil.sm4Encrypt("110101199003071234", CryptoConfig.getSM4Key(), CryptoConfig.getSM4IV());
+        byte[] data = Base64.getDecoder().decode(
+                SMUtil.sm4Encrypt("110101199003071234").substring(SM4Context.RANDOM_IV_PREFIX.length()));
+
+        String[] truncated = {
+                "",
+                encode(new byte[15]),
+                legacy.substring(0, legacy.length() - 4),
+                SM4Context.RANDOM_IV_PREFIX + encode(Arrays.copyOf(data, 20)),
+                SM4Context.RANDOM_IV_PREFIX + encode(Arrays.copyOf(data, data.length - 1))
+        };
+        for (String ciphertext : truncated) {
+            assertThrows(DataLengthException.class, () -> SMUtil.sm4Decrypt(ciphertext), ciphertext);
+            assertSameFailure(ciphertext);
+        }
+
+        // 随机IV密文不超过一个IV的长度
+        for (String ciphertext : new String[]{SM4Context.RANDOM_IV_PREFIX, SM4Context.RANDOM_IV_PREFIX + encode(new byte[16])}) {
+            assertThrows(IllegalArgumentException.class, () -> SMUtil.sm4Decrypt(ciphertext), ciphertext);
+            assertSameFailure(ciphertext);
+        }
+    }
+
+    @Test
+    void badPaddingFailsLikeBouncyCastle() throws Exception {
+        byte[] data = Base64.getDecoder().decode(
+                SMUtil.sm4Encrypt("110101199003071234").substring(SM4Context.RANDOM_IV_PREFIX.length()));
+        byte[] tampered = data.clone();
+        tampered[tampered.length - 1] ^= 1;
+
+        String[] badPadding = {
+                encode(new byte[16]),
+                encode(new byte[48]),
+                SM4Context.RANDOM_IV_PREFIX + encode(new byte[32]),
+                SM4Context.RANDOM_IV_PREFIX + encode(tampered)
+        };
+        for (String ciphertext : badPadding) {
+            assertThrows(InvalidCipherTextException.class, () -> SMUtil.sm4Decrypt(ciphertext), ciphertext);
+            assertSameFailure(ciphertext);
+        }
+    }
+
+    @Test
+    void malformedBase64FailsLikeBouncyCastle() {
+        String[] malformed = {
+                "abc!", "Q", "QQ=", "QUJD\nREVG", "====", "QUJDRA===", "预约",
+                SM4Context.RANDOM_IV_PREFIX + "@@@@", SM4Context.RANDOM_IV_PREFIX + "Q"
+        };
+        for (String ciphertext : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> SMUtil.sm4Decrypt(ciphertext), ciphertext);
+            assertSameFailure(ciphertext);
+        }
+    }
+
+    /**
+     * 断言SM4Context与原实现对同一密文抛出相同类型的异常
+     */
+    private static void assertSameFailure(String ciphertext) {
+        Exception expected = assertThrows(Exception.class, () -> referenceDecrypt(ciphertext), ciphertext);
+        Exception actual = assertThrows(Exception.class, () -> SM4Context.current().decrypt(ciphertext), ciphertext);
+        assertEquals(expected.getClass(), actual.getClass(), ciphertext);
+    }
+
+    /**
+     * 原来的默认密钥加密：随机IV + BouncyCastle CBC/PKCS7
+     */
+    private static String referenceEncrypt(String plaintext) throws Exception {
+        byte[] iv = new byte[16];
+        new java.security.SecureRandom().nextBytes(iv);
+        byte[] body = Base64.getDecoder().decode(SMUtil.sm4Encrypt(plaintext, CryptoConfig.getSM4Key(), iv));
+        byte[] data = new byte[iv.length + body.length];
+        System.arraycopy(iv, 0, data, 0, iv.length);
+        System.arraycopy(body, 0, data, iv.length, body.length);
+        return SM4Context.RANDOM_IV_PREFIX + encode(data);
+    }
+
+    /**
+     * 原来的默认密钥解密（改用SM4Context之前的SMUtil.sm4Decrypt）
+     */
+    private static String referenceDecrypt(String ciphertext) throws Exception {
+        if (!ciphertext.startsWith(SM4Context.RANDOM_IV_PREFIX)) {
+            return SMUtil.sm4Decrypt(ciphertext, CryptoConfig.getSM4Key(), CryptoConfig.getSM4IV());
+        }
+        byte[] input = Base64.getDecoder().decode(ciphertext.substring(SM4Context.RANDOM_IV_PREFIX.length()));
+        if (input.length <= 16) {
+            throw new IllegalArgumentException("密文长度不正确");
+        }
+        byte[] iv = Arrays.copyOfRange(input, 0, 16);
+        return SMUtil.sm4Decrypt(encode(Arrays.copyOfRange(input, 16, input.length)), CryptoConfig.getSM4Key(), iv);
+    }
+
+    private static String normalized(String plaintext) {
+        return new String(plaintext.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static String encode(byte[] data) {
+        return Base64.getEncoder().encodeToString(data);
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder sb = new StringBuilder(value.length() * count);
+        for (int i = 0; i < count; i++) {
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+}